@@ -2,9 +2,12 @@ package doodle.qa.com.svccalendarqa.config;
 
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
@@ -35,12 +38,19 @@ public class KafkaConfig {
   private final ConsumerFactory<String, Object> consumerFactory;
 
   /**
-   * Creates a Kafka listener container factory with error handling.
+   * Creates a Kafka listener container factory with error handling. Consumers run on virtual
+   * threads when the virtual-thread execution mode is enabled.
    *
+   * @param virtualThreads whether the virtual-thread execution mode is enabled
+   * @param applicationTaskExecutor the application task executor, which runs virtual threads when
+   *     the mode is enabled
    * @return the Kafka listener container factory
    */
   @Bean
-  public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+  public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+      @Value("${threads.virtual.enabled:false}") boolean virtualThreads,
+      @Qualifier("applicationTaskExecutor")
+          ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor) {
     ConcurrentKafkaListenerContainerFactory<String, Object> factory =
         new ConcurrentKafkaListenerContainerFactory<>();
     factory.setConsumerFactory(consumerFactory);
@@ -49,6 +59,9 @@ public class KafkaConfig {
         .getContainerProperties()
         .setAckMode(
             org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+    if (virtualThreads) {
+      factory.getContainerProperties().setListenerTaskExecutor(applicationTaskExecutor.getObject());
+    }
     return factory;
   }
 
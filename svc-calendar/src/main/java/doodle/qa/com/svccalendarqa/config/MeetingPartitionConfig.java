@@ -0,0 +1,29 @@
+package doodle.qa.com.svccalendarqa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for the monthly partition maintenance of the {@code meetings} table. Only active
+ * when {@code calendar.partitions.enabled} is true, since it relies on PostgreSQL partitioning.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "calendar.partitions", name = "enabled", havingValue = "true")
+public class MeetingPartitionConfig {
+
+  @Bean
+  public MeetingPartitionMaintenance meetingPartitionMaintenance(
+      JdbcTemplate jdbcTemplate,
+      @Value("${calendar.partitions.months-ahead:3}") int monthsAhead,
+      @Value("${calendar.partitions.retention-months:24}") int retentionMonths,
+      @Value("${calendar.partitions.expired-action:DETACH}")
+          MeetingPartitionMaintenance.ExpiredAction expiredAction) {
+    return new MeetingPartitionMaintenance(
+        jdbcTemplate, monthsAhead, retentionMonths, expiredAction);
+  }
+}
@@ -0,0 +1,134 @@
+package doodle.qa.com.svccalendarqa.config;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Maintains the monthly partitions of the {@code meetings} table. Partitions for the current and
+ * the next {@code monthsAhead} months are created in advance, and partitions that ended more than
+ * {@code retentionMonths} months ago are detached, or dropped when configured to.
+ *
+ * <p>Every node runs the maintenance. The database functions {@code create_meetings_partition} and
+ * {@code expire_meetings_partition} serialize on the same transaction-level advisory lock, so a
+ * node that runs concurrently with another one waits and then finds the partition already created
+ * or expired instead of failing on {@code CREATE TABLE} or moving rows out of {@code
+ * meetings_default} twice.
+ *
+ * <p>The tests run on H2 and do not exercise these functions. To check the locking on PostgreSQL,
+ * start the database with {@code docker compose up -d}, open two {@code psql} sessions and run
+ * {@code BEGIN; SELECT create_meetings_partition(DATE '2030-01-01');} in the first and {@code
+ * SELECT create_meetings_partition(DATE '2030-01-01');} in the second. The second session blocks
+ * until the first one commits and then returns the existing partition. Done the same way with
+ * {@code SELECT expire_meetings_partition('meetings_p2030_01', false);}, the second session returns
+ * {@code f}.
+ */
+@Slf4j
+public class MeetingPartitionMaintenance {
+
+  /** What to do with partitions that fall out of the retention window. */
+  public enum ExpiredAction {
+    /** Detach the partition from {@code meetings} but keep it as a standalone table. */
+    DETACH,
+    /** Detach and drop the partition. */
+    DROP
+  }
+
+  private static final Pattern PARTITION_NAME = Pattern.compile("meetings_p(\\d{4})_(\\d{2})");
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private static final String PARTITIONS_QUERY =
+      "SELECT c.relname FROM pg_inherits i"
+          + " JOIN pg_class c ON c.oid = i.inhrelid"
+          + " JOIN pg_class p ON p.oid = i.inhparent"
+          + " WHERE p.relname = 'meetings'";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private final ExpiredAction expiredAction;
+
+  public MeetingPartitionMaintenance(
+      JdbcTemplate jdbcTemplate,
+      int monthsAhead,
+      int retentionMonths,
+      ExpiredAction expiredAction) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.expiredAction = expiredAction;
+  }
+
+  /** Run the maintenance once the application has started and then on the configured schedule. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${calendar.partitions.cron:0 0 3 * * *}")
+  public void maintainPartitions() {
+    try {
+      maintainPartitions(LocalDate.now());
+    } catch (Exception e) {
+      log.error("Meeting partition maintenance failed", e);
+    }
+  }
+
+  /**
+   * Create upcoming partitions and expire old ones relative to the given day.
+   *
+   * @param today the reference day
+   * @return the names of the partitions that were expired
+   */
+  public List<String> maintainPartitions(LocalDate today) {
+    YearMonth currentMonth = YearMonth.from(today);
+    for (int i = 0; i <= monthsAhead; i++) {
+      String partition =
+          jdbcTemplate.queryForObject(
+              "SELECT create_meetings_partition(?)",
+              String.class,
+              currentMonth.plusMonths(i).atDay(1));
+      log.debug("Meeting partition {} is present", partition);
+    }
+
+    YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths);
+    List<String> expired = new ArrayList<>();
+    for (String partition : jdbcTemplate.queryForList(PARTITIONS_QUERY, String.class)) {
+      Matcher matcher = PARTITION_NAME.matcher(partition);
+      if (!matcher.matches()) {
+        continue;
+      }
+      YearMonth month =
+          YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+      if (month.isBefore(oldestRetained) && expirePartition(partition)) {
+        expired.add(partition);
+      }
+    }
+
+    log.info(
+        "Meeting partitions maintained up to {}, {} partition(s) before {} expired",
+        currentMonth.plusMonths(monthsAhead).format(PARTITION_SUFFIX),
+        expired.size(),
+        oldestRetained.format(PARTITION_SUFFIX));
+    return expired;
+  }
+
+  private boolean expirePartition(String partition) {
+    boolean drop = expiredAction == ExpiredAction.DROP;
+    Boolean expired =
+        jdbcTemplate.queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, partition, drop);
+    if (!Boolean.TRUE.equals(expired)) {
+      log.debug("Meeting partition {} was already expired by another node", partition);
+      return false;
+    }
+    log.info("{} expired meeting partition {}", drop ? "Dropped" : "Detached", partition);
+    return true;
+  }
+}
@@ -0,0 +1,65 @@
+package doodle.qa.com.svccalendarqa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource that sends read-only transactions to the replica pool and everything else to the
+ * primary. Read-only transactions fall back to the primary while the replica lags behind. Every
+ * decision is counted in the {@code datasource.routing} metric, tagged by target and reason.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  /** Routing targets. */
+  public enum Route {
+    PRIMARY,
+    REPLICA
+  }
+
+  /** Reasons for a routing decision. */
+  enum Reason {
+    READ_WRITE,
+    READ_ONLY,
+    REPLICA_LAGGING
+  }
+
+  private final ReplicaLagMonitor lagMonitor;
+  private final Map<Reason, Counter> decisions = new EnumMap<>(Reason.class);
+
+  public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+    this.lagMonitor = lagMonitor;
+    registerCounter(meterRegistry, Reason.READ_WRITE, Route.PRIMARY);
+    registerCounter(meterRegistry, Reason.READ_ONLY, Route.REPLICA);
+    registerCounter(meterRegistry, Reason.REPLICA_LAGGING, Route.PRIMARY);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return route(Reason.READ_WRITE, Route.PRIMARY);
+    }
+    if (!lagMonitor.isReplicaUsable()) {
+      return route(Reason.REPLICA_LAGGING, Route.PRIMARY);
+    }
+    return route(Reason.READ_ONLY, Route.REPLICA);
+  }
+
+  private Route route(Reason reason, Route route) {
+    decisions.get(reason).increment();
+    return route;
+  }
+
+  private void registerCounter(MeterRegistry meterRegistry, Reason reason, Route route) {
+    decisions.put(
+        reason,
+        Counter.builder("datasource.routing")
+            .description("Connections routed to the primary or replica pool")
+            .tag("target", route.name().toLowerCase())
+            .tag("reason", reason.name().toLowerCase())
+            .register(meterRegistry));
+  }
+}
@@ -1,5 +1,8 @@
 package doodle.qa.com.svccalendarqa.config;
 
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -9,12 +12,19 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
   /**
-   * Creates a RestTemplate bean.
+   * Creates a RestTemplate bean. Timeouts bound how long a request waits on a slow provider; in
+   * virtual-thread mode the waiting request only parks its virtual thread.
    *
+   * @param builder the RestTemplate builder
+   * @param connectTimeout the connect timeout
+   * @param readTimeout the read timeout
    * @return the RestTemplate bean
    */
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public RestTemplate restTemplate(
+      RestTemplateBuilder builder,
+      @Value("${provider.service.connect-timeout:PT2S}") Duration connectTimeout,
+      @Value("${provider.service.read-timeout:PT5S}") Duration readTimeout) {
+    return builder.setConnectTimeout(connectTimeout).setReadTimeout(readTimeout).build();
   }
 }
@@ -0,0 +1,62 @@
+package doodle.qa.com.svccalendarqa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Configuration for the opt-in virtual-thread execution mode. When {@code threads.virtual.enabled}
+ * is true, Tomcat handles every request on its own virtual thread instead of a bounded platform
+ * thread pool, so requests blocked on JDBC or provider calls no longer cap concurrency. Kafka
+ * listener containers run their consumers on virtual threads as well. Requires Java 21 or newer at
+ * runtime.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "threads.virtual", name = "enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+  /** Minimum Java feature version providing virtual threads. */
+  private static final int MIN_JAVA_VERSION = 21;
+
+  public VirtualThreadConfig() {
+    if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+      throw new IllegalStateException(
+          "threads.virtual.enabled requires Java "
+              + MIN_JAVA_VERSION
+              + " or newer, but the service runs on Java "
+              + Runtime.version());
+    }
+    log.info("Virtual-thread execution mode enabled");
+  }
+
+  /**
+   * Creates a customizer that runs Tomcat request processing on virtual threads.
+   *
+   * @return the protocol handler customizer
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler ->
+        protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+  }
+
+  /**
+   * Creates a task executor that starts a new virtual thread per task. Used by the Kafka listener
+   * containers. It is named {@code applicationTaskExecutor} so it replaces the executor Spring Boot
+   * would otherwise configure under that name, and {@code @Async} methods and asynchronous MVC
+   * requests run on virtual threads too.
+   *
+   * @return the virtual-thread task executor
+   */
+  @Bean(name = "applicationTaskExecutor")
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(new VirtualThreadExecutor("virtual-"));
+  }
+}
@@ -2,6 +2,8 @@ package doodle.qa.com.svccalendarqa.controller;
 
 import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
+import doodle.qa.com.svccalendarqa.service.AvailabilityStreamService;
+import doodle.qa.com.svccalendarqa.service.IdempotencyService;
 import doodle.qa.com.svccalendarqa.service.MeetingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,7 +13,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,8 +24,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /** Controller for managing meetings. */
 @RestController
@@ -31,10 +38,15 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Meeting", description = "Meeting management API")
 public class MeetingController {
 
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final MeetingService meetingService;
+  private final AvailabilityStreamService availabilityStreamService;
+  private final IdempotencyService idempotencyService;
 
   /**
-   * Get meetings by user ID, calendar ID, and time range.
+   * Get meetings by user ID, calendar ID, and time range. The ETag is the calendar's meetings
+   * version, so an unchanged calendar is answered with 304 Not Modified without loading meetings.
    *
    * @param userId the user ID
    * @param calendarId the calendar ID
@@ -42,6 +54,7 @@ public class MeetingController {
    * @param to the end time
    * @param page the page number
    * @param size the page size
+   * @param webRequest the current request, used to evaluate If-None-Match
    * @return a page of meetings
    */
   @GetMapping
@@ -50,6 +63,10 @@ public class MeetingController {
       description = "Get meetings by user ID, calendar ID, and time range",
       responses = {
         @ApiResponse(responseCode = "200", description = "Meetings found"),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Meetings not modified",
+            content = @Content),
         @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
         @ApiResponse(
             responseCode = "404",
@@ -68,11 +85,18 @@ public class MeetingController {
           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
           LocalDateTime to,
       @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+      WebRequest webRequest) {
 
     log.info(
         "Getting meetings for user {} and calendar {} from {} to {}", userId, calendarId, from, to);
 
+    long meetingsVersion = meetingService.getMeetingsVersion(userId, calendarId);
+    if (webRequest.checkNotModified(String.valueOf(meetingsVersion))) {
+      log.info("Meetings for user {} and calendar {} not modified", userId, calendarId);
+      return null;
+    }
+
     Pageable pageable = PageRequest.of(page, size);
     Page<MeetingDto> meetings = meetingService.findMeetings(userId, calendarId, from, to, pageable);
 
@@ -85,7 +109,9 @@ public class MeetingController {
   }
 
   /**
-   * Get available time slots by user ID, calendar ID, time range, and slot duration.
+   * Get available time slots by user ID, calendar ID, time range, and slot duration. The ETag
+   * combines the calendar's meetings version with the provider's events version; when the provider
+   * does not report a version, no ETag is sent and the slots are always computed.
    *
    * @param userId the user ID
    * @param calendarId the calendar ID
@@ -94,6 +120,7 @@ public class MeetingController {
    * @param slotDuration the slot duration in minutes
    * @param page the page number
    * @param size the page size
+   * @param webRequest the current request, used to evaluate If-None-Match
    * @return a page of available time slots with pagination information
    */
   @GetMapping("/slots")
@@ -103,6 +130,10 @@ public class MeetingController {
           "Get available time slots by user ID, calendar ID, time range, and slot duration",
       responses = {
         @ApiResponse(responseCode = "200", description = "Time slots found"),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Time slots not modified",
+            content = @Content),
         @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
         @ApiResponse(
             responseCode = "404",
@@ -122,7 +153,8 @@ public class MeetingController {
           LocalDateTime to,
       @Parameter(description = "Slot duration in minutes") @RequestParam int slotDuration,
       @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-      @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+      @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+      WebRequest webRequest) {
 
     log.info(
         "Getting available time slots for user {} and calendar {} from {} to {} with slot duration {}",
@@ -132,6 +164,13 @@ public class MeetingController {
         to,
         slotDuration);
 
+    Optional<String> availabilityVersion =
+        meetingService.getAvailabilityVersion(userId, calendarId);
+    if (availabilityVersion.isPresent() && webRequest.checkNotModified(availabilityVersion.get())) {
+      log.info("Time slots for user {} and calendar {} not modified", userId, calendarId);
+      return null;
+    }
+
     Pageable pageable = PageRequest.of(page, size);
     Page<TimeSlotDto> timeSlots =
         meetingService.findAvailableTimeSlots(userId, calendarId, from, to, slotDuration, pageable);
@@ -144,6 +183,36 @@ public class MeetingController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Stream availability changes of a calendar as Server-Sent Events.
+   *
+   * @param userId the user ID
+   * @param calendarId the calendar ID
+   * @return the event stream emitting availability deltas
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream availability changes",
+      description =
+          "Stream busy and free slot ranges of a calendar as Server-Sent Events whenever meetings"
+              + " change",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Invalid request", content = @Content),
+        @ApiResponse(
+            responseCode = "404",
+            description = "User or calendar not found",
+            content = @Content)
+      })
+  public SseEmitter streamAvailability(
+      @Parameter(description = "User ID") @RequestParam UUID userId,
+      @Parameter(description = "Calendar ID") @RequestParam UUID calendarId) {
+
+    log.info("Opening availability stream for user {} and calendar {}", userId, calendarId);
+
+    return availabilityStreamService.subscribe(userId, calendarId);
+  }
+
   /**
    * Get a meeting by ID, user ID, and calendar ID.
    *
@@ -177,10 +246,12 @@ public class MeetingController {
   }
 
   /**
-   * Create a meeting.
+   * Create a meeting. When an Idempotency-Key header is sent, retries with the same key get the
+   * response of the first request instead of creating another meeting.
    *
    * @param meetingDto the meeting DTO
    * @param userId the user ID
+   * @param idempotencyKey the optional idempotency key
    * @return the created meeting
    */
   @PostMapping
@@ -193,14 +264,31 @@ public class MeetingController {
         @ApiResponse(
             responseCode = "404",
             description = "User or calendar not found",
+            content = @Content),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Idempotency key in use or reused for a different request",
             content = @Content)
       })
   public ResponseEntity<MeetingDto> createMeeting(
       @Parameter(description = "Meeting DTO") @Valid @RequestBody MeetingDto meetingDto,
-      @Parameter(description = "User ID") @RequestParam UUID userId) {
+      @Parameter(description = "User ID") @RequestParam UUID userId,
+      @Parameter(description = "Key that makes retries of this request return the first response")
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey) {
 
     log.info("Creating meeting for user {}", userId);
 
+    if (idempotencyKey != null) {
+      return idempotencyService.execute(
+          "POST /meeting",
+          idempotencyKey,
+          List.of(userId, meetingDto),
+          HttpStatus.CREATED,
+          MeetingDto.class,
+          () -> meetingService.createMeeting(meetingDto, userId));
+    }
+
     MeetingDto meeting = meetingService.createMeeting(meetingDto, userId);
 
     return ResponseEntity.status(HttpStatus.CREATED).body(meeting);
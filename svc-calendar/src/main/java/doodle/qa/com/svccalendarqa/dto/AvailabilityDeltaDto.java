@@ -0,0 +1,22 @@
+package doodle.qa.com.svccalendarqa.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object describing an availability change on a calendar. Ranges listed in {@code
+ * busy} were booked and ranges listed in {@code free} were released by a single meeting change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDeltaDto {
+  private UUID calendarId;
+  private List<TimeSlotDto> busy;
+  private List<TimeSlotDto> free;
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * UserCalendar entity representing a calendar associated with a user. The id is the primary key,
@@ -29,4 +30,12 @@ public class UserCalendar {
 
   @Column(name = "user_id", nullable = false)
   private UUID userId;
+
+  /**
+   * Change counter of the meetings in this calendar. Maintained by bulk updates only, so it is
+   * neither inserted nor updated through the entity.
+   */
+  @ColumnDefault("0")
+  @Column(name = "meetings_version", nullable = false, insertable = false, updatable = false)
+  private long meetingsVersion;
 }
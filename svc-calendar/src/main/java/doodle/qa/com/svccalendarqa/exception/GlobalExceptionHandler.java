@@ -88,6 +88,21 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
   }
 
+  /**
+   * Handles IdempotencyKeyConflictException. Returns a 409 Conflict.
+   *
+   * @param ex the exception
+   * @return the response entity with error details
+   */
+  @ExceptionHandler(IdempotencyKeyConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflictException(
+      IdempotencyKeyConflictException ex) {
+    ErrorResponse errorResponse =
+        new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage(), LocalDateTime.now());
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
   /**
    * Handles IllegalArgumentException. Returns a 409 Conflict.
    *
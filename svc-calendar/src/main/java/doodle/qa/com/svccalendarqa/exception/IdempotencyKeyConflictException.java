@@ -0,0 +1,21 @@
+package doodle.qa.com.svccalendarqa.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an Idempotency-Key is reused while the original request is still in
+ * progress, or for a request that differs from the original one.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+  /**
+   * Constructs a new IdempotencyKeyConflictException with the specified detail message.
+   *
+   * @param message the detail message
+   */
+  public IdempotencyKeyConflictException(String message) {
+    super(message);
+  }
+}
@@ -2,8 +2,10 @@ package doodle.qa.com.svccalendarqa.kafka;
 
 import com.example.svcuser.avro.EventType;
 import com.example.svcuser.avro.UserState;
+import com.example.svcuser.avro.Uuid;
 import doodle.qa.com.svccalendarqa.entity.UserCalendar;
 import doodle.qa.com.svccalendarqa.repository.UserCalendarRepository;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -18,6 +20,12 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Kafka consumer for user state events. Listens to the user-state topic and processes user state
  * events. Only saves user_id and calendar_id to the user_calendar table.
+ *
+ * <p>Updates and calendar changes that carry a version also carry the calendar IDs they added and
+ * removed, which are applied directly. Events of older producers have no version and are applied by
+ * diffing their full calendar list against the table. The version only marks events with deltas; it
+ * is not compared against earlier events, since the topic is keyed by user ID and deltas are
+ * idempotent.
  */
 @Component
 @Slf4j
@@ -45,15 +53,25 @@ public class UserStateConsumer {
 
       switch (eventType) {
         case CREATED:
-        case UPDATED:
           handleUserCreatedOrUpdated(userState);
           break;
+        case UPDATED:
+          if (hasCalendarDelta(userState)) {
+            handleCalendarDelta(userState);
+          } else {
+            handleUserCreatedOrUpdated(userState);
+          }
+          break;
         case DELETED:
           handleUserDeleted(userId);
           break;
         case CALENDAR_ADDED:
         case CALENDAR_REMOVED:
-          handleCalendarChange(userState);
+          if (hasCalendarDelta(userState)) {
+            handleCalendarDelta(userState);
+          } else {
+            handleCalendarChange(userState);
+          }
           break;
         default:
           log.warn("Unknown event type: {}", eventType);
@@ -119,6 +137,41 @@ public class UserStateConsumer {
     }
   }
 
+  /**
+   * Handles events that carry the calendar IDs they added and removed. Only the changed calendars
+   * are touched, without reading the user's other calendars.
+   *
+   * @param userState the user state event
+   */
+  private void handleCalendarDelta(UserState userState) {
+    UUID userId = UUID.fromString(userState.getId());
+    List<UUID> addedCalendarIds = toUuids(userState.getAddedCalendarIds());
+    List<UUID> removedCalendarIds = toUuids(userState.getRemovedCalendarIds());
+
+    log.info(
+        "Processing {} event version {} for user ID: {} with {} added and {} removed calendar(s)",
+        userState.getEventType(),
+        userState.getVersion(),
+        userId,
+        addedCalendarIds.size(),
+        removedCalendarIds.size());
+
+    for (UUID calendarId : addedCalendarIds) {
+      if (!userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)) {
+        UserCalendar userCalendar =
+            UserCalendar.builder().calendarId(calendarId).userId(userId).build();
+        userCalendarRepository.save(userCalendar);
+        log.info("User calendar added: {}", userCalendar);
+      }
+    }
+
+    if (!removedCalendarIds.isEmpty()) {
+      int removed =
+          userCalendarRepository.deleteByUserIdAndCalendarIdIn(userId, removedCalendarIds);
+      log.info("Removed {} user calendar(s) for user ID: {}", removed, userId);
+    }
+  }
+
   /**
    * Handles user deleted events. Only deletes entries from the user_calendar table.
    *
@@ -191,4 +244,18 @@ public class UserStateConsumer {
       }
     }
   }
+
+  private static boolean hasCalendarDelta(UserState userState) {
+    return userState.getVersion() != null;
+  }
+
+  private static List<UUID> toUuids(List<Uuid> ids) {
+    return ids.stream()
+        .map(
+            id -> {
+              ByteBuffer buffer = ByteBuffer.wrap(id.bytes());
+              return new UUID(buffer.getLong(), buffer.getLong());
+            })
+        .toList();
+  }
 }
@@ -0,0 +1,24 @@
+package doodle.qa.com.svccalendarqa.repository;
+
+import doodle.qa.com.svccalendarqa.entity.IdempotencyRecord;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repository for IdempotencyRecord entity. */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+  /**
+   * Delete all records that expired before the given time.
+   *
+   * @param now the current time
+   * @return the number of deleted records
+   */
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+  int deleteExpired(@Param("now") LocalDateTime now);
+}
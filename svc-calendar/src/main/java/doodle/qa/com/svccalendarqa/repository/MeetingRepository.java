@@ -1,15 +1,20 @@
 package doodle.qa.com.svccalendarqa.repository;
 
+import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.entity.Meeting;
 import doodle.qa.com.svccalendarqa.entity.UserCalendar;
+import jakarta.persistence.QueryHint;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,17 +22,43 @@ import org.springframework.stereotype.Repository;
 public interface MeetingRepository extends JpaRepository<Meeting, UUID> {
 
   /**
-   * Find meetings by user calendar and time range.
+   * Find meetings by user calendar ID and time range, projected straight into DTOs so no entity or
+   * UserCalendar proxy is created and nothing is tracked in the persistence context.
    *
-   * @param userCalendar the user calendar
+   * @param userCalendarId the user calendar ID
    * @param from the start time
    * @param to the end time
    * @param pageable the pagination information
-   * @return a page of meetings
+   * @return a page of meeting DTOs
+   */
+  @Query(
+      value =
+          "SELECT new doodle.qa.com.svccalendarqa.dto.MeetingDto("
+              + "m.id, m.title, m.description, m.startTime, m.endTime, m.location, m.calendarId) "
+              + "FROM Meeting m WHERE m.userCalendar.id = :userCalendarId "
+              + "AND m.startTime >= :from AND m.endTime <= :to ORDER BY m.startTime ASC",
+      countQuery =
+          "SELECT COUNT(m) FROM Meeting m WHERE m.userCalendar.id = :userCalendarId "
+              + "AND m.startTime >= :from AND m.endTime <= :to")
+  Page<MeetingDto> findMeetingDtos(
+      @Param("userCalendarId") UUID userCalendarId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to,
+      Pageable pageable);
+
+  /**
+   * Find a meeting by user calendar ID and meeting ID, projected straight into a DTO.
+   *
+   * @param userCalendarId the user calendar ID
+   * @param id the meeting ID
+   * @return an optional meeting DTO
    */
-  Page<Meeting>
-      findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-          UserCalendar userCalendar, LocalDateTime from, LocalDateTime to, Pageable pageable);
+  @Query(
+      "SELECT new doodle.qa.com.svccalendarqa.dto.MeetingDto("
+          + "m.id, m.title, m.description, m.startTime, m.endTime, m.location, m.calendarId) "
+          + "FROM Meeting m WHERE m.userCalendar.id = :userCalendarId AND m.id = :id")
+  Optional<MeetingDto> findMeetingDto(
+      @Param("userCalendarId") UUID userCalendarId, @Param("id") UUID id);
 
   /**
    * Find meetings by user calendar and meeting ID.
@@ -39,18 +70,45 @@ public interface MeetingRepository extends JpaRepository<Meeting, UUID> {
   Optional<Meeting> findByUserCalendarAndId(UserCalendar userCalendar, UUID id);
 
   /**
-   * Find all meetings that overlap with the given time range for a specific user calendar.
+   * Upper bound of a meeting's duration. Meetings overlapping a range therefore start at most this
+   * long before it, which bounds {@code start_time} on both sides so that only the monthly
+   * partitions of the range are scanned.
+   */
+  Duration MAX_MEETING_DURATION = Duration.ofHours(8);
+
+  /**
+   * Find all meetings that overlap with the given time range for a specific user calendar. The
+   * meetings are only read, so they are loaded read-only and skip dirty checking.
+   *
+   * @param userCalendar the user calendar
+   * @param from the start time
+   * @param to the end time
+   * @return a list of meetings
+   */
+  default List<Meeting> findOverlappingMeetingsByUserCalendar(
+      UserCalendar userCalendar, LocalDateTime from, LocalDateTime to) {
+    return findOverlappingMeetingsByUserCalendar(
+        userCalendar, from.minus(MAX_MEETING_DURATION), from, to);
+  }
+
+  /**
+   * Find all meetings that overlap with the given time range for a specific user calendar and start
+   * no earlier than the given lower bound.
    *
    * @param userCalendar the user calendar
+   * @param earliestStart the earliest start time of an overlapping meeting
    * @param from the start time
    * @param to the end time
    * @return a list of meetings
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
   @Query(
       "SELECT m FROM Meeting m WHERE m.userCalendar = :userCalendar AND "
+          + "m.startTime >= :earliestStart AND "
           + "((m.startTime < :to AND m.endTime > :from))")
   List<Meeting> findOverlappingMeetingsByUserCalendar(
       @Param("userCalendar") UserCalendar userCalendar,
+      @Param("earliestStart") LocalDateTime earliestStart,
       @Param("from") LocalDateTime from,
       @Param("to") LocalDateTime to);
 }
@@ -1,10 +1,14 @@
 package doodle.qa.com.svccalendarqa.repository;
 
 import doodle.qa.com.svccalendarqa.entity.UserCalendar;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** Repository for UserCalendar entity. */
@@ -37,6 +41,18 @@ public interface UserCalendarRepository extends JpaRepository<UserCalendar, UUID
    */
   boolean existsByCalendarIdAndUserId(UUID calendarId, UUID userId);
 
+  /**
+   * Delete the given calendars of a user without loading them.
+   *
+   * @param userId the user ID
+   * @param calendarIds the calendar IDs
+   * @return the number of deleted rows
+   */
+  @Modifying
+  @Query("DELETE FROM UserCalendar uc WHERE uc.userId = :userId AND uc.calendarId IN :calendarIds")
+  int deleteByUserIdAndCalendarIdIn(
+      @Param("userId") UUID userId, @Param("calendarIds") Collection<UUID> calendarIds);
+
   /**
    * Find a calendar by calendar ID.
    *
@@ -54,4 +70,27 @@ public interface UserCalendarRepository extends JpaRepository<UserCalendar, UUID
    * @return a list of user calendars
    */
   List<UserCalendar> findAllByCalendarId(UUID calendarId);
+
+  /**
+   * Find the meetings version of a calendar for a user without loading the calendar.
+   *
+   * @param calendarId the calendar ID
+   * @param userId the user ID
+   * @return an optional meetings version
+   */
+  @Query(
+      "SELECT uc.meetingsVersion FROM UserCalendar uc "
+          + "WHERE uc.calendarId = :calendarId AND uc.userId = :userId")
+  Optional<Long> findMeetingsVersion(
+      @Param("calendarId") UUID calendarId, @Param("userId") UUID userId);
+
+  /**
+   * Increment the meetings version of a user calendar.
+   *
+   * @param id the user calendar ID
+   * @return the number of updated rows
+   */
+  @Modifying
+  @Query("UPDATE UserCalendar uc SET uc.meetingsVersion = uc.meetingsVersion + 1 WHERE uc.id = :id")
+  int incrementMeetingsVersion(@Param("id") UUID id);
 }
@@ -0,0 +1,240 @@
+package doodle.qa.com.svccalendarqa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import doodle.qa.com.svccalendarqa.dto.AvailabilityDeltaDto;
+import doodle.qa.com.svccalendarqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svccalendarqa.repository.UserCalendarRepository;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Service that fans out availability changes to Server-Sent Events subscribers. Subscribers are
+ * registered per calendar ID so a meeting change is serialized once and pushed to every watcher of
+ * that calendar. Idle subscribers only hold an emitter reference; no request thread is kept busy.
+ *
+ * <p>Writing to a subscriber blocks while its connection does not accept data, so the thread that
+ * committed a meeting change only queues the delta per subscriber, and the queues are drained on
+ * the application task executor. A subscriber with more than {@code calendar.stream.max-pending}
+ * undelivered events has fallen behind and is dropped. A heartbeat comment is queued for every
+ * subscriber on the heartbeat interval, so dead connections fail a write and are dropped long
+ * before the stream timeout.
+ */
+@Service
+@Validated
+@Slf4j
+public class AvailabilityStreamService {
+
+  /** Name of the SSE event carrying availability deltas. */
+  static final String EVENT_NAME = "availability";
+
+  private final UserCalendarRepository userCalendarRepository;
+  private final ObjectMapper objectMapper;
+  private final Executor dispatchExecutor;
+  private final long timeoutMillis;
+  private final int maxPending;
+
+  private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+  public AvailabilityStreamService(
+      UserCalendarRepository userCalendarRepository,
+      ObjectMapper objectMapper,
+      @Qualifier("applicationTaskExecutor") Executor dispatchExecutor,
+      @Value("${calendar.stream.timeout-ms:1800000}") long timeoutMillis,
+      @Value("${calendar.stream.max-pending:32}") int maxPending) {
+    this.userCalendarRepository = userCalendarRepository;
+    this.objectMapper = objectMapper;
+    this.dispatchExecutor = dispatchExecutor;
+    this.timeoutMillis = timeoutMillis;
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * Subscribe to availability changes of a calendar.
+   *
+   * @param userId the user ID
+   * @param calendarId the calendar ID
+   * @return the emitter that receives availability deltas
+   * @throws CalendarNotFoundException if the calendar is not found for the user
+   */
+  @Transactional(readOnly = true)
+  public SseEmitter subscribe(@NotNull UUID userId, @NotNull UUID calendarId) {
+    if (!userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)) {
+      throw new CalendarNotFoundException(calendarId, userId);
+    }
+
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    Subscriber subscriber = new Subscriber(calendarId, emitter);
+    subscribers.compute(
+        calendarId,
+        (id, registered) -> {
+          Set<Subscriber> set = registered != null ? registered : new CopyOnWriteArraySet<>();
+          set.add(subscriber);
+          return set;
+        });
+
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(subscriber::close);
+    emitter.onError(e -> subscriber.close());
+
+    log.debug("User {} subscribed to availability of calendar {}", userId, calendarId);
+    return emitter;
+  }
+
+  /**
+   * Queue an availability delta for all subscribers of its calendar. Runs after the meeting change
+   * has been committed so subscribers never observe rolled back changes, and returns without
+   * waiting for any subscriber's connection.
+   *
+   * @param delta the availability delta
+   */
+  @TransactionalEventListener
+  public void onAvailabilityDelta(AvailabilityDeltaDto delta) {
+    Set<Subscriber> registered = subscribers.get(delta.getCalendarId());
+    if (registered == null || registered.isEmpty()) {
+      return;
+    }
+
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(delta);
+    } catch (JsonProcessingException e) {
+      log.error("Error serializing availability delta for calendar {}", delta.getCalendarId(), e);
+      return;
+    }
+
+    for (Subscriber subscriber : registered) {
+      subscriber.enqueue(SseEmitter.event().name(EVENT_NAME).data(payload));
+    }
+  }
+
+  /** Queue a heartbeat comment for every subscriber on the configured interval. */
+  @Scheduled(fixedDelayString = "${calendar.stream.heartbeat-interval-ms:15000}")
+  public void sendHeartbeats() {
+    for (Set<Subscriber> registered : subscribers.values()) {
+      for (Subscriber subscriber : registered) {
+        subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+      }
+    }
+  }
+
+  /**
+   * Get the number of subscribers watching a calendar.
+   *
+   * @param calendarId the calendar ID
+   * @return the number of subscribers
+   */
+  public int getSubscriberCount(UUID calendarId) {
+    Set<Subscriber> registered = subscribers.get(calendarId);
+    return registered == null ? 0 : registered.size();
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.calendarId,
+        (id, registered) -> {
+          registered.remove(subscriber);
+          return registered.isEmpty() ? null : registered;
+        });
+  }
+
+  /**
+   * A subscriber with its queue of undelivered events. At most one task drains the queue at a time,
+   * so events reach the subscriber in order.
+   */
+  private final class Subscriber {
+
+    private final UUID calendarId;
+    private final SseEmitter emitter;
+    private final Queue<SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Subscriber(UUID calendarId, SseEmitter emitter) {
+      this.calendarId = calendarId;
+      this.emitter = emitter;
+    }
+
+    /** Queue an event and make sure a task is draining the queue. Never blocks. */
+    private void enqueue(SseEventBuilder event) {
+      if (closed.get()) {
+        return;
+      }
+      if (pendingCount.incrementAndGet() > maxPending) {
+        log.debug("Dropping availability subscriber of calendar {} that fell behind", calendarId);
+        if (close()) {
+          // Completing waits for a send in progress, so it must not run on the caller's thread
+          dispatch(emitter::complete);
+        }
+        return;
+      }
+      pending.add(event);
+      if (draining.compareAndSet(false, true)) {
+        dispatch(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        SseEventBuilder event;
+        while (!closed.get() && (event = pending.poll()) != null) {
+          pendingCount.decrementAndGet();
+          try {
+            emitter.send(event);
+          } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping availability subscriber of calendar {}", calendarId);
+            close();
+            emitter.completeWithError(e);
+            return;
+          }
+        }
+        draining.set(false);
+      } while (!closed.get() && !pending.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void dispatch(Runnable task) {
+      try {
+        dispatchExecutor.execute(task);
+      } catch (RejectedExecutionException e) {
+        log.warn("Dropping availability subscriber of calendar {}: dispatch rejected", calendarId);
+        close();
+      }
+    }
+
+    /**
+     * Unregister the subscriber and discard its undelivered events.
+     *
+     * @return true if this call closed the subscriber
+     */
+    private boolean close() {
+      if (!closed.compareAndSet(false, true)) {
+        return false;
+      }
+      unsubscribe(this);
+      pending.clear();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,221 @@
+package doodle.qa.com.svccalendarqa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import doodle.qa.com.svccalendarqa.entity.IdempotencyRecord;
+import doodle.qa.com.svccalendarqa.exception.IdempotencyKeyConflictException;
+import doodle.qa.com.svccalendarqa.repository.IdempotencyRecordRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service that makes POST requests sent with an Idempotency-Key header safe to retry. The first
+ * request claims the key and runs the operation; its response is stored for the configured TTL and
+ * replayed for retries with the same key and payload without running the operation again.
+ *
+ * <p>The claim is committed on its own so concurrent retries see it, and is pending for a short
+ * lease only: if the process dies before completing, a retry after the lease reclaims the key
+ * instead of being rejected until the TTL. The response is stored in the operation's transaction,
+ * so a committed operation always leaves a completed record. If a slow request loses its claim to a
+ * retry, storing its response fails the version check and rolls back its operation.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+  /** Response header set when a stored response is replayed. */
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Duration pendingLease;
+  private final TransactionTemplate transactionTemplate;
+
+  public IdempotencyService(
+      IdempotencyRecordRepository idempotencyRecordRepository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${idempotency.ttl:PT24H}") Duration ttl,
+      @Value("${idempotency.pending-lease:PT1M}") Duration pendingLease) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.pendingLease = pendingLease;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+  }
+
+  /**
+   * Run an operation at most once per idempotency key. A retry with the same key and request gets
+   * the stored response; a retry while the original request is still running, or with a different
+   * request, is rejected. If the operation fails the key is released so the request can be retried.
+   * The operation joins a transaction that also stores its response, so a {@code @Retryable}
+   * operation cannot retry inside it: a failed attempt marks the transaction rollback-only, the key
+   * is released and the client retries instead.
+   *
+   * @param scope the operation the key belongs to, e.g. "POST /meeting"
+   * @param key the Idempotency-Key header value
+   * @param request the request payload, used to detect a key reused for a different request
+   * @param status the status of a successful response
+   * @param responseType the type of the response body
+   * @param operation the operation to run
+   * @param <T> the type of the response body
+   * @return the response of the operation, either fresh or replayed
+   * @throws IdempotencyKeyConflictException if the key is in use or was used for another request
+   */
+  public <T> ResponseEntity<T> execute(
+      String scope,
+      String key,
+      Object request,
+      HttpStatus status,
+      Class<T> responseType,
+      Supplier<T> operation) {
+    String id = sha256(scope + ":" + key);
+    String requestHash = sha256(toJson(request));
+
+    Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+    IdempotencyRecord claimed;
+    if (existing.isPresent()) {
+      IdempotencyRecord record = existing.get();
+      if (record.isActive(LocalDateTime.now())) {
+        return replay(record, key, requestHash, responseType);
+      }
+      claimed = reclaim(record, key, requestHash);
+    } else {
+      claimed = claim(id, key, requestHash);
+    }
+
+    T body;
+    try {
+      body =
+          transactionTemplate.execute(
+              transaction -> {
+                T result = operation.get();
+                claimed.setResponseStatus(status.value());
+                claimed.setResponseBody(toJson(result));
+                claimed.setPendingExpiresAt(null);
+                idempotencyRecordRepository.save(claimed);
+                return result;
+              });
+    } catch (RuntimeException e) {
+      release(claimed, key);
+      throw e;
+    }
+    return ResponseEntity.status(status).body(body);
+  }
+
+  /** Delete expired idempotency records on the configured schedule. */
+  @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+  @Transactional
+  public void purgeExpired() {
+    int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    if (deleted > 0) {
+      log.info("Purged {} expired idempotency record(s)", deleted);
+    }
+  }
+
+  private IdempotencyRecord claim(String id, String key, String requestHash) {
+    LocalDateTime now = LocalDateTime.now();
+    try {
+      return idempotencyRecordRepository.saveAndFlush(
+          IdempotencyRecord.builder()
+              .id(id)
+              .requestHash(requestHash)
+              .pendingExpiresAt(now.plus(pendingLease))
+              .expiresAt(now.plus(ttl))
+              .build());
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Idempotency key {} was claimed concurrently", key);
+      throw new IdempotencyKeyConflictException(
+          "A request with idempotency key " + key + " is already in progress");
+    }
+  }
+
+  /** Take over an expired record, or a pending one whose lease ran out, checking its version. */
+  private IdempotencyRecord reclaim(IdempotencyRecord record, String key, String requestHash) {
+    LocalDateTime now = LocalDateTime.now();
+    if (!record.isCompleted()) {
+      log.warn("Reclaiming idempotency key {} whose original request did not complete", key);
+    }
+    record.setRequestHash(requestHash);
+    record.setResponseStatus(null);
+    record.setResponseBody(null);
+    record.setPendingExpiresAt(now.plus(pendingLease));
+    record.setExpiresAt(now.plus(ttl));
+    try {
+      return idempotencyRecordRepository.saveAndFlush(record);
+    } catch (OptimisticLockingFailureException e) {
+      log.warn("Idempotency key {} was reclaimed concurrently", key);
+      throw new IdempotencyKeyConflictException(
+          "A request with idempotency key " + key + " is already in progress");
+    }
+  }
+
+  /** Release a claim after a failure, unless another request has reclaimed it meanwhile. */
+  private void release(IdempotencyRecord claimed, String key) {
+    try {
+      idempotencyRecordRepository.delete(claimed);
+    } catch (OptimisticLockingFailureException e) {
+      log.warn("Idempotency key {} was reclaimed by another request before it was released", key);
+    }
+  }
+
+  private <T> ResponseEntity<T> replay(
+      IdempotencyRecord record, String key, String requestHash, Class<T> responseType) {
+    if (!record.getRequestHash().equals(requestHash)) {
+      log.warn("Idempotency key {} reused for a different request", key);
+      throw new IdempotencyKeyConflictException(
+          "Idempotency key " + key + " was already used for a different request");
+    }
+    if (!record.isCompleted()) {
+      log.warn("Idempotency key {} reused while the original request is in progress", key);
+      throw new IdempotencyKeyConflictException(
+          "A request with idempotency key " + key + " is already in progress");
+    }
+
+    log.info("Replaying stored response for idempotency key {}", key);
+    try {
+      return ResponseEntity.status(record.getResponseStatus())
+          .header(REPLAYED_HEADER, "true")
+          .body(objectMapper.readValue(record.getResponseBody(), responseType));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Stored response for key " + key + " is unreadable", e);
+    }
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize idempotent request or response", e);
+    }
+  }
+
+  private static String sha256(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package doodle.qa.com.svccalendarqa.service;
 
+import doodle.qa.com.svccalendarqa.dto.AvailabilityDeltaDto;
 import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
 import doodle.qa.com.svccalendarqa.entity.Meeting;
@@ -16,14 +17,16 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -41,6 +44,8 @@ public class MeetingService {
   private final MeetingRepository meetingRepository;
   private final UserCalendarRepository userCalendarRepository;
   private final RestTemplate restTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ProviderEventsCache providerEventsCache;
 
   @Value("${provider.service.url:http://localhost:8083}")
   private String providerServiceUrl;
@@ -48,7 +53,10 @@ public class MeetingService {
   /** Maximum allowed time range in days. */
   private static final int MAX_TIME_RANGE_DAYS = 7;
 
-  /** Maximum allowed slot duration in hours. */
+  /**
+   * Maximum allowed slot duration in hours. Also bounds meeting durations, which the overlap
+   * queries rely on (see {@link MeetingRepository#MAX_MEETING_DURATION}).
+   */
   private static final int MAX_SLOT_DURATION_HOURS = 8;
 
   /**
@@ -76,11 +84,7 @@ public class MeetingService {
     validateTimeRange(from, to);
 
     // Find meetings
-    Page<Meeting> meetings =
-        meetingRepository
-            .findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-                userCalendar, from, to, pageable);
-    return meetings.map(this::mapToDto);
+    return meetingRepository.findMeetingDtos(userCalendar.getId(), from, to, pageable);
   }
 
   /**
@@ -114,7 +118,7 @@ public class MeetingService {
         meetingRepository.findOverlappingMeetingsByUserCalendar(userCalendar, from, to);
 
     // Get busy slots from provider service
-    List<Map<String, Object>> externalEvents = getExternalEvents(calendarId, from, to);
+    List<TimeSlotDto> externalBusySlots = getExternalEvents(calendarId, from, to);
 
     // Combine busy slots
     List<TimeSlotDto> busySlots = new ArrayList<>();
@@ -131,17 +135,7 @@ public class MeetingService {
     }
 
     // Add busy slots from external events
-    for (Map<String, Object> event : externalEvents) {
-      LocalDateTime eventStart = LocalDateTime.parse((String) event.get("startTime"));
-      LocalDateTime eventEnd = LocalDateTime.parse((String) event.get("endTime"));
-
-      busySlots.add(
-          TimeSlotDto.builder()
-              .startTime(eventStart)
-              .endTime(eventEnd)
-              .durationMinutes((int) ChronoUnit.MINUTES.between(eventStart, eventEnd))
-              .build());
-    }
+    busySlots.addAll(externalBusySlots);
 
     // Sort busy slots by start time
     busySlots.sort(Comparator.comparing(TimeSlotDto::getStartTime));
@@ -159,6 +153,39 @@ public class MeetingService {
         paginatedSlots, pageable, availableSlots.size());
   }
 
+  /**
+   * Get the meetings version of a calendar. The version changes whenever a meeting of the calendar
+   * is created, updated, or deleted, so it can serve as the ETag of meeting listings.
+   *
+   * @param userId the user ID
+   * @param calendarId the calendar ID
+   * @return the meetings version
+   * @throws CalendarNotFoundException if the calendar is not found for the user
+   */
+  @Transactional(readOnly = true)
+  public long getMeetingsVersion(@NotNull UUID userId, @NotNull UUID calendarId) {
+    return userCalendarRepository
+        .findMeetingsVersion(calendarId, userId)
+        .orElseThrow(() -> new CalendarNotFoundException(calendarId, userId));
+  }
+
+  /**
+   * Get the availability version of a calendar. Available slots depend on both the calendar's
+   * meetings and the provider's external events, so the version combines the meetings version with
+   * the provider's events ETag.
+   *
+   * @param userId the user ID
+   * @param calendarId the calendar ID
+   * @return the availability version, or empty if the provider's events version is unknown
+   * @throws CalendarNotFoundException if the calendar is not found for the user
+   */
+  @Transactional(readOnly = true)
+  public Optional<String> getAvailabilityVersion(@NotNull UUID userId, @NotNull UUID calendarId) {
+    long meetingsVersion = getMeetingsVersion(userId, calendarId);
+    return getExternalEventsVersion(calendarId)
+        .map(eventsVersion -> meetingsVersion + "-" + eventsVersion);
+  }
+
   /**
    * Find a meeting by ID, user ID, and calendar ID.
    *
@@ -175,12 +202,9 @@ public class MeetingService {
     UserCalendar userCalendar = validateUserAndCalendar(userId, calendarId);
 
     // Find meeting
-    Meeting meeting =
-        meetingRepository
-            .findByUserCalendarAndId(userCalendar, meetingId)
-            .orElseThrow(() -> new MeetingNotFoundException(meetingId, userId, calendarId));
-
-    return mapToDto(meeting);
+    return meetingRepository
+        .findMeetingDto(userCalendar.getId(), meetingId)
+        .orElseThrow(() -> new MeetingNotFoundException(meetingId, userId, calendarId));
   }
 
   /**
@@ -221,6 +245,12 @@ public class MeetingService {
             .build();
 
     Meeting savedMeeting = meetingRepository.save(meeting);
+    userCalendarRepository.incrementMeetingsVersion(userCalendar.getId());
+
+    publishAvailabilityDelta(
+        calendarId,
+        List.of(toTimeSlot(savedMeeting.getStartTime(), savedMeeting.getEndTime())),
+        List.of());
 
     return mapToDto(savedMeeting);
   }
@@ -258,6 +288,8 @@ public class MeetingService {
     // Check for conflicts (excluding this meeting)
     checkForConflicts(calendarId, meetingDto.getStartTime(), meetingDto.getEndTime(), meetingId);
 
+    TimeSlotDto previousSlot = toTimeSlot(meeting.getStartTime(), meeting.getEndTime());
+
     // Update meeting
     meeting.setTitle(meetingDto.getTitle());
     meeting.setDescription(meetingDto.getDescription());
@@ -266,6 +298,14 @@ public class MeetingService {
     meeting.setLocation(meetingDto.getLocation());
 
     Meeting savedMeeting = meetingRepository.save(meeting);
+
+    userCalendarRepository.incrementMeetingsVersion(userCalendar.getId());
+
+    TimeSlotDto currentSlot = toTimeSlot(savedMeeting.getStartTime(), savedMeeting.getEndTime());
+    if (!currentSlot.equals(previousSlot)) {
+      publishAvailabilityDelta(calendarId, List.of(currentSlot), List.of(previousSlot));
+    }
+
     return mapToDto(savedMeeting);
   }
 
@@ -291,6 +331,10 @@ public class MeetingService {
 
     // Delete meeting
     meetingRepository.delete(meeting);
+    userCalendarRepository.incrementMeetingsVersion(userCalendar.getId());
+
+    publishAvailabilityDelta(
+        calendarId, List.of(), List.of(toTimeSlot(meeting.getStartTime(), meeting.getEndTime())));
   }
 
   /**
@@ -387,44 +431,52 @@ public class MeetingService {
       throw new IllegalArgumentException("The meeting conflicts with existing meetings");
     }
 
-    // Check for conflicts with external events
-    List<Map<String, Object>> externalEvents = getExternalEvents(calendarId, startTime, endTime);
-
-    for (Map<String, Object> event : externalEvents) {
-      LocalDateTime eventStart = LocalDateTime.parse((String) event.get("startTime"));
-      LocalDateTime eventEnd = LocalDateTime.parse((String) event.get("endTime"));
-
-      if (!(endTime.isBefore(eventStart) || startTime.isAfter(eventEnd))) {
-        throw new IllegalArgumentException("The meeting conflicts with external events");
-      }
+    // Check for conflicts with external events; the provider only returns busy time within the
+    // meeting's time range, so any busy slot is a conflict
+    if (!getCurrentExternalEvents(calendarId, startTime, endTime).isEmpty()) {
+      throw new IllegalArgumentException("The meeting conflicts with external events");
     }
   }
 
   /**
-   * Get external events from the provider service.
+   * Get the busy time of external events from the provider service, or from the provider events
+   * cache while it is kept up to date by the provider's change feed.
    *
    * @param calendarId the calendar ID
    * @param from the start time
    * @param to the end time
-   * @return a list of external events
+   * @return the merged busy slots of the external events, in start order
    */
   @Retryable(
       value = Exception.class,
       maxAttempts = 3,
       backoff = @Backoff(delay = 500, multiplier = 2))
-  private List<Map<String, Object>> getExternalEvents(
+  private List<TimeSlotDto> getExternalEvents(
       UUID calendarId, LocalDateTime from, LocalDateTime to) {
     try {
-      String url =
-          String.format(
-              "%s/api/events/calendar/%s/timerange?start=%s&end=%s",
-              providerServiceUrl, calendarId, from, to);
+      return providerEventsCache.getEvents(
+          calendarId, from, to, () -> fetchExternalEvents(calendarId, from, to));
+    } catch (Exception e) {
+      log.error("Error getting external events", e);
+    }
 
-      ResponseEntity<List> response = restTemplate.getForEntity(url, List.class);
+    return Collections.emptyList();
+  }
 
-      if (response.getBody() != null) {
-        return response.getBody();
-      }
+  /**
+   * Get the busy time of external events from the provider service, bypassing the provider events
+   * cache. Used by the conflict checks of writes: the cache follows the change feed with a delay,
+   * so a meeting checked against it could be booked over an event that was just added.
+   *
+   * @param calendarId the calendar ID
+   * @param from the start time
+   * @param to the end time
+   * @return the merged busy slots of the external events, in start order
+   */
+  private List<TimeSlotDto> getCurrentExternalEvents(
+      UUID calendarId, LocalDateTime from, LocalDateTime to) {
+    try {
+      return fetchExternalEvents(calendarId, from, to);
     } catch (Exception e) {
       log.error("Error getting external events", e);
     }
@@ -432,6 +484,71 @@ public class MeetingService {
     return Collections.emptyList();
   }
 
+  /**
+   * Fetch the busy time of a calendar from the provider's free/busy endpoint. The provider merges
+   * overlapping events and sends the busy slots delta-encoded, as alternating gap and length
+   * minutes from the epoch minute {@code origin}, which keeps the response small and cheap to
+   * parse.
+   *
+   * @param calendarId the calendar ID
+   * @param from the start time
+   * @param to the end time
+   * @return the busy slots
+   */
+  @SuppressWarnings("unchecked")
+  private List<TimeSlotDto> fetchExternalEvents(
+      UUID calendarId, LocalDateTime from, LocalDateTime to) {
+    String url =
+        String.format(
+            "%s/api/events/calendar/%s/freebusy?start=%s&end=%s&encoding=DELTA",
+            providerServiceUrl, calendarId, from, to);
+
+    Map<String, Object> freeBusy = restTemplate.getForObject(url, Map.class);
+    if (freeBusy == null || freeBusy.get("origin") == null || freeBusy.get("deltas") == null) {
+      return Collections.emptyList();
+    }
+
+    long minute = ((Number) freeBusy.get("origin")).longValue();
+    List<Number> deltas = (List<Number>) freeBusy.get("deltas");
+    List<TimeSlotDto> busySlots = new ArrayList<>(deltas.size() / 2);
+    for (int i = 0; i + 1 < deltas.size(); i += 2) {
+      minute += deltas.get(i).longValue();
+      LocalDateTime slotStart = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+      minute += deltas.get(i + 1).longValue();
+      LocalDateTime slotEnd = LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+      busySlots.add(toTimeSlot(slotStart, slotEnd));
+    }
+    return busySlots;
+  }
+
+  /**
+   * Get the version of a calendar's external events from the ETag the provider service returns for
+   * a HEAD request on the calendar's events.
+   *
+   * @param calendarId the calendar ID
+   * @return the events version, or empty if the provider did not return one
+   */
+  private Optional<String> getExternalEventsVersion(UUID calendarId) {
+    try {
+      return providerEventsCache.getEventsVersion(
+          calendarId, () -> fetchExternalEventsVersion(calendarId));
+    } catch (Exception e) {
+      log.error("Error getting external events version", e);
+    }
+
+    return Optional.empty();
+  }
+
+  private Optional<String> fetchExternalEventsVersion(UUID calendarId) {
+    String url =
+        String.format("%s/api/events/calendar/%s/timerange", providerServiceUrl, calendarId);
+
+    HttpHeaders headers = restTemplate.headForHeaders(url);
+    String eTag = headers != null ? headers.getETag() : null;
+
+    return Optional.ofNullable(eTag).map(value -> value.replace("\"", ""));
+  }
+
   /**
    * Find available time slots given busy slots.
    *
@@ -498,6 +615,28 @@ public class MeetingService {
     return availableSlots;
   }
 
+  /**
+   * Publish an availability delta for a calendar. Subscribers receive it once the surrounding
+   * transaction commits.
+   *
+   * @param calendarId the calendar ID
+   * @param busy the ranges that became busy
+   * @param free the ranges that were released
+   */
+  private void publishAvailabilityDelta(
+      UUID calendarId, List<TimeSlotDto> busy, List<TimeSlotDto> free) {
+    eventPublisher.publishEvent(
+        AvailabilityDeltaDto.builder().calendarId(calendarId).busy(busy).free(free).build());
+  }
+
+  private TimeSlotDto toTimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+    return TimeSlotDto.builder()
+        .startTime(startTime)
+        .endTime(endTime)
+        .durationMinutes((int) ChronoUnit.MINUTES.between(startTime, endTime))
+        .build();
+  }
+
   private MeetingDto mapToDto(Meeting meeting) {
     if (meeting == null) {
       return null;
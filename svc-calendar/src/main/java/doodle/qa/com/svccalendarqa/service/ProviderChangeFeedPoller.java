@@ -0,0 +1,100 @@
+package doodle.qa.com.svccalendarqa.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Follows the provider service's event change feed and invalidates the {@link ProviderEventsCache}
+ * for every calendar with changed events. The cache is only active while the feed is followed; if
+ * the feed cannot be read the cache is dropped and the cursor reset, so no stale events are served.
+ * The cache is also dropped when the feed asks for a resync because the changes after the cursor
+ * were already purged.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "provider.changes", name = "enabled", havingValue = "true")
+public class ProviderChangeFeedPoller {
+
+  private final RestTemplate restTemplate;
+  private final ProviderEventsCache providerEventsCache;
+  private final String providerServiceUrl;
+  private final int batchSize;
+
+  /** Sequence of the last change seen, or null before the feed's head is known. */
+  private volatile Long cursor;
+
+  public ProviderChangeFeedPoller(
+      RestTemplate restTemplate,
+      ProviderEventsCache providerEventsCache,
+      @Value("${provider.service.url:http://localhost:8083}") String providerServiceUrl,
+      @Value("${provider.changes.batch-size:500}") int batchSize) {
+    this.restTemplate = restTemplate;
+    this.providerEventsCache = providerEventsCache;
+    this.providerServiceUrl = providerServiceUrl;
+    this.batchSize = batchSize;
+  }
+
+  /** Read all changes since the last poll and invalidate the affected calendars. */
+  @Scheduled(fixedDelayString = "${provider.changes.poll-interval-ms:5000}")
+  public void poll() {
+    try {
+      boolean hasMore;
+      do {
+        hasMore = readPage();
+      } while (hasMore);
+      providerEventsCache.activate();
+    } catch (Exception e) {
+      log.warn("Could not read the provider event change feed: {}", e.getMessage());
+      cursor = null;
+      providerEventsCache.deactivate();
+    }
+  }
+
+  /**
+   * Get the sequence of the last change seen.
+   *
+   * @return the cursor, or null before the feed's head is known
+   */
+  public Long getCursor() {
+    return cursor;
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean readPage() {
+    String url =
+        cursor == null
+            ? String.format("%s/api/events/changes", providerServiceUrl)
+            : String.format(
+                "%s/api/events/changes?since=%d&limit=%d", providerServiceUrl, cursor, batchSize);
+
+    Map<String, Object> feed = restTemplate.getForObject(url, Map.class);
+    if (feed == null) {
+      throw new IllegalStateException("Empty response from the provider event change feed");
+    }
+
+    if (Boolean.TRUE.equals(feed.get("resync"))) {
+      log.warn("Provider event changes after sequence {} were purged, dropping the cache", cursor);
+      providerEventsCache.deactivate();
+    }
+
+    List<Map<String, Object>> changes = (List<Map<String, Object>>) feed.get("changes");
+    if (changes != null) {
+      for (Map<String, Object> change : changes) {
+        providerEventsCache.invalidate(UUID.fromString((String) change.get("calendarId")));
+      }
+      if (!changes.isEmpty()) {
+        log.debug("Applied {} provider event changes after sequence {}", changes.size(), cursor);
+      }
+    }
+
+    cursor = ((Number) feed.get("nextSince")).longValue();
+    return Boolean.TRUE.equals(feed.get("hasMore"));
+  }
+}
@@ -0,0 +1,171 @@
+package doodle.qa.com.svccalendarqa.service;
+
+import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the provider service's external events and events versions per calendar. Entries are
+ * dropped when the provider's change feed reports a change of their calendar, so the cache is only
+ * used while the feed is followed (see {@link ProviderChangeFeedPoller}); while it is inactive
+ * every lookup goes to the provider. Entries also expire after a TTL, which bounds staleness if a
+ * change is missed.
+ *
+ * <p>The cache serves reads such as available slots and availability versions. Conflict checks of
+ * meeting writes go to the provider directly, since the feed reports changes with a delay.
+ */
+@Component
+@Slf4j
+public class ProviderEventsCache {
+
+  private final Duration ttl;
+  private final int maxCalendars;
+  private final int maxRangesPerCalendar;
+
+  private final Map<UUID, CalendarEntry> calendars = new ConcurrentHashMap<>();
+  private volatile boolean active;
+
+  public ProviderEventsCache(
+      @Value("${provider.events-cache.ttl:PT5M}") Duration ttl,
+      @Value("${provider.events-cache.max-calendars:10000}") int maxCalendars,
+      @Value("${provider.events-cache.max-ranges-per-calendar:64}") int maxRangesPerCalendar) {
+    this.ttl = ttl;
+    this.maxCalendars = maxCalendars;
+    this.maxRangesPerCalendar = maxRangesPerCalendar;
+  }
+
+  /**
+   * Get the busy slots of a calendar's external events within a time range, loading them on a miss.
+   * Exceptions of the loader are propagated and nothing is cached.
+   *
+   * @param calendarId the calendar ID
+   * @param from the start time
+   * @param to the end time
+   * @param loader loads the events from the provider service
+   * @return the busy slots of the external events
+   */
+  public List<TimeSlotDto> getEvents(
+      UUID calendarId, LocalDateTime from, LocalDateTime to, Supplier<List<TimeSlotDto>> loader) {
+    if (!active) {
+      return loader.get();
+    }
+
+    CalendarEntry entry = entryFor(calendarId);
+    String range = from + "/" + to;
+    Cached<List<TimeSlotDto>> cached = entry.events.get(range);
+    if (cached != null && !cached.isExpired()) {
+      return cached.value();
+    }
+
+    List<TimeSlotDto> events = loader.get();
+    if (entry.events.size() >= maxRangesPerCalendar) {
+      entry.events.clear();
+    }
+    entry.events.put(range, new Cached<>(events, expiresAt()));
+    return events;
+  }
+
+  /**
+   * Get the events version of a calendar, loading it on a miss. Exceptions of the loader are
+   * propagated and nothing is cached.
+   *
+   * @param calendarId the calendar ID
+   * @param loader loads the events version from the provider service
+   * @return the events version, or empty if the provider did not return one
+   */
+  public Optional<String> getEventsVersion(UUID calendarId, Supplier<Optional<String>> loader) {
+    if (!active) {
+      return loader.get();
+    }
+
+    CalendarEntry entry = entryFor(calendarId);
+    Cached<Optional<String>> cached = entry.version;
+    if (cached != null && !cached.isExpired()) {
+      return cached.value();
+    }
+
+    Optional<String> version = loader.get();
+    entry.version = new Cached<>(version, expiresAt());
+    return version;
+  }
+
+  /**
+   * Drop everything cached for a calendar. A load that is running concurrently stores its result in
+   * the dropped entry, so it cannot bring back data from before the change.
+   *
+   * @param calendarId the calendar ID
+   */
+  public void invalidate(UUID calendarId) {
+    if (calendars.remove(calendarId) != null) {
+      log.debug("Invalidated provider events of calendar {}", calendarId);
+    }
+  }
+
+  /** Start serving lookups from the cache. Called once the change feed is being followed. */
+  public void activate() {
+    if (!active) {
+      log.info("Provider events cache activated");
+    }
+    active = true;
+  }
+
+  /** Stop serving lookups from the cache and drop all entries, e.g. when the feed is lost. */
+  public void deactivate() {
+    if (active) {
+      log.warn("Provider events cache deactivated");
+    }
+    active = false;
+    calendars.clear();
+  }
+
+  /**
+   * Whether lookups are currently served from the cache.
+   *
+   * @return true if the cache is active
+   */
+  public boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Get the number of calendars with cached data.
+   *
+   * @return the number of cached calendars
+   */
+  public int getCachedCalendarCount() {
+    return calendars.size();
+  }
+
+  private CalendarEntry entryFor(UUID calendarId) {
+    if (calendars.size() >= maxCalendars && !calendars.containsKey(calendarId)) {
+      calendars.clear();
+    }
+    return calendars.computeIfAbsent(calendarId, id -> new CalendarEntry());
+  }
+
+  private long expiresAt() {
+    return System.nanoTime() + ttl.toNanos();
+  }
+
+  /** Cached data of one calendar. */
+  private static final class CalendarEntry {
+    private final Map<String, Cached<List<TimeSlotDto>>> events = new ConcurrentHashMap<>();
+    private volatile Cached<Optional<String>> version;
+  }
+
+  /** A cached value with its expiry on the {@link System#nanoTime()} clock. */
+  private record Cached<T>(T value, long expiresAtNanos) {
+    boolean isExpired() {
+      return System.nanoTime() - expiresAtNanos >= 0;
+    }
+  }
+}
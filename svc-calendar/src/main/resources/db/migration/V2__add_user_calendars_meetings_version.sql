@@ -0,0 +1,2 @@
+-- Per-calendar change counter of meetings, used as the ETag of meeting and slot listings
+ALTER TABLE user_calendars ADD COLUMN meetings_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,76 @@
+-- Convert meetings into a table range-partitioned by month on start_time.
+-- Monthly partitions are named meetings_pYYYY_MM; rows outside every monthly partition land in
+-- meetings_default until create_meetings_partition() moves them into their own partition.
+
+-- Move the existing table and its index names out of the way
+ALTER TABLE meetings RENAME TO meetings_unpartitioned;
+ALTER TABLE meetings_unpartitioned RENAME CONSTRAINT meetings_pkey TO meetings_unpartitioned_pkey;
+DROP INDEX idx_meeting_calendar_id;
+DROP INDEX idx_meeting_user_calendar_id;
+DROP INDEX idx_meeting_time_range;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE meetings (
+    id UUID NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    location VARCHAR(255),
+    calendar_id UUID NOT NULL,
+    user_calendar_id UUID NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, start_time),
+    FOREIGN KEY (user_calendar_id) REFERENCES user_calendars(id) ON DELETE CASCADE
+) PARTITION BY RANGE (start_time);
+
+CREATE TABLE meetings_default PARTITION OF meetings DEFAULT;
+
+-- Indexes on the parent are created on every partition
+CREATE INDEX idx_meeting_calendar_id ON meetings(calendar_id);
+CREATE INDEX idx_meeting_user_calendar_id ON meetings(user_calendar_id);
+CREATE INDEX idx_meeting_time_range ON meetings(start_time, end_time);
+
+-- Create the monthly partition containing the given day. Rows of that month already stored in
+-- the default partition are moved into the new partition before it is attached. Idempotent.
+CREATE OR REPLACE FUNCTION create_meetings_partition(month_day DATE) RETURNS TEXT AS $$
+DECLARE
+    range_start DATE := date_trunc('month', month_day)::DATE;
+    range_end DATE := (date_trunc('month', month_day) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'meetings_p' || to_char(date_trunc('month', month_day), 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE meetings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   partition_name);
+    EXECUTE format('INSERT INTO %I SELECT * FROM meetings_default'
+                       || ' WHERE start_time >= %L AND start_time < %L',
+                   partition_name, range_start, range_end);
+    EXECUTE format('DELETE FROM meetings_default WHERE start_time >= %L AND start_time < %L',
+                   range_start, range_end);
+    EXECUTE format('ALTER TABLE meetings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month holding data plus the next three months
+SELECT create_meetings_partition(month_day::DATE)
+FROM generate_series(
+         date_trunc('month', LEAST(COALESCE((SELECT MIN(start_time) FROM meetings_unpartitioned),
+                                            now()), now())),
+         date_trunc('month', GREATEST(COALESCE((SELECT MAX(start_time) FROM meetings_unpartitioned),
+                                               now()), now() + INTERVAL '3 months')),
+         INTERVAL '1 month') AS month_day;
+
+INSERT INTO meetings
+SELECT id, title, description, start_time, end_time, location, calendar_id, user_calendar_id,
+       version, created_at, updated_at
+FROM meetings_unpartitioned;
+
+DROP TABLE meetings_unpartitioned;
@@ -0,0 +1,12 @@
+-- Responses of POST requests sent with an Idempotency-Key header, replayed on retries until they
+-- expire. Keys and request fingerprints are stored as SHA-256 hex digests.
+CREATE TABLE idempotency_keys (
+    id VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INTEGER,
+    response_body TEXT,
+    expires_at TIMESTAMP NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
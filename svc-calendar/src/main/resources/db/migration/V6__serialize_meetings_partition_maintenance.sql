@@ -0,0 +1,56 @@
+-- Every node runs the partition maintenance, so two nodes may create or expire the same partition
+-- at the same time. Both functions take the same transaction-level advisory lock first; the second
+-- caller waits until the first one has committed and then finds the partition already created or
+-- expired. The lock is released when the calling transaction ends.
+
+-- Create the monthly partition containing the given day. Rows of that month already stored in
+-- the default partition are moved into the new partition before it is attached. Idempotent.
+CREATE OR REPLACE FUNCTION create_meetings_partition(month_day DATE) RETURNS TEXT AS $$
+DECLARE
+    range_start DATE := date_trunc('month', month_day)::DATE;
+    range_end DATE := (date_trunc('month', month_day) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'meetings_p' || to_char(date_trunc('month', month_day), 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('meetings_partitions'));
+
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE meetings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   partition_name);
+    EXECUTE format('INSERT INTO %I SELECT * FROM meetings_default'
+                       || ' WHERE start_time >= %L AND start_time < %L',
+                   partition_name, range_start, range_end);
+    EXECUTE format('DELETE FROM meetings_default WHERE start_time >= %L AND start_time < %L',
+                   range_start, range_end);
+    EXECUTE format('ALTER TABLE meetings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detach the given partition from meetings and drop it when drop_partition is set. Returns false
+-- when the partition is no longer attached, e.g. because another node expired it already.
+CREATE OR REPLACE FUNCTION expire_meetings_partition(partition_name TEXT, drop_partition BOOLEAN)
+    RETURNS BOOLEAN AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('meetings_partitions'));
+
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_inherits i
+                            JOIN pg_class c ON c.oid = i.inhrelid
+                            JOIN pg_class p ON p.oid = i.inhparent
+                   WHERE p.relname = 'meetings' AND c.relname = partition_name) THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('ALTER TABLE meetings DETACH PARTITION %I', partition_name);
+    IF drop_partition THEN
+        EXECUTE format('DROP TABLE %I', partition_name);
+    END IF;
+
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
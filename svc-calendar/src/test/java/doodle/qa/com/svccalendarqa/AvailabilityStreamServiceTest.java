@@ -0,0 +1,203 @@
+package doodle.qa.com.svccalendarqa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import doodle.qa.com.svccalendarqa.dto.AvailabilityDeltaDto;
+import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
+import doodle.qa.com.svccalendarqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svccalendarqa.repository.UserCalendarRepository;
+import doodle.qa.com.svccalendarqa.service.AvailabilityStreamService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Unit tests for the AvailabilityStreamService. These tests verify subscriber registration and the
+ * per-calendar fan-out of availability deltas. Deltas are dispatched on the calling thread unless a
+ * test collects the dispatch tasks to run them later.
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamServiceTest {
+
+  @Mock private UserCalendarRepository userCalendarRepository;
+
+  private AvailabilityStreamService availabilityStreamService;
+
+  private final List<Runnable> dispatchTasks = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    availabilityStreamService = createService(Runnable::run, 32);
+  }
+
+  @Test
+  @DisplayName("Should register subscriber when calendar exists for user")
+  void subscribe_WhenCalendarExists_ShouldRegisterSubscriber() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)).thenReturn(true);
+
+    // When
+    SseEmitter emitter = availabilityStreamService.subscribe(userId, calendarId);
+
+    // Then
+    assertThat(emitter).isNotNull();
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should throw CalendarNotFoundException when calendar does not exist for user")
+  void subscribe_WhenCalendarNotFound_ShouldThrowCalendarNotFoundException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)).thenReturn(false);
+
+    // When/Then
+    assertThrows(
+        CalendarNotFoundException.class,
+        () -> availabilityStreamService.subscribe(userId, calendarId));
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isZero();
+  }
+
+  @Test
+  @DisplayName("Should deliver delta to open subscribers and keep them registered")
+  void onAvailabilityDelta_WhenSubscriberOpen_ShouldKeepSubscriber() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    subscribe(calendarId);
+    subscribe(calendarId);
+
+    // When
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+
+    // Then
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should drop subscribers whose stream has already completed")
+  void onAvailabilityDelta_WhenSubscriberCompleted_ShouldDropSubscriber() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    SseEmitter completed = subscribe(calendarId);
+    subscribe(calendarId);
+    completed.complete();
+
+    // When
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+
+    // Then
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should ignore deltas for calendars without subscribers")
+  void onAvailabilityDelta_WhenNoSubscribers_ShouldDoNothing() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+
+    // When/Then
+    assertDoesNotThrow(
+        () -> availabilityStreamService.onAvailabilityDelta(createDelta(calendarId)));
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isZero();
+  }
+
+  @Test
+  @DisplayName("Should queue deltas without sending them on the committing thread")
+  void onAvailabilityDelta_ShouldDispatchDeliveryToExecutor() {
+    // Given
+    availabilityStreamService = createService(dispatchTasks::add, 32);
+    UUID calendarId = UUID.randomUUID();
+    subscribe(calendarId);
+    subscribe(calendarId);
+
+    // When
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+
+    // Then one drain task per subscriber is dispatched, and running them keeps both subscribed
+    assertThat(dispatchTasks).hasSize(2);
+    dispatchTasks.forEach(Runnable::run);
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should drop a subscriber that has more undelivered events than allowed")
+  void onAvailabilityDelta_WhenSubscriberFallsBehind_ShouldDropSubscriber() {
+    // Given a subscriber whose drain task never gets to run
+    availabilityStreamService = createService(dispatchTasks::add, 2);
+    UUID calendarId = UUID.randomUUID();
+    subscribe(calendarId);
+
+    // When
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(1);
+    availabilityStreamService.onAvailabilityDelta(createDelta(calendarId));
+
+    // Then
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isZero();
+    assertDoesNotThrow(() -> dispatchTasks.forEach(Runnable::run));
+  }
+
+  @Test
+  @DisplayName("Should drop subscribers whose stream has ended when sending heartbeats")
+  void sendHeartbeats_WhenSubscriberCompleted_ShouldDropSubscriber() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    SseEmitter completed = subscribe(calendarId);
+    subscribe(calendarId);
+    completed.complete();
+
+    // When
+    availabilityStreamService.sendHeartbeats();
+
+    // Then
+    assertThat(availabilityStreamService.getSubscriberCount(calendarId)).isEqualTo(1);
+  }
+
+  private AvailabilityStreamService createService(Executor dispatchExecutor, int maxPending) {
+    return new AvailabilityStreamService(
+        userCalendarRepository,
+        new ObjectMapper().findAndRegisterModules(),
+        dispatchExecutor,
+        60_000L,
+        maxPending);
+  }
+
+  private SseEmitter subscribe(UUID calendarId) {
+    UUID userId = UUID.randomUUID();
+    when(userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)).thenReturn(true);
+    return availabilityStreamService.subscribe(userId, calendarId);
+  }
+
+  private AvailabilityDeltaDto createDelta(UUID calendarId) {
+    LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+    return AvailabilityDeltaDto.builder()
+        .calendarId(calendarId)
+        .busy(
+            List.of(
+                TimeSlotDto.builder()
+                    .startTime(startTime)
+                    .endTime(startTime.plusMinutes(30))
+                    .durationMinutes(30)
+                    .build()))
+        .free(List.of())
+        .build();
+  }
+}
@@ -2,6 +2,8 @@ package doodle.qa.com.svccalendarqa;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -12,12 +14,16 @@ import doodle.qa.com.svccalendarqa.controller.MeetingController;
 import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
 import doodle.qa.com.svccalendarqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svccalendarqa.exception.IdempotencyKeyConflictException;
 import doodle.qa.com.svccalendarqa.exception.MeetingNotFoundException;
+import doodle.qa.com.svccalendarqa.service.AvailabilityStreamService;
+import doodle.qa.com.svccalendarqa.service.IdempotencyService;
 import doodle.qa.com.svccalendarqa.service.MeetingService;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,8 +34,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Unit tests for the MeetingController. These tests verify the REST API endpoints using MockMvc.
@@ -43,6 +52,10 @@ class MeetingControllerTest {
 
   @MockBean private MeetingService meetingService;
 
+  @MockBean private AvailabilityStreamService availabilityStreamService;
+
+  @MockBean private IdempotencyService idempotencyService;
+
   private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
 
   @Test
@@ -283,6 +296,96 @@ class MeetingControllerTest {
             any(Pageable.class));
   }
 
+  @Test
+  @DisplayName("Should return 304 without loading meetings when the ETag matches")
+  void getMeetings_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime from = LocalDateTime.now().minusDays(1);
+    LocalDateTime to = LocalDateTime.now().plusDays(1);
+
+    when(meetingService.getMeetingsVersion(userId, calendarId)).thenReturn(2L);
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/meeting")
+                .param("userId", userId.toString())
+                .param("calendarId", calendarId.toString())
+                .param("from", from.format(DATE_TIME_FORMATTER))
+                .param("to", to.format(DATE_TIME_FORMATTER))
+                .header("If-None-Match", "\"2\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", "\"2\""))
+        .andExpect(content().string(""));
+
+    verify(meetingService, never())
+        .findMeetings(any(UUID.class), any(UUID.class), any(), any(), any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Should return ETag when getting meetings with a stale ETag")
+  void getMeetings_WhenETagStale_ShouldReturnMeetingsWithETag() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime from = LocalDateTime.now().minusDays(1);
+    LocalDateTime to = LocalDateTime.now().plusDays(1);
+
+    List<MeetingDto> meetingDtos = TestDataFactory.createMeetingDtoList(1, calendarId);
+    when(meetingService.getMeetingsVersion(userId, calendarId)).thenReturn(3L);
+    when(meetingService.findMeetings(
+            eq(userId),
+            eq(calendarId),
+            any(LocalDateTime.class),
+            any(LocalDateTime.class),
+            any(Pageable.class)))
+        .thenReturn(new PageImpl<>(meetingDtos, PageRequest.of(0, 10), meetingDtos.size()));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/meeting")
+                .param("userId", userId.toString())
+                .param("calendarId", calendarId.toString())
+                .param("from", from.format(DATE_TIME_FORMATTER))
+                .param("to", to.format(DATE_TIME_FORMATTER))
+                .header("If-None-Match", "\"2\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"3\""))
+        .andExpect(jsonPath("$.meetings", hasSize(1)));
+  }
+
+  @Test
+  @DisplayName("Should return 304 without computing slots when the ETag matches")
+  void getAvailableTimeSlots_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    LocalDateTime to = from.plusHours(4);
+
+    when(meetingService.getAvailabilityVersion(userId, calendarId)).thenReturn(Optional.of("2-5"));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/meeting/slots")
+                .param("userId", userId.toString())
+                .param("calendarId", calendarId.toString())
+                .param("from", from.format(DATE_TIME_FORMATTER))
+                .param("to", to.format(DATE_TIME_FORMATTER))
+                .param("slotDuration", "60")
+                .header("If-None-Match", "\"2-5\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    verify(meetingService, never())
+        .findAvailableTimeSlots(
+            any(UUID.class), any(UUID.class), any(), any(), anyInt(), any(Pageable.class));
+  }
+
   @Test
   @DisplayName("Should return meeting when getting meeting by ID that exists")
   void getMeeting_WhenMeetingExists_ShouldReturnMeeting() throws Exception {
@@ -386,6 +489,94 @@ class MeetingControllerTest {
     verify(meetingService).createMeeting(any(MeetingDto.class), eq(userId));
   }
 
+  @Test
+  @DisplayName("Should return the stored response when creating meeting with a replayed key")
+  void createMeeting_WithReplayedIdempotencyKey_ShouldReturnStoredResponse() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+
+    MeetingDto meetingToCreate =
+        TestDataFactory.createMeetingDto(
+            null,
+            "New Meeting",
+            "New Description",
+            startTime,
+            startTime.plusHours(1),
+            null,
+            calendarId);
+    MeetingDto createdMeeting =
+        TestDataFactory.createMeetingDto(
+            UUID.randomUUID(),
+            "New Meeting",
+            "New Description",
+            startTime,
+            startTime.plusHours(1),
+            null,
+            calendarId);
+
+    when(idempotencyService.execute(
+            eq("POST /meeting"),
+            eq("key-1"),
+            any(),
+            eq(HttpStatus.CREATED),
+            eq(MeetingDto.class),
+            any()))
+        .thenReturn(
+            ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, "true")
+                .body(createdMeeting));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/meeting")
+                .param("userId", userId.toString())
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(meetingToCreate)))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+        .andExpect(jsonPath("$.id", is(createdMeeting.getId().toString())));
+
+    verify(meetingService, never()).createMeeting(any(MeetingDto.class), any(UUID.class));
+  }
+
+  @Test
+  @DisplayName("Should return 409 when creating meeting with an idempotency key in use")
+  void createMeeting_WithIdempotencyKeyInUse_ShouldReturn409() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime startTime = LocalDateTime.now().plusHours(1);
+
+    MeetingDto meetingToCreate =
+        TestDataFactory.createMeetingDto(
+            null,
+            "New Meeting",
+            "New Description",
+            startTime,
+            startTime.plusHours(1),
+            null,
+            calendarId);
+
+    when(idempotencyService.execute(
+            anyString(), eq("key-1"), any(), any(), eq(MeetingDto.class), any()))
+        .thenThrow(new IdempotencyKeyConflictException("in progress"));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/meeting")
+                .param("userId", userId.toString())
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(meetingToCreate)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message", is("in progress")));
+  }
+
   @Test
   @DisplayName("Should return 400 when creating meeting with invalid data")
   void createMeeting_WithInvalidData_ShouldReturn400() throws Exception {
@@ -527,4 +718,44 @@ class MeetingControllerTest {
 
     verify(meetingService).deleteMeeting(meetingId, userId, calendarId);
   }
+
+  @Test
+  @DisplayName("Should open an event stream when subscribing to availability changes")
+  void streamAvailability_WhenCalendarExists_ShouldStartEventStream() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+
+    when(availabilityStreamService.subscribe(userId, calendarId)).thenReturn(new SseEmitter());
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/meeting/stream")
+                .param("userId", userId.toString())
+                .param("calendarId", calendarId.toString()))
+        .andExpect(status().isOk())
+        .andExpect(request().asyncStarted());
+
+    verify(availabilityStreamService).subscribe(userId, calendarId);
+  }
+
+  @Test
+  @DisplayName("Should return 404 when subscribing to availability of an unknown calendar")
+  void streamAvailability_WhenCalendarNotFound_ShouldReturn404() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+
+    when(availabilityStreamService.subscribe(userId, calendarId))
+        .thenThrow(new CalendarNotFoundException(calendarId, userId));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/meeting/stream")
+                .param("userId", userId.toString())
+                .param("calendarId", calendarId.toString()))
+        .andExpect(status().isNotFound());
+  }
 }
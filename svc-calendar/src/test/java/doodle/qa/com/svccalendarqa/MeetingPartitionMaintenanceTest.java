@@ -0,0 +1,132 @@
+package doodle.qa.com.svccalendarqa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import doodle.qa.com.svccalendarqa.config.MeetingPartitionMaintenance;
+import doodle.qa.com.svccalendarqa.config.MeetingPartitionMaintenance.ExpiredAction;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Unit tests for the MeetingPartitionMaintenance. These tests verify which monthly partitions are
+ * created in advance and which ones are expired by the retention policy.
+ */
+@ExtendWith(MockitoExtension.class)
+class MeetingPartitionMaintenanceTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2025, 3, 14);
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName("Should create partitions for the current month and the months ahead")
+  void maintainPartitions_ShouldCreateUpcomingPartitions() {
+    // Given
+    MeetingPartitionMaintenance maintenance =
+        new MeetingPartitionMaintenance(jdbcTemplate, 2, 12, ExpiredAction.DETACH);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+    // When
+    maintenance.maintainPartitions(TODAY);
+
+    // Then
+    for (LocalDate month :
+        List.of(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1), LocalDate.of(2025, 5, 1))) {
+      verify(jdbcTemplate)
+          .queryForObject("SELECT create_meetings_partition(?)", String.class, month);
+    }
+    verify(jdbcTemplate, never())
+        .queryForObject(eq("SELECT expire_meetings_partition(?, ?)"), eq(Boolean.class), any());
+  }
+
+  @Test
+  @DisplayName("Should detach partitions older than the retention window and keep the rest")
+  void maintainPartitions_WhenPartitionsExpired_ShouldDetachThem() {
+    // Given
+    MeetingPartitionMaintenance maintenance =
+        new MeetingPartitionMaintenance(jdbcTemplate, 0, 12, ExpiredAction.DETACH);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+        .thenReturn(
+            List.of(
+                "meetings_p2024_02", "meetings_p2024_03", "meetings_p2025_03", "meetings_default"));
+    when(jdbcTemplate.queryForObject(
+            "SELECT create_meetings_partition(?)", String.class, LocalDate.of(2025, 3, 1)))
+        .thenReturn("meetings_p2025_03");
+    when(jdbcTemplate.queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, "meetings_p2024_02", false))
+        .thenReturn(true);
+
+    // When
+    List<String> expired = maintenance.maintainPartitions(TODAY);
+
+    // Then
+    assertThat(expired).containsExactly("meetings_p2024_02");
+    verify(jdbcTemplate)
+        .queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, "meetings_p2024_02", false);
+    verify(jdbcTemplate, never())
+        .queryForObject(
+            eq("SELECT expire_meetings_partition(?, ?)"),
+            eq(Boolean.class),
+            eq("meetings_default"),
+            anyBoolean());
+  }
+
+  @Test
+  @DisplayName("Should drop expired partitions when configured to")
+  void maintainPartitions_WhenExpiredActionIsDrop_ShouldDropExpiredPartitions() {
+    // Given
+    MeetingPartitionMaintenance maintenance =
+        new MeetingPartitionMaintenance(jdbcTemplate, 0, 12, ExpiredAction.DROP);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+        .thenReturn(List.of("meetings_p2023_12"));
+    when(jdbcTemplate.queryForObject(
+            "SELECT create_meetings_partition(?)", String.class, LocalDate.of(2025, 3, 1)))
+        .thenReturn("meetings_p2025_03");
+    when(jdbcTemplate.queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, "meetings_p2023_12", true))
+        .thenReturn(true);
+
+    // When
+    List<String> expired = maintenance.maintainPartitions(TODAY);
+
+    // Then
+    assertThat(expired).containsExactly("meetings_p2023_12");
+    verify(jdbcTemplate)
+        .queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, "meetings_p2023_12", true);
+  }
+
+  @Test
+  @DisplayName("Should not report a partition that another node expired already")
+  void maintainPartitions_WhenPartitionAlreadyExpired_ShouldSkipIt() {
+    // Given
+    MeetingPartitionMaintenance maintenance =
+        new MeetingPartitionMaintenance(jdbcTemplate, 0, 12, ExpiredAction.DETACH);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+        .thenReturn(List.of("meetings_p2023_12"));
+    when(jdbcTemplate.queryForObject(
+            "SELECT create_meetings_partition(?)", String.class, LocalDate.of(2025, 3, 1)))
+        .thenReturn("meetings_p2025_03");
+    when(jdbcTemplate.queryForObject(
+            "SELECT expire_meetings_partition(?, ?)", Boolean.class, "meetings_p2023_12", false))
+        .thenReturn(false);
+
+    // When
+    List<String> expired = maintenance.maintainPartitions(TODAY);
+
+    // Then
+    assertThat(expired).isEmpty();
+  }
+}
@@ -2,6 +2,7 @@ package doodle.qa.com.svccalendarqa;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.entity.Meeting;
 import doodle.qa.com.svccalendarqa.entity.UserCalendar;
 import doodle.qa.com.svccalendarqa.repository.MeetingRepository;
@@ -44,9 +45,8 @@ class MeetingRepositoryTest {
   }
 
   @Test
-  @DisplayName("Should find meetings by user calendar and time range")
-  void
-      findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc_ShouldReturnMeetings() {
+  @DisplayName("Should find meeting DTOs by user calendar and time range")
+  void findMeetingDtos_ShouldReturnMeetingsOrderedByStartTime() {
     // Given
     LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
     LocalDateTime from = now.minusDays(1);
@@ -88,16 +88,43 @@ class MeetingRepositoryTest {
     meetingRepository.save(meeting3);
 
     // When
-    Page<Meeting> meetings =
-        meetingRepository
-            .findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-                userCalendar, from, to, PageRequest.of(0, 10));
+    Page<MeetingDto> meetings =
+        meetingRepository.findMeetingDtos(userCalendar.getId(), from, to, PageRequest.of(0, 10));
 
     // Then
     assertThat(meetings.getContent()).hasSize(3);
     assertThat(meetings.getContent().get(0).getTitle()).isEqualTo("Meeting 1");
     assertThat(meetings.getContent().get(1).getTitle()).isEqualTo("Meeting 2");
     assertThat(meetings.getContent().get(2).getTitle()).isEqualTo("Meeting 3");
+    assertThat(meetings.getContent().get(0).getCalendarId()).isEqualTo(calendarId);
+    assertThat(meetings.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Should find meeting DTO by user calendar ID and meeting ID")
+  void findMeetingDto_WhenMeetingExists_ShouldReturnMeetingDto() {
+    // Given
+    Meeting savedMeeting =
+        meetingRepository.save(
+            TestDataFactory.createMeeting(
+                null,
+                "Test Meeting",
+                "Test Description",
+                LocalDateTime.now(),
+                LocalDateTime.now().plusHours(1),
+                "Test Location",
+                userCalendar,
+                calendarId));
+
+    // When
+    Optional<MeetingDto> foundMeeting =
+        meetingRepository.findMeetingDto(userCalendar.getId(), savedMeeting.getId());
+
+    // Then
+    assertThat(foundMeeting).isPresent();
+    assertThat(foundMeeting.get().getId()).isEqualTo(savedMeeting.getId());
+    assertThat(foundMeeting.get().getTitle()).isEqualTo("Test Meeting");
+    assertThat(foundMeeting.get().getCalendarId()).isEqualTo(calendarId);
   }
 
   @Test
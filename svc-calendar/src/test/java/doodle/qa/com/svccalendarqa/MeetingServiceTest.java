@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import doodle.qa.com.svccalendarqa.dto.AvailabilityDeltaDto;
 import doodle.qa.com.svccalendarqa.dto.MeetingDto;
 import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
 import doodle.qa.com.svccalendarqa.entity.Meeting;
@@ -17,10 +18,14 @@ import doodle.qa.com.svccalendarqa.exception.MeetingNotFoundException;
 import doodle.qa.com.svccalendarqa.repository.MeetingRepository;
 import doodle.qa.com.svccalendarqa.repository.UserCalendarRepository;
 import doodle.qa.com.svccalendarqa.service.MeetingService;
+import doodle.qa.com.svccalendarqa.service.ProviderEventsCache;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,12 +35,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -48,12 +54,21 @@ class MeetingServiceTest {
   @Mock private MeetingRepository meetingRepository;
   @Mock private UserCalendarRepository userCalendarRepository;
   @Mock private RestTemplate restTemplate;
+  @Mock private ApplicationEventPublisher eventPublisher;
 
+  private ProviderEventsCache providerEventsCache;
   private MeetingService meetingService;
 
   @BeforeEach
   void setUp() {
-    meetingService = new MeetingService(meetingRepository, userCalendarRepository, restTemplate);
+    providerEventsCache = new ProviderEventsCache(Duration.ofMinutes(5), 100, 10);
+    meetingService =
+        new MeetingService(
+            meetingRepository,
+            userCalendarRepository,
+            restTemplate,
+            eventPublisher,
+            providerEventsCache);
   }
 
   @Test
@@ -64,17 +79,15 @@ class MeetingServiceTest {
     UUID calendarId = UUID.randomUUID();
     UserCalendar userCalendar =
         TestDataFactory.createUserCalendar(UUID.randomUUID(), calendarId, userId);
-    List<Meeting> meetings = TestDataFactory.createMeetingList(3, userCalendar, calendarId);
+    List<MeetingDto> meetings = TestDataFactory.createMeetingDtoList(3, calendarId);
     LocalDateTime from = LocalDateTime.now().minusDays(1);
     LocalDateTime to = LocalDateTime.now().plusDays(1);
     Pageable pageable = PageRequest.of(0, 10);
-    Page<Meeting> meetingsPage = new PageImpl<>(meetings, pageable, meetings.size());
+    Page<MeetingDto> meetingsPage = new PageImpl<>(meetings, pageable, meetings.size());
 
     when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
         .thenReturn(Optional.of(userCalendar));
-    when(meetingRepository
-            .findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-                userCalendar, from, to, pageable))
+    when(meetingRepository.findMeetingDtos(userCalendar.getId(), from, to, pageable))
         .thenReturn(meetingsPage);
 
     // When
@@ -83,9 +96,7 @@ class MeetingServiceTest {
     // Then
     assertThat(result.getContent()).hasSize(3);
     verify(userCalendarRepository).findByCalendarIdAndUserId(calendarId, userId);
-    verify(meetingRepository)
-        .findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-            userCalendar, from, to, pageable);
+    verify(meetingRepository).findMeetingDtos(userCalendar.getId(), from, to, pageable);
   }
 
   @Test
@@ -106,9 +117,7 @@ class MeetingServiceTest {
         CalendarNotFoundException.class,
         () -> meetingService.findMeetings(userId, calendarId, from, to, pageable));
     verify(userCalendarRepository).findByCalendarIdAndUserId(calendarId, userId);
-    verify(meetingRepository, never())
-        .findByUserCalendarAndStartTimeGreaterThanEqualAndEndTimeLessThanEqualOrderByStartTimeAsc(
-            any(), any(), any(), any());
+    verify(meetingRepository, never()).findMeetingDtos(any(), any(), any(), any());
   }
 
   @Test
@@ -120,20 +129,19 @@ class MeetingServiceTest {
     UUID meetingId = UUID.randomUUID();
     UserCalendar userCalendar =
         TestDataFactory.createUserCalendar(UUID.randomUUID(), calendarId, userId);
-    Meeting meeting =
-        TestDataFactory.createMeeting(
+    MeetingDto meeting =
+        TestDataFactory.createMeetingDto(
             meetingId,
             "Test Meeting",
             "Test Description",
             LocalDateTime.now(),
             LocalDateTime.now().plusHours(1),
             "Test Location",
-            userCalendar,
             calendarId);
 
     when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
         .thenReturn(Optional.of(userCalendar));
-    when(meetingRepository.findByUserCalendarAndId(userCalendar, meetingId))
+    when(meetingRepository.findMeetingDto(userCalendar.getId(), meetingId))
         .thenReturn(Optional.of(meeting));
 
     // When
@@ -144,7 +152,8 @@ class MeetingServiceTest {
     assertThat(result.getTitle()).isEqualTo("Test Meeting");
     assertThat(result.getDescription()).isEqualTo("Test Description");
     verify(userCalendarRepository).findByCalendarIdAndUserId(calendarId, userId);
-    verify(meetingRepository).findByUserCalendarAndId(userCalendar, meetingId);
+    verify(meetingRepository).findMeetingDto(userCalendar.getId(), meetingId);
+    verify(meetingRepository, never()).findByUserCalendarAndId(any(), any());
   }
 
   @Test
@@ -159,7 +168,7 @@ class MeetingServiceTest {
 
     when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
         .thenReturn(Optional.of(userCalendar));
-    when(meetingRepository.findByUserCalendarAndId(userCalendar, meetingId))
+    when(meetingRepository.findMeetingDto(userCalendar.getId(), meetingId))
         .thenReturn(Optional.empty());
 
     // When/Then
@@ -167,7 +176,7 @@ class MeetingServiceTest {
         MeetingNotFoundException.class,
         () -> meetingService.findMeeting(meetingId, userId, calendarId));
     verify(userCalendarRepository).findByCalendarIdAndUserId(calendarId, userId);
-    verify(meetingRepository).findByUserCalendarAndId(userCalendar, meetingId);
+    verify(meetingRepository).findMeetingDto(userCalendar.getId(), meetingId);
   }
 
   @Test
@@ -204,10 +213,7 @@ class MeetingServiceTest {
             eq(userCalendar), any(LocalDateTime.class), any(LocalDateTime.class)))
         .thenReturn(Collections.emptyList());
 
-    @SuppressWarnings("rawtypes")
-    ResponseEntity<List> mockResponse =
-        new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
-    when(restTemplate.getForEntity(anyString(), eq(List.class))).thenReturn(mockResponse);
+    when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(freeBusy());
 
     when(meetingRepository.save(any(Meeting.class))).thenReturn(savedMeeting);
 
@@ -233,6 +239,17 @@ class MeetingServiceTest {
     assertThat(capturedMeeting.getLocation()).isEqualTo("New Location");
     assertThat(capturedMeeting.getUserCalendar()).isEqualTo(userCalendar);
     assertThat(capturedMeeting.getCalendarId()).isEqualTo(calendarId);
+    verify(userCalendarRepository).incrementMeetingsVersion(userCalendar.getId());
+
+    ArgumentCaptor<AvailabilityDeltaDto> deltaCaptor =
+        ArgumentCaptor.forClass(AvailabilityDeltaDto.class);
+    verify(eventPublisher).publishEvent(deltaCaptor.capture());
+    AvailabilityDeltaDto delta = deltaCaptor.getValue();
+    assertThat(delta.getCalendarId()).isEqualTo(calendarId);
+    assertThat(delta.getBusy()).hasSize(1);
+    assertThat(delta.getBusy().get(0).getStartTime()).isEqualTo(startTime);
+    assertThat(delta.getBusy().get(0).getEndTime()).isEqualTo(endTime);
+    assertThat(delta.getFree()).isEmpty();
   }
 
   @Test
@@ -303,10 +320,7 @@ class MeetingServiceTest {
             eq(userCalendar), any(LocalDateTime.class), any(LocalDateTime.class)))
         .thenReturn(Collections.emptyList());
 
-    @SuppressWarnings("rawtypes")
-    ResponseEntity<List> mockResponse =
-        new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
-    when(restTemplate.getForEntity(anyString(), eq(List.class))).thenReturn(mockResponse);
+    when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(freeBusy());
 
     when(meetingRepository.save(any(Meeting.class))).thenAnswer(i -> i.getArgument(0));
 
@@ -365,6 +379,98 @@ class MeetingServiceTest {
     verify(meetingRepository, never()).save(any(Meeting.class));
   }
 
+  @Test
+  @DisplayName("Should return meetings version when calendar exists")
+  void getMeetingsVersion_WhenCalendarExists_ShouldReturnVersion() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.findMeetingsVersion(calendarId, userId))
+        .thenReturn(Optional.of(3L));
+
+    // When
+    long result = meetingService.getMeetingsVersion(userId, calendarId);
+
+    // Then
+    assertThat(result).isEqualTo(3L);
+    verifyNoInteractions(meetingRepository);
+  }
+
+  @Test
+  @DisplayName("Should throw CalendarNotFoundException when getting version of unknown calendar")
+  void getMeetingsVersion_WhenCalendarNotFound_ShouldThrowCalendarNotFoundException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.findMeetingsVersion(calendarId, userId))
+        .thenReturn(Optional.empty());
+
+    // When/Then
+    assertThrows(
+        CalendarNotFoundException.class,
+        () -> meetingService.getMeetingsVersion(userId, calendarId));
+  }
+
+  @Test
+  @DisplayName("Should combine meetings version with provider events version")
+  void getAvailabilityVersion_WhenProviderReturnsETag_ShouldCombineVersions() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.findMeetingsVersion(calendarId, userId))
+        .thenReturn(Optional.of(3L));
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"5\"");
+    when(restTemplate.headForHeaders(anyString())).thenReturn(headers);
+
+    // When
+    Optional<String> result = meetingService.getAvailabilityVersion(userId, calendarId);
+
+    // Then
+    assertThat(result).contains("3-5");
+  }
+
+  @Test
+  @DisplayName("Should return no availability version when provider does not report one")
+  void getAvailabilityVersion_WhenProviderFails_ShouldReturnEmpty() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.findMeetingsVersion(calendarId, userId))
+        .thenReturn(Optional.of(3L));
+    when(restTemplate.headForHeaders(anyString())).thenThrow(new RestClientException("down"));
+
+    // When
+    Optional<String> result = meetingService.getAvailabilityVersion(userId, calendarId);
+
+    // Then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should reuse the cached provider events version until the calendar changes")
+  void getAvailabilityVersion_WhenCacheActive_ShouldQueryProviderUntilInvalidated() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    when(userCalendarRepository.findMeetingsVersion(calendarId, userId))
+        .thenReturn(Optional.of(3L));
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"5\"");
+    when(restTemplate.headForHeaders(anyString())).thenReturn(headers);
+    providerEventsCache.activate();
+
+    // When
+    meetingService.getAvailabilityVersion(userId, calendarId);
+    Optional<String> cached = meetingService.getAvailabilityVersion(userId, calendarId);
+    providerEventsCache.invalidate(calendarId);
+    meetingService.getAvailabilityVersion(userId, calendarId);
+
+    // Then
+    assertThat(cached).contains("3-5");
+    verify(restTemplate, times(2)).headForHeaders(anyString());
+  }
+
   @Test
   @DisplayName("Should delete meeting when meeting exists")
   void deleteMeeting_WhenMeetingExists_ShouldDeleteMeeting() {
@@ -396,6 +502,15 @@ class MeetingServiceTest {
 
     // Then
     verify(meetingRepository).delete(meeting);
+    verify(userCalendarRepository).incrementMeetingsVersion(userCalendar.getId());
+
+    ArgumentCaptor<AvailabilityDeltaDto> deltaCaptor =
+        ArgumentCaptor.forClass(AvailabilityDeltaDto.class);
+    verify(eventPublisher).publishEvent(deltaCaptor.capture());
+    assertThat(deltaCaptor.getValue().getBusy()).isEmpty();
+    assertThat(deltaCaptor.getValue().getFree()).hasSize(1);
+    assertThat(deltaCaptor.getValue().getFree().get(0).getStartTime())
+        .isEqualTo(meeting.getStartTime());
   }
 
   @Test
@@ -438,10 +553,7 @@ class MeetingServiceTest {
     when(meetingRepository.findOverlappingMeetingsByUserCalendar(userCalendar, from, to))
         .thenReturn(Collections.emptyList());
 
-    @SuppressWarnings("rawtypes")
-    ResponseEntity<List> mockResponse =
-        new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
-    when(restTemplate.getForEntity(anyString(), eq(List.class))).thenReturn(mockResponse);
+    when(restTemplate.getForObject(anyString(), eq(Map.class))).thenReturn(freeBusy());
 
     // When
     Page<TimeSlotDto> result =
@@ -459,4 +571,112 @@ class MeetingServiceTest {
     assertThat(result.getContent().get(3).getStartTime()).isEqualTo(from.plusMinutes(90));
     assertThat(result.getContent().get(3).getEndTime()).isEqualTo(from.plusMinutes(120));
   }
+
+  @Test
+  @DisplayName("Should exclude the provider's delta-encoded busy time from available slots")
+  void findAvailableTimeSlots_WhenProviderReturnsBusyDeltas_ShouldSkipBusySlots() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    UserCalendar userCalendar =
+        TestDataFactory.createUserCalendar(UUID.randomUUID(), calendarId, userId);
+    LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    LocalDateTime to = from.plusHours(2);
+    long origin = from.toEpochSecond(ZoneOffset.UTC) / 60;
+
+    when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
+        .thenReturn(Optional.of(userCalendar));
+    when(meetingRepository.findOverlappingMeetingsByUserCalendar(userCalendar, from, to))
+        .thenReturn(Collections.emptyList());
+    // Busy from minute 30 to 60 and from minute 90 to 105
+    when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        .thenReturn(freeBusy(origin, 30, 30, 30, 15));
+
+    // When
+    Page<TimeSlotDto> result =
+        meetingService.findAvailableTimeSlots(
+            userId, calendarId, from, to, 30, PageRequest.of(0, 10));
+
+    // Then
+    assertThat(result.getContent())
+        .extracting(TimeSlotDto::getStartTime)
+        .containsExactly(from, from.plusMinutes(60));
+    verify(restTemplate).getForObject(contains("/freebusy?"), eq(Map.class));
+  }
+
+  @Test
+  @DisplayName("Should reject a meeting overlapping the provider's busy time")
+  void createMeeting_WhenProviderReportsBusyTime_ShouldThrowException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    UserCalendar userCalendar =
+        TestDataFactory.createUserCalendar(UUID.randomUUID(), calendarId, userId);
+    LocalDateTime startTime = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    MeetingDto meetingDto =
+        TestDataFactory.createMeetingDto(
+            null, "Meeting", "Description", startTime, startTime.plusHours(1), "Room", calendarId);
+    long origin = startTime.toEpochSecond(ZoneOffset.UTC) / 60;
+
+    when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
+        .thenReturn(Optional.of(userCalendar));
+    when(userCalendarRepository.findAllByCalendarId(calendarId))
+        .thenReturn(Collections.singletonList(userCalendar));
+    when(meetingRepository.findOverlappingMeetingsByUserCalendar(
+            eq(userCalendar), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(Collections.emptyList());
+    when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        .thenReturn(freeBusy(origin, 45, 30));
+
+    // When/Then
+    assertThrows(
+        IllegalArgumentException.class, () -> meetingService.createMeeting(meetingDto, userId));
+    verify(meetingRepository, never()).save(any(Meeting.class));
+  }
+
+  @Test
+  @DisplayName("Should check a new meeting against the provider even when its events are cached")
+  void createMeeting_WhenProviderEventsCached_ShouldCheckConflictsWithProvider() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    UserCalendar userCalendar =
+        TestDataFactory.createUserCalendar(UUID.randomUUID(), calendarId, userId);
+    LocalDateTime startTime = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    LocalDateTime endTime = startTime.plusHours(1);
+    MeetingDto meetingDto =
+        TestDataFactory.createMeetingDto(
+            null, "Meeting", "Description", startTime, endTime, "Room", calendarId);
+    long origin = startTime.toEpochSecond(ZoneOffset.UTC) / 60;
+
+    when(userCalendarRepository.findByCalendarIdAndUserId(calendarId, userId))
+        .thenReturn(Optional.of(userCalendar));
+    when(userCalendarRepository.findAllByCalendarId(calendarId))
+        .thenReturn(Collections.singletonList(userCalendar));
+    when(meetingRepository.findOverlappingMeetingsByUserCalendar(
+            eq(userCalendar), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(Collections.emptyList());
+    // The cached view is free, but an event was added since
+    when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        .thenReturn(freeBusy())
+        .thenReturn(freeBusy(origin, 0, 60));
+    providerEventsCache.activate();
+    meetingService.findAvailableTimeSlots(
+        userId, calendarId, startTime, endTime, 30, PageRequest.of(0, 10));
+
+    // When/Then
+    assertThrows(
+        IllegalArgumentException.class, () -> meetingService.createMeeting(meetingDto, userId));
+    verify(restTemplate, times(2)).getForObject(contains("/freebusy?"), eq(Map.class));
+    verify(meetingRepository, never()).save(any(Meeting.class));
+  }
+
+  /** Builds a delta-encoded free/busy response as returned by the provider service. */
+  private Map<String, Object> freeBusy(long origin, Integer... deltas) {
+    return Map.of("origin", origin, "deltas", List.of(deltas));
+  }
+
+  private Map<String, Object> freeBusy() {
+    return freeBusy(0);
+  }
 }
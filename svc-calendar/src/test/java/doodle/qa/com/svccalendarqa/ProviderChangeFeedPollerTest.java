@@ -0,0 +1,131 @@
+package doodle.qa.com.svccalendarqa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import doodle.qa.com.svccalendarqa.service.ProviderChangeFeedPoller;
+import doodle.qa.com.svccalendarqa.service.ProviderEventsCache;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Unit tests for the ProviderChangeFeedPoller. These tests verify that the cursor follows the
+ * provider's change feed and that changed calendars are invalidated.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProviderChangeFeedPollerTest {
+
+  private static final String PROVIDER_URL = "http://provider";
+
+  @Mock private RestTemplate restTemplate;
+  @Mock private ProviderEventsCache providerEventsCache;
+
+  private ProviderChangeFeedPoller poller;
+
+  @BeforeEach
+  void setUp() {
+    poller = new ProviderChangeFeedPoller(restTemplate, providerEventsCache, PROVIDER_URL, 2);
+  }
+
+  @Test
+  @DisplayName("Should start at the head of the feed and activate the cache")
+  void poll_WhenNoCursor_ShouldStartAtHeadAndActivateCache() {
+    // Given
+    when(restTemplate.getForObject(PROVIDER_URL + "/api/events/changes", Map.class))
+        .thenReturn(feed(List.of(), 42, false));
+
+    // When
+    poller.poll();
+
+    // Then
+    assertThat(poller.getCursor()).isEqualTo(42L);
+    verify(providerEventsCache).activate();
+    verify(providerEventsCache, never()).invalidate(any());
+  }
+
+  @Test
+  @DisplayName("Should invalidate changed calendars and follow further pages")
+  void poll_WhenChangesAvailable_ShouldInvalidateCalendarsOfAllPages() {
+    // Given
+    UUID firstCalendarId = UUID.randomUUID();
+    UUID secondCalendarId = UUID.randomUUID();
+    when(restTemplate.getForObject(PROVIDER_URL + "/api/events/changes", Map.class))
+        .thenReturn(feed(List.of(), 10, false));
+    poller.poll();
+    when(restTemplate.getForObject(
+            PROVIDER_URL + "/api/events/changes?since=10&limit=2", Map.class))
+        .thenReturn(feed(List.of(change(firstCalendarId), change(firstCalendarId)), 12, true));
+    when(restTemplate.getForObject(
+            PROVIDER_URL + "/api/events/changes?since=12&limit=2", Map.class))
+        .thenReturn(feed(List.of(change(secondCalendarId)), 13, false));
+
+    // When
+    poller.poll();
+
+    // Then
+    assertThat(poller.getCursor()).isEqualTo(13L);
+    verify(providerEventsCache, times(2)).invalidate(firstCalendarId);
+    verify(providerEventsCache).invalidate(secondCalendarId);
+  }
+
+  @Test
+  @DisplayName("Should drop the cache and reset the cursor when the feed cannot be read")
+  void poll_WhenProviderUnavailable_ShouldDeactivateCacheAndResetCursor() {
+    // Given
+    when(restTemplate.getForObject(PROVIDER_URL + "/api/events/changes", Map.class))
+        .thenReturn(feed(List.of(), 10, false));
+    poller.poll();
+    when(restTemplate.getForObject(anyString(), eq(Map.class)))
+        .thenThrow(new RestClientException("down"));
+
+    // When
+    poller.poll();
+
+    // Then
+    assertThat(poller.getCursor()).isNull();
+    verify(providerEventsCache).deactivate();
+  }
+
+  @Test
+  @DisplayName("Should drop the cache and continue from the head when the feed asks to resync")
+  void poll_WhenFeedAsksForResync_ShouldDropCacheAndContinueFromHead() {
+    // Given
+    when(restTemplate.getForObject(PROVIDER_URL + "/api/events/changes", Map.class))
+        .thenReturn(feed(List.of(), 10, false));
+    poller.poll();
+    when(restTemplate.getForObject(
+            PROVIDER_URL + "/api/events/changes?since=10&limit=2", Map.class))
+        .thenReturn(
+            Map.of("changes", List.of(), "nextSince", 500L, "hasMore", false, "resync", true));
+
+    // When
+    poller.poll();
+
+    // Then
+    assertThat(poller.getCursor()).isEqualTo(500L);
+    InOrder inOrder = inOrder(providerEventsCache);
+    inOrder.verify(providerEventsCache).deactivate();
+    inOrder.verify(providerEventsCache).activate();
+  }
+
+  private Map<String, Object> feed(
+      List<Map<String, Object>> changes, long nextSince, boolean more) {
+    return Map.of("changes", changes, "nextSince", nextSince, "hasMore", more);
+  }
+
+  private Map<String, Object> change(UUID calendarId) {
+    return Map.of("calendarId", calendarId.toString(), "changeType", "UPDATED");
+  }
+}
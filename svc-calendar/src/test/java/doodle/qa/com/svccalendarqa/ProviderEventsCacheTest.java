@@ -0,0 +1,151 @@
+package doodle.qa.com.svccalendarqa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import doodle.qa.com.svccalendarqa.dto.TimeSlotDto;
+import doodle.qa.com.svccalendarqa.service.ProviderEventsCache;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ProviderEventsCache. These tests verify when cached provider events are served
+ * and when they are loaded again.
+ */
+class ProviderEventsCacheTest {
+
+  private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 7, 9, 0);
+  private static final LocalDateTime TO = FROM.plusDays(1);
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private final Supplier<List<TimeSlotDto>> loader =
+      () -> {
+        loads.incrementAndGet();
+        return List.of(
+            TimeSlotDto.builder()
+                .startTime(FROM)
+                .endTime(FROM.plusHours(1))
+                .durationMinutes(60)
+                .build());
+      };
+
+  private ProviderEventsCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ProviderEventsCache(Duration.ofMinutes(5), 2, 2);
+  }
+
+  @Test
+  @DisplayName("Should always load events while the cache is inactive")
+  void getEvents_WhenInactive_ShouldAlwaysLoad() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+
+    // When
+    cache.getEvents(calendarId, FROM, TO, loader);
+    cache.getEvents(calendarId, FROM, TO, loader);
+
+    // Then
+    assertThat(loads).hasValue(2);
+    assertThat(cache.getCachedCalendarCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should serve cached events until the calendar is invalidated")
+  void getEvents_WhenActive_ShouldServeCachedEventsUntilInvalidated() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    cache.activate();
+
+    // When
+    List<TimeSlotDto> first = cache.getEvents(calendarId, FROM, TO, loader);
+    List<TimeSlotDto> second = cache.getEvents(calendarId, FROM, TO, loader);
+    cache.invalidate(calendarId);
+    cache.getEvents(calendarId, FROM, TO, loader);
+
+    // Then
+    assertThat(second).isSameAs(first);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should load events again once the cached entry expired")
+  void getEvents_WhenExpired_ShouldLoadAgain() {
+    // Given
+    cache = new ProviderEventsCache(Duration.ZERO, 2, 2);
+    cache.activate();
+    UUID calendarId = UUID.randomUUID();
+
+    // When
+    cache.getEvents(calendarId, FROM, TO, loader);
+    cache.getEvents(calendarId, FROM, TO, loader);
+
+    // Then
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should not cache anything when loading fails")
+  void getEvents_WhenLoaderFails_ShouldNotCache() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    cache.activate();
+
+    // When
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.getEvents(
+                calendarId,
+                FROM,
+                TO,
+                () -> {
+                  throw new IllegalStateException("down");
+                }));
+    cache.getEvents(calendarId, FROM, TO, loader);
+
+    // Then
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Should drop all entries and load again once deactivated")
+  void deactivate_ShouldDropEntries() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    cache.activate();
+    cache.getEvents(calendarId, FROM, TO, loader);
+    cache.getEventsVersion(calendarId, () -> Optional.of("5"));
+
+    // When
+    cache.deactivate();
+
+    // Then
+    assertThat(cache.isActive()).isFalse();
+    assertThat(cache.getCachedCalendarCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should stay within the configured number of calendars")
+  void getEvents_WhenMaxCalendarsReached_ShouldStayBounded() {
+    // Given
+    cache.activate();
+
+    // When
+    for (int i = 0; i < 5; i++) {
+      cache.getEvents(UUID.randomUUID(), FROM, TO, loader);
+    }
+
+    // Then
+    assertThat(cache.getCachedCalendarCount()).isLessThanOrEqualTo(2);
+  }
+}
@@ -5,9 +5,11 @@ import static org.mockito.Mockito.*;
 
 import com.example.svcuser.avro.EventType;
 import com.example.svcuser.avro.UserState;
+import com.example.svcuser.avro.Uuid;
 import doodle.qa.com.svccalendarqa.entity.UserCalendar;
 import doodle.qa.com.svccalendarqa.kafka.UserStateConsumer;
 import doodle.qa.com.svccalendarqa.repository.UserCalendarRepository;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -240,6 +242,93 @@ class UserStateConsumerTest {
     verify(acknowledgment).acknowledge();
   }
 
+  @Test
+  @DisplayName("Should apply the added calendars of a delta without reading the user's calendars")
+  void processUserState_WhenCalendarAddedWithDelta_ShouldOnlyAddDelta() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    UserState userState =
+        UserState.newBuilder()
+            .setId(userId.toString())
+            .setName("Test User")
+            .setEmail("test@example.com")
+            .setCalendarIds(Collections.emptyList())
+            .setEventType(EventType.CALENDAR_ADDED)
+            .setTimestamp(System.currentTimeMillis())
+            .setVersion(2L)
+            .setAddedCalendarIds(List.of(toUuid(calendarId)))
+            .build();
+
+    when(userCalendarRepository.existsByCalendarIdAndUserId(calendarId, userId)).thenReturn(false);
+
+    // When
+    userStateConsumer.processUserState(userState, acknowledgment);
+
+    // Then
+    ArgumentCaptor<UserCalendar> userCalendarCaptor = ArgumentCaptor.forClass(UserCalendar.class);
+    verify(userCalendarRepository).save(userCalendarCaptor.capture());
+    assertUserCalendar(userCalendarCaptor.getValue(), userId, calendarId);
+    verify(userCalendarRepository, never()).findByUserId(any());
+    verify(userCalendarRepository, never()).deleteByUserIdAndCalendarIdIn(any(), any());
+    verify(acknowledgment).acknowledge();
+  }
+
+  @Test
+  @DisplayName("Should delete the removed calendars of a delta with one statement")
+  void processUserState_WhenCalendarRemovedWithDelta_ShouldOnlyDeleteDelta() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    UserState userState =
+        UserState.newBuilder()
+            .setId(userId.toString())
+            .setName("Test User")
+            .setEmail("test@example.com")
+            .setCalendarIds(Collections.emptyList())
+            .setEventType(EventType.CALENDAR_REMOVED)
+            .setTimestamp(System.currentTimeMillis())
+            .setVersion(3L)
+            .setRemovedCalendarIds(List.of(toUuid(calendarId)))
+            .build();
+
+    when(userCalendarRepository.deleteByUserIdAndCalendarIdIn(userId, List.of(calendarId)))
+        .thenReturn(1);
+
+    // When
+    userStateConsumer.processUserState(userState, acknowledgment);
+
+    // Then
+    verify(userCalendarRepository).deleteByUserIdAndCalendarIdIn(userId, List.of(calendarId));
+    verify(userCalendarRepository, never()).findByUserId(any());
+    verify(userCalendarRepository, never()).delete(any(UserCalendar.class));
+    verify(acknowledgment).acknowledge();
+  }
+
+  @Test
+  @DisplayName("Should leave the user's calendars alone when an update did not change them")
+  void processUserState_WhenUserUpdatedWithEmptyDelta_ShouldNotTouchUserCalendars() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UserState userState =
+        UserState.newBuilder()
+            .setId(userId.toString())
+            .setName("Renamed User")
+            .setEmail("test@example.com")
+            .setCalendarIds(List.of(UUID.randomUUID().toString()))
+            .setEventType(EventType.UPDATED)
+            .setTimestamp(System.currentTimeMillis())
+            .setVersion(4L)
+            .build();
+
+    // When
+    userStateConsumer.processUserState(userState, acknowledgment);
+
+    // Then
+    verifyNoInteractions(userCalendarRepository);
+    verify(acknowledgment).acknowledge();
+  }
+
   @Test
   @DisplayName("Should handle exception during processing")
   void processUserState_WhenExceptionOccurs_ShouldNotAcknowledge() {
@@ -270,6 +359,14 @@ class UserStateConsumerTest {
     verify(acknowledgment, never()).acknowledge();
   }
 
+  private static Uuid toUuid(UUID id) {
+    return new Uuid(
+        ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array());
+  }
+
   // Helper methods to verify user calendars
   private void assertUserCalendar(UserCalendar userCalendar, UUID userId, UUID calendarId) {
     assertThat(userCalendar.getUserId()).isEqualTo(userId);
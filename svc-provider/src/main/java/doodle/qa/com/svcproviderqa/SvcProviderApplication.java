@@ -2,8 +2,10 @@ package doodle.qa.com.svcproviderqa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SvcProviderApplication {
 
   public static void main(String[] args) {
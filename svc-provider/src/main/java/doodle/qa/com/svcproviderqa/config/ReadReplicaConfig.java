@@ -0,0 +1,82 @@
+package doodle.qa.com.svcproviderqa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration that routes {@code @Transactional(readOnly = true)} work to a read replica. Only
+ * active when {@code datasource.replica.enabled} is true; otherwise the single auto-configured
+ * {@code spring.datasource} is used as before.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties properties,
+      @Value("${datasource.replica.url}") String url,
+      @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+      @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+    return DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(properties.determineDriverClassName())
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${datasource.replica.max-lag:PT5S}") Duration maxLag,
+      MeterRegistry meterRegistry) {
+    return new ReplicaLagMonitor(new JdbcTemplate(replicaDataSource), maxLag, meterRegistry);
+  }
+
+  /**
+   * The lazy proxy defers fetching a connection until the first statement, by which time the
+   * transaction's read-only flag is known to the routing DataSource.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaLagMonitor replicaLagMonitor,
+      MeterRegistry meterRegistry) {
+    ReplicaRoutingDataSource routingDataSource =
+        new ReplicaRoutingDataSource(replicaLagMonitor, meterRegistry);
+    routingDataSource.setTargetDataSources(
+        Map.of(
+            ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource));
+    routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
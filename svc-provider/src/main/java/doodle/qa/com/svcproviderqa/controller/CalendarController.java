@@ -1,6 +1,11 @@
 package doodle.qa.com.svcproviderqa.controller;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetRequestDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetResultDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkRequestDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkResultDto;
 import doodle.qa.com.svcproviderqa.dto.CalendarDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarPageDto;
 import doodle.qa.com.svcproviderqa.service.CalendarService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,10 +36,13 @@ public class CalendarController {
   private final CalendarService calendarService;
 
   /**
-   * Retrieves all calendars with pagination.
+   * Retrieves all calendars with pagination. Counting all calendars for {@code totalPages} costs a
+   * full scan of the table; clients that do not need it can skip it with {@code includeTotal=false}
+   * and get {@code hasNext} instead.
    *
    * @param page Page number (zero-based, optional)
    * @param size Number of calendars per page (optional)
+   * @param includeTotal Whether to count the total number of pages (optional)
    * @return Simplified response with calendars and minimal pagination information
    */
   @GetMapping
@@ -47,15 +56,31 @@ public class CalendarController {
           @RequestParam(required = false, defaultValue = "0")
           Integer page,
       @Parameter(description = "Page size") @RequestParam(required = false, defaultValue = "20")
-          Integer size) {
+          Integer size,
+      @Parameter(description = "Whether to include totalPages in the response")
+          @RequestParam(required = false, defaultValue = "true")
+          boolean includeTotal) {
 
     Pageable pageable = PageRequest.of(page, size);
     log.info("GET request to retrieve all calendars with pagination: page={}, size={}", page, size);
 
+    Map<String, Object> response = new HashMap<>();
+    if (!includeTotal) {
+      Slice<CalendarDto> calendarsSlice = calendarService.getCalendarSlice(pageable);
+      response.put("calendars", calendarsSlice.getContent());
+      response.put("currentPage", calendarsSlice.getNumber());
+      response.put("hasNext", calendarsSlice.hasNext());
+
+      log.info(
+          "Retrieved {} calendars (page {})",
+          calendarsSlice.getNumberOfElements(),
+          calendarsSlice.getNumber() + 1);
+      return ResponseEntity.ok(response);
+    }
+
     Page<CalendarDto> calendarsPage = calendarService.getAllCalendars(pageable);
 
     // Create a simplified response with minimal pagination information
-    Map<String, Object> response = new HashMap<>();
     response.put("calendars", calendarsPage.getContent());
     response.put("totalPages", calendarsPage.getTotalPages());
     response.put("currentPage", calendarsPage.getNumber());
@@ -69,6 +94,33 @@ public class CalendarController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Retrieves calendars with keyset pagination, ordered by ID. Pass the {@code nextId} of a page as
+   * {@code afterId} to get the next one; unlike page numbers, deep pages are as cheap as the first.
+   *
+   * @param afterId The ID of the last calendar already seen (optional)
+   * @param limit Maximum number of calendars to return (optional)
+   * @return The calendars and the cursor for the next page
+   */
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get calendars by cursor",
+      description =
+          "Retrieves calendars ordered by ID after the given cursor. Pass nextId as afterId to continue.")
+  @ApiResponse(responseCode = "200", description = "Calendars retrieved successfully")
+  public ResponseEntity<CalendarPageDto> getCalendarPage(
+      @Parameter(description = "ID of the last calendar already seen")
+          @RequestParam(required = false)
+          UUID afterId,
+      @Parameter(description = "Maximum number of calendars, at most 1000")
+          @RequestParam(required = false, defaultValue = "500")
+          Integer limit) {
+    log.info("GET request to retrieve calendars after {}: limit={}", afterId, limit);
+    CalendarPageDto calendarPage = calendarService.getCalendarPage(afterId, limit);
+    log.info("Retrieved {} calendars after {}", calendarPage.getCalendars().size(), afterId);
+    return ResponseEntity.ok(calendarPage);
+  }
+
   /**
    * Retrieves a calendar by ID.
    *
@@ -87,6 +139,30 @@ public class CalendarController {
     return ResponseEntity.ok(calendar);
   }
 
+  /**
+   * Retrieves many calendars by ID with one request, instead of one request per calendar.
+   *
+   * @param request The calendar IDs
+   * @return The calendars found, in request order, and the IDs without a calendar
+   */
+  @PostMapping("/batch-get")
+  @Operation(
+      summary = "Get calendars by IDs",
+      description = "Retrieves up to 5000 calendars by ID in request order and reports missing IDs")
+  @ApiResponse(responseCode = "200", description = "Calendars retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+  public ResponseEntity<CalendarBatchGetResultDto> getCalendarsByIds(
+      @Parameter(description = "Calendar IDs", required = true) @Valid @RequestBody
+          CalendarBatchGetRequestDto request) {
+    log.info("POST request to retrieve {} calendars by ID", request.getIds().size());
+    CalendarBatchGetResultDto result = calendarService.getCalendarsByIds(request.getIds());
+    log.info(
+        "Retrieved {} calendars by ID, {} missing",
+        result.getCalendars().size(),
+        result.getMissingIds().size());
+    return ResponseEntity.ok(result);
+  }
+
   /**
    * Creates a new calendar.
    *
@@ -111,6 +187,36 @@ public class CalendarController {
     return new ResponseEntity<>(createdCalendar, HttpStatus.CREATED);
   }
 
+  /**
+   * Creates calendars in bulk, skipping names that already exist.
+   *
+   * @param request The calendars to create
+   * @return The created calendars and the skipped names
+   */
+  @PostMapping("/bulk")
+  @Operation(
+      summary = "Create calendars in bulk",
+      description =
+          "Creates up to 5000 calendars in one transaction. Calendars whose name already exists"
+              + " or repeats within the request are skipped.")
+  @ApiResponse(responseCode = "201", description = "Calendars created successfully")
+  @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+  @ApiResponse(
+      responseCode = "409",
+      description = "Conflict - a name was taken concurrently",
+      content = @Content)
+  public ResponseEntity<CalendarBulkResultDto> createCalendars(
+      @Parameter(description = "Calendars to create", required = true) @Valid @RequestBody
+          CalendarBulkRequestDto request) {
+    log.info("POST request to create {} calendars in bulk", request.getCalendars().size());
+    CalendarBulkResultDto result = calendarService.createCalendars(request.getCalendars());
+    log.info(
+        "Created {} calendars in bulk, skipped {}",
+        result.getCreated().size(),
+        result.getSkippedNames().size());
+    return new ResponseEntity<>(result, HttpStatus.CREATED);
+  }
+
   /**
    * Updates an existing calendar.
    *
@@ -1,6 +1,15 @@
 package doodle.qa.com.svcproviderqa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import doodle.qa.com.svcproviderqa.dto.EventChangeFeedDto;
 import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventImportResultDto;
+import doodle.qa.com.svcproviderqa.dto.EventPageDto;
+import doodle.qa.com.svcproviderqa.dto.EventTimeRangeBatchRequestDto;
+import doodle.qa.com.svcproviderqa.dto.FreeBusyDto;
+import doodle.qa.com.svcproviderqa.exception.EventImportException;
+import doodle.qa.com.svcproviderqa.service.EventImportService;
 import doodle.qa.com.svcproviderqa.service.EventService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,15 +17,25 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/events")
@@ -26,6 +45,8 @@ import org.springframework.web.bind.annotation.*;
 public class EventController {
 
   private final EventService eventService;
+  private final EventImportService eventImportService;
+  private final ObjectMapper objectMapper;
 
   /**
    * Retrieves an event by ID.
@@ -65,11 +86,85 @@ public class EventController {
   }
 
   /**
-   * Retrieves events for a calendar within a time range.
+   * Streams all events of a calendar as newline-delimited JSON, one event per line, ordered by
+   * start time and ID. Events are written as they are read from a database cursor, so large
+   * calendars are served without holding them in memory.
+   *
+   * @param calendarId The calendar ID
+   * @return The response streaming the events
+   */
+  @GetMapping(value = "/calendar/{calendarId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+      summary = "Stream events by calendar ID",
+      description = "Streams all events for a specific calendar as newline-delimited JSON")
+  @ApiResponse(responseCode = "200", description = "Events streamed successfully")
+  public ResponseEntity<StreamingResponseBody> streamEventsByCalendarId(
+      @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId) {
+    log.info("GET request to stream events for calendar id: {}", calendarId);
+    ObjectWriter writer = objectMapper.writer();
+    StreamingResponseBody body =
+        outputStream -> {
+          OutputStream out = new BufferedOutputStream(outputStream);
+          long count =
+              eventService.forEachEventByCalendarId(
+                  calendarId,
+                  event -> {
+                    try {
+                      out.write(writer.writeValueAsBytes(event));
+                      out.write('\n');
+                    } catch (IOException e) {
+                      throw new UncheckedIOException(e);
+                    }
+                  });
+          out.flush();
+          log.info("Streamed {} events for calendar id: {}", count, calendarId);
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Retrieves a keyset page of a calendar's events, ordered by start time and ID. Pass the returned
+   * {@code nextStartTime} and {@code nextId} as {@code afterStartTime} and {@code afterId} to get
+   * the next page.
+   *
+   * @param calendarId The calendar ID
+   * @param afterStartTime The start time of the last event already seen (optional)
+   * @param afterId The ID of the last event already seen (optional)
+   * @param limit Maximum number of events to return (optional)
+   * @return The page of events and the cursor for the next page
+   */
+  @GetMapping("/calendar/{calendarId}/page")
+  @Operation(
+      summary = "Get a page of events by calendar ID",
+      description = "Retrieves the events of a specific calendar page by page, by start time")
+  @ApiResponse(responseCode = "200", description = "Events retrieved successfully")
+  public ResponseEntity<EventPageDto> getEventPageByCalendarId(
+      @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId,
+      @Parameter(description = "Start time of the last event already seen")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime afterStartTime,
+      @Parameter(description = "ID of the last event already seen") @RequestParam(required = false)
+          UUID afterId,
+      @Parameter(description = "Maximum number of events")
+          @RequestParam(required = false, defaultValue = "500")
+          Integer limit) {
+    log.info("GET request to retrieve a page of events for calendar id: {}", calendarId);
+    EventPageDto page =
+        eventService.getEventPageByCalendarId(calendarId, afterStartTime, afterId, limit);
+    log.info("Retrieved {} events for calendar id: {}", page.getEvents().size(), calendarId);
+    return ResponseEntity.ok(page);
+  }
+
+  /**
+   * Retrieves events for a calendar within a time range. Supports conditional requests: the ETag is
+   * the calendar's events version, so an unchanged calendar is answered with 304 Not Modified
+   * without loading any events.
    *
    * @param calendarId The calendar ID
    * @param start Start time
    * @param end End time
+   * @param webRequest The current request, used to evaluate If-None-Match
    * @return List of events for the specified calendar within the time range
    */
   @GetMapping("/calendar/{calendarId}/timerange")
@@ -77,6 +172,7 @@ public class EventController {
       summary = "Get events by calendar ID and time range",
       description = "Retrieves all events for a specific calendar within a time range")
   @ApiResponse(responseCode = "200", description = "Events retrieved successfully")
+  @ApiResponse(responseCode = "304", description = "Events not modified", content = @Content)
   public ResponseEntity<List<EventDto>> getEventsByCalendarIdAndTimeRange(
       @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId,
       @Parameter(description = "Start time", required = true)
@@ -86,9 +182,16 @@ public class EventController {
       @Parameter(description = "End time", required = true)
           @RequestParam
           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-          LocalDateTime end) {
+          LocalDateTime end,
+      WebRequest webRequest) {
     log.info(
         "GET request to retrieve events for calendar {} between {} and {}", calendarId, start, end);
+    Optional<Long> eventsVersion = eventService.getEventsVersion(calendarId);
+    if (eventsVersion.isPresent()
+        && webRequest.checkNotModified(String.valueOf(eventsVersion.get()))) {
+      log.info("Events for calendar {} not modified", calendarId);
+      return null;
+    }
     List<EventDto> events = eventService.getEventsByCalendarIdAndTimeRange(calendarId, start, end);
     log.info(
         "Retrieved {} events for calendar {} between {} and {}",
@@ -99,6 +202,187 @@ public class EventController {
     return ResponseEntity.ok(events);
   }
 
+  /**
+   * Retrieves the busy time of a calendar within a time range as merged intervals, without event
+   * details. With DELTA encoding the intervals are sent as minute offsets from the range start.
+   * Supports conditional requests with the same ETag as the timerange endpoint.
+   *
+   * @param calendarId The calendar ID
+   * @param start Start time
+   * @param end End time
+   * @param encoding The representation of the busy intervals (optional)
+   * @param webRequest The current request, used to evaluate If-None-Match
+   * @return The busy intervals of the calendar within the time range
+   */
+  @GetMapping("/calendar/{calendarId}/freebusy")
+  @Operation(
+      summary = "Get free/busy by calendar ID and time range",
+      description =
+          "Retrieves the merged busy intervals of a specific calendar within a time range")
+  @ApiResponse(responseCode = "200", description = "Free/busy retrieved successfully")
+  @ApiResponse(responseCode = "304", description = "Free/busy not modified", content = @Content)
+  public ResponseEntity<FreeBusyDto> getFreeBusy(
+      @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId,
+      @Parameter(description = "Start time", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime start,
+      @Parameter(description = "End time", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime end,
+      @Parameter(description = "Encoding of the busy intervals")
+          @RequestParam(required = false, defaultValue = "INTERVALS")
+          FreeBusyDto.Encoding encoding,
+      WebRequest webRequest) {
+    log.info(
+        "GET request to retrieve free/busy for calendar {} between {} and {}",
+        calendarId,
+        start,
+        end);
+    Optional<Long> eventsVersion = eventService.getEventsVersion(calendarId);
+    if (eventsVersion.isPresent()
+        && webRequest.checkNotModified(String.valueOf(eventsVersion.get()))) {
+      log.info("Free/busy for calendar {} not modified", calendarId);
+      return null;
+    }
+    FreeBusyDto freeBusy = eventService.getFreeBusy(calendarId, start, end, encoding);
+    log.info("Retrieved free/busy for calendar {} between {} and {}", calendarId, start, end);
+    return ResponseEntity.ok(freeBusy);
+  }
+
+  /**
+   * Retrieves events of several calendars within a time range in one request. Replaces one
+   * timerange request per calendar with a single request and a single query.
+   *
+   * @param request The calendar IDs and the time range
+   * @return Events per calendar ID; calendars without events map to an empty list
+   */
+  @PostMapping("/timerange/batch")
+  @Operation(
+      summary = "Get events of several calendars by time range",
+      description = "Retrieves the events of up to 100 calendars within a time range, per calendar")
+  @ApiResponse(responseCode = "200", description = "Events retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+  public ResponseEntity<Map<UUID, List<EventDto>>> getEventsByCalendarIdsAndTimeRange(
+      @Parameter(description = "Calendar IDs and time range", required = true) @Valid @RequestBody
+          EventTimeRangeBatchRequestDto request) {
+    log.info(
+        "POST request to retrieve events for {} calendars between {} and {}",
+        request.getCalendarIds().size(),
+        request.getStart(),
+        request.getEnd());
+    Map<UUID, List<EventDto>> events =
+        eventService.getEventsByCalendarIdsAndTimeRange(
+            request.getCalendarIds(), request.getStart(), request.getEnd());
+    log.info("Retrieved events for {} calendars", events.size());
+    return ResponseEntity.ok(events);
+  }
+
+  /**
+   * Returns the ETag of a calendar's events without a body. Lets clients combine the provider's
+   * events version into their own validators with a single version lookup.
+   *
+   * @param calendarId The calendar ID
+   * @return Empty response carrying the ETag, or 404 if the calendar does not exist
+   */
+  @RequestMapping(value = "/calendar/{calendarId}/timerange", method = RequestMethod.HEAD)
+  @Operation(
+      summary = "Get events version by calendar ID",
+      description = "Returns the ETag of the events of a specific calendar without a body")
+  @ApiResponse(responseCode = "200", description = "ETag returned")
+  @ApiResponse(responseCode = "404", description = "Calendar not found", content = @Content)
+  public ResponseEntity<Void> headEventsByCalendarId(
+      @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId) {
+    log.info("HEAD request for events version of calendar id: {}", calendarId);
+    return eventService
+        .getEventsVersion(calendarId)
+        .map(version -> ResponseEntity.ok().eTag(String.valueOf(version)).<Void>build())
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Retrieves the event changes recorded after a cursor. Consumers keep the returned {@code
+   * nextSince} and pass it as {@code since} on their next request; without {@code since} the
+   * response only carries the cursor of the latest change.
+   *
+   * @param since The sequence of the last change already seen (optional)
+   * @param limit Maximum number of changes to return (optional)
+   * @return The changes after the cursor and the cursor for the next request
+   */
+  @GetMapping("/changes")
+  @Operation(
+      summary = "Get event changes",
+      description = "Retrieves created, updated and deleted events after a change sequence")
+  @ApiResponse(responseCode = "200", description = "Event changes retrieved successfully")
+  public ResponseEntity<EventChangeFeedDto> getEventChanges(
+      @Parameter(description = "Sequence of the last change already seen")
+          @RequestParam(required = false)
+          Long since,
+      @Parameter(description = "Maximum number of changes")
+          @RequestParam(required = false, defaultValue = "500")
+          Integer limit) {
+    log.debug("GET request to retrieve event changes since {}", since);
+    EventChangeFeedDto feed = eventService.getEventChanges(since, limit);
+    log.debug(
+        "Retrieved {} event changes, next since {}", feed.getChanges().size(), feed.getNextSince());
+    return ResponseEntity.ok(feed);
+  }
+
+  /**
+   * Imports the events of an iCalendar document into a calendar. The document is streamed and
+   * inserted in chunks, so it can hold hundreds of thousands of events; chunks that were imported
+   * before a failure are kept and reported in the error response. Events whose UID was already
+   * imported are skipped, so a failed import is resumed by sending the same document again.
+   *
+   * @param calendarId The calendar ID
+   * @param ics The iCalendar document
+   * @return The number of imported, skipped and duplicate events
+   */
+  @PostMapping(value = "/calendar/{calendarId}/import", consumes = "text/calendar")
+  @Operation(
+      summary = "Import events from iCalendar",
+      description =
+          "Imports the VEVENTs of an iCalendar document into a calendar. Events whose UID was"
+              + " already imported are skipped, so a failed import can be retried with the same"
+              + " document.")
+  @ApiResponse(responseCode = "200", description = "Events imported successfully")
+  @ApiResponse(
+      responseCode = "400",
+      description = "Document could not be read; the body reports the committed progress")
+  @ApiResponse(responseCode = "404", description = "Calendar not found", content = @Content)
+  @ApiResponse(
+      responseCode = "500",
+      description = "Import failed; the body reports the committed progress")
+  public ResponseEntity<EventImportResultDto> importEvents(
+      @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId,
+      InputStream ics) {
+    log.info("POST request to import events into calendar id: {}", calendarId);
+    EventImportResultDto result = eventImportService.importEvents(calendarId, ics);
+    log.info(
+        "Imported {} events into calendar id: {}, skipped {}",
+        result.getImported(),
+        calendarId,
+        result.getSkipped());
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Reports the progress of a failed import. A document that could not be read is the client's
+   * failure, any other is the server's.
+   *
+   * @param e The import failure
+   * @return The events imported before the failure
+   */
+  @ExceptionHandler(EventImportException.class)
+  public ResponseEntity<EventImportResultDto> handleEventImportException(EventImportException e) {
+    HttpStatus status =
+        e.getCause() instanceof IOException
+            ? HttpStatus.BAD_REQUEST
+            : HttpStatus.INTERNAL_SERVER_ERROR;
+    return ResponseEntity.status(status).body(e.getProgress());
+  }
+
   /**
    * Creates a new event.
    *
@@ -0,0 +1,16 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusyIntervalDto {
+  private LocalDateTime start;
+  private LocalDateTime end;
+}
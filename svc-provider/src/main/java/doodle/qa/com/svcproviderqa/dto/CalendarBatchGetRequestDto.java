@@ -0,0 +1,25 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarBatchGetRequestDto {
+
+  /** Maximum number of IDs per batch get. */
+  public static final int MAX_IDS = 5000;
+
+  @NotEmpty(message = "At least one ID is required")
+  @Size(max = MAX_IDS, message = "At most 5000 IDs are allowed")
+  private List<@NotNull UUID> ids;
+}
@@ -0,0 +1,21 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarBatchGetResultDto {
+
+  /** The calendars found, in the order of the requested IDs; repeated IDs are returned once. */
+  private List<CalendarDto> calendars;
+
+  /** The requested IDs without a calendar, in request order. */
+  private List<UUID> missingIds;
+}
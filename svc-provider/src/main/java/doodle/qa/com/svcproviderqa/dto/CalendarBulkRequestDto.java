@@ -0,0 +1,25 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarBulkRequestDto {
+
+  /** Maximum number of calendars per bulk request. */
+  public static final int MAX_CALENDARS = 5000;
+
+  @NotEmpty(message = "At least one calendar is required")
+  @Size(max = MAX_CALENDARS, message = "At most 5000 calendars are allowed")
+  private List<@NotNull @Valid CalendarDto> calendars;
+}
@@ -0,0 +1,18 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarBulkResultDto {
+  private List<CalendarDto> created;
+
+  /** Names that already existed or repeated within the request; these calendars were skipped. */
+  private List<String> skippedNames;
+}
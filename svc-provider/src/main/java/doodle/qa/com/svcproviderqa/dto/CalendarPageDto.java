@@ -0,0 +1,22 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A keyset page of calendars, ordered by ID. {@code nextId} is the cursor for the next request; it
+ * is null if the page is empty.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarPageDto {
+  private List<CalendarDto> calendars;
+  private UUID nextId;
+  private boolean hasMore;
+}
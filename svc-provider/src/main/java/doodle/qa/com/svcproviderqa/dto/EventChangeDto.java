@@ -0,0 +1,21 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChangeDto {
+  private long sequence;
+  private UUID eventId;
+  private UUID calendarId;
+  private ChangeType changeType;
+  private LocalDateTime changedAt;
+}
@@ -0,0 +1,24 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A page of the event change feed. {@code nextSince} is the cursor for the next request, and {@code
+ * hasMore} tells whether further changes are available right away. {@code resync} is set when
+ * changes after the requested cursor were already purged: the consumer must drop everything it
+ * derived from the feed and continue from {@code nextSince}, the latest change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChangeFeedDto {
+  private List<EventChangeDto> changes;
+  private long nextSince;
+  private boolean hasMore;
+  private boolean resync;
+}
@@ -0,0 +1,28 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of an event import. {@code duplicates} counts events skipped because their UID was
+ * already imported into the calendar. When the import failed, {@code error} is set and the counts
+ * cover the chunks committed before the failure.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventImportResultDto {
+  private UUID calendarId;
+  private long imported;
+  private long skipped;
+  private long duplicates;
+  private int chunks;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String error;
+}
@@ -0,0 +1,24 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A keyset page of a calendar's events, ordered by start time and ID. {@code nextStartTime} and
+ * {@code nextId} are the cursor for the next request; they are null if the page is empty.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDto {
+  private List<EventDto> events;
+  private LocalDateTime nextStartTime;
+  private UUID nextId;
+  private boolean hasMore;
+}
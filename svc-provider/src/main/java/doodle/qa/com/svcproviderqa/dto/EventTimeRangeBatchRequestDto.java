@@ -0,0 +1,32 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventTimeRangeBatchRequestDto {
+
+  /** Maximum number of calendars per batch request. */
+  public static final int MAX_CALENDARS = 100;
+
+  @NotEmpty(message = "At least one calendar ID is required")
+  @Size(max = MAX_CALENDARS, message = "At most 100 calendar IDs are allowed")
+  private List<@NotNull UUID> calendarIds;
+
+  @NotNull(message = "Start time is required")
+  private LocalDateTime start;
+
+  @NotNull(message = "End time is required")
+  private LocalDateTime end;
+}
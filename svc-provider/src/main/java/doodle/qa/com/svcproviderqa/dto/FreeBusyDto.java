@@ -0,0 +1,37 @@
+package doodle.qa.com.svcproviderqa.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Busy intervals of a calendar within a time range, with overlapping events merged. Depending on
+ * the requested {@link Encoding}, the intervals are either listed in {@code busy} or delta-encoded
+ * in {@code deltas}: starting at {@code origin} (UTC epoch minute of the range start), the values
+ * alternate between the gap before a busy interval and its length, both in minutes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FreeBusyDto {
+
+  /** Representation of the busy intervals. */
+  public enum Encoding {
+    /** Busy intervals as start/end pairs. */
+    INTERVALS,
+    /** Busy intervals as alternating gap/length minute deltas from {@code origin}. */
+    DELTA
+  }
+
+  private LocalDateTime start;
+  private LocalDateTime end;
+  private List<BusyIntervalDto> busy;
+  private Long origin;
+  private List<Long> deltas;
+}
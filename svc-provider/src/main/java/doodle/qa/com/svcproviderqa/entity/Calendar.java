@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Calendar entity representing a calendar in the system. Includes optimistic locking with version
@@ -29,7 +30,7 @@ public class Calendar {
   private UUID id;
 
   @NotBlank(message = "Name is required")
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String name;
 
   @Column(length = 1000)
@@ -41,6 +42,26 @@ public class Calendar {
    */
   @Version private Long version;
 
+  /**
+   * Change counter of the calendar's events. Maintained by bulk updates only, so it is neither
+   * inserted nor updated through the entity.
+   */
+  @ColumnDefault("0")
+  @Column(name = "events_version", nullable = false, insertable = false, updatable = false)
+  private long eventsVersion;
+
+  /**
+   * Upper bound of the duration of the calendar's events in seconds, used to bound range overlap
+   * queries. Only raised by bulk updates, so it is neither inserted nor updated through the entity.
+   */
+  @ColumnDefault("0")
+  @Column(
+      name = "max_event_duration_seconds",
+      nullable = false,
+      insertable = false,
+      updatable = false)
+  private long maxEventDurationSeconds;
+
   @OneToMany(mappedBy = "calendar", cascade = CascadeType.ALL, orphanRemoval = true)
   @Builder.Default
   private List<Event> events = new ArrayList<>();
@@ -16,7 +16,13 @@ import lombok.ToString;
  * to handle concurrent modifications.
  */
 @Entity
-@Table(name = "events")
+@Table(
+    name = "events",
+    uniqueConstraints = {
+      @UniqueConstraint(
+          columnNames = {"calendar_id", "ical_uid"},
+          name = "uk_event_calendar_ical_uid")
+    })
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,6 +50,13 @@ public class Event {
 
   @Column private String location;
 
+  /**
+   * UID of the iCalendar event this event was imported from, followed by its RECURRENCE-ID. Unique
+   * per calendar, so an import that is retried skips the events it already imported.
+   */
+  @Column(name = "ical_uid")
+  private String icalUid;
+
   /**
    * Version field for optimistic locking. This helps prevent concurrent modifications by detecting
    * conflicts.
@@ -0,0 +1,47 @@
+package doodle.qa.com.svcproviderqa.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * EventChange entity recording a mutation of an event. The sequence increases with every change, so
+ * consumers can follow the feed with a cursor. Rows are append-only and never updated.
+ */
+@Entity
+@Table(name = "event_changes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChange {
+
+  /** Kind of mutation recorded by a change. */
+  public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "sequence_number")
+  private Long sequence;
+
+  @Column(name = "event_id", nullable = false)
+  private UUID eventId;
+
+  @Column(name = "calendar_id", nullable = false)
+  private UUID calendarId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "change_type", nullable = false, length = 16)
+  private ChangeType changeType;
+
+  @Column(name = "changed_at", nullable = false)
+  private LocalDateTime changedAt;
+}
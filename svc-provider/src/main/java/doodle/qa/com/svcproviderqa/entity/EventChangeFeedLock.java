@@ -0,0 +1,24 @@
+package doodle.qa.com.svcproviderqa.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row locked by every transaction that records event changes, right before it inserts them
+ * and until it ends. The sequence of a change is taken while holding the lock, so changes become
+ * visible in sequence order and a consumer's cursor never passes a change that is still to commit.
+ */
+@Entity
+@Table(name = "event_change_feed_lock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChangeFeedLock {
+
+  /** ID of the only row. */
+  public static final short ID = 1;
+
+  @Id private Short id;
+}
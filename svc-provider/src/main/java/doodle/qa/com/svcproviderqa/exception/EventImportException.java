@@ -0,0 +1,21 @@
+package doodle.qa.com.svcproviderqa.exception;
+
+import doodle.qa.com.svcproviderqa.dto.EventImportResultDto;
+
+/**
+ * Thrown when an event import fails. Chunks committed before the failure are kept; the progress
+ * tells how many, and retrying with the same document imports only the remaining events.
+ */
+public class EventImportException extends RuntimeException {
+
+  private final transient EventImportResultDto progress;
+
+  public EventImportException(EventImportResultDto progress, Throwable cause) {
+    super(progress.getError(), cause);
+    this.progress = progress;
+  }
+
+  public EventImportResultDto getProgress() {
+    return progress;
+  }
+}
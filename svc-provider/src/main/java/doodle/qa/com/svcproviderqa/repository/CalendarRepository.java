@@ -1,9 +1,18 @@
 package doodle.qa.com.svcproviderqa.repository;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +20,79 @@ public interface CalendarRepository extends JpaRepository<Calendar, UUID> {
   Optional<Calendar> findByName(String name);
 
   boolean existsByName(String name);
+
+  @Query("SELECT c.name FROM Calendar c WHERE c.name IN :names")
+  List<String> findNamesByNameIn(@Param("names") Collection<String> names);
+
+  /*
+   * DTO projections for read paths. Rows are mapped straight into CalendarDto, so neither the
+   * calendar nor its events collection is hydrated or tracked in the persistence context.
+   */
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c WHERE c.id = :id")
+  Optional<CalendarDto> findDtoById(@Param("id") UUID id);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c WHERE c.id IN :ids")
+  List<CalendarDto> findDtosByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query(
+      value =
+          "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+              + "c.id, c.name, c.description, c.version) "
+              + "FROM Calendar c",
+      countQuery = "SELECT COUNT(c) FROM Calendar c")
+  Page<CalendarDto> findAllDtos(Pageable pageable);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c")
+  List<CalendarDto> findAllDtos();
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c")
+  Slice<CalendarDto> findDtoSlice(Pageable pageable);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c ORDER BY c.id")
+  List<CalendarDto> findDtoPage(Pageable pageable);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.CalendarDto("
+          + "c.id, c.name, c.description, c.version) "
+          + "FROM Calendar c WHERE c.id > :afterId ORDER BY c.id")
+  List<CalendarDto> findDtoPageAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+  @Query("SELECT c.eventsVersion FROM Calendar c WHERE c.id = :id")
+  Optional<Long> findEventsVersionById(@Param("id") UUID id);
+
+  @Modifying
+  @Query("UPDATE Calendar c SET c.eventsVersion = c.eventsVersion + 1 WHERE c.id = :id")
+  int incrementEventsVersion(@Param("id") UUID id);
+
+  @Query("SELECT c.maxEventDurationSeconds FROM Calendar c WHERE c.id = :id")
+  Optional<Long> findMaxEventDurationSecondsById(@Param("id") UUID id);
+
+  @Query("SELECT MAX(c.maxEventDurationSeconds) FROM Calendar c WHERE c.id IN :ids")
+  Optional<Long> findMaxEventDurationSecondsByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /*
+   * Raises the calendar's event duration bound. A single conditional update, so concurrent raises
+   * never lower the bound.
+   */
+  @Modifying
+  @Query(
+      "UPDATE Calendar c SET c.maxEventDurationSeconds = :seconds"
+          + " WHERE c.id = :id AND c.maxEventDurationSeconds < :seconds")
+  int raiseMaxEventDuration(@Param("id") UUID id, @Param("seconds") long seconds);
 }
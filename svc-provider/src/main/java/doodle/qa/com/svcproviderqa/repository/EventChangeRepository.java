@@ -0,0 +1,81 @@
+package doodle.qa.com.svcproviderqa.repository;
+
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.entity.EventChange;
+import doodle.qa.com.svcproviderqa.entity.EventChangeFeedLock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventChangeRepository extends JpaRepository<EventChange, Long> {
+
+  /**
+   * Finds the changes recorded after a sequence, oldest first, as DTO projections.
+   *
+   * @param since The sequence to start after
+   * @param pageable The maximum number of changes to return
+   * @return The changes after the given sequence
+   */
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventChangeDto("
+          + "c.sequence, c.eventId, c.calendarId, c.changeType, c.changedAt) "
+          + "FROM EventChange c WHERE c.sequence > :since ORDER BY c.sequence")
+  List<EventChangeDto> findDtosAfter(@Param("since") long since, Pageable pageable);
+
+  /**
+   * Locks the change feed lock row until the transaction ends. Selects only the ID, so the row is
+   * not loaded as an entity.
+   */
+  @Query(
+      value = "SELECT id FROM event_change_feed_lock WHERE id = :id FOR UPDATE",
+      nativeQuery = true)
+  Optional<Short> findFeedLockIdForUpdate(@Param("id") short id);
+
+  /**
+   * Locks the change feed until the transaction ends. Must be called right before changes are
+   * inserted, after every other row of the transaction was written, so writers always take their
+   * row locks in the same order and the feed lock is held no longer than needed.
+   *
+   * @throws IllegalStateException if the lock row is missing
+   */
+  default void lockFeed() {
+    findFeedLockIdForUpdate(EventChangeFeedLock.ID)
+        .orElseThrow(() -> new IllegalStateException("The event change feed lock row is missing"));
+  }
+
+  /**
+   * Finds the sequence of the most recent change.
+   *
+   * @return The latest sequence, or 0 if no change was recorded yet
+   */
+  @Query("SELECT COALESCE(MAX(c.sequence), 0) FROM EventChange c")
+  long findLatestSequence();
+
+  /**
+   * Finds the sequence of the oldest change still recorded.
+   *
+   * @return The oldest sequence, or 0 if no change was recorded yet
+   */
+  @Query("SELECT COALESCE(MIN(c.sequence), 0) FROM EventChange c")
+  long findOldestSequence();
+
+  /**
+   * Deletes the changes recorded before a time. The latest change is always kept, so the head of
+   * the feed stays known after a purge.
+   *
+   * @param before The time before which changes are deleted
+   * @return The number of deleted changes
+   */
+  @Modifying
+  @Query(
+      "DELETE FROM EventChange c WHERE c.changedAt < :before "
+          + "AND c.sequence < (SELECT MAX(l.sequence) FROM EventChange l)")
+  int deleteChangedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,15 +1,27 @@
 package doodle.qa.com.svcproviderqa.repository;
 
+import doodle.qa.com.svcproviderqa.dto.BusyIntervalDto;
+import doodle.qa.com.svcproviderqa.dto.EventDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.entity.Event;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, UUID> {
+
   List<Event> findByCalendar(Calendar calendar);
 
   List<Event> findByCalendarId(UUID calendarId);
@@ -18,4 +30,105 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
 
   List<Event> findByCalendarIdAndStartTimeBetween(
       UUID calendarId, LocalDateTime start, LocalDateTime end);
+
+  /*
+   * DTO projections for read paths. Rows are mapped straight into EventDto, so no entity is
+   * hydrated, tracked in the persistence context or dirty checked, and the calendar ID is read from
+   * the foreign key column instead of a Calendar proxy.
+   *
+   * Range lookups return the events overlapping [start, end). The earliestStart bound (start minus
+   * the calendar's maximum event duration) adds no results but limits the scan of the
+   * (calendar_id, start_time) index to the events that can still overlap the range.
+   */
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.id = :id")
+  Optional<EventDto> findDtoById(@Param("id") UUID id);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId")
+  List<EventDto> findDtosByCalendarId(@Param("calendarId") UUID calendarId);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId"
+          + " AND e.startTime >= :earliestStart AND e.startTime < :end AND e.endTime > :start"
+          + " ORDER BY e.startTime")
+  List<EventDto> findDtosOverlapping(
+      @Param("calendarId") UUID calendarId,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end,
+      @Param("earliestStart") LocalDateTime earliestStart);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id IN :calendarIds"
+          + " AND e.startTime >= :earliestStart AND e.startTime < :end AND e.endTime > :start"
+          + " ORDER BY e.startTime")
+  List<EventDto> findDtosOverlappingIn(
+      @Param("calendarIds") Collection<UUID> calendarIds,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end,
+      @Param("earliestStart") LocalDateTime earliestStart);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.BusyIntervalDto(e.startTime, e.endTime) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId"
+          + " AND e.startTime >= :earliestStart AND e.startTime < :end AND e.endTime > :start"
+          + " ORDER BY e.startTime")
+  List<BusyIntervalDto> findBusyIntervals(
+      @Param("calendarId") UUID calendarId,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end,
+      @Param("earliestStart") LocalDateTime earliestStart);
+
+  /*
+   * Listing of a calendar's events in (startTime, id) order. Pages continue after the last row of
+   * the previous page instead of an offset, so every page is a bounded scan of the
+   * (calendar_id, start_time) index. The stream reads the same order through a JDBC cursor fetching
+   * 500 rows per round trip, so rows are never all held in memory; it must be consumed inside a
+   * transaction.
+   */
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId ORDER BY e.startTime, e.id")
+  List<EventDto> findDtoPage(@Param("calendarId") UUID calendarId, Pageable pageable);
+
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId"
+          + " AND (e.startTime > :afterStartTime"
+          + " OR (e.startTime = :afterStartTime AND e.id > :afterId))"
+          + " ORDER BY e.startTime, e.id")
+  List<EventDto> findDtoPageAfter(
+      @Param("calendarId") UUID calendarId,
+      @Param("afterStartTime") LocalDateTime afterStartTime,
+      @Param("afterId") UUID afterId,
+      Pageable pageable);
+
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      "SELECT new doodle.qa.com.svcproviderqa.dto.EventDto("
+          + "e.id, e.title, e.description, e.startTime, e.endTime, e.location, e.version,"
+          + " e.calendar.id) "
+          + "FROM Event e WHERE e.calendar.id = :calendarId ORDER BY e.startTime, e.id")
+  Stream<EventDto> streamDtosByCalendarId(@Param("calendarId") UUID calendarId);
 }
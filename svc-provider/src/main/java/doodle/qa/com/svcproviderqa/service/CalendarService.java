@@ -1,6 +1,9 @@
 package doodle.qa.com.svcproviderqa.service;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetResultDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkResultDto;
 import doodle.qa.com.svcproviderqa.dto.CalendarDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarPageDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.exception.CalendarDuplicateNameException;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
@@ -8,15 +11,25 @@ import doodle.qa.com.svcproviderqa.exception.ConcurrentModificationException;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -32,6 +45,14 @@ import org.springframework.validation.annotation.Validated;
 @Transactional(readOnly = true)
 public class CalendarService {
 
+  /** Maximum number of names per existence lookup of a bulk creation. */
+  private static final int NAME_LOOKUP_BATCH_SIZE = 500;
+
+  private static final String NAME_CONSTRAINT = "uk_calendar_name";
+
+  /** Maximum number of calendars per keyset page. */
+  private static final int MAX_CALENDARS_PAGE_SIZE = 1000;
+
   private final CalendarRepository calendarRepository;
 
   /**
@@ -42,7 +63,47 @@ public class CalendarService {
    */
   public Page<CalendarDto> getAllCalendars(Pageable pageable) {
     log.info("Retrieving all calendars with pagination: {}", pageable);
-    return calendarRepository.findAll(pageable).map(this::mapToDto);
+    return calendarRepository.findAllDtos(pageable);
+  }
+
+  /**
+   * Retrieves a slice of calendars without counting all calendars. Cheaper than {@link
+   * #getAllCalendars(Pageable)} when the total number of pages is not needed.
+   *
+   * @param pageable Pagination information
+   * @return Slice of CalendarDto objects
+   */
+  public Slice<CalendarDto> getCalendarSlice(Pageable pageable) {
+    log.info("Retrieving a slice of calendars: {}", pageable);
+    return calendarRepository.findDtoSlice(pageable);
+  }
+
+  /**
+   * Retrieves a keyset page of calendars ordered by ID. Each page seeks to the ID after the last
+   * one seen, so deep pages cost the same as the first one and no count query is run.
+   *
+   * @param afterId The ID of the last calendar already seen, or null for the first page
+   * @param limit Maximum number of calendars to return, capped at {@value #MAX_CALENDARS_PAGE_SIZE}
+   * @return The page of calendars and the cursor for the next page
+   */
+  public CalendarPageDto getCalendarPage(UUID afterId, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_CALENDARS_PAGE_SIZE));
+    // Fetch one extra calendar to tell whether another page follows
+    PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+    List<CalendarDto> calendars =
+        afterId == null
+            ? calendarRepository.findDtoPage(pageRequest)
+            : calendarRepository.findDtoPageAfter(afterId, pageRequest);
+    boolean hasMore = calendars.size() > pageSize;
+    if (hasMore) {
+      calendars = calendars.subList(0, pageSize);
+    }
+    log.debug("Returning {} calendars after {}", calendars.size(), afterId);
+    return CalendarPageDto.builder()
+        .calendars(calendars)
+        .nextId(calendars.isEmpty() ? null : calendars.get(calendars.size() - 1).getId())
+        .hasMore(hasMore)
+        .build();
   }
 
   /**
@@ -52,7 +113,7 @@ public class CalendarService {
    */
   public List<CalendarDto> getAllCalendars() {
     log.info("Retrieving all calendars");
-    return calendarRepository.findAll().stream().map(this::mapToDto).collect(Collectors.toList());
+    return calendarRepository.findAllDtos();
   }
 
   /**
@@ -65,8 +126,7 @@ public class CalendarService {
   public CalendarDto getCalendarById(@NotNull UUID id) {
     log.info("Retrieving calendar with id: {}", id);
     return calendarRepository
-        .findById(id)
-        .map(this::mapToDto)
+        .findDtoById(id)
         .orElseThrow(
             () -> {
               log.warn("Calendar not found with id: {}", id);
@@ -74,6 +134,32 @@ public class CalendarService {
             });
   }
 
+  /**
+   * Retrieves many calendars by ID with one query.
+   *
+   * @param ids The calendar IDs
+   * @return The calendars found, in request order, and the IDs without a calendar
+   */
+  public CalendarBatchGetResultDto getCalendarsByIds(@NotNull List<UUID> ids) {
+    log.info("Retrieving {} calendars by ID", ids.size());
+    Set<UUID> requestedIds = new LinkedHashSet<>(ids);
+    Map<UUID, CalendarDto> calendarsById =
+        calendarRepository.findDtosByIdIn(requestedIds).stream()
+            .collect(Collectors.toMap(CalendarDto::getId, Function.identity()));
+
+    List<CalendarDto> calendars = new ArrayList<>(calendarsById.size());
+    List<UUID> missingIds = new ArrayList<>();
+    for (UUID id : requestedIds) {
+      CalendarDto calendar = calendarsById.get(id);
+      if (calendar != null) {
+        calendars.add(calendar);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    return CalendarBatchGetResultDto.builder().calendars(calendars).missingIds(missingIds).build();
+  }
+
   /**
    * Creates a new calendar.
    *
@@ -90,22 +176,17 @@ public class CalendarService {
     log.info("Creating calendar with name: {}", calendarDto.getName());
 
     try {
-      // Check if a calendar with the same name already exists
-      if (calendarRepository.findAll().stream()
-          .anyMatch(c -> c.getName().equals(calendarDto.getName()))) {
+      // Probe the unique name index; a concurrent insert of the same name is caught on flush
+      if (calendarRepository.existsByName(calendarDto.getName())) {
         throw new CalendarDuplicateNameException(calendarDto.getName());
       }
 
-      Calendar calendar =
-          Calendar.builder()
-              .name(calendarDto.getName())
-              .description(calendarDto.getDescription())
-              .build();
-
-      Calendar savedCalendar = calendarRepository.save(calendar);
+      Calendar savedCalendar = calendarRepository.saveAndFlush(mapToEntity(calendarDto));
 
       log.info("Calendar created: {}", savedCalendar.getId());
       return mapToDto(savedCalendar);
+    } catch (DataIntegrityViolationException e) {
+      throw toDuplicateNameException(e, calendarDto.getName());
     } catch (OptimisticLockingFailureException e) {
       log.warn(
           "Concurrent modification detected while creating calendar with name: {}",
@@ -116,6 +197,49 @@ public class CalendarService {
     }
   }
 
+  /**
+   * Creates calendars in bulk. Names are checked against the unique name index in batches;
+   * calendars whose name already exists, or repeats within the request, are skipped. The remaining
+   * calendars are inserted with JDBC batches in one transaction.
+   *
+   * @param calendarDtos The calendar data
+   * @return The created calendars and the skipped names
+   * @throws CalendarDuplicateNameException if a name was taken concurrently during the import
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  public CalendarBulkResultDto createCalendars(
+      @NotNull List<@NotNull @Valid CalendarDto> calendarDtos) {
+    log.info("Creating {} calendars in bulk", calendarDtos.size());
+
+    Set<String> existingNames = new HashSet<>();
+    List<String> names = calendarDtos.stream().map(CalendarDto::getName).distinct().toList();
+    for (int from = 0; from < names.size(); from += NAME_LOOKUP_BATCH_SIZE) {
+      List<String> batch =
+          names.subList(from, Math.min(from + NAME_LOOKUP_BATCH_SIZE, names.size()));
+      existingNames.addAll(calendarRepository.findNamesByNameIn(batch));
+    }
+
+    Set<String> seenNames = new HashSet<>();
+    List<Calendar> calendars = new ArrayList<>();
+    List<String> skippedNames = new ArrayList<>();
+    for (CalendarDto calendarDto : calendarDtos) {
+      if (existingNames.contains(calendarDto.getName()) || !seenNames.add(calendarDto.getName())) {
+        skippedNames.add(calendarDto.getName());
+      } else {
+        calendars.add(mapToEntity(calendarDto));
+      }
+    }
+
+    try {
+      List<CalendarDto> created =
+          calendarRepository.saveAllAndFlush(calendars).stream().map(this::mapToDto).toList();
+      log.info("Created {} calendars in bulk, skipped {}", created.size(), skippedNames.size());
+      return CalendarBulkResultDto.builder().created(created).skippedNames(skippedNames).build();
+    } catch (DataIntegrityViolationException e) {
+      throw toDuplicateNameException(e, null);
+    }
+  }
+
   /**
    * Updates an existing calendar.
    *
@@ -204,6 +328,44 @@ public class CalendarService {
     }
   }
 
+  /**
+   * Maps a CalendarDto to a new Calendar entity.
+   *
+   * @param calendarDto The calendar data
+   * @return Calendar entity with copied data
+   */
+  private Calendar mapToEntity(CalendarDto calendarDto) {
+    return Calendar.builder()
+        .name(calendarDto.getName())
+        .description(calendarDto.getDescription())
+        .build();
+  }
+
+  /**
+   * Translates a violation of the unique name constraint into a CalendarDuplicateNameException.
+   * Other integrity violations are returned unchanged.
+   *
+   * @param e The integrity violation
+   * @param name The conflicting name, or null if it is not known
+   * @return The exception to throw
+   */
+  private RuntimeException toDuplicateNameException(
+      DataIntegrityViolationException e, String name) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation
+          && violation.getConstraintName() != null
+          && violation.getConstraintName().toLowerCase().contains(NAME_CONSTRAINT)) {
+        log.warn("Calendar name taken concurrently: {}", name);
+        return new CalendarDuplicateNameException(
+            name != null
+                ? "Calendar with name '" + name + "' already exists"
+                : "A calendar name was taken by another operation. Please try again.",
+            e);
+      }
+    }
+    return e;
+  }
+
   /**
    * Maps a Calendar entity to a CalendarDto.
    *
@@ -0,0 +1,40 @@
+package doodle.qa.com.svcproviderqa.service;
+
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Purges entries of the event change feed that are older than the configured retention. A consumer
+ * whose cursor falls behind the purged entries is told to resync by the feed (see {@link
+ * EventService#getEventChanges}).
+ */
+@Service
+@Slf4j
+public class EventChangeRetention {
+
+  private final EventChangeRepository eventChangeRepository;
+  private final Duration retention;
+
+  public EventChangeRetention(
+      EventChangeRepository eventChangeRepository,
+      @Value("${events.changes.retention:P7D}") Duration retention) {
+    this.eventChangeRepository = eventChangeRepository;
+    this.retention = retention;
+  }
+
+  /** Delete changes older than the retention on the configured schedule. */
+  @Scheduled(fixedDelayString = "${events.changes.purge-interval-ms:3600000}")
+  @Transactional
+  public void purgeExpired() {
+    int deleted = eventChangeRepository.deleteChangedBefore(LocalDateTime.now().minus(retention));
+    if (deleted > 0) {
+      log.info("Purged {} event change(s) older than {}", deleted, retention);
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package doodle.qa.com.svcproviderqa.service;
+
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventImportResultDto;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
+import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svcproviderqa.exception.EventImportException;
+import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import doodle.qa.com.svcproviderqa.service.IcsEventReader.IcsEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for bulk importing events from iCalendar documents. The document is read as a stream and
+ * its events are inserted with JDBC batches in chunks, each chunk in its own transaction, so
+ * imports of hundreds of thousands of events run in bounded memory.
+ *
+ * <p>A failed import keeps the chunks that were already committed and reports them in an {@link
+ * EventImportException}. Imported events keep their iCalendar UID, and events whose UID is already
+ * present in the calendar are skipped as duplicates, so a failed import is resumed by sending the
+ * same document again. Events without a UID cannot be recognized and are imported again.
+ */
+@Service
+@Slf4j
+public class EventImportService {
+
+  private static final String INSERT_EVENT =
+      "INSERT INTO events (id, title, description, start_time, end_time, location, calendar_id,"
+          + " version, ical_uid) VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?)";
+
+  private static final String INSERT_EVENT_CHANGE =
+      "INSERT INTO event_changes (event_id, calendar_id, change_type, changed_at)"
+          + " VALUES (?, ?, ?, ?)";
+
+  private static final String SELECT_IMPORTED_UIDS =
+      "SELECT ical_uid FROM events WHERE calendar_id = :calendarId AND ical_uid IN (:uids)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CalendarRepository calendarRepository;
+  private final EventChangeRepository eventChangeRepository;
+  private final int chunkSize;
+
+  public EventImportService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      CalendarRepository calendarRepository,
+      EventChangeRepository eventChangeRepository,
+      @Value("${events.import.chunk-size:5000}") int chunkSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.calendarRepository = calendarRepository;
+    this.eventChangeRepository = eventChangeRepository;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Imports the VEVENTs of an iCalendar document into a calendar. Every imported event is recorded
+   * in the change feed, and the calendar's events version and maximum event duration are updated
+   * once per chunk.
+   *
+   * @param calendarId The calendar ID
+   * @param ics The iCalendar document, read as UTF-8
+   * @return The number of imported, skipped and duplicate events
+   * @throws CalendarNotFoundException if the calendar is not found
+   * @throws EventImportException if the import fails, with the progress committed before
+   */
+  public EventImportResultDto importEvents(UUID calendarId, InputStream ics) {
+    if (!calendarRepository.existsById(calendarId)) {
+      log.warn("Calendar not found with id: {}", calendarId);
+      throw new CalendarNotFoundException(calendarId);
+    }
+
+    log.info("Importing events into calendar {}", calendarId);
+    IcsEventReader reader = new IcsEventReader(new InputStreamReader(ics, StandardCharsets.UTF_8));
+    List<IcsEvent> chunk = new ArrayList<>(chunkSize);
+    long read = 0;
+    long imported = 0;
+    int chunks = 0;
+
+    try {
+      IcsEvent event;
+      while ((event = reader.next()) != null) {
+        chunk.add(event);
+        if (chunk.size() == chunkSize) {
+          imported += insertChunk(calendarId, chunk);
+          read += chunk.size();
+          chunks++;
+          chunk.clear();
+          log.info("Imported {} events into calendar {} so far", imported, calendarId);
+        }
+      }
+      if (!chunk.isEmpty()) {
+        imported += insertChunk(calendarId, chunk);
+        read += chunk.size();
+        chunks++;
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn(
+          "Import into calendar {} failed after {} events in {} chunks",
+          calendarId,
+          imported,
+          chunks,
+          e);
+      EventImportResultDto progress =
+          result(calendarId, imported, read - imported, reader.getSkipped(), chunks);
+      progress.setError(
+          "Import failed after "
+              + imported
+              + " events; send the same document again to import the remaining events");
+      throw new EventImportException(progress, e);
+    }
+
+    log.info(
+        "Imported {} events into calendar {} in {} chunks, skipped {}, {} duplicates",
+        imported,
+        calendarId,
+        chunks,
+        reader.getSkipped(),
+        read - imported);
+    return result(calendarId, imported, read - imported, reader.getSkipped(), chunks);
+  }
+
+  private static EventImportResultDto result(
+      UUID calendarId, long imported, long duplicates, long skipped, int chunks) {
+    return EventImportResultDto.builder()
+        .calendarId(calendarId)
+        .imported(imported)
+        .skipped(skipped)
+        .duplicates(duplicates)
+        .chunks(chunks)
+        .build();
+  }
+
+  /**
+   * Inserts the events of a chunk that are not imported yet, and their change feed entries, in one
+   * transaction. An event with the same UID imported concurrently fails the chunk on the unique
+   * constraint.
+   *
+   * @param calendarId The calendar ID
+   * @param chunk The events to insert
+   * @return The number of inserted events
+   */
+  private int insertChunk(UUID calendarId, List<IcsEvent> chunk) {
+    return Objects.requireNonNull(
+        transactionTemplate.execute(
+            status -> {
+              List<IcsEvent> events = withoutImported(calendarId, chunk);
+              if (events.isEmpty()) {
+                return 0;
+              }
+              insertEvents(calendarId, events);
+              return events.size();
+            }));
+  }
+
+  /**
+   * Drops the events whose UID is already imported into the calendar or occurs earlier in the
+   * chunk.
+   *
+   * @param calendarId The calendar ID
+   * @param chunk The events read from the document
+   * @return The events to insert
+   */
+  private List<IcsEvent> withoutImported(UUID calendarId, List<IcsEvent> chunk) {
+    Set<String> uids = new HashSet<>();
+    for (IcsEvent event : chunk) {
+      if (event.uid() != null) {
+        uids.add(event.uid());
+      }
+    }
+    Set<String> seen =
+        uids.isEmpty()
+            ? new HashSet<>()
+            : new HashSet<>(
+                namedParameterJdbcTemplate.queryForList(
+                    SELECT_IMPORTED_UIDS,
+                    Map.of("calendarId", calendarId, "uids", uids),
+                    String.class));
+
+    List<IcsEvent> events = new ArrayList<>(chunk.size());
+    for (IcsEvent event : chunk) {
+      if (event.uid() == null || seen.add(event.uid())) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  private void insertEvents(UUID calendarId, List<IcsEvent> events) {
+    List<UUID> ids = new ArrayList<>(events.size());
+    long maxDurationSeconds = 0;
+    for (IcsEvent imported : events) {
+      ids.add(UUID.randomUUID());
+      EventDto event = imported.event();
+      Duration duration = Duration.between(event.getStartTime(), event.getEndTime());
+      maxDurationSeconds =
+          Math.max(maxDurationSeconds, duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0));
+    }
+    LocalDateTime now = LocalDateTime.now();
+
+    calendarRepository.incrementEventsVersion(calendarId);
+    calendarRepository.raiseMaxEventDuration(calendarId, maxDurationSeconds);
+    jdbcTemplate.batchUpdate(
+        INSERT_EVENT,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            EventDto event = events.get(i).event();
+            ps.setObject(1, ids.get(i));
+            ps.setString(2, event.getTitle());
+            ps.setString(3, event.getDescription());
+            ps.setObject(4, event.getStartTime());
+            ps.setObject(5, event.getEndTime());
+            ps.setString(6, event.getLocation());
+            ps.setObject(7, calendarId);
+            ps.setString(8, events.get(i).uid());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return events.size();
+          }
+        });
+    // Take the sequences of the changes in commit order, see EventChangeFeedLock
+    eventChangeRepository.lockFeed();
+    jdbcTemplate.batchUpdate(
+        INSERT_EVENT_CHANGE,
+        ids,
+        ids.size(),
+        (ps, id) -> {
+          ps.setObject(1, id);
+          ps.setObject(2, calendarId);
+          ps.setString(3, ChangeType.CREATED.name());
+          ps.setObject(4, now);
+        });
+  }
+}
@@ -1,23 +1,43 @@
 package doodle.qa.com.svcproviderqa.service;
 
+import doodle.qa.com.svcproviderqa.dto.BusyIntervalDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeFeedDto;
 import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventPageDto;
+import doodle.qa.com.svcproviderqa.dto.FreeBusyDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.entity.Event;
+import doodle.qa.com.svcproviderqa.entity.EventChange;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
 import doodle.qa.com.svcproviderqa.exception.ConcurrentModificationException;
 import doodle.qa.com.svcproviderqa.exception.EventNotFoundException;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
 import doodle.qa.com.svcproviderqa.repository.EventRepository;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -35,6 +55,13 @@ public class EventService {
 
   private final EventRepository eventRepository;
   private final CalendarRepository calendarRepository;
+  private final EventChangeRepository eventChangeRepository;
+
+  /** Maximum number of changes returned by one page of the change feed. */
+  private static final int MAX_CHANGES_PAGE_SIZE = 1000;
+
+  /** Maximum number of events returned by one page of a calendar's events. */
+  private static final int MAX_EVENTS_PAGE_SIZE = 1000;
 
   /**
    * Retrieves an event by ID.
@@ -46,8 +73,7 @@ public class EventService {
   public EventDto getEventById(@NotNull UUID id) {
     log.info("Retrieving event with id: {}", id);
     return eventRepository
-        .findById(id)
-        .map(this::mapToDto)
+        .findDtoById(id)
         .orElseThrow(
             () -> {
               log.warn("Event not found with id: {}", id);
@@ -63,13 +89,68 @@ public class EventService {
    */
   public List<EventDto> getEventsByCalendarId(@NotNull UUID calendarId) {
     log.info("Retrieving events for calendar id: {}", calendarId);
-    return eventRepository.findByCalendarId(calendarId).stream()
-        .map(this::mapToDto)
-        .collect(Collectors.toList());
+    return eventRepository.findDtosByCalendarId(calendarId);
+  }
+
+  /**
+   * Retrieves a keyset page of a calendar's events, ordered by start time and ID. The first page is
+   * requested without a cursor; each following page continues after the start time and ID of the
+   * last event of the previous page, so paging stays cheap however large the calendar is.
+   *
+   * @param calendarId The calendar ID
+   * @param afterStartTime The start time of the last event already seen, or null for the first page
+   * @param afterId The ID of the last event already seen, or null for the first page
+   * @param limit The maximum number of events to return, capped at 1000
+   * @return The page of events and the cursor for the next page
+   */
+  public EventPageDto getEventPageByCalendarId(
+      @NotNull UUID calendarId, LocalDateTime afterStartTime, UUID afterId, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_EVENTS_PAGE_SIZE));
+    // Fetch one extra event to tell whether another page follows
+    PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+    List<EventDto> events =
+        afterStartTime == null || afterId == null
+            ? eventRepository.findDtoPage(calendarId, pageRequest)
+            : eventRepository.findDtoPageAfter(calendarId, afterStartTime, afterId, pageRequest);
+    boolean hasMore = events.size() > pageSize;
+    if (hasMore) {
+      events = events.subList(0, pageSize);
+    }
+    EventDto last = events.isEmpty() ? null : events.get(events.size() - 1);
+    log.debug("Returning {} events of calendar {}", events.size(), calendarId);
+    return EventPageDto.builder()
+        .events(events)
+        .nextStartTime(last != null ? last.getStartTime() : null)
+        .nextId(last != null ? last.getId() : null)
+        .hasMore(hasMore)
+        .build();
+  }
+
+  /**
+   * Passes all events of a calendar, ordered by start time and ID, to a consumer one at a time. The
+   * events are read through a database cursor and never collected, so memory use does not grow with
+   * the size of the calendar. The consumer runs inside the read transaction.
+   *
+   * @param calendarId The calendar ID
+   * @param consumer Receives each event
+   * @return The number of events passed to the consumer
+   */
+  public long forEachEventByCalendarId(@NotNull UUID calendarId, Consumer<EventDto> consumer) {
+    log.info("Streaming events for calendar id: {}", calendarId);
+    long count = 0;
+    try (Stream<EventDto> events = eventRepository.streamDtosByCalendarId(calendarId)) {
+      Iterator<EventDto> iterator = events.iterator();
+      while (iterator.hasNext()) {
+        consumer.accept(iterator.next());
+        count++;
+      }
+    }
+    return count;
   }
 
   /**
-   * Retrieves events for a calendar within a time range.
+   * Retrieves events for a calendar that overlap a time range, including events that start before
+   * the range and run into it.
    *
    * @param calendarId The calendar ID
    * @param start Start time
@@ -79,9 +160,135 @@ public class EventService {
   public List<EventDto> getEventsByCalendarIdAndTimeRange(
       @NotNull UUID calendarId, @NotNull LocalDateTime start, @NotNull LocalDateTime end) {
     log.info("Retrieving events for calendar {} between {} and {}", calendarId, start, end);
-    return eventRepository.findByCalendarIdAndStartTimeBetween(calendarId, start, end).stream()
-        .map(this::mapToDto)
-        .collect(Collectors.toList());
+    return eventRepository.findDtosOverlapping(
+        calendarId, start, end, earliestOverlappingStart(calendarId, start));
+  }
+
+  /**
+   * Retrieves events of several calendars overlapping a time range with a single query, grouped by
+   * calendar. Every requested calendar is present in the result, with an empty list if it has no
+   * events in the range.
+   *
+   * @param calendarIds The calendar IDs
+   * @param start Start time
+   * @param end End time
+   * @return Events per calendar ID, in the order the calendar IDs were given
+   */
+  public Map<UUID, List<EventDto>> getEventsByCalendarIdsAndTimeRange(
+      @NotEmpty Collection<UUID> calendarIds,
+      @NotNull LocalDateTime start,
+      @NotNull LocalDateTime end) {
+    log.info(
+        "Retrieving events for {} calendars between {} and {}", calendarIds.size(), start, end);
+    Map<UUID, List<EventDto>> eventsByCalendar = new LinkedHashMap<>();
+    calendarIds.forEach(calendarId -> eventsByCalendar.put(calendarId, new ArrayList<>()));
+    for (EventDto event :
+        eventRepository.findDtosOverlappingIn(
+            eventsByCalendar.keySet(), start, end, earliestOverlappingStart(calendarIds, start))) {
+      eventsByCalendar.get(event.getCalendarId()).add(event);
+    }
+    return eventsByCalendar;
+  }
+
+  /**
+   * Retrieves the busy intervals of a calendar within a time range. Events overlapping the range
+   * are merged in a single sweep over the start-ordered intervals and clipped to the range, so only
+   * the coalesced busy time is returned without any event details.
+   *
+   * @param calendarId The calendar ID
+   * @param start Start time
+   * @param end End time
+   * @param encoding The representation of the busy intervals
+   * @return The busy intervals of the calendar within the time range
+   */
+  public FreeBusyDto getFreeBusy(
+      @NotNull UUID calendarId,
+      @NotNull LocalDateTime start,
+      @NotNull LocalDateTime end,
+      @NotNull FreeBusyDto.Encoding encoding) {
+    log.info("Retrieving free/busy for calendar {} between {} and {}", calendarId, start, end);
+    List<BusyIntervalDto> busy = new ArrayList<>();
+    for (BusyIntervalDto interval :
+        eventRepository.findBusyIntervals(
+            calendarId, start, end, earliestOverlappingStart(calendarId, start))) {
+      LocalDateTime intervalStart =
+          interval.getStart().isBefore(start) ? start : interval.getStart();
+      LocalDateTime intervalEnd = interval.getEnd().isAfter(end) ? end : interval.getEnd();
+      BusyIntervalDto last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+      if (last != null && !intervalStart.isAfter(last.getEnd())) {
+        if (intervalEnd.isAfter(last.getEnd())) {
+          last.setEnd(intervalEnd);
+        }
+      } else {
+        busy.add(new BusyIntervalDto(intervalStart, intervalEnd));
+      }
+    }
+
+    FreeBusyDto.FreeBusyDtoBuilder freeBusy = FreeBusyDto.builder().start(start).end(end);
+    if (encoding == FreeBusyDto.Encoding.DELTA) {
+      return freeBusy.origin(toEpochMinute(start, false)).deltas(toDeltas(start, busy)).build();
+    }
+    return freeBusy.busy(busy).build();
+  }
+
+  /**
+   * Retrieves the change counter of a calendar's events. The counter changes whenever an event of
+   * the calendar is created, updated or deleted.
+   *
+   * @param calendarId The calendar ID
+   * @return The events version, or empty if the calendar does not exist
+   */
+  public Optional<Long> getEventsVersion(@NotNull UUID calendarId) {
+    return calendarRepository.findEventsVersionById(calendarId);
+  }
+
+  /**
+   * Retrieves a page of the event change feed. Without a cursor no changes are returned and the
+   * cursor points at the latest change, so a new consumer starts following the feed from now on. If
+   * changes after the cursor were purged by the {@link EventChangeRetention}, the page asks the
+   * consumer to resync and points at the latest change. A gap left by a rolled back change right
+   * before the oldest retained one also asks for a resync, which is safe. Writers take sequences
+   * under the feed lock, so every change below a visible one has committed or rolled back and the
+   * cursor never passes a change that is still to commit.
+   *
+   * @param since The sequence of the last change already seen, or null to start from the latest
+   * @param limit The maximum number of changes to return, capped at 1000
+   * @return The changes after the cursor and the cursor for the next page
+   */
+  public EventChangeFeedDto getEventChanges(Long since, int limit) {
+    if (since == null) {
+      return EventChangeFeedDto.builder()
+          .changes(List.of())
+          .nextSince(eventChangeRepository.findLatestSequence())
+          .hasMore(false)
+          .build();
+    }
+
+    if (since < eventChangeRepository.findOldestSequence() - 1) {
+      log.info("Event changes after sequence {} were purged, asking the consumer to resync", since);
+      return EventChangeFeedDto.builder()
+          .changes(List.of())
+          .nextSince(eventChangeRepository.findLatestSequence())
+          .hasMore(false)
+          .resync(true)
+          .build();
+    }
+
+    int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE_SIZE));
+    // Fetch one extra change to tell whether another page follows
+    List<EventChangeDto> changes =
+        eventChangeRepository.findDtosAfter(since, PageRequest.of(0, pageSize + 1));
+    boolean hasMore = changes.size() > pageSize;
+    if (hasMore) {
+      changes = changes.subList(0, pageSize);
+    }
+    long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+    log.debug("Returning {} event changes after sequence {}", changes.size(), since);
+    return EventChangeFeedDto.builder()
+        .changes(changes)
+        .nextSince(nextSince)
+        .hasMore(hasMore)
+        .build();
   }
 
   /**
@@ -101,15 +308,14 @@ public class EventService {
     log.info("Creating event with title: {}", eventDto.getTitle());
 
     try {
-      // Find the calendar
-      Calendar calendar =
-          calendarRepository
-              .findById(eventDto.getCalendarId())
-              .orElseThrow(
-                  () -> {
-                    log.warn("Calendar not found with id: {}", eventDto.getCalendarId());
-                    return new CalendarNotFoundException(eventDto.getCalendarId());
-                  });
+      UUID calendarId = eventDto.getCalendarId();
+
+      // Bumping the events version doubles as the existence check, so neither the calendar nor
+      // its events collection is loaded; the event only references the calendar by ID
+      if (calendarRepository.incrementEventsVersion(calendarId) == 0) {
+        log.warn("Calendar not found with id: {}", calendarId);
+        throw new CalendarNotFoundException(calendarId);
+      }
 
       Event event =
           Event.builder()
@@ -118,13 +324,12 @@ public class EventService {
               .startTime(eventDto.getStartTime())
               .endTime(eventDto.getEndTime())
               .location(eventDto.getLocation())
-              .calendar(calendar)
+              .calendar(calendarRepository.getReferenceById(calendarId))
               .build();
 
-      // Add the event to the calendar's events list
-      calendar.addEvent(event);
-
       Event savedEvent = eventRepository.save(event);
+      raiseMaxEventDuration(calendarId, savedEvent);
+      recordChange(savedEvent.getId(), calendarId, ChangeType.CREATED);
 
       log.info("Event created: {}", savedEvent.getId());
       return mapToDto(savedEvent);
@@ -178,8 +383,10 @@ public class EventService {
             "The event was modified by another operation. Please refresh and try again.");
       }
 
+      UUID previousCalendarId = event.getCalendar().getId();
+
       // If calendar ID has changed, find the new calendar
-      if (!event.getCalendar().getId().equals(eventDto.getCalendarId())) {
+      if (!previousCalendarId.equals(eventDto.getCalendarId())) {
         Calendar calendar =
             calendarRepository
                 .findById(eventDto.getCalendarId())
@@ -198,6 +405,16 @@ public class EventService {
       event.setLocation(eventDto.getLocation());
 
       Event updatedEvent = eventRepository.save(event);
+      calendarRepository.incrementEventsVersion(previousCalendarId);
+      raiseMaxEventDuration(updatedEvent.getCalendar().getId(), updatedEvent);
+      boolean calendarChanged = !previousCalendarId.equals(eventDto.getCalendarId());
+      if (calendarChanged) {
+        calendarRepository.incrementEventsVersion(eventDto.getCalendarId());
+      }
+      recordChange(id, previousCalendarId, ChangeType.UPDATED);
+      if (calendarChanged) {
+        recordChange(id, eventDto.getCalendarId(), ChangeType.UPDATED);
+      }
 
       log.info("Event updated: {}", updatedEvent.getId());
       return mapToDto(updatedEvent);
@@ -233,7 +450,16 @@ public class EventService {
                     return new EventNotFoundException(id);
                   });
 
+      Calendar calendar = event.getCalendar();
+      calendarRepository.incrementEventsVersion(calendar.getId());
+
+      // Keep an already loaded events collection consistent, so the removed event is not
+      // cascaded back in on flush; an uninitialized collection is left alone to avoid loading it
+      if (Hibernate.isInitialized(calendar.getEvents())) {
+        calendar.removeEvent(event);
+      }
       eventRepository.delete(event);
+      recordChange(id, calendar.getId(), ChangeType.DELETED);
 
       log.info("Event deleted: {}", id);
     } catch (OptimisticLockingFailureException e) {
@@ -243,6 +469,95 @@ public class EventService {
     }
   }
 
+  /**
+   * Records a change of an event in the change feed, as part of the current transaction. Pending
+   * writes are flushed and the feed is locked first, so the change's sequence is taken in commit
+   * order; callers record their changes after all other writes of the transaction.
+   *
+   * @param eventId The event ID
+   * @param calendarId The ID of the calendar affected by the change
+   * @param changeType The kind of change
+   */
+  private void recordChange(UUID eventId, UUID calendarId, ChangeType changeType) {
+    eventChangeRepository.flush();
+    eventChangeRepository.lockFeed();
+    eventChangeRepository.save(
+        EventChange.builder()
+            .eventId(eventId)
+            .calendarId(calendarId)
+            .changeType(changeType)
+            .changedAt(LocalDateTime.now())
+            .build());
+  }
+
+  /**
+   * Returns the earliest start time of an event of the calendar that can overlap a range starting
+   * at the given time, based on the calendar's maximum event duration.
+   *
+   * @param calendarId The calendar ID
+   * @param start The start of the time range
+   * @return The lower bound of the start time of overlapping events
+   */
+  private LocalDateTime earliestOverlappingStart(UUID calendarId, LocalDateTime start) {
+    return start.minusSeconds(
+        calendarRepository.findMaxEventDurationSecondsById(calendarId).orElse(0L));
+  }
+
+  private LocalDateTime earliestOverlappingStart(
+      Collection<UUID> calendarIds, LocalDateTime start) {
+    return start.minusSeconds(
+        calendarRepository.findMaxEventDurationSecondsByIdIn(calendarIds).orElse(0L));
+  }
+
+  /**
+   * Raises the maximum event duration of a calendar to cover an event, rounded up to whole seconds.
+   *
+   * @param calendarId The calendar ID
+   * @param event The created or updated event
+   */
+  private void raiseMaxEventDuration(UUID calendarId, Event event) {
+    Duration duration = Duration.between(event.getStartTime(), event.getEndTime());
+    long seconds = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+    calendarRepository.raiseMaxEventDuration(calendarId, seconds);
+  }
+
+  /**
+   * Delta-encodes busy intervals as alternating gap and length values in minutes, starting at the
+   * epoch minute of the range start. Starts are rounded down and ends up to whole minutes, so the
+   * encoded busy time never shrinks.
+   *
+   * @param rangeStart The start of the time range
+   * @param busy The merged busy intervals, in start order
+   * @return The gap/length minute deltas
+   */
+  private static List<Long> toDeltas(LocalDateTime rangeStart, List<BusyIntervalDto> busy) {
+    List<Long> deltas = new ArrayList<>(busy.size() * 2);
+    long cursor = toEpochMinute(rangeStart, false);
+    for (BusyIntervalDto interval : busy) {
+      long intervalStart = Math.max(cursor, toEpochMinute(interval.getStart(), false));
+      long intervalEnd = Math.max(intervalStart, toEpochMinute(interval.getEnd(), true));
+      if (intervalEnd == intervalStart) {
+        continue;
+      }
+      if (intervalStart == cursor && !deltas.isEmpty()) {
+        // Intervals that touch after rounding are joined into one
+        deltas.set(deltas.size() - 1, deltas.get(deltas.size() - 1) + intervalEnd - intervalStart);
+      } else {
+        deltas.add(intervalStart - cursor);
+        deltas.add(intervalEnd - intervalStart);
+      }
+      cursor = intervalEnd;
+    }
+    return deltas;
+  }
+
+  private static long toEpochMinute(LocalDateTime time, boolean roundUp) {
+    long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+    long minute = Math.floorDiv(epochSecond, 60);
+    boolean partial = epochSecond % 60 != 0 || time.getNano() != 0;
+    return roundUp && partial ? minute + 1 : minute;
+  }
+
   /**
    * Maps an Event entity to an EventDto.
    *
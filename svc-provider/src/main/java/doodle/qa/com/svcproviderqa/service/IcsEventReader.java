@@ -0,0 +1,267 @@
+package doodle.qa.com.svcproviderqa.service;
+
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader of the VEVENTs of an iCalendar (RFC 5545) document. Lines are read and unfolded
+ * one at a time and only the properties of the current VEVENT are kept, so memory use does not
+ * depend on the size of the document.
+ *
+ * <p>Times with a TZID or in UTC are converted to UTC; floating times are taken as they are. A
+ * VEVENT without DTEND ends after its DURATION, or after one day if it starts on a date. VEVENTs
+ * without a valid start, or ending before they start, are skipped and counted. Recurrence rules are
+ * not expanded; only the first occurrence is read.
+ *
+ * <p>Every event is returned with its UID, followed by its RECURRENCE-ID for an overridden
+ * occurrence, so an import can tell which events it already holds. The UID is null if it is missing
+ * or longer than 255 characters.
+ */
+public class IcsEventReader {
+
+  /** Longest unfolded line that is kept; longer property values are truncated. */
+  private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+  private static final int MAX_TITLE_LENGTH = 255;
+  private static final int MAX_DESCRIPTION_LENGTH = 1000;
+  private static final int MAX_LOCATION_LENGTH = 255;
+  private static final int MAX_UID_LENGTH = 255;
+
+  private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final Pattern WEEKS = Pattern.compile("([+-]?)P(\\d+)W");
+  private static final Pattern TZID = Pattern.compile("(?i)(?:^|;)TZID=\"?([^;:\"]+)\"?");
+
+  private final BufferedReader reader;
+  private String pendingLine;
+  private long skipped;
+
+  public IcsEventReader(Reader reader) {
+    this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+  }
+
+  /**
+   * A VEVENT read from the document.
+   *
+   * @param uid The UID of the event, followed by its RECURRENCE-ID, or null
+   * @param event The event, without ID and calendar ID
+   */
+  public record IcsEvent(String uid, EventDto event) {}
+
+  /**
+   * Reads the next valid VEVENT.
+   *
+   * @return The event, or null at the end of the document
+   * @throws IOException if the document cannot be read
+   */
+  public IcsEvent next() throws IOException {
+    Map<String, Property> properties = null;
+    int nestedComponents = 0;
+
+    String line;
+    while ((line = readUnfoldedLine()) != null) {
+      Property property = Property.parse(line);
+      if (property == null) {
+        continue;
+      }
+
+      if (properties == null) {
+        if (property.is("BEGIN", "VEVENT")) {
+          properties = new HashMap<>();
+        }
+      } else if (property.name().equals("BEGIN")) {
+        // Nested components such as VALARM carry properties that do not belong to the event
+        nestedComponents++;
+      } else if (property.name().equals("END")) {
+        if (nestedComponents > 0) {
+          nestedComponents--;
+        } else if (property.is("END", "VEVENT")) {
+          EventDto event = toEvent(properties);
+          if (event != null) {
+            return new IcsEvent(uid(properties), event);
+          }
+          skipped++;
+          properties = null;
+        }
+      } else if (nestedComponents == 0) {
+        properties.putIfAbsent(property.name(), property);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the number of VEVENTs skipped so far because they were invalid.
+   *
+   * @return The number of skipped VEVENTs
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  private String readUnfoldedLine() throws IOException {
+    String line = pendingLine != null ? pendingLine : reader.readLine();
+    pendingLine = null;
+    if (line == null) {
+      return null;
+    }
+
+    StringBuilder unfolded = null;
+    String next;
+    while ((next = reader.readLine()) != null
+        && !next.isEmpty()
+        && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+      if (unfolded == null) {
+        unfolded = new StringBuilder(line);
+      }
+      if (unfolded.length() < MAX_LINE_LENGTH) {
+        unfolded.append(next, 1, Math.min(next.length(), 1 + MAX_LINE_LENGTH - unfolded.length()));
+      }
+    }
+    pendingLine = next;
+    return unfolded != null ? unfolded.toString() : line;
+  }
+
+  private static EventDto toEvent(Map<String, Property> properties) {
+    try {
+      Property dtStart = properties.get("DTSTART");
+      if (dtStart == null) {
+        return null;
+      }
+      LocalDateTime startTime = parseTime(dtStart);
+      LocalDateTime endTime;
+      Property dtEnd = properties.get("DTEND");
+      Property duration = properties.get("DURATION");
+      if (dtEnd != null) {
+        endTime = parseTime(dtEnd);
+      } else if (duration != null) {
+        endTime = startTime.plus(parseDuration(duration.value()));
+      } else if (isDate(dtStart)) {
+        endTime = startTime.plusDays(1);
+      } else {
+        return null;
+      }
+      if (!endTime.isAfter(startTime)) {
+        return null;
+      }
+
+      String title = text(properties.get("SUMMARY"), MAX_TITLE_LENGTH);
+      return EventDto.builder()
+          .title(title == null || title.isBlank() ? "(no title)" : title)
+          .description(text(properties.get("DESCRIPTION"), MAX_DESCRIPTION_LENGTH))
+          .startTime(startTime)
+          .endTime(endTime)
+          .location(text(properties.get("LOCATION"), MAX_LOCATION_LENGTH))
+          .build();
+    } catch (DateTimeException | ArithmeticException e) {
+      return null;
+    }
+  }
+
+  private static String uid(Map<String, Property> properties) {
+    Property uid = properties.get("UID");
+    if (uid == null || uid.value().isEmpty()) {
+      return null;
+    }
+    Property recurrenceId = properties.get("RECURRENCE-ID");
+    String key = recurrenceId == null ? uid.value() : uid.value() + "/" + recurrenceId.value();
+    return key.length() <= MAX_UID_LENGTH ? key : null;
+  }
+
+  private static boolean isDate(Property property) {
+    return property.value().length() == 8;
+  }
+
+  private static LocalDateTime parseTime(Property property) {
+    String value = property.value();
+    if (isDate(property)) {
+      return LocalDate.parse(value, DATE).atStartOfDay();
+    }
+    if (value.endsWith("Z")) {
+      return LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME);
+    }
+    LocalDateTime time = LocalDateTime.parse(value, DATE_TIME);
+    Matcher tzid = TZID.matcher(property.parameters());
+    if (tzid.find()) {
+      return time.atZone(ZoneId.of(tzid.group(1).trim()))
+          .withZoneSameInstant(ZoneOffset.UTC)
+          .toLocalDateTime();
+    }
+    return time;
+  }
+
+  private static Duration parseDuration(String value) {
+    Matcher weeks = WEEKS.matcher(value);
+    if (weeks.matches()) {
+      Duration duration = Duration.ofDays(7 * Long.parseLong(weeks.group(2)));
+      return weeks.group(1).equals("-") ? duration.negated() : duration;
+    }
+    return Duration.parse(value);
+  }
+
+  private static String text(Property property, int maxLength) {
+    if (property == null) {
+      return null;
+    }
+    String value = property.value();
+    StringBuilder text = new StringBuilder(Math.min(value.length(), maxLength));
+    for (int i = 0; i < value.length() && text.length() < maxLength; i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char escaped = value.charAt(++i);
+        text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+      } else {
+        text.append(c);
+      }
+    }
+    return text.toString();
+  }
+
+  /** A content line split into its upper-cased name, its parameters and its value. */
+  private record Property(String name, String parameters, String value) {
+
+    static Property parse(String line) {
+      int colon = indexOfValueSeparator(line);
+      if (colon < 0) {
+        return null;
+      }
+      String head = line.substring(0, colon);
+      int semicolon = head.indexOf(';');
+      String name = (semicolon < 0 ? head : head.substring(0, semicolon)).trim();
+      String parameters = semicolon < 0 ? "" : head.substring(semicolon + 1);
+      return new Property(name.toUpperCase(), parameters, line.substring(colon + 1).trim());
+    }
+
+    /** Finds the colon that starts the value, skipping colons in quoted parameter values. */
+    private static int indexOfValueSeparator(String line) {
+      boolean quoted = false;
+      for (int i = 0; i < line.length(); i++) {
+        char c = line.charAt(i);
+        if (c == '"') {
+          quoted = !quoted;
+        } else if (c == ':' && !quoted) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    boolean is(String name, String value) {
+      return this.name.equals(name) && this.value.equalsIgnoreCase(value);
+    }
+  }
+}
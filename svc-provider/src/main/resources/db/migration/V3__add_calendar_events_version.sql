@@ -0,0 +1,3 @@
+-- Per-calendar change counter, incremented whenever an event of the calendar is created,
+-- updated or deleted. Used to answer conditional GETs on calendar events without loading them.
+ALTER TABLE calendars ADD COLUMN events_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,9 @@
+-- Change feed of events: one row per created, updated or deleted event, ordered by an increasing
+-- sequence number. Consumers page through it with GET /api/events/changes?since=<sequence>.
+CREATE TABLE event_changes (
+    sequence_number BIGSERIAL PRIMARY KEY,
+    event_id UUID NOT NULL,
+    calendar_id UUID NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
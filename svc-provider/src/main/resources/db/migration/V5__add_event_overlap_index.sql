@@ -0,0 +1,16 @@
+-- Upper bound of the duration of a calendar's events, in seconds. Only ever raised, so an event
+-- overlapping [start, end) always starts at or after start minus this bound. That turns range
+-- overlap lookups into a bounded scan of the (calendar_id, start_time) index below.
+ALTER TABLE calendars ADD COLUMN max_event_duration_seconds BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE calendars c
+SET max_event_duration_seconds = COALESCE(
+        (SELECT CEIL(MAX(EXTRACT(EPOCH FROM (e.end_time - e.start_time))))
+         FROM events e
+         WHERE e.calendar_id = c.id),
+        0);
+
+-- end_time is included so overlap lookups of busy intervals are answered from the index alone.
+-- The calendar_id prefix also serves the foreign key, which makes idx_event_calendar_id redundant.
+CREATE INDEX idx_event_calendar_start_time ON events(calendar_id, start_time) INCLUDE (end_time);
+DROP INDEX idx_event_calendar_id;
@@ -0,0 +1,5 @@
+-- Calendar names are unique. The constraint's index answers name existence probes, and the
+-- constraint itself rejects a duplicate inserted concurrently after a probe, so it replaces the
+-- plain idx_calendar_name index.
+ALTER TABLE calendars ADD CONSTRAINT uk_calendar_name UNIQUE (name);
+DROP INDEX idx_calendar_name;
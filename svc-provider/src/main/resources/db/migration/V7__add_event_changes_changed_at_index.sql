@@ -0,0 +1,2 @@
+-- Lets the retention purge find old entries of the change feed without scanning the table.
+CREATE INDEX idx_event_changes_changed_at ON event_changes(changed_at);
@@ -0,0 +1,9 @@
+-- Sequence numbers of event_changes are taken on insert, not on commit, so concurrent writers could
+-- commit them out of order and a consumer's cursor could pass a change that commits later. Writers
+-- lock this single row before inserting changes and hold it until they commit, so the changes
+-- become visible in sequence order.
+CREATE TABLE event_change_feed_lock (
+    id SMALLINT PRIMARY KEY
+);
+
+INSERT INTO event_change_feed_lock (id) VALUES (1);
@@ -0,0 +1,5 @@
+-- UID (and RECURRENCE-ID) of the iCalendar event an event was imported from. The constraint lets
+-- an import that failed part-way be retried with the same document: events whose UID is already
+-- present in the calendar are skipped. Events created through the API have no UID.
+ALTER TABLE events ADD COLUMN ical_uid VARCHAR(255);
+ALTER TABLE events ADD CONSTRAINT uk_event_calendar_ical_uid UNIQUE (calendar_id, ical_uid);
@@ -2,6 +2,7 @@ package doodle.qa.com.svcproviderqa.integration.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkResultDto;
 import doodle.qa.com.svcproviderqa.dto.CalendarDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
@@ -141,4 +142,29 @@ class CalendarServiceIntegrationTest {
     assertThat(retrievedCalendar.getName()).isEqualTo("Test Calendar");
     assertThat(retrievedCalendar.getDescription()).isEqualTo("Test Description");
   }
+
+  @Test
+  @DisplayName("Should create calendars in bulk and skip names that already exist")
+  void testCreateCalendarsInBulk() {
+    // Given
+    calendarService.createCalendar(TestDataFactory.createCalendarDto("Existing", "Description"));
+    List<CalendarDto> calendarDtos =
+        List.of(
+            TestDataFactory.createCalendarDto("Existing", "Skipped"),
+            TestDataFactory.createCalendarDto("Bulk 1", "Description 1"),
+            TestDataFactory.createCalendarDto("Bulk 2", "Description 2"));
+
+    // When
+    CalendarBulkResultDto result = calendarService.createCalendars(calendarDtos);
+
+    // Then
+    assertThat(result.getCreated())
+        .extracting(CalendarDto::getName)
+        .containsExactly("Bulk 1", "Bulk 2");
+    assertThat(result.getCreated()).allMatch(calendar -> calendar.getId() != null);
+    assertThat(result.getSkippedNames()).containsExactly("Existing");
+    assertThat(calendarRepository.count()).isEqualTo(3);
+    assertThat(calendarRepository.findByName("Existing").orElseThrow().getDescription())
+        .isEqualTo("Description");
+  }
 }
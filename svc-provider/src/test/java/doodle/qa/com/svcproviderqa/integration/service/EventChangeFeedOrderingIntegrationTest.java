@@ -0,0 +1,126 @@
+package doodle.qa.com.svcproviderqa.integration.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeFeedDto;
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.entity.Calendar;
+import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import doodle.qa.com.svcproviderqa.service.EventService;
+import doodle.qa.com.svcproviderqa.util.TestDataFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Verifies that the event change feed never lets a consumer's cursor pass a change that is still to
+ * commit. Sequence numbers are taken on insert, so without the feed lock a writer that took a later
+ * sequence could commit first, and the earlier change would be skipped by every consumer.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EventChangeFeedOrderingIntegrationTest {
+
+  @Autowired private EventService eventService;
+  @Autowired private CalendarRepository calendarRepository;
+  @Autowired private EventChangeRepository eventChangeRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private ExecutorService executor;
+  private UUID calendarId;
+
+  @BeforeEach
+  void setUp() {
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+    Calendar calendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Feed", "Feed Calendar"));
+    calendarId = calendar.getId();
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Should not skip a change whose writer commits after a later writer tried to")
+  void getEventChanges_WhenWritersCommitInReverseOrder_ShouldNotSkipChanges() throws Exception {
+    // Given a consumer following the feed from an existing change
+    eventService.createEvent(event("Seed"));
+    long cursor = eventService.getEventChanges(null, 100).getNextSince();
+    CountDownLatch firstRecorded = new CountDownLatch(1);
+    CountDownLatch releaseFirst = new CountDownLatch(1);
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+    // When the first writer has recorded its change but not committed yet
+    Future<EventDto> firstWriter =
+        executor.submit(
+            () ->
+                transactionTemplate.execute(
+                    status -> {
+                      EventDto created = eventService.createEvent(event("First"));
+                      firstRecorded.countDown();
+                      await(releaseFirst);
+                      return created;
+                    }));
+    assertThat(firstRecorded.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // and a second writer tries to record and commit a change after it
+    Future<EventDto> secondWriter =
+        executor.submit(() -> eventService.createEvent(event("Second")));
+
+    // Then the second writer waits for the first one, and the feed shows neither change
+    assertThatThrownBy(() -> secondWriter.get(300, TimeUnit.MILLISECONDS))
+        .isInstanceOf(TimeoutException.class);
+    EventChangeFeedDto pending = eventService.getEventChanges(cursor, 100);
+    assertThat(pending.getChanges()).isEmpty();
+    assertThat(pending.getNextSince()).isEqualTo(cursor);
+
+    // When the first writer commits
+    releaseFirst.countDown();
+    EventDto first = firstWriter.get(10, TimeUnit.SECONDS);
+    EventDto second = secondWriter.get(10, TimeUnit.SECONDS);
+
+    // Then both changes follow the cursor, in commit order
+    EventChangeFeedDto feed = eventService.getEventChanges(pending.getNextSince(), 100);
+    assertThat(feed.getChanges())
+        .extracting(EventChangeDto::getEventId)
+        .containsExactly(first.getId(), second.getId());
+  }
+
+  private EventDto event(String title) {
+    LocalDateTime start = LocalDateTime.now().plusDays(1);
+    return TestDataFactory.createEventDto(
+        title, "Description", start, start.plusHours(1), "Location", calendarId);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
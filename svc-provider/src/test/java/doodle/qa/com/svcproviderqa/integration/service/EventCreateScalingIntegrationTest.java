@@ -0,0 +1,113 @@
+package doodle.qa.com.svcproviderqa.integration.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.entity.Calendar;
+import doodle.qa.com.svcproviderqa.entity.Event;
+import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import doodle.qa.com.svcproviderqa.repository.EventRepository;
+import doodle.qa.com.svcproviderqa.service.EventService;
+import doodle.qa.com.svcproviderqa.util.TestDataFactory;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Verifies that the cost of creating an event does not depend on the size of its calendar. Query
+ * counts and loaded entities are measured with Hibernate statistics, which unlike wall-clock
+ * timings are stable enough to assert on: an insert into a calendar with many events must issue the
+ * same statements as an insert into an empty calendar and load none of the existing events.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class EventCreateScalingIntegrationTest {
+
+  private static final int LARGE_CALENDAR_SIZE = 500;
+
+  @Autowired private EventService eventService;
+  @Autowired private EventRepository eventRepository;
+  @Autowired private CalendarRepository calendarRepository;
+  @Autowired private EventChangeRepository eventChangeRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private LocalDateTime now;
+
+  @BeforeEach
+  void setUp() {
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    now = LocalDateTime.now();
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Should create an event without loading the existing events of its calendar")
+  void createEvent_InLargeCalendar_ShouldCostTheSameAsInEmptyCalendar() {
+    // Given
+    UUID emptyCalendarId = createCalendar("Empty Calendar", 0);
+    UUID largeCalendarId = createCalendar("Large Calendar", LARGE_CALENDAR_SIZE);
+
+    // When
+    Measurement empty = measureCreateEvent(emptyCalendarId);
+    Measurement large = measureCreateEvent(largeCalendarId);
+
+    // Then
+    assertThat(large.statements()).isEqualTo(empty.statements());
+    assertThat(large.loadedEntities()).isZero();
+    assertThat(large.fetchedCollections()).isZero();
+    assertThat(eventRepository.findDtosByCalendarId(largeCalendarId))
+        .hasSize(LARGE_CALENDAR_SIZE + 1);
+  }
+
+  private UUID createCalendar(String name, int events) {
+    Calendar calendar = calendarRepository.save(TestDataFactory.createCalendar(name, name));
+    List<Event> seeded = new ArrayList<>(events);
+    for (int i = 0; i < events; i++) {
+      seeded.add(
+          TestDataFactory.createEvent(
+              "Event " + i,
+              "Description " + i,
+              now.plusHours(i),
+              now.plusHours(i + 1),
+              "Location",
+              calendar));
+    }
+    eventRepository.saveAll(seeded);
+    return calendar.getId();
+  }
+
+  private Measurement measureCreateEvent(UUID calendarId) {
+    EventDto eventDto =
+        TestDataFactory.createEventDto(
+            "New Event", "New Description", now, now.plusHours(1), "Location", calendarId);
+    statistics.clear();
+    eventService.createEvent(eventDto);
+    return new Measurement(
+        statistics.getPrepareStatementCount(),
+        statistics.getEntityLoadCount(),
+        statistics.getCollectionFetchCount());
+  }
+
+  /** Database work done by one event creation. */
+  private record Measurement(long statements, long loadedEntities, long fetchedCollections) {}
+}
@@ -0,0 +1,216 @@
+package doodle.qa.com.svcproviderqa.integration.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventImportResultDto;
+import doodle.qa.com.svcproviderqa.entity.Calendar;
+import doodle.qa.com.svcproviderqa.entity.EventChange;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
+import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svcproviderqa.exception.EventImportException;
+import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import doodle.qa.com.svcproviderqa.repository.EventRepository;
+import doodle.qa.com.svcproviderqa.service.EventImportService;
+import doodle.qa.com.svcproviderqa.util.TestDataFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the EventImportService. A small chunk size is used so that an import spans
+ * several chunks.
+ */
+@SpringBootTest(properties = "events.import.chunk-size=2")
+@ActiveProfiles("test")
+class EventImportServiceIntegrationTest {
+
+  @Autowired private EventImportService eventImportService;
+  @Autowired private EventRepository eventRepository;
+  @Autowired private CalendarRepository calendarRepository;
+  @Autowired private EventChangeRepository eventChangeRepository;
+
+  @BeforeEach
+  void setUp() {
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventChangeRepository.deleteAll();
+    calendarRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Should import events in chunks and record them in the change feed")
+  void importEvents_WhenCalendarExists_ShouldInsertEventsInChunks() {
+    // Given
+    Calendar calendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Import", "Import Calendar"));
+    long eventsVersionBefore =
+        calendarRepository.findEventsVersionById(calendar.getId()).orElseThrow();
+    String ics =
+        calendar(
+            event("Event 1", "20300107T090000Z", "20300107T100000Z"),
+            event("Event 2", "20300108T090000Z", "20300108T110000Z"),
+            event("Event 3", "20300109T090000Z", "20300109T093000Z"),
+            event("Ends before start", "20300110T100000Z", "20300110T090000Z"),
+            event("Event 4", "20300111T090000Z", "20300111T100000Z"),
+            event("Event 5", "20300112T090000Z", "20300112T100000Z"));
+
+    // When
+    EventImportResultDto result = eventImportService.importEvents(calendar.getId(), stream(ics));
+
+    // Then
+    assertThat(result.getCalendarId()).isEqualTo(calendar.getId());
+    assertThat(result.getImported()).isEqualTo(5);
+    assertThat(result.getSkipped()).isEqualTo(1);
+    assertThat(result.getChunks()).isEqualTo(3);
+
+    List<EventDto> events = eventRepository.findDtosByCalendarId(calendar.getId());
+    assertThat(events)
+        .extracting(EventDto::getTitle)
+        .containsExactlyInAnyOrder("Event 1", "Event 2", "Event 3", "Event 4", "Event 5");
+
+    List<EventChange> changes = eventChangeRepository.findAll();
+    assertThat(changes).hasSize(5);
+    assertThat(changes).allMatch(change -> change.getChangeType() == ChangeType.CREATED);
+    assertThat(changes)
+        .extracting(EventChange::getEventId)
+        .containsExactlyInAnyOrderElementsOf(events.stream().map(EventDto::getId).toList());
+
+    assertThat(calendarRepository.findEventsVersionById(calendar.getId()))
+        .contains(eventsVersionBefore + 3);
+    assertThat(calendarRepository.findMaxEventDurationSecondsById(calendar.getId()))
+        .contains(Duration.ofHours(2).getSeconds());
+  }
+
+  @Test
+  @DisplayName("Should throw CalendarNotFoundException when importing into unknown calendar")
+  void importEvents_WhenCalendarDoesNotExist_ShouldThrowException() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    String ics = calendar(event("Event", "20300107T090000Z", "20300107T100000Z"));
+
+    // When/Then
+    assertThatThrownBy(() -> eventImportService.importEvents(calendarId, stream(ics)))
+        .isInstanceOf(CalendarNotFoundException.class);
+    assertThat(eventChangeRepository.count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should skip events whose UID was already imported when importing again")
+  void importEvents_WhenDocumentIsImportedAgain_ShouldSkipDuplicates() {
+    // Given
+    Calendar calendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Import", "Import Calendar"));
+    String ics =
+        calendar(
+            event("uid-1", "Event 1", "20300107T090000Z", "20300107T100000Z"),
+            event("uid-2", "Event 2", "20300108T090000Z", "20300108T100000Z"),
+            event("uid-2", "Event 2 again", "20300108T090000Z", "20300108T100000Z"),
+            event("No UID", "20300109T090000Z", "20300109T100000Z"));
+    EventImportResultDto first = eventImportService.importEvents(calendar.getId(), stream(ics));
+    long changesAfterFirst = eventChangeRepository.count();
+
+    // When
+    EventImportResultDto second = eventImportService.importEvents(calendar.getId(), stream(ics));
+
+    // Then
+    assertThat(first.getImported()).isEqualTo(3);
+    assertThat(first.getDuplicates()).isEqualTo(1);
+    assertThat(second.getImported()).isEqualTo(1);
+    assertThat(second.getDuplicates()).isEqualTo(3);
+    assertThat(eventRepository.findDtosByCalendarId(calendar.getId()))
+        .extracting(EventDto::getTitle)
+        .containsExactlyInAnyOrder("Event 1", "Event 2", "No UID", "No UID");
+    assertThat(eventChangeRepository.count()).isEqualTo(changesAfterFirst + 1);
+  }
+
+  @Test
+  @DisplayName("Should report committed chunks when an import fails and resume on retry")
+  void importEvents_WhenStreamFailsAfterChunks_ShouldReportProgressAndResumeOnRetry() {
+    // Given a document whose stream breaks while the third chunk is read
+    Calendar calendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Import", "Import Calendar"));
+    String head =
+        calendar(
+                event("uid-1", "Event 1", "20300107T090000Z", "20300107T100000Z"),
+                event("uid-2", "Event 2", "20300108T090000Z", "20300108T100000Z"),
+                event("uid-3", "Event 3", "20300109T090000Z", "20300109T100000Z"),
+                event("uid-4", "Event 4", "20300110T090000Z", "20300110T100000Z"),
+                event("uid-5", "Event 5", "20300111T090000Z", "20300111T100000Z"))
+            .replace("END:VCALENDAR\r\n", "");
+    String ics =
+        head
+            + event("uid-6", "Event 6", "20300112T090000Z", "20300112T100000Z")
+            + "END:VCALENDAR\r\n";
+    InputStream broken =
+        new SequenceInputStream(
+            stream(head),
+            new InputStream() {
+              @Override
+              public int read() throws IOException {
+                throw new IOException("Connection reset");
+              }
+            });
+
+    // When
+    assertThatThrownBy(() -> eventImportService.importEvents(calendar.getId(), broken))
+        .isInstanceOfSatisfying(
+            EventImportException.class,
+            e -> {
+              assertThat(e.getCause()).isInstanceOf(IOException.class);
+              assertThat(e.getProgress().getImported()).isEqualTo(4);
+              assertThat(e.getProgress().getChunks()).isEqualTo(2);
+              assertThat(e.getProgress().getError()).isNotBlank();
+            });
+    EventImportResultDto retry = eventImportService.importEvents(calendar.getId(), stream(ics));
+
+    // Then
+    assertThat(retry.getImported()).isEqualTo(2);
+    assertThat(retry.getDuplicates()).isEqualTo(4);
+    assertThat(eventRepository.findDtosByCalendarId(calendar.getId()))
+        .extracting(EventDto::getTitle)
+        .containsExactlyInAnyOrder(
+            "Event 1", "Event 2", "Event 3", "Event 4", "Event 5", "Event 6");
+  }
+
+  private static InputStream stream(String ics) {
+    return new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String event(String title, String start, String end) {
+    return "BEGIN:VEVENT\r\nSUMMARY:"
+        + title
+        + "\r\nDTSTART:"
+        + start
+        + "\r\nDTEND:"
+        + end
+        + "\r\nEND:VEVENT\r\n";
+  }
+
+  private static String event(String uid, String title, String start, String end) {
+    return event(title, start, end)
+        .replace("BEGIN:VEVENT\r\n", "BEGIN:VEVENT\r\nUID:" + uid + "\r\n");
+  }
+
+  private static String calendar(String... events) {
+    return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\n" + String.join("", events) + "END:VCALENDAR\r\n";
+  }
+}
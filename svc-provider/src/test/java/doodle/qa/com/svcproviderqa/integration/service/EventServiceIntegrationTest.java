@@ -237,4 +237,25 @@ class EventServiceIntegrationTest {
     assertThat(events).anyMatch(e -> e.getTitle().equals("Event 2"));
     assertThat(events).noneMatch(e -> e.getTitle().equals("Event 3"));
   }
+
+  @Test
+  @DisplayName("Should bump the calendar's events version on every event change")
+  void testEventsVersionChangesWithEvents() {
+    // Given
+    long initialVersion = eventService.getEventsVersion(calendarId).orElseThrow();
+    EventDto eventDto =
+        TestDataFactory.createEventDto(
+            "Versioned Event", "Description", now, now.plusHours(1), "Location", calendarId);
+
+    // When
+    EventDto createdEvent = eventService.createEvent(eventDto);
+    long afterCreate = eventService.getEventsVersion(calendarId).orElseThrow();
+    eventService.deleteEvent(createdEvent.getId());
+    long afterDelete = eventService.getEventsVersion(calendarId).orElseThrow();
+
+    // Then
+    assertThat(afterCreate).isEqualTo(initialVersion + 1);
+    assertThat(afterDelete).isEqualTo(initialVersion + 2);
+    assertThat(eventService.getEventsVersion(UUID.randomUUID())).isEmpty();
+  }
 }
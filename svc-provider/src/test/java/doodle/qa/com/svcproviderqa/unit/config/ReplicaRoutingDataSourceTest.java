@@ -0,0 +1,109 @@
+package doodle.qa.com.svcproviderqa.unit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import doodle.qa.com.svcproviderqa.config.ReplicaLagMonitor;
+import doodle.qa.com.svcproviderqa.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for the ReplicaRoutingDataSource. These tests verify that read-only transactions use
+ * the replica unless it lags behind, and that every decision is recorded as a metric.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+  @Mock private ReplicaLagMonitor lagMonitor;
+  @Mock private DataSource primaryDataSource;
+  @Mock private DataSource replicaDataSource;
+  @Mock private Connection connection;
+
+  private SimpleMeterRegistry meterRegistry;
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    routingDataSource = new ReplicaRoutingDataSource(lagMonitor, meterRegistry);
+    routingDataSource.setTargetDataSources(
+        Map.of(
+            ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource));
+    routingDataSource.afterPropertiesSet();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  @DisplayName("Should route read-write work to the primary")
+  void getConnection_WhenNotReadOnly_ShouldUsePrimary() throws Exception {
+    // Given
+    when(primaryDataSource.getConnection()).thenReturn(connection);
+
+    // When
+    Connection result = routingDataSource.getConnection();
+
+    // Then
+    assertThat(result).isSameAs(connection);
+    verifyNoInteractions(replicaDataSource, lagMonitor);
+    assertThat(routingCount("primary", "read_write")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should route read-only transactions to the replica when it is in sync")
+  void getConnection_WhenReadOnlyAndReplicaUsable_ShouldUseReplica() throws Exception {
+    // Given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    when(lagMonitor.isReplicaUsable()).thenReturn(true);
+    when(replicaDataSource.getConnection()).thenReturn(connection);
+
+    // When
+    Connection result = routingDataSource.getConnection();
+
+    // Then
+    assertThat(result).isSameAs(connection);
+    verifyNoInteractions(primaryDataSource);
+    assertThat(routingCount("replica", "read_only")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should fall back to the primary when the replica lags behind")
+  void getConnection_WhenReadOnlyAndReplicaLagging_ShouldUsePrimary() throws Exception {
+    // Given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    when(lagMonitor.isReplicaUsable()).thenReturn(false);
+    when(primaryDataSource.getConnection()).thenReturn(connection);
+
+    // When
+    Connection result = routingDataSource.getConnection();
+
+    // Then
+    assertThat(result).isSameAs(connection);
+    verifyNoInteractions(replicaDataSource);
+    assertThat(routingCount("primary", "replica_lagging")).isEqualTo(1);
+  }
+
+  private double routingCount(String target, String reason) {
+    return meterRegistry
+        .get("datasource.routing")
+        .tag("target", target)
+        .tag("reason", reason)
+        .counter()
+        .count();
+  }
+}
@@ -9,7 +9,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import doodle.qa.com.svcproviderqa.controller.CalendarController;
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetRequestDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetResultDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkRequestDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkResultDto;
 import doodle.qa.com.svcproviderqa.dto.CalendarDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarPageDto;
 import doodle.qa.com.svcproviderqa.exception.CalendarDuplicateNameException;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
 import doodle.qa.com.svcproviderqa.service.CalendarService;
@@ -25,6 +30,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -132,6 +139,97 @@ class CalendarControllerTest {
     verify(calendarService).getAllCalendars(any(Pageable.class));
   }
 
+  @Test
+  @DisplayName("Should return calendars without total pages when the total is not requested")
+  void getAllCalendars_WithoutTotal_ShouldReturnSliceWithoutCount() throws Exception {
+    // Given
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(2);
+    Slice<CalendarDto> calendarSlice = new SliceImpl<>(calendars, PageRequest.of(0, 2), false);
+    when(calendarService.getCalendarSlice(any(Pageable.class))).thenReturn(calendarSlice);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/calendars").param("size", "2").param("includeTotal", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.calendars", hasSize(2)))
+        .andExpect(jsonPath("$.currentPage", is(0)))
+        .andExpect(jsonPath("$.hasNext", is(false)))
+        .andExpect(jsonPath("$.totalPages").doesNotExist());
+
+    verify(calendarService).getCalendarSlice(any(Pageable.class));
+    verify(calendarService, never()).getAllCalendars(any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Should return a keyset page of calendars when getting calendars by cursor")
+  void getCalendarPage_WithCursor_ShouldReturnCalendarsAndNextCursor() throws Exception {
+    // Given
+    UUID afterId = UUID.randomUUID();
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(2);
+    CalendarPageDto calendarPage =
+        CalendarPageDto.builder()
+            .calendars(calendars)
+            .nextId(calendars.get(1).getId())
+            .hasMore(true)
+            .build();
+    when(calendarService.getCalendarPage(afterId, 2)).thenReturn(calendarPage);
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/calendars/page").param("afterId", afterId.toString()).param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.calendars", hasSize(2)))
+        .andExpect(jsonPath("$.nextId", is(calendars.get(1).getId().toString())))
+        .andExpect(jsonPath("$.hasMore", is(true)));
+
+    verify(calendarService).getCalendarPage(afterId, 2);
+  }
+
+  @Test
+  @DisplayName("Should return calendars and missing IDs when getting calendars by IDs")
+  void getCalendarsByIds_WithIds_ShouldReturnCalendarsAndMissingIds() throws Exception {
+    // Given
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(2);
+    UUID missingId = UUID.randomUUID();
+    List<UUID> ids = List.of(calendars.get(0).getId(), missingId, calendars.get(1).getId());
+    when(calendarService.getCalendarsByIds(ids))
+        .thenReturn(
+            CalendarBatchGetResultDto.builder()
+                .calendars(calendars)
+                .missingIds(List.of(missingId))
+                .build());
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/calendars/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        CalendarBatchGetRequestDto.builder().ids(ids).build())))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.calendars", hasSize(2)))
+        .andExpect(jsonPath("$.calendars[1].id", is(calendars.get(1).getId().toString())))
+        .andExpect(jsonPath("$.missingIds[0]", is(missingId.toString())));
+  }
+
+  @Test
+  @DisplayName("Should return 400 when getting calendars by an empty list of IDs")
+  void getCalendarsByIds_WithoutIds_ShouldReturn400() throws Exception {
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/calendars/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        CalendarBatchGetRequestDto.builder().ids(List.of()).build())))
+        .andExpect(status().isBadRequest());
+
+    verify(calendarService, never()).getCalendarsByIds(any());
+  }
+
   @Test
   @DisplayName("Should return calendar when getting calendar by ID that exists")
   void getCalendarById_WhenCalendarExists_ShouldReturnCalendar() throws Exception {
@@ -304,4 +402,57 @@ class CalendarControllerTest {
 
     verify(calendarService).deleteCalendar(calendarId);
   }
+
+  @Test
+  @DisplayName("Should create calendars in bulk and return the skipped names")
+  void createCalendars_WithValidData_ShouldReturnResult() throws Exception {
+    // Given
+    List<CalendarDto> calendars =
+        List.of(
+            TestDataFactory.createCalendarDto("Existing", "Description"),
+            TestDataFactory.createCalendarDto("New", "Description"));
+    CalendarDto created =
+        TestDataFactory.createCalendarDto(UUID.randomUUID(), "New", "Description");
+    when(calendarService.createCalendars(any()))
+        .thenReturn(
+            CalendarBulkResultDto.builder()
+                .created(List.of(created))
+                .skippedNames(List.of("Existing"))
+                .build());
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/calendars/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        CalendarBulkRequestDto.builder().calendars(calendars).build())))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.created", hasSize(1)))
+        .andExpect(jsonPath("$.created[0].id", is(created.getId().toString())))
+        .andExpect(jsonPath("$.skippedNames[0]", is("Existing")));
+
+    verify(calendarService).createCalendars(calendars);
+  }
+
+  @Test
+  @DisplayName("Should return 400 when creating calendars in bulk with an invalid calendar")
+  void createCalendars_WithInvalidData_ShouldReturn400() throws Exception {
+    // Given
+    CalendarBulkRequestDto request =
+        CalendarBulkRequestDto.builder()
+            .calendars(List.of(TestDataFactory.createCalendarDto("", "Description")))
+            .build();
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/calendars/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+
+    verify(calendarService, never()).createCalendars(any());
+  }
 }
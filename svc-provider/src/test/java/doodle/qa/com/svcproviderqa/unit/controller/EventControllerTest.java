@@ -1,5 +1,6 @@
 package doodle.qa.com.svcproviderqa.unit.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -9,22 +10,39 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import doodle.qa.com.svcproviderqa.controller.EventController;
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeFeedDto;
 import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventImportResultDto;
+import doodle.qa.com.svcproviderqa.dto.EventPageDto;
+import doodle.qa.com.svcproviderqa.dto.EventTimeRangeBatchRequestDto;
+import doodle.qa.com.svcproviderqa.dto.FreeBusyDto;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svcproviderqa.exception.EventImportException;
 import doodle.qa.com.svcproviderqa.exception.EventNotFoundException;
+import doodle.qa.com.svcproviderqa.service.EventImportService;
 import doodle.qa.com.svcproviderqa.service.EventService;
 import doodle.qa.com.svcproviderqa.util.TestDataFactory;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /** Unit tests for the EventController. These tests verify the REST API endpoints using MockMvc. */
 @WebMvcTest(EventController.class)
@@ -36,6 +54,8 @@ class EventControllerTest {
 
   @MockBean private EventService eventService;
 
+  @MockBean private EventImportService eventImportService;
+
   @Test
   @DisplayName("Should return event when getting event by ID that exists")
   void getEventById_WhenEventExists_ShouldReturnEvent() throws Exception {
@@ -101,6 +121,77 @@ class EventControllerTest {
     verify(eventService).getEventsByCalendarId(calendarId);
   }
 
+  @Test
+  @DisplayName("Should stream events as newline-delimited JSON when NDJSON is accepted")
+  void streamEventsByCalendarId_ShouldWriteOneEventPerLine() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    List<EventDto> events = TestDataFactory.createEventDtoList(3, calendarId);
+    when(eventService.forEachEventByCalendarId(eq(calendarId), any()))
+        .thenAnswer(
+            invocation -> {
+              Consumer<EventDto> consumer = invocation.getArgument(1);
+              events.forEach(consumer);
+              return (long) events.size();
+            });
+
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                get("/api/events/calendar/{calendarId}", calendarId)
+                    .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Then
+    String body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    List<String> lines = body.lines().toList();
+    assertThat(lines).hasSize(3);
+    EventDto first = objectMapper.readValue(lines.get(0), EventDto.class);
+    assertThat(first.getId()).isEqualTo(events.get(0).getId());
+    assertThat(first.getTitle()).isEqualTo(events.get(0).getTitle());
+    verify(eventService, never()).getEventsByCalendarId(any());
+  }
+
+  @Test
+  @DisplayName("Should return a keyset page of events with the cursor for the next page")
+  void getEventPageByCalendarId_ShouldReturnPageAndCursor() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime afterStartTime = LocalDateTime.of(2030, 1, 7, 9, 0);
+    UUID afterId = UUID.randomUUID();
+    List<EventDto> events = TestDataFactory.createEventDtoList(2, calendarId);
+    EventDto last = events.get(1);
+    when(eventService.getEventPageByCalendarId(calendarId, afterStartTime, afterId, 2))
+        .thenReturn(
+            EventPageDto.builder()
+                .events(events)
+                .nextStartTime(last.getStartTime())
+                .nextId(last.getId())
+                .hasMore(true)
+                .build());
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/events/calendar/{calendarId}/page", calendarId)
+                .param("afterStartTime", afterStartTime.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("afterId", afterId.toString())
+                .param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.events", hasSize(2)))
+        .andExpect(jsonPath("$.nextId", is(last.getId().toString())))
+        .andExpect(jsonPath("$.hasMore", is(true)));
+  }
+
   @Test
   @DisplayName("Should return events when getting events by calendar ID and time range")
   void getEventsByCalendarIdAndTimeRange_ShouldReturnEvents() throws Exception {
@@ -135,6 +226,217 @@ class EventControllerTest {
             eq(calendarId), any(LocalDateTime.class), any(LocalDateTime.class));
   }
 
+  @Test
+  @DisplayName("Should return ETag derived from the calendar's events version")
+  void getEventsByCalendarIdAndTimeRange_ShouldReturnETag() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.now();
+    when(eventService.getEventsVersion(calendarId)).thenReturn(Optional.of(4L));
+    when(eventService.getEventsByCalendarIdAndTimeRange(
+            eq(calendarId), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(TestDataFactory.createEventDtoList(1, calendarId));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/events/calendar/{calendarId}/timerange", calendarId)
+                .param("start", start.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("end", start.plusDays(1).format(DateTimeFormatter.ISO_DATE_TIME)))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"4\""))
+        .andExpect(jsonPath("$", hasSize(1)));
+  }
+
+  @Test
+  @DisplayName("Should return 304 without loading events when the ETag matches")
+  void getEventsByCalendarIdAndTimeRange_WhenETagMatches_ShouldReturnNotModified()
+      throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.now();
+    when(eventService.getEventsVersion(calendarId)).thenReturn(Optional.of(4L));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/events/calendar/{calendarId}/timerange", calendarId)
+                .param("start", start.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("end", start.plusDays(1).format(DateTimeFormatter.ISO_DATE_TIME))
+                .header("If-None-Match", "\"4\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    verify(eventService, never()).getEventsByCalendarIdAndTimeRange(any(UUID.class), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should return delta-encoded free/busy with the events ETag")
+  void getFreeBusy_WithDeltaEncoding_ShouldReturnDeltas() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+    LocalDateTime end = start.plusDays(1);
+    when(eventService.getEventsVersion(calendarId)).thenReturn(Optional.of(4L));
+    when(eventService.getFreeBusy(calendarId, start, end, FreeBusyDto.Encoding.DELTA))
+        .thenReturn(
+            FreeBusyDto.builder()
+                .start(start)
+                .end(end)
+                .origin(31_000_000L)
+                .deltas(List.of(30L, 60L))
+                .build());
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/events/calendar/{calendarId}/freebusy", calendarId)
+                .param("start", start.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("end", end.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("encoding", "DELTA"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"4\""))
+        .andExpect(jsonPath("$.origin", is(31_000_000)))
+        .andExpect(jsonPath("$.deltas", hasSize(2)))
+        .andExpect(jsonPath("$.busy").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("Should return 304 without computing free/busy when the ETag matches")
+  void getFreeBusy_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.now();
+    when(eventService.getEventsVersion(calendarId)).thenReturn(Optional.of(4L));
+
+    // When/Then
+    mockMvc
+        .perform(
+            get("/api/events/calendar/{calendarId}/freebusy", calendarId)
+                .param("start", start.format(DateTimeFormatter.ISO_DATE_TIME))
+                .param("end", start.plusDays(1).format(DateTimeFormatter.ISO_DATE_TIME))
+                .header("If-None-Match", "\"4\""))
+        .andExpect(status().isNotModified());
+
+    verify(eventService, never()).getFreeBusy(any(UUID.class), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should return the events ETag on HEAD requests")
+  void headEventsByCalendarId_WhenCalendarExists_ShouldReturnETag() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    when(eventService.getEventsVersion(calendarId)).thenReturn(Optional.of(7L));
+
+    // When/Then
+    mockMvc
+        .perform(head("/api/events/calendar/{calendarId}/timerange", calendarId))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"7\""));
+
+    verify(eventService, never()).getEventsByCalendarIdAndTimeRange(any(UUID.class), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should return events grouped by calendar for a batch time range request")
+  void getEventsByCalendarIdsAndTimeRange_WithValidRequest_ShouldReturnEventsPerCalendar()
+      throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    UUID emptyCalendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 0, 0);
+    LocalDateTime end = start.plusDays(1);
+    EventDto event =
+        TestDataFactory.createEventDto(
+            UUID.randomUUID(),
+            "Test Event",
+            "Test Description",
+            start.plusHours(9),
+            start.plusHours(10),
+            "Test Location",
+            calendarId);
+    Map<UUID, List<EventDto>> events = new LinkedHashMap<>();
+    events.put(calendarId, List.of(event));
+    events.put(emptyCalendarId, List.of());
+    when(eventService.getEventsByCalendarIdsAndTimeRange(
+            List.of(calendarId, emptyCalendarId), start, end))
+        .thenReturn(events);
+    EventTimeRangeBatchRequestDto request =
+        EventTimeRangeBatchRequestDto.builder()
+            .calendarIds(List.of(calendarId, emptyCalendarId))
+            .start(start)
+            .end(end)
+            .build();
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/timerange/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$['" + calendarId + "']", hasSize(1)))
+        .andExpect(jsonPath("$['" + calendarId + "'][0].title", is("Test Event")))
+        .andExpect(jsonPath("$['" + emptyCalendarId + "']", hasSize(0)));
+  }
+
+  @Test
+  @DisplayName("Should return 400 for a batch time range request without calendar IDs")
+  void getEventsByCalendarIdsAndTimeRange_WithoutCalendarIds_ShouldReturn400() throws Exception {
+    // Given
+    EventTimeRangeBatchRequestDto request =
+        EventTimeRangeBatchRequestDto.builder()
+            .calendarIds(List.of())
+            .start(LocalDateTime.now())
+            .end(LocalDateTime.now().plusDays(1))
+            .build();
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/timerange/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+
+    verify(eventService, never()).getEventsByCalendarIdsAndTimeRange(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should return event changes after the given cursor")
+  void getEventChanges_WithCursor_ShouldReturnChanges() throws Exception {
+    // Given
+    UUID eventId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    EventChangeFeedDto feed =
+        EventChangeFeedDto.builder()
+            .changes(
+                List.of(
+                    EventChangeDto.builder()
+                        .sequence(11L)
+                        .eventId(eventId)
+                        .calendarId(calendarId)
+                        .changeType(ChangeType.DELETED)
+                        .changedAt(LocalDateTime.now())
+                        .build()))
+            .nextSince(11L)
+            .hasMore(false)
+            .build();
+    when(eventService.getEventChanges(10L, 500)).thenReturn(feed);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/events/changes").param("since", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.changes[0].calendarId", is(calendarId.toString())))
+        .andExpect(jsonPath("$.changes[0].changeType", is("DELETED")))
+        .andExpect(jsonPath("$.nextSince", is(11)))
+        .andExpect(jsonPath("$.hasMore", is(false)));
+
+    verify(eventService, never()).getEventById(any(UUID.class));
+  }
+
   @Test
   @DisplayName("Should create event when creating event with valid data")
   void createEvent_WithValidData_ShouldCreateEvent() throws Exception {
@@ -312,4 +614,101 @@ class EventControllerTest {
 
     verify(eventService).deleteEvent(eventId);
   }
+
+  @Test
+  @DisplayName("Should import events when posting an iCalendar document")
+  void importEvents_WhenCalendarExists_ShouldReturnResult() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    EventImportResultDto importResult =
+        EventImportResultDto.builder()
+            .calendarId(calendarId)
+            .imported(2)
+            .skipped(1)
+            .chunks(1)
+            .build();
+    when(eventImportService.importEvents(eq(calendarId), any(InputStream.class)))
+        .thenReturn(importResult);
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/calendar/{calendarId}/import", calendarId)
+                .contentType("text/calendar")
+                .content("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.calendarId", is(calendarId.toString())))
+        .andExpect(jsonPath("$.imported", is(2)))
+        .andExpect(jsonPath("$.skipped", is(1)))
+        .andExpect(jsonPath("$.chunks", is(1)));
+
+    verify(eventImportService).importEvents(eq(calendarId), any(InputStream.class));
+  }
+
+  @Test
+  @DisplayName("Should return 404 when importing events into a calendar that doesn't exist")
+  void importEvents_WhenCalendarDoesNotExist_ShouldReturn404() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    when(eventImportService.importEvents(eq(calendarId), any(InputStream.class)))
+        .thenThrow(new CalendarNotFoundException(calendarId));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/calendar/{calendarId}/import", calendarId)
+                .contentType("text/calendar")
+                .content("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Should report the committed progress when an import fails")
+  void importEvents_WhenImportFails_ShouldReturnProgress() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    EventImportResultDto progress =
+        EventImportResultDto.builder()
+            .calendarId(calendarId)
+            .imported(4)
+            .duplicates(1)
+            .chunks(2)
+            .error("Import failed after 4 events")
+            .build();
+    when(eventImportService.importEvents(eq(calendarId), any(InputStream.class)))
+        .thenThrow(
+            new EventImportException(progress, new DataAccessResourceFailureException("down")));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/calendar/{calendarId}/import", calendarId)
+                .contentType("text/calendar")
+                .content("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"))
+        .andExpect(status().isInternalServerError())
+        .andExpect(jsonPath("$.imported", is(4)))
+        .andExpect(jsonPath("$.duplicates", is(1)))
+        .andExpect(jsonPath("$.chunks", is(2)))
+        .andExpect(jsonPath("$.error", is("Import failed after 4 events")));
+  }
+
+  @Test
+  @DisplayName("Should return 400 with the committed progress when the document cannot be read")
+  void importEvents_WhenDocumentCannotBeRead_ShouldReturn400WithProgress() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    EventImportResultDto progress =
+        EventImportResultDto.builder().calendarId(calendarId).imported(2).chunks(1).build();
+    when(eventImportService.importEvents(eq(calendarId), any(InputStream.class)))
+        .thenThrow(new EventImportException(progress, new IOException("Connection reset")));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/events/calendar/{calendarId}/import", calendarId)
+                .contentType("text/calendar")
+                .content("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.imported", is(2)));
+  }
 }
@@ -1,18 +1,25 @@
 package doodle.qa.com.svcproviderqa.unit.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.entity.Event;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
 import doodle.qa.com.svcproviderqa.util.TestDataFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 /**
@@ -42,6 +49,56 @@ class CalendarRepositoryTest {
     assertThat(foundCalendar.get().getDescription()).isEqualTo("Test Description");
   }
 
+  @Test
+  @DisplayName("Should walk all calendars in ID order when seeking keyset pages")
+  void findDtoPageAfter_WhenFollowingCursor_ShouldReturnEveryCalendarOnce() {
+    // Given
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      ids.add(
+          calendarRepository
+              .save(TestDataFactory.createCalendar("Calendar " + i, "Description " + i))
+              .getId());
+    }
+
+    // When
+    List<CalendarDto> firstPage = calendarRepository.findDtoPage(PageRequest.of(0, 2));
+    List<CalendarDto> nextPage =
+        calendarRepository.findDtoPageAfter(firstPage.get(1).getId(), PageRequest.of(0, 10));
+
+    // Then
+    // UUID.compareTo compares signed longs, so the order is checked against the database instead
+    List<UUID> walked = new ArrayList<>();
+    firstPage.forEach(calendar -> walked.add(calendar.getId()));
+    nextPage.forEach(calendar -> walked.add(calendar.getId()));
+    assertThat(nextPage).hasSize(3);
+    assertThat(walked).containsExactlyInAnyOrderElementsOf(ids);
+    assertThat(walked)
+        .containsExactlyElementsOf(
+            calendarRepository.findDtoPage(PageRequest.of(0, 10)).stream()
+                .map(CalendarDto::getId)
+                .toList());
+  }
+
+  @Test
+  @DisplayName("Should find only the existing calendars when finding calendars by IDs")
+  void findDtosByIdIn_WithExistingAndMissingIds_ShouldReturnExistingCalendars() {
+    // Given
+    Calendar first = calendarRepository.save(TestDataFactory.createCalendar("First", "First"));
+    Calendar second = calendarRepository.save(TestDataFactory.createCalendar("Second", "Second"));
+    calendarRepository.save(TestDataFactory.createCalendar("Other", "Other"));
+
+    // When
+    List<CalendarDto> calendars =
+        calendarRepository.findDtosByIdIn(
+            List.of(first.getId(), second.getId(), UUID.randomUUID()));
+
+    // Then
+    assertThat(calendars)
+        .extracting(CalendarDto::getName)
+        .containsExactlyInAnyOrder("First", "Second");
+  }
+
   @Test
   @DisplayName("Should return empty optional when finding calendar by name that doesn't exist")
   void findByName_WhenCalendarDoesNotExist_ShouldReturnEmptyOptional() {
@@ -178,4 +235,58 @@ class CalendarRepositoryTest {
     assertThat(retrievedCalendar).isEmpty();
     // The event should be deleted due to the CascadeType.ALL and orphanRemoval=true settings
   }
+
+  @Test
+  @DisplayName("Should only raise the maximum event duration of a calendar")
+  void raiseMaxEventDuration_ShouldNeverLowerTheBound() {
+    // Given
+    Calendar calendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Duration Calendar", "Description"));
+
+    // When
+    int raised = calendarRepository.raiseMaxEventDuration(calendar.getId(), 3600);
+    int lowered = calendarRepository.raiseMaxEventDuration(calendar.getId(), 1800);
+
+    // Then
+    assertThat(raised).isEqualTo(1);
+    assertThat(lowered).isZero();
+    assertThat(calendarRepository.findMaxEventDurationSecondsById(calendar.getId()))
+        .contains(3600L);
+    assertThat(calendarRepository.findMaxEventDurationSecondsByIdIn(List.of(calendar.getId())))
+        .contains(3600L);
+  }
+
+  @Test
+  @DisplayName("Should return only the existing names when looking up names in bulk")
+  void findNamesByNameIn_ShouldReturnExistingNames() {
+    // Given
+    calendarRepository.save(TestDataFactory.createCalendar("Calendar A", "Description"));
+    calendarRepository.save(TestDataFactory.createCalendar("Calendar B", "Description"));
+
+    // When
+    List<String> names =
+        calendarRepository.findNamesByNameIn(List.of("Calendar A", "Calendar B", "Calendar C"));
+
+    // Then
+    assertThat(names).containsExactlyInAnyOrder("Calendar A", "Calendar B");
+  }
+
+  @Test
+  @DisplayName("Should report the unique name constraint when inserting a duplicate name")
+  void saveAndFlush_WithDuplicateName_ShouldViolateUniqueNameConstraint() {
+    // Given
+    calendarRepository.saveAndFlush(TestDataFactory.createCalendar("Duplicate", "First"));
+
+    // When/Then
+    assertThatThrownBy(
+            () ->
+                calendarRepository.saveAndFlush(
+                    TestDataFactory.createCalendar("Duplicate", "Second")))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasCauseInstanceOf(ConstraintViolationException.class)
+        .satisfies(
+            e ->
+                assertThat(((ConstraintViolationException) e.getCause()).getConstraintName())
+                    .containsIgnoringCase("uk_calendar_name"));
+  }
 }
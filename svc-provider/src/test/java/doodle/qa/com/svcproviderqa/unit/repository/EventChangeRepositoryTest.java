@@ -0,0 +1,125 @@
+package doodle.qa.com.svcproviderqa.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.entity.EventChange;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Unit tests for the EventChangeRepository. These tests verify that the change feed is read in
+ * sequence order after a cursor and that old changes are purged.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class EventChangeRepositoryTest {
+
+  @Autowired private EventChangeRepository eventChangeRepository;
+
+  @Test
+  @DisplayName("Should return 0 as the latest sequence when no change was recorded")
+  void findLatestSequence_WhenNoChanges_ShouldReturnZero() {
+    // When/Then
+    assertThat(eventChangeRepository.findLatestSequence()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should find changes after a sequence in sequence order")
+  void findDtosAfter_WhenChangesExist_ShouldReturnChangesAfterCursor() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    EventChange first = eventChangeRepository.save(createChange(calendarId, ChangeType.CREATED));
+    EventChange second = eventChangeRepository.save(createChange(calendarId, ChangeType.UPDATED));
+    EventChange third = eventChangeRepository.save(createChange(calendarId, ChangeType.DELETED));
+
+    // When
+    List<EventChangeDto> result =
+        eventChangeRepository.findDtosAfter(first.getSequence(), PageRequest.of(0, 10));
+
+    // Then
+    assertThat(result)
+        .extracting(EventChangeDto::getSequence)
+        .containsExactly(second.getSequence(), third.getSequence());
+    assertThat(result)
+        .extracting(EventChangeDto::getChangeType)
+        .containsExactly(ChangeType.UPDATED, ChangeType.DELETED);
+    assertThat(eventChangeRepository.findLatestSequence()).isEqualTo(third.getSequence());
+  }
+
+  @Test
+  @DisplayName("Should limit the number of changes returned")
+  void findDtosAfter_WithLimit_ShouldReturnOldestChangesFirst() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    EventChange first = eventChangeRepository.save(createChange(calendarId, ChangeType.CREATED));
+    eventChangeRepository.save(createChange(calendarId, ChangeType.UPDATED));
+
+    // When
+    List<EventChangeDto> result =
+        eventChangeRepository.findDtosAfter(first.getSequence() - 1, PageRequest.of(0, 1));
+
+    // Then
+    assertThat(result).extracting(EventChangeDto::getSequence).containsExactly(first.getSequence());
+  }
+
+  @Test
+  @DisplayName("Should delete old changes but keep the latest one")
+  void deleteChangedBefore_WhenAllChangesAreOld_ShouldKeepLatestChange() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime old = LocalDateTime.now().minusDays(10);
+    eventChangeRepository.save(createChange(calendarId, ChangeType.CREATED, old));
+    EventChange latest =
+        eventChangeRepository.save(createChange(calendarId, ChangeType.UPDATED, old));
+
+    // When
+    int deleted = eventChangeRepository.deleteChangedBefore(LocalDateTime.now().minusDays(7));
+
+    // Then
+    assertThat(deleted).isEqualTo(1);
+    assertThat(eventChangeRepository.findOldestSequence()).isEqualTo(latest.getSequence());
+    assertThat(eventChangeRepository.findLatestSequence()).isEqualTo(latest.getSequence());
+  }
+
+  @Test
+  @DisplayName("Should keep changes within the retention")
+  void deleteChangedBefore_WhenChangesAreRecent_ShouldKeepThem() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    eventChangeRepository.save(
+        createChange(calendarId, ChangeType.CREATED, LocalDateTime.now().minusDays(10)));
+    EventChange recent = eventChangeRepository.save(createChange(calendarId, ChangeType.UPDATED));
+    eventChangeRepository.save(createChange(calendarId, ChangeType.DELETED));
+
+    // When
+    int deleted = eventChangeRepository.deleteChangedBefore(LocalDateTime.now().minusDays(7));
+
+    // Then
+    assertThat(deleted).isEqualTo(1);
+    assertThat(eventChangeRepository.findOldestSequence()).isEqualTo(recent.getSequence());
+  }
+
+  private EventChange createChange(UUID calendarId, ChangeType changeType) {
+    return createChange(calendarId, changeType, LocalDateTime.now());
+  }
+
+  private EventChange createChange(
+      UUID calendarId, ChangeType changeType, LocalDateTime changedAt) {
+    return EventChange.builder()
+        .eventId(UUID.randomUUID())
+        .calendarId(calendarId)
+        .changeType(changeType)
+        .changedAt(changedAt)
+        .build();
+  }
+}
@@ -2,20 +2,28 @@ package doodle.qa.com.svcproviderqa.unit.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import doodle.qa.com.svcproviderqa.dto.BusyIntervalDto;
+import doodle.qa.com.svcproviderqa.dto.EventDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.entity.Event;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
 import doodle.qa.com.svcproviderqa.repository.EventRepository;
 import doodle.qa.com.svcproviderqa.util.TestDataFactory;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 /**
@@ -28,6 +36,7 @@ class EventRepositoryTest {
 
   @Autowired private EventRepository eventRepository;
   @Autowired private CalendarRepository calendarRepository;
+  @Autowired private TestEntityManager entityManager;
 
   private Calendar calendar;
   private UUID calendarId;
@@ -153,6 +162,201 @@ class EventRepositoryTest {
     assertThat(events.get(1).getTitle()).isEqualTo("Event 2");
   }
 
+  @Test
+  @DisplayName("Should project events by calendar ID and time range into DTOs")
+  void findDtosOverlapping_WhenEventsExist_ShouldReturnDtos() {
+    // Given
+    Event event1 =
+        TestDataFactory.createEvent(
+            "Event 1", "Description 1", now, now.plusHours(1), "Location 1", calendar);
+    Event event2 =
+        TestDataFactory.createEvent(
+            "Event 2", "Description 2", now.plusHours(5), now.plusHours(6), "Location 2", calendar);
+
+    Event savedEvent = eventRepository.save(event1);
+    eventRepository.save(event2);
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<EventDto> events =
+        eventRepository.findDtosOverlapping(
+            calendarId, now.minusHours(1), now.plusHours(3), now.minusHours(2));
+
+    // Then
+    assertThat(events).hasSize(1);
+    EventDto event = events.get(0);
+    assertThat(event.getId()).isEqualTo(savedEvent.getId());
+    assertThat(event.getTitle()).isEqualTo("Event 1");
+    assertThat(event.getLocation()).isEqualTo("Location 1");
+    assertThat(event.getVersion()).isEqualTo(savedEvent.getVersion());
+    assertThat(event.getCalendarId()).isEqualTo(calendarId);
+    assertThat(
+            entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+        .isZero();
+  }
+
+  @Test
+  @DisplayName("Should find events that start before the time range and run into it")
+  void findDtosOverlapping_WhenEventStartsBeforeRange_ShouldReturnEvent() {
+    // Given
+    LocalDateTime start = now.plusDays(1).truncatedTo(ChronoUnit.MINUTES);
+    LocalDateTime end = start.plusHours(2);
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Running",
+            "Description",
+            start.minusHours(3),
+            start.plusHours(1),
+            "Location",
+            calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Ended", "Description", start.minusHours(2), start, "Location", calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Starting at end", "Description", end, end.plusHours(1), "Location", calendar));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<EventDto> events =
+        eventRepository.findDtosOverlapping(calendarId, start, end, start.minusHours(4));
+
+    // Then
+    assertThat(events).extracting(EventDto::getTitle).containsExactly("Running");
+  }
+
+  @Test
+  @DisplayName("Should project events of several calendars within a time range into DTOs")
+  void findDtosOverlappingIn_WhenEventsExist_ShouldReturnDtosOfAllCalendars() {
+    // Given
+    Calendar otherCalendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Other Calendar", "Other"));
+    Calendar unrelatedCalendar =
+        calendarRepository.save(TestDataFactory.createCalendar("Unrelated Calendar", "Unrelated"));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Event 2", "Description 2", now.plusHours(2), now.plusHours(3), "Location", calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Event 1", "Description 1", now, now.plusHours(1), "Location", otherCalendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Event 3", "Description 3", now, now.plusHours(1), "Location", unrelatedCalendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Event 4",
+            "Description 4",
+            now.plusDays(2),
+            now.plusDays(2).plusHours(1),
+            "Location",
+            calendar));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<EventDto> events =
+        eventRepository.findDtosOverlappingIn(
+            List.of(calendarId, otherCalendar.getId()),
+            now.minusHours(1),
+            now.plusHours(5),
+            now.minusHours(2));
+
+    // Then
+    assertThat(events).extracting(EventDto::getTitle).containsExactly("Event 1", "Event 2");
+    assertThat(events)
+        .extracting(EventDto::getCalendarId)
+        .containsExactly(otherCalendar.getId(), calendarId);
+  }
+
+  @Test
+  @DisplayName("Should find busy intervals of events overlapping a time range in start order")
+  void findBusyIntervals_WhenEventsOverlapRange_ShouldReturnIntervals() {
+    // Given
+    LocalDateTime start = now.plusDays(1).truncatedTo(ChronoUnit.MINUTES);
+    LocalDateTime end = start.plusHours(4);
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Later", "Description", start.plusHours(3), end.plusHours(1), "Location", calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Earlier",
+            "Description",
+            start.minusHours(1),
+            start.plusHours(1),
+            "Location",
+            calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Touching", "Description", start.minusHours(1), start, "Location", calendar));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<BusyIntervalDto> intervals =
+        eventRepository.findBusyIntervals(calendarId, start, end, start.minusHours(1));
+
+    // Then
+    assertThat(intervals)
+        .containsExactly(
+            new BusyIntervalDto(start.minusHours(1), start.plusHours(1)),
+            new BusyIntervalDto(start.plusHours(3), end.plusHours(1)));
+  }
+
+  @Test
+  @DisplayName("Should page through events by start time and ID without skipping ties")
+  void findDtoPageAfter_WhenStartTimesTie_ShouldContinueAfterCursor() {
+    // Given
+    LocalDateTime start = now.truncatedTo(ChronoUnit.MINUTES);
+    for (int i = 0; i < 3; i++) {
+      eventRepository.save(
+          TestDataFactory.createEvent(
+              "Tied " + i, "Description", start, start.plusHours(1), "Location", calendar));
+    }
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Later", "Description", start.plusHours(1), start.plusHours(2), "Location", calendar));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<EventDto> firstPage = eventRepository.findDtoPage(calendarId, PageRequest.of(0, 2));
+    EventDto last = firstPage.get(1);
+    List<EventDto> secondPage =
+        eventRepository.findDtoPageAfter(
+            calendarId, last.getStartTime(), last.getId(), PageRequest.of(0, 2));
+
+    // Then
+    List<EventDto> all = new ArrayList<>(firstPage);
+    all.addAll(secondPage);
+    assertThat(all).extracting(EventDto::getId).doesNotHaveDuplicates().hasSize(4);
+    assertThat(all.get(3).getTitle()).isEqualTo("Later");
+  }
+
+  @Test
+  @DisplayName("Should stream events of a calendar in start time order")
+  void streamDtosByCalendarId_WhenEventsExist_ShouldStreamInOrder() {
+    // Given
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "Second", "Description", now.plusHours(2), now.plusHours(3), "Location", calendar));
+    eventRepository.save(
+        TestDataFactory.createEvent(
+            "First", "Description", now, now.plusHours(1), "Location", calendar));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    List<String> titles;
+    try (Stream<EventDto> events = eventRepository.streamDtosByCalendarId(calendarId)) {
+      titles = events.map(EventDto::getTitle).toList();
+    }
+
+    // Then
+    assertThat(titles).containsExactly("First", "Second");
+  }
+
   @Test
   @DisplayName("Should save event with calendar reference")
   void save_WithCalendar_ShouldPersistCalendarReference() {
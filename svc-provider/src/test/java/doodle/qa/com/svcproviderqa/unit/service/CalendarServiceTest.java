@@ -3,9 +3,14 @@ package doodle.qa.com.svcproviderqa.unit.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
+import doodle.qa.com.svcproviderqa.dto.CalendarBatchGetResultDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarBulkResultDto;
 import doodle.qa.com.svcproviderqa.dto.CalendarDto;
+import doodle.qa.com.svcproviderqa.dto.CalendarPageDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.exception.CalendarDuplicateNameException;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
@@ -13,10 +18,13 @@ import doodle.qa.com.svcproviderqa.exception.ConcurrentModificationException;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
 import doodle.qa.com.svcproviderqa.service.CalendarService;
 import doodle.qa.com.svcproviderqa.util.TestDataFactory;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,7 +32,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 
 /**
  * Unit tests for the CalendarService. These tests verify the business logic in the service layer
@@ -46,15 +56,71 @@ class CalendarServiceTest {
   @DisplayName("Should return all calendars when getting all calendars")
   void getAllCalendars_ShouldReturnAllCalendars() {
     // Given
-    List<Calendar> calendars = TestDataFactory.createCalendarList(3);
-    when(calendarRepository.findAll()).thenReturn(calendars);
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(3);
+    when(calendarRepository.findAllDtos()).thenReturn(calendars);
 
     // When
     List<CalendarDto> result = calendarService.getAllCalendars();
 
     // Then
     assertThat(result).hasSize(3);
-    verify(calendarRepository).findAll();
+    verify(calendarRepository).findAllDtos();
+    verify(calendarRepository, never()).findAll();
+  }
+
+  @Test
+  @DisplayName("Should fetch one extra calendar and return a cursor when more calendars follow")
+  void getCalendarPage_WhenMoreCalendarsFollow_ShouldReturnCursor() {
+    // Given
+    UUID afterId = UUID.randomUUID();
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(3);
+    when(calendarRepository.findDtoPageAfter(afterId, PageRequest.of(0, 3))).thenReturn(calendars);
+
+    // When
+    CalendarPageDto result = calendarService.getCalendarPage(afterId, 2);
+
+    // Then
+    assertThat(result.getCalendars()).hasSize(2);
+    assertThat(result.getNextId()).isEqualTo(calendars.get(1).getId());
+    assertThat(result.isHasMore()).isTrue();
+    verify(calendarRepository, never()).findDtoPage(any());
+  }
+
+  @Test
+  @DisplayName("Should cap the page size when getting the first page of calendars")
+  void getCalendarPage_WithLimitAboveMaximum_ShouldCapPageSize() {
+    // Given
+    when(calendarRepository.findDtoPage(PageRequest.of(0, 1001))).thenReturn(List.of());
+
+    // When
+    CalendarPageDto result = calendarService.getCalendarPage(null, 50_000);
+
+    // Then
+    assertThat(result.getCalendars()).isEmpty();
+    assertThat(result.getNextId()).isNull();
+    assertThat(result.isHasMore()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should return calendars in request order and report missing IDs")
+  void getCalendarsByIds_WithMissingAndRepeatedIds_ShouldKeepRequestOrder() {
+    // Given
+    List<CalendarDto> calendars = TestDataFactory.createCalendarDtoList(2);
+    UUID firstId = calendars.get(0).getId();
+    UUID secondId = calendars.get(1).getId();
+    UUID missingId = UUID.randomUUID();
+    when(calendarRepository.findDtosByIdIn(anyCollection())).thenReturn(calendars);
+
+    // When
+    CalendarBatchGetResultDto result =
+        calendarService.getCalendarsByIds(List.of(secondId, missingId, firstId, secondId));
+
+    // Then
+    assertThat(result.getCalendars())
+        .extracting(CalendarDto::getId)
+        .containsExactly(secondId, firstId);
+    assertThat(result.getMissingIds()).containsExactly(missingId);
+    verify(calendarRepository).findDtosByIdIn(Set.of(firstId, secondId, missingId));
   }
 
   @Test
@@ -62,10 +128,9 @@ class CalendarServiceTest {
   void getCalendarById_WhenCalendarExists_ShouldReturnCalendar() {
     // Given
     UUID calendarId = UUID.randomUUID();
-    Calendar calendar =
-        TestDataFactory.createCalendar(
-            calendarId, "Test Calendar", "Test Description", new ArrayList<>());
-    when(calendarRepository.findById(calendarId)).thenReturn(Optional.of(calendar));
+    CalendarDto calendar =
+        TestDataFactory.createCalendarDto(calendarId, "Test Calendar", "Test Description");
+    when(calendarRepository.findDtoById(calendarId)).thenReturn(Optional.of(calendar));
 
     // When
     CalendarDto result = calendarService.getCalendarById(calendarId);
@@ -74,7 +139,8 @@ class CalendarServiceTest {
     assertThat(result.getId()).isEqualTo(calendarId);
     assertThat(result.getName()).isEqualTo("Test Calendar");
     assertThat(result.getDescription()).isEqualTo("Test Description");
-    verify(calendarRepository).findById(calendarId);
+    verify(calendarRepository).findDtoById(calendarId);
+    verify(calendarRepository, never()).findById(calendarId);
   }
 
   @Test
@@ -83,12 +149,12 @@ class CalendarServiceTest {
   void getCalendarById_WhenCalendarDoesNotExist_ShouldThrowCalendarNotFoundException() {
     // Given
     UUID calendarId = UUID.randomUUID();
-    when(calendarRepository.findById(calendarId)).thenReturn(Optional.empty());
+    when(calendarRepository.findDtoById(calendarId)).thenReturn(Optional.empty());
 
     // When/Then
     assertThrows(
         CalendarNotFoundException.class, () -> calendarService.getCalendarById(calendarId));
-    verify(calendarRepository).findById(calendarId);
+    verify(calendarRepository).findDtoById(calendarId);
   }
 
   @Test
@@ -99,8 +165,8 @@ class CalendarServiceTest {
     Calendar savedCalendar =
         TestDataFactory.createCalendar(
             UUID.randomUUID(), "New Calendar", "New Description", new ArrayList<>());
-    when(calendarRepository.findAll()).thenReturn(new ArrayList<>());
-    when(calendarRepository.save(any(Calendar.class))).thenReturn(savedCalendar);
+    when(calendarRepository.existsByName("New Calendar")).thenReturn(false);
+    when(calendarRepository.saveAndFlush(any(Calendar.class))).thenReturn(savedCalendar);
 
     // When
     CalendarDto result = calendarService.createCalendar(calendarDto);
@@ -111,10 +177,11 @@ class CalendarServiceTest {
     assertThat(result.getDescription()).isEqualTo("New Description");
 
     ArgumentCaptor<Calendar> calendarCaptor = ArgumentCaptor.forClass(Calendar.class);
-    verify(calendarRepository).save(calendarCaptor.capture());
+    verify(calendarRepository).saveAndFlush(calendarCaptor.capture());
     Calendar capturedCalendar = calendarCaptor.getValue();
     assertThat(capturedCalendar.getName()).isEqualTo("New Calendar");
     assertThat(capturedCalendar.getDescription()).isEqualTo("New Description");
+    verify(calendarRepository, never()).findAll();
   }
 
   @Test
@@ -124,18 +191,76 @@ class CalendarServiceTest {
     // Given
     String duplicateName = "Duplicate Calendar";
     CalendarDto calendarDto = TestDataFactory.createCalendarDto(duplicateName, "Some Description");
+    when(calendarRepository.existsByName(duplicateName)).thenReturn(true);
 
-    List<Calendar> existingCalendars = new ArrayList<>();
-    existingCalendars.add(
-        TestDataFactory.createCalendar(
-            UUID.randomUUID(), duplicateName, "Existing Description", new ArrayList<>()));
-    when(calendarRepository.findAll()).thenReturn(existingCalendars);
+    // When/Then
+    assertThrows(
+        CalendarDuplicateNameException.class, () -> calendarService.createCalendar(calendarDto));
+    verify(calendarRepository).existsByName(duplicateName);
+    verify(calendarRepository, never()).findAll();
+    verify(calendarRepository, never()).saveAndFlush(any(Calendar.class));
+  }
+
+  @Test
+  @DisplayName(
+      "Should throw CalendarDuplicateNameException when the name is taken concurrently on insert")
+  void createCalendar_WhenNameTakenConcurrently_ShouldThrowCalendarDuplicateNameException() {
+    // Given
+    CalendarDto calendarDto = TestDataFactory.createCalendarDto("Raced Calendar", "Description");
+    when(calendarRepository.existsByName("Raced Calendar")).thenReturn(false);
+    when(calendarRepository.saveAndFlush(any(Calendar.class)))
+        .thenThrow(
+            new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException(
+                    "duplicate key", new SQLException("duplicate key"), "uk_calendar_name")));
 
     // When/Then
     assertThrows(
         CalendarDuplicateNameException.class, () -> calendarService.createCalendar(calendarDto));
-    verify(calendarRepository).findAll();
-    verify(calendarRepository, never()).save(any(Calendar.class));
+  }
+
+  @Test
+  @DisplayName("Should propagate other integrity violations when creating calendar")
+  void createCalendar_WhenOtherIntegrityViolation_ShouldPropagateException() {
+    // Given
+    CalendarDto calendarDto = TestDataFactory.createCalendarDto("New Calendar", "Description");
+    when(calendarRepository.existsByName("New Calendar")).thenReturn(false);
+    when(calendarRepository.saveAndFlush(any(Calendar.class)))
+        .thenThrow(new DataIntegrityViolationException("value too long"));
+
+    // When/Then
+    assertThrows(
+        DataIntegrityViolationException.class, () -> calendarService.createCalendar(calendarDto));
+  }
+
+  @Test
+  @DisplayName("Should skip existing and repeated names when creating calendars in bulk")
+  void createCalendars_WithExistingAndRepeatedNames_ShouldSkipThem() {
+    // Given
+    List<CalendarDto> calendarDtos =
+        List.of(
+            TestDataFactory.createCalendarDto("Existing", "Description"),
+            TestDataFactory.createCalendarDto("New", "Description"),
+            TestDataFactory.createCalendarDto("New", "Repeated"));
+    when(calendarRepository.findNamesByNameIn(List.of("Existing", "New")))
+        .thenReturn(List.of("Existing"));
+    when(calendarRepository.saveAllAndFlush(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<Calendar> calendars = invocation.getArgument(0);
+              calendars.forEach(calendar -> calendar.setId(UUID.randomUUID()));
+              return calendars;
+            });
+
+    // When
+    CalendarBulkResultDto result = calendarService.createCalendars(calendarDtos);
+
+    // Then
+    assertThat(result.getCreated()).extracting(CalendarDto::getName).containsExactly("New");
+    assertThat(result.getCreated().get(0).getDescription()).isEqualTo("Description");
+    assertThat(result.getSkippedNames()).containsExactly("Existing", "New");
+    verify(calendarRepository, never()).findAll();
   }
 
   @Test
@@ -242,13 +367,13 @@ class CalendarServiceTest {
   void createCalendar_WhenOptimisticLockingFailure_ShouldThrowConcurrentModificationException() {
     // Given
     CalendarDto calendarDto = TestDataFactory.createCalendarDto("New Calendar", "New Description");
-    when(calendarRepository.save(any(Calendar.class)))
+    when(calendarRepository.saveAndFlush(any(Calendar.class)))
         .thenThrow(OptimisticLockingFailureException.class);
 
     // When/Then
     assertThrows(
         ConcurrentModificationException.class, () -> calendarService.createCalendar(calendarDto));
-    verify(calendarRepository).save(any(Calendar.class));
+    verify(calendarRepository).saveAndFlush(any(Calendar.class));
   }
 
   @Test
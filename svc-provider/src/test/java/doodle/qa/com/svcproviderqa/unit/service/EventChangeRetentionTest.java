@@ -0,0 +1,42 @@
+package doodle.qa.com.svcproviderqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
+import doodle.qa.com.svcproviderqa.service.EventChangeRetention;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit tests for the EventChangeRetention. */
+@ExtendWith(MockitoExtension.class)
+class EventChangeRetentionTest {
+
+  @Mock private EventChangeRepository eventChangeRepository;
+
+  @Test
+  @DisplayName("Should purge the changes older than the retention")
+  void purgeExpired_ShouldDeleteChangesOlderThanRetention() {
+    // Given
+    EventChangeRetention retention =
+        new EventChangeRetention(eventChangeRepository, Duration.ofDays(7));
+    ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+    when(eventChangeRepository.deleteChangedBefore(before.capture())).thenReturn(3);
+
+    // When
+    retention.purgeExpired();
+
+    // Then
+    verify(eventChangeRepository).deleteChangedBefore(before.getValue());
+    assertThat(before.getValue())
+        .isBetween(
+            LocalDateTime.now().minusDays(7).minusMinutes(1), LocalDateTime.now().minusDays(7));
+  }
+}
@@ -3,15 +3,25 @@ package doodle.qa.com.svcproviderqa.unit.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import doodle.qa.com.svcproviderqa.dto.BusyIntervalDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeDto;
+import doodle.qa.com.svcproviderqa.dto.EventChangeFeedDto;
 import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.dto.EventPageDto;
+import doodle.qa.com.svcproviderqa.dto.FreeBusyDto;
 import doodle.qa.com.svcproviderqa.entity.Calendar;
 import doodle.qa.com.svcproviderqa.entity.Event;
+import doodle.qa.com.svcproviderqa.entity.EventChange;
+import doodle.qa.com.svcproviderqa.entity.EventChange.ChangeType;
 import doodle.qa.com.svcproviderqa.exception.CalendarNotFoundException;
 import doodle.qa.com.svcproviderqa.exception.ConcurrentModificationException;
 import doodle.qa.com.svcproviderqa.exception.EventNotFoundException;
 import doodle.qa.com.svcproviderqa.repository.CalendarRepository;
+import doodle.qa.com.svcproviderqa.repository.EventChangeRepository;
 import doodle.qa.com.svcproviderqa.repository.EventRepository;
 import doodle.qa.com.svcproviderqa.service.EventService;
 import doodle.qa.com.svcproviderqa.util.TestDataFactory;
@@ -20,18 +30,24 @@ import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 
 /**
  * Unit tests for the EventService. These tests verify the business logic in the service layer using
@@ -42,13 +58,14 @@ class EventServiceTest {
 
   @Mock private EventRepository eventRepository;
   @Mock private CalendarRepository calendarRepository;
+  @Mock private EventChangeRepository eventChangeRepository;
 
   private EventService eventService;
   private Validator validator;
 
   @BeforeEach
   void setUp() {
-    eventService = new EventService(eventRepository, calendarRepository);
+    eventService = new EventService(eventRepository, calendarRepository, eventChangeRepository);
     ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
     validator = factory.getValidator();
   }
@@ -59,19 +76,17 @@ class EventServiceTest {
     // Given
     UUID eventId = UUID.randomUUID();
     UUID calendarId = UUID.randomUUID();
-    Calendar calendar =
-        TestDataFactory.createCalendar(calendarId, "Test Calendar", "Test Description", null);
     LocalDateTime now = LocalDateTime.now();
-    Event event =
-        TestDataFactory.createEvent(
+    EventDto event =
+        TestDataFactory.createEventDto(
             eventId,
             "Test Event",
             "Test Description",
             now,
             now.plusHours(1),
             "Test Location",
-            calendar);
-    when(eventRepository.findById(eventId)).thenReturn(Optional.of(event));
+            calendarId);
+    when(eventRepository.findDtoById(eventId)).thenReturn(Optional.of(event));
 
     // When
     EventDto result = eventService.getEventById(eventId);
@@ -84,7 +99,8 @@ class EventServiceTest {
     assertThat(result.getEndTime()).isEqualTo(now.plusHours(1));
     assertThat(result.getLocation()).isEqualTo("Test Location");
     assertThat(result.getCalendarId()).isEqualTo(calendarId);
-    verify(eventRepository).findById(eventId);
+    verify(eventRepository).findDtoById(eventId);
+    verify(eventRepository, never()).findById(eventId);
   }
 
   @Test
@@ -92,11 +108,11 @@ class EventServiceTest {
   void getEventById_WhenEventDoesNotExist_ShouldThrowEventNotFoundException() {
     // Given
     UUID eventId = UUID.randomUUID();
-    when(eventRepository.findById(eventId)).thenReturn(Optional.empty());
+    when(eventRepository.findDtoById(eventId)).thenReturn(Optional.empty());
 
     // When/Then
     assertThrows(EventNotFoundException.class, () -> eventService.getEventById(eventId));
-    verify(eventRepository).findById(eventId);
+    verify(eventRepository).findDtoById(eventId);
   }
 
   @Test
@@ -104,17 +120,15 @@ class EventServiceTest {
   void getEventsByCalendarId_WhenEventsExist_ShouldReturnEvents() {
     // Given
     UUID calendarId = UUID.randomUUID();
-    Calendar calendar =
-        TestDataFactory.createCalendar(calendarId, "Test Calendar", "Test Description", null);
-    List<Event> events = TestDataFactory.createEventList(3, calendar);
-    when(eventRepository.findByCalendarId(calendarId)).thenReturn(events);
+    List<EventDto> events = TestDataFactory.createEventDtoList(3, calendarId);
+    when(eventRepository.findDtosByCalendarId(calendarId)).thenReturn(events);
 
     // When
     List<EventDto> result = eventService.getEventsByCalendarId(calendarId);
 
     // Then
     assertThat(result).hasSize(3);
-    verify(eventRepository).findByCalendarId(calendarId);
+    verify(eventRepository).findDtosByCalendarId(calendarId);
   }
 
   @Test
@@ -138,7 +152,8 @@ class EventServiceTest {
             "New Location",
             calendar);
 
-    when(calendarRepository.findById(calendarId)).thenReturn(Optional.of(calendar));
+    when(calendarRepository.incrementEventsVersion(calendarId)).thenReturn(1);
+    when(calendarRepository.getReferenceById(calendarId)).thenReturn(calendar);
     when(eventRepository.save(any(Event.class))).thenReturn(savedEvent);
 
     // When
@@ -154,7 +169,7 @@ class EventServiceTest {
     assertThat(result.getCalendarId()).isEqualTo(calendarId);
 
     ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
-    verify(calendarRepository).findById(calendarId);
+    verify(calendarRepository, never()).findById(any());
     verify(eventRepository).save(eventCaptor.capture());
     Event capturedEvent = eventCaptor.getValue();
     assertThat(capturedEvent.getTitle()).isEqualTo("New Event");
@@ -163,6 +178,22 @@ class EventServiceTest {
     assertThat(capturedEvent.getEndTime()).isEqualTo(now.plusHours(1));
     assertThat(capturedEvent.getLocation()).isEqualTo("New Location");
     assertThat(capturedEvent.getCalendar()).isEqualTo(calendar);
+    verify(calendarRepository).incrementEventsVersion(calendarId);
+    verify(calendarRepository).raiseMaxEventDuration(calendarId, 3600);
+
+    ArgumentCaptor<EventChange> changeCaptor = ArgumentCaptor.forClass(EventChange.class);
+    verify(eventChangeRepository).save(changeCaptor.capture());
+    assertThat(changeCaptor.getValue().getEventId()).isEqualTo(savedEvent.getId());
+    assertThat(changeCaptor.getValue().getCalendarId()).isEqualTo(calendarId);
+    assertThat(changeCaptor.getValue().getChangeType()).isEqualTo(ChangeType.CREATED);
+
+    // The change is recorded last, under the feed lock
+    InOrder inOrder = inOrder(calendarRepository, eventRepository, eventChangeRepository);
+    inOrder.verify(calendarRepository).incrementEventsVersion(calendarId);
+    inOrder.verify(eventRepository).save(any(Event.class));
+    inOrder.verify(eventChangeRepository).flush();
+    inOrder.verify(eventChangeRepository).lockFeed();
+    inOrder.verify(eventChangeRepository).save(any(EventChange.class));
   }
 
   @Test
@@ -176,11 +207,11 @@ class EventServiceTest {
         TestDataFactory.createEventDto(
             "New Event", "New Description", now, now.plusHours(1), "New Location", calendarId);
 
-    when(calendarRepository.findById(calendarId)).thenReturn(Optional.empty());
+    when(calendarRepository.incrementEventsVersion(calendarId)).thenReturn(0);
 
     // When/Then
     assertThrows(CalendarNotFoundException.class, () -> eventService.createEvent(eventDto));
-    verify(calendarRepository).findById(calendarId);
+    verify(calendarRepository, never()).getReferenceById(any());
     verify(eventRepository, never()).save(any(Event.class));
   }
 
@@ -369,6 +400,9 @@ class EventServiceTest {
     verify(eventRepository).findById(eventId);
     verify(calendarRepository).findById(newCalendarId);
     verify(eventRepository).save(existingEvent);
+    verify(calendarRepository).incrementEventsVersion(oldCalendarId);
+    verify(calendarRepository).incrementEventsVersion(newCalendarId);
+    verify(eventChangeRepository, times(2)).save(any(EventChange.class));
   }
 
   @Test
@@ -444,6 +478,271 @@ class EventServiceTest {
     // Then
     verify(eventRepository).findById(eventId);
     verify(eventRepository).delete(existingEvent);
+    verify(calendarRepository).incrementEventsVersion(calendarId);
+
+    ArgumentCaptor<EventChange> changeCaptor = ArgumentCaptor.forClass(EventChange.class);
+    verify(eventChangeRepository).save(changeCaptor.capture());
+    assertThat(changeCaptor.getValue().getEventId()).isEqualTo(eventId);
+    assertThat(changeCaptor.getValue().getChangeType()).isEqualTo(ChangeType.DELETED);
+  }
+
+  @Test
+  @DisplayName(
+      "Should return a full page with the cursor of its last event when more events follow")
+  void getEventPageByCalendarId_WhenMoreEventsThanLimit_ShouldReturnPageAndCursor() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    List<EventDto> events = TestDataFactory.createEventDtoList(3, calendarId);
+    when(eventRepository.findDtoPage(calendarId, PageRequest.of(0, 3))).thenReturn(events);
+
+    // When
+    EventPageDto page = eventService.getEventPageByCalendarId(calendarId, null, null, 2);
+
+    // Then
+    assertThat(page.getEvents()).containsExactly(events.get(0), events.get(1));
+    assertThat(page.getNextStartTime()).isEqualTo(events.get(1).getStartTime());
+    assertThat(page.getNextId()).isEqualTo(events.get(1).getId());
+    assertThat(page.isHasMore()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should continue after the cursor and report the last page")
+  void getEventPageByCalendarId_WhenCursorGiven_ShouldReadAfterCursor() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime afterStartTime = LocalDateTime.of(2030, 1, 7, 9, 0);
+    UUID afterId = UUID.randomUUID();
+    List<EventDto> events = TestDataFactory.createEventDtoList(1, calendarId);
+    when(eventRepository.findDtoPageAfter(
+            calendarId, afterStartTime, afterId, PageRequest.of(0, 501)))
+        .thenReturn(events);
+
+    // When
+    EventPageDto page =
+        eventService.getEventPageByCalendarId(calendarId, afterStartTime, afterId, 500);
+
+    // Then
+    assertThat(page.getEvents()).isEqualTo(events);
+    assertThat(page.isHasMore()).isFalse();
+    verify(eventRepository, never()).findDtoPage(any(), any());
+  }
+
+  @Test
+  @DisplayName("Should pass every streamed event to the consumer and close the stream")
+  void forEachEventByCalendarId_ShouldConsumeAllEventsAndCloseStream() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    List<EventDto> events = TestDataFactory.createEventDtoList(3, calendarId);
+    AtomicBoolean closed = new AtomicBoolean();
+    when(eventRepository.streamDtosByCalendarId(calendarId))
+        .thenReturn(events.stream().onClose(() -> closed.set(true)));
+    List<EventDto> consumed = new ArrayList<>();
+
+    // When
+    long count = eventService.forEachEventByCalendarId(calendarId, consumed::add);
+
+    // Then
+    assertThat(count).isEqualTo(3);
+    assertThat(consumed).isEqualTo(events);
+    assertThat(closed).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should bound the overlap lookup by the calendar's maximum event duration")
+  void getEventsByCalendarIdAndTimeRange_ShouldBoundLookupByMaxEventDuration() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+    LocalDateTime end = start.plusDays(1);
+    List<EventDto> events = TestDataFactory.createEventDtoList(2, calendarId);
+    when(calendarRepository.findMaxEventDurationSecondsById(calendarId))
+        .thenReturn(Optional.of(7200L));
+    when(eventRepository.findDtosOverlapping(calendarId, start, end, start.minusHours(2)))
+        .thenReturn(events);
+
+    // When
+    List<EventDto> result = eventService.getEventsByCalendarIdAndTimeRange(calendarId, start, end);
+
+    // Then
+    assertThat(result).isEqualTo(events);
+  }
+
+  @Test
+  @DisplayName("Should group events of several calendars and include calendars without events")
+  void getEventsByCalendarIdsAndTimeRange_ShouldGroupEventsByCalendar() {
+    // Given
+    UUID firstCalendarId = UUID.randomUUID();
+    UUID secondCalendarId = UUID.randomUUID();
+    UUID emptyCalendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.now();
+    LocalDateTime end = start.plusDays(1);
+    EventDto firstEvent =
+        TestDataFactory.createEventDto(
+            UUID.randomUUID(), "First", null, start, start.plusHours(1), null, firstCalendarId);
+    EventDto secondEvent =
+        TestDataFactory.createEventDto(
+            UUID.randomUUID(), "Second", null, start, start.plusHours(1), null, secondCalendarId);
+    EventDto thirdEvent =
+        TestDataFactory.createEventDto(
+            UUID.randomUUID(),
+            "Third",
+            null,
+            start.plusHours(2),
+            start.plusHours(3),
+            null,
+            firstCalendarId);
+    List<UUID> calendarIds = List.of(firstCalendarId, secondCalendarId, emptyCalendarId);
+    when(eventRepository.findDtosOverlappingIn(any(), eq(start), eq(end), eq(start)))
+        .thenReturn(List.of(firstEvent, secondEvent, thirdEvent));
+
+    // When
+    Map<UUID, List<EventDto>> result =
+        eventService.getEventsByCalendarIdsAndTimeRange(calendarIds, start, end);
+
+    // Then
+    assertThat(result.keySet()).containsExactlyElementsOf(calendarIds);
+    assertThat(result.get(firstCalendarId)).containsExactly(firstEvent, thirdEvent);
+    assertThat(result.get(secondCalendarId)).containsExactly(secondEvent);
+    assertThat(result.get(emptyCalendarId)).isEmpty();
+    verify(eventRepository, times(1)).findDtosOverlappingIn(any(), eq(start), eq(end), eq(start));
+  }
+
+  @Test
+  @DisplayName("Should merge overlapping events into busy intervals clipped to the time range")
+  void getFreeBusy_WhenEventsOverlap_ShouldReturnMergedIntervals() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+    LocalDateTime end = start.plusHours(8);
+    when(eventRepository.findBusyIntervals(calendarId, start, end, start))
+        .thenReturn(
+            List.of(
+                new BusyIntervalDto(start.minusHours(1), start.plusHours(1)),
+                new BusyIntervalDto(start.plusMinutes(30), start.plusHours(2)),
+                new BusyIntervalDto(start.plusMinutes(45), start.plusHours(1)),
+                new BusyIntervalDto(start.plusHours(2), start.plusHours(3)),
+                new BusyIntervalDto(start.plusHours(7), start.plusHours(9))));
+
+    // When
+    FreeBusyDto result =
+        eventService.getFreeBusy(calendarId, start, end, FreeBusyDto.Encoding.INTERVALS);
+
+    // Then
+    assertThat(result.getBusy())
+        .containsExactly(
+            new BusyIntervalDto(start, start.plusHours(3)),
+            new BusyIntervalDto(start.plusHours(7), end));
+    assertThat(result.getDeltas()).isNull();
+  }
+
+  @Test
+  @DisplayName("Should delta-encode busy intervals as minute gaps and lengths from the range start")
+  void getFreeBusy_WhenDeltaEncoding_ShouldReturnGapsAndLengths() {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+    LocalDateTime end = start.plusHours(8);
+    when(eventRepository.findBusyIntervals(calendarId, start, end, start))
+        .thenReturn(
+            List.of(
+                new BusyIntervalDto(start.plusMinutes(30), start.plusMinutes(90)),
+                new BusyIntervalDto(start.plusMinutes(120).plusSeconds(20), start.plusMinutes(135)),
+                new BusyIntervalDto(
+                    start.plusMinutes(135).plusSeconds(30), start.plusMinutes(150))));
+
+    // When
+    FreeBusyDto result =
+        eventService.getFreeBusy(calendarId, start, end, FreeBusyDto.Encoding.DELTA);
+
+    // Then
+    assertThat(result.getOrigin()).isEqualTo(start.toEpochSecond(ZoneOffset.UTC) / 60);
+    assertThat(result.getDeltas()).containsExactly(30L, 60L, 30L, 30L);
+    assertThat(result.getBusy()).isNull();
+  }
+
+  @Test
+  @DisplayName("Should return only the latest cursor when reading changes without a cursor")
+  void getEventChanges_WhenNoCursor_ShouldReturnLatestSequence() {
+    // Given
+    when(eventChangeRepository.findLatestSequence()).thenReturn(42L);
+
+    // When
+    EventChangeFeedDto result = eventService.getEventChanges(null, 100);
+
+    // Then
+    assertThat(result.getChanges()).isEmpty();
+    assertThat(result.getNextSince()).isEqualTo(42L);
+    assertThat(result.isHasMore()).isFalse();
+    verify(eventChangeRepository, never()).findDtosAfter(anyLong(), any());
+  }
+
+  @Test
+  @DisplayName("Should return a page of changes and the cursor of its last change")
+  void getEventChanges_WhenMoreChangesThanLimit_ShouldReturnPageAndHasMore() {
+    // Given
+    List<EventChangeDto> changes =
+        List.of(createEventChangeDto(11L), createEventChangeDto(12L), createEventChangeDto(13L));
+    when(eventChangeRepository.findDtosAfter(10L, PageRequest.of(0, 3))).thenReturn(changes);
+
+    // When
+    EventChangeFeedDto result = eventService.getEventChanges(10L, 2);
+
+    // Then
+    assertThat(result.getChanges())
+        .extracting(EventChangeDto::getSequence)
+        .containsExactly(11L, 12L);
+    assertThat(result.getNextSince()).isEqualTo(12L);
+    assertThat(result.isHasMore()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should ask the consumer to resync when changes after its cursor were purged")
+  void getEventChanges_WhenCursorOlderThanRetainedChanges_ShouldAskForResync() {
+    // Given
+    when(eventChangeRepository.findOldestSequence()).thenReturn(20L);
+    when(eventChangeRepository.findLatestSequence()).thenReturn(42L);
+
+    // When
+    EventChangeFeedDto result = eventService.getEventChanges(10L, 500);
+
+    // Then
+    assertThat(result.isResync()).isTrue();
+    assertThat(result.getChanges()).isEmpty();
+    assertThat(result.getNextSince()).isEqualTo(42L);
+    assertThat(result.isHasMore()).isFalse();
+    verify(eventChangeRepository, never()).findDtosAfter(anyLong(), any());
+  }
+
+  @Test
+  @DisplayName("Should return the changes when the cursor is right before the oldest retained one")
+  void getEventChanges_WhenCursorAtStartOfRetainedChanges_ShouldReturnChanges() {
+    // Given
+    when(eventChangeRepository.findOldestSequence()).thenReturn(11L);
+    when(eventChangeRepository.findDtosAfter(10L, PageRequest.of(0, 501)))
+        .thenReturn(List.of(createEventChangeDto(11L)));
+
+    // When
+    EventChangeFeedDto result = eventService.getEventChanges(10L, 500);
+
+    // Then
+    assertThat(result.isResync()).isFalse();
+    assertThat(result.getChanges()).extracting(EventChangeDto::getSequence).containsExactly(11L);
+    assertThat(result.getNextSince()).isEqualTo(11L);
+  }
+
+  @Test
+  @DisplayName("Should keep the cursor when no changes were recorded after it")
+  void getEventChanges_WhenNoNewChanges_ShouldKeepCursor() {
+    // Given
+    when(eventChangeRepository.findDtosAfter(10L, PageRequest.of(0, 501))).thenReturn(List.of());
+
+    // When
+    EventChangeFeedDto result = eventService.getEventChanges(10L, 500);
+
+    // Then
+    assertThat(result.getChanges()).isEmpty();
+    assertThat(result.getNextSince()).isEqualTo(10L);
+    assertThat(result.isHasMore()).isFalse();
   }
 
   @Test
@@ -471,12 +770,13 @@ class EventServiceTest {
         TestDataFactory.createEventDto(
             "New Event", "New Description", now, now.plusHours(1), "New Location", calendarId);
 
-    when(calendarRepository.findById(calendarId)).thenReturn(Optional.of(calendar));
+    when(calendarRepository.incrementEventsVersion(calendarId)).thenReturn(1);
+    when(calendarRepository.getReferenceById(calendarId)).thenReturn(calendar);
     when(eventRepository.save(any(Event.class))).thenThrow(OptimisticLockingFailureException.class);
 
     // When/Then
     assertThrows(ConcurrentModificationException.class, () -> eventService.createEvent(eventDto));
-    verify(calendarRepository).findById(calendarId);
+    verify(calendarRepository, never()).findById(any());
     verify(eventRepository).save(any(Event.class));
   }
 
@@ -603,4 +903,14 @@ class EventServiceTest {
     ConstraintViolation<EventDto> violation = violations.iterator().next();
     assertThat(violation.getMessage()).isEqualTo("End time must be after start time");
   }
+
+  private EventChangeDto createEventChangeDto(long sequence) {
+    return EventChangeDto.builder()
+        .sequence(sequence)
+        .eventId(UUID.randomUUID())
+        .calendarId(UUID.randomUUID())
+        .changeType(ChangeType.UPDATED)
+        .changedAt(LocalDateTime.now())
+        .build();
+  }
 }
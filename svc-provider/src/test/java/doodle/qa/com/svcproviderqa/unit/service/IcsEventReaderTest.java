@@ -0,0 +1,169 @@
+package doodle.qa.com.svcproviderqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import doodle.qa.com.svcproviderqa.dto.EventDto;
+import doodle.qa.com.svcproviderqa.service.IcsEventReader;
+import doodle.qa.com.svcproviderqa.service.IcsEventReader.IcsEvent;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the IcsEventReader. These tests verify how VEVENT properties are parsed and which
+ * VEVENTs are skipped.
+ */
+class IcsEventReaderTest {
+
+  @Test
+  @DisplayName("Should read events with unfolded and unescaped text properties")
+  void next_WhenTextIsFoldedAndEscaped_ShouldUnfoldAndUnescape() throws IOException {
+    // Given
+    String ics =
+        calendar(
+            "BEGIN:VEVENT",
+            "SUMMARY:Team\\, weekly",
+            "DESCRIPTION:First line\\nsecond ",
+            " line",
+            "LOCATION:Room 1",
+            "DTSTART:20300107T090000",
+            "DTEND:20300107T100000",
+            "END:VEVENT");
+
+    // When
+    List<EventDto> events = readAll(new IcsEventReader(new StringReader(ics)));
+
+    // Then
+    assertThat(events).hasSize(1);
+    EventDto event = events.get(0);
+    assertThat(event.getTitle()).isEqualTo("Team, weekly");
+    assertThat(event.getDescription()).isEqualTo("First line\nsecond line");
+    assertThat(event.getLocation()).isEqualTo("Room 1");
+    assertThat(event.getStartTime()).isEqualTo(LocalDateTime.of(2030, 1, 7, 9, 0));
+    assertThat(event.getEndTime()).isEqualTo(LocalDateTime.of(2030, 1, 7, 10, 0));
+  }
+
+  @Test
+  @DisplayName("Should convert zoned times to UTC and derive missing end times")
+  void next_WhenTimesAreZonedOrEndIsMissing_ShouldResolveTimes() throws IOException {
+    // Given
+    String ics =
+        calendar(
+            "BEGIN:VEVENT",
+            "SUMMARY:Zoned",
+            "DTSTART;TZID=Europe/Berlin:20300107T090000",
+            "DURATION:PT90M",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:All day",
+            "DTSTART;VALUE=DATE:20300108",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Utc",
+            "DTSTART:20300109T090000Z",
+            "DURATION:P1W",
+            "END:VEVENT");
+
+    // When
+    List<EventDto> events = readAll(new IcsEventReader(new StringReader(ics)));
+
+    // Then
+    assertThat(events)
+        .extracting(EventDto::getStartTime, EventDto::getEndTime)
+        .containsExactly(
+            tuple(LocalDateTime.of(2030, 1, 7, 8, 0), LocalDateTime.of(2030, 1, 7, 9, 30)),
+            tuple(LocalDateTime.of(2030, 1, 8, 0, 0), LocalDateTime.of(2030, 1, 9, 0, 0)),
+            tuple(LocalDateTime.of(2030, 1, 9, 9, 0), LocalDateTime.of(2030, 1, 16, 9, 0)));
+  }
+
+  @Test
+  @DisplayName("Should skip invalid events and ignore properties of nested components")
+  void next_WhenEventsAreInvalid_ShouldSkipAndCountThem() throws IOException {
+    // Given
+    String ics =
+        calendar(
+            "BEGIN:VEVENT",
+            "SUMMARY:No start",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Ends before start",
+            "DTSTART:20300107T100000",
+            "DTEND:20300107T090000",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "DTSTART:20300107T090000",
+            "DTEND:20300107T100000",
+            "BEGIN:VALARM",
+            "SUMMARY:Alarm",
+            "END:VALARM",
+            "END:VEVENT");
+    IcsEventReader reader = new IcsEventReader(new StringReader(ics));
+
+    // When
+    List<EventDto> events = readAll(reader);
+
+    // Then
+    assertThat(events).extracting(EventDto::getTitle).containsExactly("(no title)");
+    assertThat(reader.getSkipped()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should key events by UID and the RECURRENCE-ID of overridden occurrences")
+  void next_WhenEventsHaveUids_ShouldReturnUidKeys() throws IOException {
+    // Given
+    String ics =
+        calendar(
+            "BEGIN:VEVENT",
+            "UID:weekly@example.com",
+            "DTSTART:20300107T090000Z",
+            "DTEND:20300107T100000Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:weekly@example.com",
+            "RECURRENCE-ID:20300114T090000Z",
+            "DTSTART:20300114T110000Z",
+            "DTEND:20300114T120000Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "DTSTART:20300108T090000Z",
+            "DTEND:20300108T100000Z",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:" + "x".repeat(256),
+            "DTSTART:20300109T090000Z",
+            "DTEND:20300109T100000Z",
+            "END:VEVENT");
+    IcsEventReader reader = new IcsEventReader(new StringReader(ics));
+
+    // When
+    List<String> uids = new ArrayList<>();
+    IcsEvent event;
+    while ((event = reader.next()) != null) {
+      uids.add(event.uid());
+    }
+
+    // Then
+    assertThat(uids)
+        .containsExactly("weekly@example.com", "weekly@example.com/20300114T090000Z", null, null);
+  }
+
+  private static List<EventDto> readAll(IcsEventReader reader) throws IOException {
+    List<EventDto> events = new ArrayList<>();
+    IcsEvent event;
+    while ((event = reader.next()) != null) {
+      events.add(event.event());
+    }
+    return events;
+  }
+
+  private static String calendar(String... lines) {
+    return "BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"
+        + String.join("\r\n", lines)
+        + "\r\nEND:VCALENDAR\r\n";
+  }
+}
@@ -0,0 +1,2 @@
+-- Run by Hibernate after creating the test schema; production inserts the row in V8.
+INSERT INTO event_change_feed_lock (id) VALUES (1);
@@ -2,8 +2,10 @@ package doodle.qa.com.svcuserqa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SvcUserApplication {
 
   public static void main(String[] args) {
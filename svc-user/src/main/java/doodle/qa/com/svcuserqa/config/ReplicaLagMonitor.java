@@ -0,0 +1,80 @@
+package doodle.qa.com.svcuserqa.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Periodically measures replication lag of the replica pool. The replica is only considered usable
+ * after a successful check reporting a lag within the configured threshold; a failing check marks
+ * it unusable so read-only traffic falls back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  /**
+   * Lag in seconds. Zero when the replica has replayed everything it received, so an idle primary
+   * does not look like a lagging replica.
+   */
+  private static final String LAG_QUERY =
+      "SELECT CASE WHEN NOT pg_is_in_recovery()"
+          + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+          + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+  private final JdbcTemplate replicaJdbcTemplate;
+  private final Duration maxLag;
+
+  private volatile double lagSeconds = Double.NaN;
+  private volatile boolean replicaUsable;
+
+  public ReplicaLagMonitor(
+      JdbcTemplate replicaJdbcTemplate, Duration maxLag, MeterRegistry meterRegistry) {
+    this.replicaJdbcTemplate = replicaJdbcTemplate;
+    this.maxLag = maxLag;
+    Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+        .description("Replication lag of the read replica")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+        .description("Whether read-only transactions are routed to the read replica")
+        .register(meterRegistry);
+  }
+
+  /** Measure the replica lag and update the routing state. */
+  @Scheduled(
+      initialDelay = 0,
+      fixedDelayString = "${datasource.replica.lag-check-interval-ms:5000}")
+  public void checkLag() {
+    try {
+      Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+      lagSeconds = lag != null ? lag : 0;
+      boolean usable = lagSeconds <= maxLag.toMillis() / 1000.0;
+      if (usable != replicaUsable) {
+        log.info(
+            "Read replica is now {} (lag {}s, threshold {})",
+            usable ? "used" : "bypassed",
+            lagSeconds,
+            maxLag);
+      }
+      replicaUsable = usable;
+    } catch (Exception e) {
+      if (replicaUsable) {
+        log.warn("Replica lag check failed, routing reads to the primary", e);
+      }
+      lagSeconds = Double.NaN;
+      replicaUsable = false;
+    }
+  }
+
+  /**
+   * Check whether read-only transactions may use the replica.
+   *
+   * @return true if the last lag check succeeded within the threshold
+   */
+  public boolean isReplicaUsable() {
+    return replicaUsable;
+  }
+}
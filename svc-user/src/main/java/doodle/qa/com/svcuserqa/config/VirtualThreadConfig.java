@@ -0,0 +1,46 @@
+package doodle.qa.com.svcuserqa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the opt-in virtual-thread execution mode. When {@code threads.virtual.enabled}
+ * is true, Tomcat handles every request on its own virtual thread instead of a bounded platform
+ * thread pool, so requests blocked on JDBC or HTTP calls no longer cap concurrency. Requires Java
+ * 21 or newer at runtime.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "threads.virtual", name = "enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+  /** Minimum Java feature version providing virtual threads. */
+  private static final int MIN_JAVA_VERSION = 21;
+
+  public VirtualThreadConfig() {
+    if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+      throw new IllegalStateException(
+          "threads.virtual.enabled requires Java "
+              + MIN_JAVA_VERSION
+              + " or newer, but the service runs on Java "
+              + Runtime.version());
+    }
+    log.info("Virtual-thread execution mode enabled");
+  }
+
+  /**
+   * Creates a customizer that runs Tomcat request processing on virtual threads.
+   *
+   * @return the protocol handler customizer
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler ->
+        protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+  }
+}
@@ -1,7 +1,15 @@
 package doodle.qa.com.svcuserqa.controller;
 
+import doodle.qa.com.svcuserqa.dto.UserBatchGetRequestDto;
+import doodle.qa.com.svcuserqa.dto.UserBatchGetResultDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkRequestDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkResultDto;
+import doodle.qa.com.svcuserqa.dto.UserCalendarChangesDto;
 import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.dto.UserPageDto;
+import doodle.qa.com.svcuserqa.service.IdempotencyService;
 import doodle.qa.com.svcuserqa.service.UserService;
+import doodle.qa.com.svcuserqa.service.UserWriteLock;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,9 +24,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,13 +37,20 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "User API", description = "API for user management")
 public class UserController {
 
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   private final UserService userService;
+  private final IdempotencyService idempotencyService;
+  private final UserWriteLock userWriteLock;
 
   /**
-   * Retrieves all users with pagination.
+   * Retrieves all users with pagination. Counting all users for {@code totalPages} costs a full
+   * scan of the table; clients that do not need it can skip it with {@code includeTotal=false} and
+   * get {@code hasNext} instead.
    *
    * @param page Page number (zero-based, optional)
    * @param size Number of users per page (optional)
+   * @param includeTotal Whether to count the total number of pages (optional)
    * @return Simplified response with users and minimal pagination information
    */
   @GetMapping
@@ -47,15 +64,31 @@ public class UserController {
           @RequestParam(required = false, defaultValue = "0")
           Integer page,
       @Parameter(description = "Page size") @RequestParam(required = false, defaultValue = "20")
-          Integer size) {
+          Integer size,
+      @Parameter(description = "Whether to include totalPages in the response")
+          @RequestParam(required = false, defaultValue = "true")
+          boolean includeTotal) {
 
     Pageable pageable = PageRequest.of(page, size);
     log.debug("GET request to retrieve all users with pagination: page={}, size={}", page, size);
 
+    Map<String, Object> response = new HashMap<>();
+    if (!includeTotal) {
+      Slice<UserDto> usersSlice = userService.getUserSlice(pageable);
+      response.put("users", usersSlice.getContent());
+      response.put("currentPage", usersSlice.getNumber());
+      response.put("hasNext", usersSlice.hasNext());
+
+      log.info(
+          "Retrieved {} users (page {})",
+          usersSlice.getNumberOfElements(),
+          usersSlice.getNumber() + 1);
+      return ResponseEntity.ok(response);
+    }
+
     Page<UserDto> usersPage = userService.getAllUsers(pageable);
 
     // Create a simplified response with minimal pagination information
-    Map<String, Object> response = new HashMap<>();
     response.put("users", usersPage.getContent());
     response.put("totalPages", usersPage.getTotalPages());
     response.put("currentPage", usersPage.getNumber());
@@ -70,27 +103,87 @@ public class UserController {
   }
 
   /**
-   * Retrieves a user by ID.
+   * Retrieves users with keyset pagination, ordered by ID. Pass the {@code nextId} of a page as
+   * {@code afterId} to get the next one; unlike page numbers, deep pages are as cheap as the first.
+   *
+   * @param afterId The ID of the last user already seen (optional)
+   * @param limit Maximum number of users to return (optional)
+   * @return The users and the cursor for the next page
+   */
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get users by cursor",
+      description =
+          "Retrieves users ordered by ID after the given cursor. Pass nextId as afterId to continue.")
+  @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
+  public ResponseEntity<UserPageDto> getUserPage(
+      @Parameter(description = "ID of the last user already seen") @RequestParam(required = false)
+          UUID afterId,
+      @Parameter(description = "Maximum number of users, at most 1000")
+          @RequestParam(required = false, defaultValue = "500")
+          Integer limit) {
+    log.debug("GET request to retrieve users after {}: limit={}", afterId, limit);
+    UserPageDto userPage = userService.getUserPage(afterId, limit);
+    log.info("Retrieved {} users after {}", userPage.getUsers().size(), afterId);
+    return ResponseEntity.ok(userPage);
+  }
+
+  /**
+   * Retrieves a user by ID. Supports conditional requests: the ETag is the user's version, so an
+   * unchanged user is answered with 304 Not Modified without being loaded.
    *
    * @param id The user ID
+   * @param webRequest The current request, used to evaluate If-None-Match
    * @return The user with the specified ID
    */
   @GetMapping("/{id}")
   @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID")
   @ApiResponse(responseCode = "200", description = "User retrieved successfully")
+  @ApiResponse(responseCode = "304", description = "User not modified", content = @Content)
   @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
   public ResponseEntity<UserDto> getUserById(
-      @Parameter(description = "User ID", required = true) @PathVariable UUID id) {
+      @Parameter(description = "User ID", required = true) @PathVariable UUID id,
+      WebRequest webRequest) {
     log.debug("GET request to retrieve user with id: {}", id);
+    if (webRequest.checkNotModified(String.valueOf(userService.getUserVersion(id)))) {
+      log.info("User with id {} not modified", id);
+      return null;
+    }
     UserDto user = userService.getUserById(id);
     log.info("Retrieved user with id: {}", id);
     return ResponseEntity.ok(user);
   }
 
   /**
-   * Creates a new user.
+   * Retrieves many users by ID with one request, instead of one request per user.
+   *
+   * @param request The user IDs
+   * @return The users found, in request order, and the IDs without a user
+   */
+  @PostMapping("/batch-get")
+  @Operation(
+      summary = "Get users by IDs",
+      description = "Retrieves up to 5000 users by ID in request order and reports missing IDs")
+  @ApiResponse(responseCode = "200", description = "Users retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+  public ResponseEntity<UserBatchGetResultDto> getUsersByIds(
+      @Parameter(description = "User IDs", required = true) @Valid @RequestBody
+          UserBatchGetRequestDto request) {
+    log.debug("POST request to retrieve {} users by ID", request.getIds().size());
+    UserBatchGetResultDto result = userService.getUsersByIds(request.getIds());
+    log.info(
+        "Retrieved {} users by ID, {} missing",
+        result.getUsers().size(),
+        result.getMissingIds().size());
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Creates a new user. When an Idempotency-Key header is sent, retries with the same key get the
+   * response of the first request instead of creating the user again.
    *
    * @param userDto The user data
+   * @param idempotencyKey The optional idempotency key
    * @return The created user
    */
   @PostMapping
@@ -99,17 +192,57 @@ public class UserController {
   @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
   @ApiResponse(
       responseCode = "409",
-      description = "Conflict - concurrent modification",
+      description = "Conflict - concurrent modification or idempotency key in use",
       content = @Content)
   @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
   public ResponseEntity<UserDto> createUser(
-      @Parameter(description = "User data", required = true) @Valid @RequestBody UserDto userDto) {
+      @Parameter(description = "User data", required = true) @Valid @RequestBody UserDto userDto,
+      @Parameter(description = "Key that makes retries of this request return the first response")
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey) {
     log.debug("POST request to create user with email: {}", userDto.getEmail());
+    if (idempotencyKey != null) {
+      return idempotencyService.execute(
+          "POST /api/users",
+          idempotencyKey,
+          userDto,
+          HttpStatus.CREATED,
+          UserDto.class,
+          () -> userService.createUser(userDto));
+    }
     UserDto createdUser = userService.createUser(userDto);
     log.info("Created user with id: {}", createdUser.getId());
     return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
   }
 
+  /**
+   * Creates users in bulk. Users whose email already exists or repeats within the request are
+   * skipped, so a retried import only creates the users that are still missing.
+   *
+   * @param request The users to create
+   * @return The result of every requested user
+   */
+  @PostMapping("/bulk")
+  @Operation(
+      summary = "Create users in bulk",
+      description =
+          "Creates up to 5000 users in one transaction, skipping emails that already exist or"
+              + " repeat within the request")
+  @ApiResponse(responseCode = "201", description = "Users created successfully")
+  @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+  @ApiResponse(
+      responseCode = "409",
+      description = "Conflict - an email was taken concurrently",
+      content = @Content)
+  public ResponseEntity<UserBulkResultDto> createUsers(
+      @Parameter(description = "Users to create", required = true) @Valid @RequestBody
+          UserBulkRequestDto request) {
+    log.debug("POST request to create {} users in bulk", request.getUsers().size());
+    UserBulkResultDto result = userService.createUsers(request.getUsers());
+    log.info("Created {} users in bulk, skipped {}", result.getCreated(), result.getSkipped());
+    return new ResponseEntity<>(result, HttpStatus.CREATED);
+  }
+
   /**
    * Updates an existing user.
    *
@@ -131,7 +264,7 @@ public class UserController {
       @Parameter(description = "User ID", required = true) @PathVariable UUID id,
       @Parameter(description = "User data", required = true) @Valid @RequestBody UserDto userDto) {
     log.debug("PUT request to update user with id: {}", id);
-    UserDto updatedUser = userService.updateUser(id, userDto);
+    UserDto updatedUser = userWriteLock.execute(id, () -> userService.updateUser(id, userDto));
     log.info("Updated user with id: {}", id);
     return ResponseEntity.ok(updatedUser);
   }
@@ -154,7 +287,12 @@ public class UserController {
   public ResponseEntity<Void> deleteUser(
       @Parameter(description = "User ID", required = true) @PathVariable UUID id) {
     log.debug("DELETE request to delete user with id: {}", id);
-    userService.deleteUser(id);
+    userWriteLock.execute(
+        id,
+        () -> {
+          userService.deleteUser(id);
+          return null;
+        });
     log.info("Deleted user with id: {}", id);
     return ResponseEntity.noContent().build();
   }
@@ -181,11 +319,57 @@ public class UserController {
       @Parameter(description = "User ID", required = true) @PathVariable UUID userId,
       @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId) {
     log.debug("POST request to add calendar {} to user {}", calendarId, userId);
-    UserDto updatedUser = userService.addCalendarToUser(userId, calendarId);
+    UserDto updatedUser =
+        userWriteLock.execute(userId, () -> userService.addCalendarToUser(userId, calendarId));
     log.info("Added calendar {} to user {}", calendarId, userId);
     return ResponseEntity.ok(updatedUser);
   }
 
+  /**
+   * Adds and removes calendars of a user at once.
+   *
+   * @param userId The user ID
+   * @param changes The calendar IDs to add and to remove
+   * @return The updated user
+   */
+  @PatchMapping("/{userId}/calendars")
+  @Operation(
+      summary = "Change calendars of user",
+      description =
+          "Adds and removes calendars of a user in one change, applied only if every calendar "
+              + "to add is new, every calendar to remove is present and the user keeps at most "
+              + "10 calendars")
+  @ApiResponse(responseCode = "200", description = "Calendars changed successfully")
+  @ApiResponse(
+      responseCode = "400",
+      description = "Invalid input or calendar limit exceeded",
+      content = @Content)
+  @ApiResponse(
+      responseCode = "404",
+      description = "User or calendar to remove not found",
+      content = @Content)
+  @ApiResponse(
+      responseCode = "409",
+      description = "Conflict - calendar already added or concurrent modification",
+      content = @Content)
+  @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+  public ResponseEntity<UserDto> changeUserCalendars(
+      @Parameter(description = "User ID", required = true) @PathVariable UUID userId,
+      @Parameter(description = "Calendar IDs to add and to remove", required = true)
+          @Valid
+          @RequestBody
+          UserCalendarChangesDto changes) {
+    log.debug("PATCH request to change calendars of user {}", userId);
+    UserDto updatedUser =
+        userWriteLock.execute(
+            userId,
+            () ->
+                userService.changeUserCalendars(
+                    userId, changes.getAddCalendarIds(), changes.getRemoveCalendarIds()));
+    log.info("Changed calendars of user {}", userId);
+    return ResponseEntity.ok(updatedUser);
+  }
+
   /**
    * Removes a calendar from a user.
    *
@@ -208,7 +392,8 @@ public class UserController {
       @Parameter(description = "User ID", required = true) @PathVariable UUID userId,
       @Parameter(description = "Calendar ID", required = true) @PathVariable UUID calendarId) {
     log.debug("DELETE request to remove calendar {} from user {}", calendarId, userId);
-    UserDto updatedUser = userService.removeCalendarFromUser(userId, calendarId);
+    UserDto updatedUser =
+        userWriteLock.execute(userId, () -> userService.removeCalendarFromUser(userId, calendarId));
     log.info("Removed calendar {} from user {}", calendarId, userId);
     return ResponseEntity.ok(updatedUser);
   }
@@ -0,0 +1,21 @@
+package doodle.qa.com.svcuserqa.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchGetResultDto {
+
+  /** The users found, in the order of the requested IDs; repeated IDs are returned once. */
+  private List<UserDto> users;
+
+  /** The requested IDs without a user, in request order. */
+  private List<UUID> missingIds;
+}
@@ -0,0 +1,25 @@
+package doodle.qa.com.svcuserqa.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBulkRequestDto {
+
+  /** Maximum number of users per bulk request. */
+  public static final int MAX_USERS = 5000;
+
+  @NotEmpty(message = "At least one user is required")
+  @Size(max = MAX_USERS, message = "At most 5000 users are allowed")
+  private List<@NotNull @Valid UserDto> users;
+}
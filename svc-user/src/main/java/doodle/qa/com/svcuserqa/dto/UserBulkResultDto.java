@@ -0,0 +1,42 @@
+package doodle.qa.com.svcuserqa.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBulkResultDto {
+  private int created;
+  private int skipped;
+
+  /** One result per requested user, in request order. */
+  private List<Row> results;
+
+  /** Outcome of one requested user. */
+  public enum Status {
+    CREATED,
+    /** A user with the email already existed. */
+    EMAIL_EXISTS,
+    /** The email appeared earlier in the same request. */
+    DUPLICATE_IN_REQUEST
+  }
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Row {
+    private int index;
+    private String email;
+    private Status status;
+
+    /** ID of the created user; null if the user was skipped. */
+    private UUID id;
+  }
+}
@@ -0,0 +1,50 @@
+package doodle.qa.com.svcuserqa.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCalendarChangesDto {
+
+  /** Maximum number of calendars a user can have, and so add or remove at once. */
+  public static final int MAX_CALENDARS = 10;
+
+  @Builder.Default
+  @NotNull(message = "Calendar IDs to add must not be null")
+  @Size(max = MAX_CALENDARS, message = "At most 10 calendars can be added at once")
+  private Set<@NotNull UUID> addCalendarIds = new LinkedHashSet<>();
+
+  @Builder.Default
+  @NotNull(message = "Calendar IDs to remove must not be null")
+  @Size(max = MAX_CALENDARS, message = "At most 10 calendars can be removed at once")
+  private Set<@NotNull UUID> removeCalendarIds = new LinkedHashSet<>();
+
+  @JsonIgnore
+  @AssertTrue(message = "At least one calendar ID to add or remove is required")
+  public boolean isAnyChange() {
+    return !orEmpty(addCalendarIds).isEmpty() || !orEmpty(removeCalendarIds).isEmpty();
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "A calendar ID cannot be both added and removed")
+  public boolean isDisjoint() {
+    return Collections.disjoint(orEmpty(addCalendarIds), orEmpty(removeCalendarIds));
+  }
+
+  private static Set<UUID> orEmpty(Set<UUID> ids) {
+    return ids != null ? ids : Set.of();
+  }
+}
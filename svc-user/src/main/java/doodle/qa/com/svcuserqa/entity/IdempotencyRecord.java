@@ -0,0 +1,69 @@
+package doodle.qa.com.svcuserqa.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * IdempotencyRecord entity remembering the outcome of a request sent with an Idempotency-Key
+ * header. The id is the SHA-256 digest of the operation scope and the key, and the record is
+ * pending until the response status and body are stored. A pending record whose lease expired
+ * belongs to a request that never completed and can be reclaimed.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+  @Id
+  @Column(name = "id", length = 64)
+  private String id;
+
+  @Column(name = "request_hash", nullable = false, length = 64)
+  private String requestHash;
+
+  @Column(name = "response_status")
+  private Integer responseStatus;
+
+  @Column(name = "response_body", columnDefinition = "TEXT")
+  private String responseBody;
+
+  @Column(name = "expires_at", nullable = false)
+  private LocalDateTime expiresAt;
+
+  @Column(name = "pending_expires_at")
+  private LocalDateTime pendingExpiresAt;
+
+  @Version
+  @Column(name = "version")
+  private Long version;
+
+  /**
+   * Whether the original request has completed and its response can be replayed.
+   *
+   * @return true if the response is stored
+   */
+  public boolean isCompleted() {
+    return responseStatus != null;
+  }
+
+  /**
+   * Whether the record still holds its key: a completed record until it expires, a pending one
+   * until its lease expires.
+   *
+   * @param now the current time
+   * @return true if the key must not be reclaimed
+   */
+  public boolean isActive(LocalDateTime now) {
+    if (isCompleted()) {
+      return expiresAt.isAfter(now);
+    }
+    return pendingExpiresAt != null && pendingExpiresAt.isAfter(now);
+  }
+}
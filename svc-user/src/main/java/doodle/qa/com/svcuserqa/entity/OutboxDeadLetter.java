@@ -0,0 +1,44 @@
+package doodle.qa.com.svcuserqa.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OutboxDeadLetter entity holding an outbox message that the relay could not publish and will not
+ * retry, so it no longer blocks the messages behind it. It keeps the id of the outbox message.
+ */
+@Entity
+@Table(name = "outbox_dead_letters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxDeadLetter {
+
+  /** Maximum length of the stored error. */
+  public static final int MAX_ERROR_LENGTH = 1024;
+
+  @Id private Long id;
+
+  @Column(nullable = false)
+  private String topic;
+
+  @Column(name = "message_key", nullable = false)
+  private String messageKey;
+
+  @Column(nullable = false, length = 1048576)
+  private byte[] payload;
+
+  @Column(nullable = false, length = MAX_ERROR_LENGTH)
+  private String error;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "dead_lettered_at", nullable = false)
+  private LocalDateTime deadLetteredAt;
+}
@@ -0,0 +1,38 @@
+package doodle.qa.com.svcuserqa.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OutboxMessage entity holding a Kafka message that was written in the same transaction as the
+ * change it describes. The relay publishes messages in id order and deletes them once Kafka has
+ * acknowledged them. The payload is the Avro single-object encoding of the message value.
+ */
+@Entity
+@Table(name = "outbox_messages")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String topic;
+
+  @Column(name = "message_key", nullable = false)
+  private String messageKey;
+
+  @Column(nullable = false, length = 1048576)
+  private byte[] payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+}
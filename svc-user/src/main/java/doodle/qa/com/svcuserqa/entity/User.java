@@ -3,13 +3,14 @@ package doodle.qa.com.svcuserqa.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 /**
  * User entity representing a user in the system. Includes optimistic locking with version field to
@@ -42,9 +43,16 @@ public class User {
    */
   @Version private Long version;
 
+  /**
+   * Calendar IDs of the user. Mapped as a set, matching the (user_id, calendar_id) primary key, so
+   * adding or removing a calendar writes only that row instead of rewriting the whole collection.
+   * Loaded lazily in batches, so mapping a page of users to DTOs loads the calendar IDs of up to
+   * 100 users with one query instead of one query per user.
+   */
   @ElementCollection
+  @BatchSize(size = 100)
   @CollectionTable(name = "user_calendars", joinColumns = @JoinColumn(name = "user_id"))
   @Column(name = "calendar_id")
   @Builder.Default
-  private List<UUID> calendarIds = new ArrayList<>();
+  private Set<UUID> calendarIds = new LinkedHashSet<>();
 }
@@ -140,6 +140,21 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Handles IdempotencyKeyConflictException. Returns a 409 Conflict status code.
+   *
+   * @param ex the exception
+   * @return the response entity with error details
+   */
+  @ExceptionHandler(IdempotencyKeyConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflictException(
+      IdempotencyKeyConflictException ex) {
+    ErrorResponse errorResponse =
+        new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage(), LocalDateTime.now());
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler(Exception.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
@@ -0,0 +1,304 @@
+package doodle.qa.com.svcuserqa.kafka;
+
+import com.example.svcuser.avro.UserState;
+import doodle.qa.com.svcuserqa.entity.OutboxDeadLetter;
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
+import doodle.qa.com.svcuserqa.repository.OutboxDeadLetterRepository;
+import doodle.qa.com.svcuserqa.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.InvalidRecordException;
+import org.apache.kafka.common.errors.RecordBatchTooLargeException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes the messages of the outbox to Kafka. Messages are read in id order in batches, sent
+ * together through a non-transactional producer that batches and compresses records, and deleted
+ * once Kafka acknowledged them. The producer is idempotent and messages are keyed by user, so the
+ * events of a user keep their order.
+ *
+ * <p>Delivery is at least once: if a send fails, the acknowledged prefix of the batch is deleted
+ * and the rest is sent again on the next run. A message that can never be published, because its
+ * payload cannot be decoded or Kafka rejects the record itself, is moved to the {@code
+ * outbox_dead_letters} table instead of blocking the outbox.
+ *
+ * <p>The age of the oldest message is measured on every run; the pending messages are counted at
+ * most once per {@code outbox.relay.pending-count-interval}, since that scans the table.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+  private final KafkaTemplate<String, Object> kafkaTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Duration sendTimeout;
+  private final Duration pendingCountInterval;
+
+  private final Counter relayedCounter;
+  private final Counter failureCounter;
+  private final Counter deadLetteredCounter;
+  private volatile long pendingMessages;
+  private volatile double lagSeconds;
+  private long nextPendingCountNanos = System.nanoTime();
+
+  @Autowired
+  public OutboxRelay(
+      OutboxMessageRepository outboxMessageRepository,
+      OutboxDeadLetterRepository outboxDeadLetterRepository,
+      ProducerFactory<String, Object> producerFactory,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${outbox.relay.batch-size:1000}") int batchSize,
+      @Value("${outbox.relay.send-timeout:PT30S}") Duration sendTimeout,
+      @Value("${outbox.relay.pending-count-interval:PT10S}") Duration pendingCountInterval,
+      @Value("${outbox.relay.producer.linger-ms:20}") int lingerMs,
+      @Value("${outbox.relay.producer.batch-size-bytes:262144}") int batchSizeBytes,
+      @Value("${outbox.relay.producer.compression-type:lz4}") String compressionType) {
+    this(
+        outboxMessageRepository,
+        outboxDeadLetterRepository,
+        createKafkaTemplate(producerFactory, lingerMs, batchSizeBytes, compressionType),
+        transactionManager,
+        meterRegistry,
+        batchSize,
+        sendTimeout,
+        pendingCountInterval);
+  }
+
+  public OutboxRelay(
+      OutboxMessageRepository outboxMessageRepository,
+      OutboxDeadLetterRepository outboxDeadLetterRepository,
+      KafkaTemplate<String, Object> kafkaTemplate,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      int batchSize,
+      Duration sendTimeout,
+      Duration pendingCountInterval) {
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+    this.kafkaTemplate = kafkaTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.sendTimeout = sendTimeout;
+    this.pendingCountInterval = pendingCountInterval;
+
+    relayedCounter =
+        Counter.builder("outbox.relayed")
+            .description("Outbox messages published to Kafka")
+            .register(meterRegistry);
+    failureCounter =
+        Counter.builder("outbox.relay.failures")
+            .description("Outbox relay runs that could not publish all messages")
+            .register(meterRegistry);
+    deadLetteredCounter =
+        Counter.builder("outbox.dead.lettered")
+            .description(
+                "Outbox messages moved to the dead letters because they cannot be published")
+            .register(meterRegistry);
+    Gauge.builder("outbox.pending", this, relay -> relay.pendingMessages)
+        .description("Outbox messages waiting to be published")
+        .register(meterRegistry);
+    Gauge.builder("outbox.lag", this, relay -> relay.lagSeconds)
+        .description("Age of the oldest outbox message waiting to be published")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /** Publish all messages in the outbox, one batch per transaction. */
+  @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+  public void relay() {
+    try {
+      Integer published;
+      do {
+        published = transactionTemplate.execute(status -> relayBatch());
+      } while (published != null && published == batchSize);
+    } catch (Exception e) {
+      failureCounter.increment();
+      log.warn("Could not relay outbox messages: {}", e.getMessage());
+    } finally {
+      updateLag();
+    }
+  }
+
+  /**
+   * Publish the oldest batch of messages, delete the acknowledged ones and move the ones that can
+   * never be published to the dead letters.
+   *
+   * @return the number of messages removed from the outbox
+   */
+  private int relayBatch() {
+    List<OutboxMessage> messages =
+        outboxMessageRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+    if (messages.isEmpty()) {
+      return 0;
+    }
+
+    List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(messages.size());
+    for (OutboxMessage message : messages) {
+      futures.add(send(message));
+    }
+    kafkaTemplate.flush();
+
+    List<Long> handled = new ArrayList<>(messages.size());
+    List<OutboxDeadLetter> deadLetters = new ArrayList<>();
+    for (int i = 0; i < futures.size(); i++) {
+      OutboxMessage message = messages.get(i);
+      try {
+        futures.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        Throwable unpublishable = findUnpublishableCause(cause);
+        if (unpublishable == null) {
+          failureCounter.increment();
+          log.warn(
+              "Relayed {} of {} outbox messages, retrying the rest: {}",
+              handled.size(),
+              messages.size(),
+              cause.getMessage());
+          break;
+        }
+        log.error(
+            "Moving outbox message {} to the dead letters, it cannot be published: {}",
+            message.getId(),
+            unpublishable.toString());
+        deadLetters.add(deadLetter(message, unpublishable));
+      }
+      handled.add(message.getId());
+    }
+
+    if (!deadLetters.isEmpty()) {
+      outboxDeadLetterRepository.saveAll(deadLetters);
+      deadLetteredCounter.increment(deadLetters.size());
+    }
+    outboxMessageRepository.deleteAllByIdInBatch(handled);
+    relayedCounter.increment(handled.size() - deadLetters.size());
+    log.debug("Relayed {} outbox messages", handled.size() - deadLetters.size());
+    return handled.size();
+  }
+
+  private CompletableFuture<SendResult<String, Object>> send(OutboxMessage message) {
+    try {
+      return kafkaTemplate.send(message.getTopic(), message.getMessageKey(), decode(message));
+    } catch (RuntimeException e) {
+      // Serialization errors are thrown by send instead of failing the future
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Find the cause showing that a send failed because of the message itself, so sending it again
+   * cannot succeed. Failures of the broker or the connection are retried instead.
+   *
+   * @return the cause, or null if the send should be retried
+   */
+  private static Throwable findUnpublishableCause(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof UndecodableMessageException
+          || cause instanceof RecordTooLargeException
+          || cause instanceof RecordBatchTooLargeException
+          || cause instanceof InvalidRecordException
+          || cause instanceof SerializationException) {
+        return cause;
+      }
+    }
+    return null;
+  }
+
+  private static OutboxDeadLetter deadLetter(OutboxMessage message, Throwable cause) {
+    String error = cause.toString();
+    return OutboxDeadLetter.builder()
+        .id(message.getId())
+        .topic(message.getTopic())
+        .messageKey(message.getMessageKey())
+        .payload(message.getPayload())
+        .error(
+            error.length() > OutboxDeadLetter.MAX_ERROR_LENGTH
+                ? error.substring(0, OutboxDeadLetter.MAX_ERROR_LENGTH)
+                : error)
+        .createdAt(message.getCreatedAt())
+        .deadLetteredAt(LocalDateTime.now())
+        .build();
+  }
+
+  private void updateLag() {
+    try {
+      if (System.nanoTime() - nextPendingCountNanos >= 0) {
+        pendingMessages = outboxMessageRepository.count();
+        nextPendingCountNanos = System.nanoTime() + pendingCountInterval.toNanos();
+      }
+      lagSeconds =
+          outboxMessageRepository
+              .findOldestCreatedAt()
+              .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0)
+              .orElse(0.0);
+    } catch (Exception e) {
+      lagSeconds = Double.NaN;
+    }
+  }
+
+  private static UserState decode(OutboxMessage message) {
+    try {
+      return UserState.fromByteBuffer(ByteBuffer.wrap(message.getPayload()));
+    } catch (IOException | AvroRuntimeException e) {
+      throw new UndecodableMessageException(
+          "Could not decode outbox message " + message.getId(), e);
+    }
+  }
+
+  private static KafkaTemplate<String, Object> createKafkaTemplate(
+      ProducerFactory<String, Object> producerFactory,
+      int lingerMs,
+      int batchSizeBytes,
+      String compressionType) {
+    Map<String, Object> props = new HashMap<>();
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    // Idempotence keeps the order of a partition with up to five requests in flight
+    props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+    props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSizeBytes);
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+    return new KafkaTemplate<>(producerFactory, props);
+  }
+
+  /** Thrown when the payload of an outbox message is not a valid user state. */
+  private static class UndecodableMessageException extends IllegalStateException {
+    UndecodableMessageException(String message, Throwable cause) {
+      super(message, cause);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package doodle.qa.com.svcuserqa.kafka;
+
+import com.example.svcuser.avro.UserState;
+import doodle.qa.com.svcuserqa.service.UserCache;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidates the {@link UserCache} of this node when any node changes a user. Every instance is
+ * assigned all partitions of the user-state topic instead of joining a consumer group, and starts
+ * at the end of each partition, so each node sees every change once it has started; the events of
+ * this node's own changes are received too and only invalidate again.
+ *
+ * <p>No offsets are committed: the cache starts empty, so older events are never needed, and the
+ * shared group ID does not leave a consumer group per restart on the broker.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "user.cache.invalidation", name = "enabled", havingValue = "true")
+public class UserCacheInvalidationListener implements ConsumerSeekAware {
+
+  private final UserCache userCache;
+
+  @KafkaListener(
+      groupId = "${user.cache.invalidation.group-id:svc-user-cache}",
+      topicPartitions =
+          @TopicPartition(
+              topic = "${kafka.topics.user-state}",
+              partitions = "${user.cache.invalidation.partitions:0-2}"),
+      properties = {"enable.auto.commit=false", "auto.offset.reset=latest"})
+  public void onUserState(@Payload UserState userState) {
+    try {
+      userCache.invalidate(UUID.fromString(userState.getId()));
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring user state event with invalid user ID: {}", userState.getId());
+    }
+  }
+
+  @Override
+  public void onPartitionsAssigned(
+      Map<org.apache.kafka.common.TopicPartition, Long> assignments,
+      ConsumerSeekCallback callback) {
+    callback.seekToEnd(assignments.keySet());
+  }
+}
@@ -2,13 +2,23 @@ package doodle.qa.com.svcuserqa.kafka;
 
 import com.example.svcuser.avro.EventType;
 import com.example.svcuser.avro.UserState;
+import com.example.svcuser.avro.Uuid;
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
 import doodle.qa.com.svcuserqa.entity.User;
+import doodle.qa.com.svcuserqa.repository.OutboxMessageRepository;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +26,16 @@ import org.springframework.validation.annotation.Validated;
 /**
  * Kafka producer for sending user state events. Extends the base KafkaProducer class to leverage
  * common Kafka messaging functionality.
+ *
+ * <p>With the outbox enabled, events are not sent directly but written to the outbox in the
+ * caller's transaction and published by the {@link OutboxRelay}, so user writes neither wait for
+ * nor fail with Kafka.
+ *
+ * <p>Updates and calendar changes carry the added and removed calendar IDs and the user's version,
+ * so consumers can apply them without diffing the full calendar list. With {@code
+ * kafka.user-state.delta-only} (off by default), calendar changes omit the full list; enable it
+ * only once every consumer reads the deltas, since older consumers treat an empty list as "no
+ * calendars".
  */
 @Component
 @Slf4j
@@ -25,32 +45,149 @@ public class UserStateProducer extends KafkaProducer<String, Object> {
   @Value("${kafka.topics.user-state}")
   private String userStateTopic;
 
-  public UserStateProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+  @Value("${kafka.user-state.delta-only:false}")
+  private boolean deltaOnly;
+
+  private static final String INSERT_OUTBOX_MESSAGE =
+      "INSERT INTO outbox_messages (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+  private final OutboxMessageRepository outboxMessageRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean outboxEnabled;
+
+  public UserStateProducer(
+      KafkaTemplate<String, Object> kafkaTemplate,
+      OutboxMessageRepository outboxMessageRepository,
+      JdbcTemplate jdbcTemplate,
+      @Value("${outbox.enabled:false}") boolean outboxEnabled) {
     super(kafkaTemplate);
+    this.outboxMessageRepository = outboxMessageRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.outboxEnabled = outboxEnabled;
   }
 
   /**
-   * Sends a user state event to Kafka.
+   * Sends a user state event to Kafka, or writes it to the outbox if the outbox is enabled. The
+   * outbox write joins the caller's transaction, so the event is only published if it commits.
    *
    * @param user The user entity (must not be null)
    * @param eventType The type of event (CREATED, UPDATED, DELETED, etc.) (must not be null)
    */
   public void sendUserState(@NotNull User user, @NotNull EventType eventType) {
-    UserState userState =
-        UserState.newBuilder()
-            .setId(user.getId().toString())
-            .setName(user.getName())
-            .setEmail(user.getEmail())
-            .setCalendarIds(
-                user.getCalendarIds().stream().map(UUID::toString).collect(Collectors.toList()))
-            .setEventType(eventType)
-            .setTimestamp(Instant.now().toEpochMilli())
-            .build();
+    send(user, eventType, toUserState(user, eventType));
+  }
 
+  /**
+   * Sends a user state event with the calendar IDs the change added and removed, like {@link
+   * #sendUserState(User, EventType)}.
+   *
+   * @param user The user entity after the change (must not be null)
+   * @param eventType The type of event (UPDATED, CALENDAR_ADDED, CALENDAR_REMOVED) (must not be
+   *     null)
+   * @param addedCalendarIds The calendar IDs added by the change (must not be null)
+   * @param removedCalendarIds The calendar IDs removed by the change (must not be null)
+   */
+  public void sendUserState(
+      @NotNull User user,
+      @NotNull EventType eventType,
+      @NotNull Collection<UUID> addedCalendarIds,
+      @NotNull Collection<UUID> removedCalendarIds) {
+    UserState userState = toUserState(user, eventType);
+    userState.setVersion(user.getVersion());
+    userState.setAddedCalendarIds(toUuids(addedCalendarIds));
+    userState.setRemovedCalendarIds(toUuids(removedCalendarIds));
+    if (deltaOnly
+        && (eventType == EventType.CALENDAR_ADDED || eventType == EventType.CALENDAR_REMOVED)) {
+      userState.setCalendarIds(List.of());
+    }
+    send(user, eventType, userState);
+  }
+
+  private void send(User user, EventType eventType, UserState userState) {
     String key = user.getId().toString();
 
     log.info("Preparing user state for Kafka: {} with event type: {}", key, eventType);
 
+    if (outboxEnabled) {
+      outboxMessageRepository.save(
+          OutboxMessage.builder()
+              .topic(userStateTopic)
+              .messageKey(key)
+              .payload(encode(userState))
+              .createdAt(LocalDateTime.now())
+              .build());
+      return;
+    }
+
     sendMessage(userStateTopic, key, userState);
   }
+
+  /**
+   * Sends the user state events of many users. With the outbox enabled, the events are written to
+   * the outbox with one JDBC batch; otherwise they are sent in the caller's transaction, which the
+   * Kafka template joins, so they are published in one Kafka transaction.
+   *
+   * @param users The user entities (must not be null)
+   * @param eventType The type of event of every user (must not be null)
+   */
+  public void sendUserStates(@NotNull List<User> users, @NotNull EventType eventType) {
+    if (users.isEmpty()) {
+      return;
+    }
+    log.info("Preparing {} user states for Kafka with event type: {}", users.size(), eventType);
+
+    if (outboxEnabled) {
+      LocalDateTime now = LocalDateTime.now();
+      jdbcTemplate.batchUpdate(
+          INSERT_OUTBOX_MESSAGE,
+          users,
+          users.size(),
+          (ps, user) -> {
+            ps.setString(1, userStateTopic);
+            ps.setString(2, user.getId().toString());
+            ps.setBytes(3, encode(toUserState(user, eventType)));
+            ps.setObject(4, now);
+          });
+      return;
+    }
+
+    for (User user : users) {
+      sendMessage(userStateTopic, user.getId().toString(), toUserState(user, eventType));
+    }
+  }
+
+  private static UserState toUserState(User user, EventType eventType) {
+    return UserState.newBuilder()
+        .setId(user.getId().toString())
+        .setName(user.getName())
+        .setEmail(user.getEmail())
+        .setCalendarIds(
+            user.getCalendarIds().stream().map(UUID::toString).collect(Collectors.toList()))
+        .setEventType(eventType)
+        .setTimestamp(Instant.now().toEpochMilli())
+        .build();
+  }
+
+  private static List<Uuid> toUuids(Collection<UUID> ids) {
+    return ids.stream().map(UserStateProducer::toUuid).collect(Collectors.toList());
+  }
+
+  private static Uuid toUuid(UUID id) {
+    return new Uuid(
+        ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array());
+  }
+
+  private static byte[] encode(UserState userState) {
+    try {
+      ByteBuffer buffer = userState.toByteBuffer();
+      byte[] payload = new byte[buffer.remaining()];
+      buffer.get(payload);
+      return payload;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not encode user state " + userState.getId(), e);
+    }
+  }
 }
@@ -0,0 +1,9 @@
+package doodle.qa.com.svcuserqa.repository;
+
+import doodle.qa.com.svcuserqa.entity.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/** Repository for OutboxDeadLetter entity. */
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {}
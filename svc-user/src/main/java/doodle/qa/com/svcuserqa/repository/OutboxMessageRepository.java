@@ -0,0 +1,48 @@
+package doodle.qa.com.svcuserqa.repository;
+
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/** Repository for OutboxMessage entity. */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+  /**
+   * Lock and return the oldest messages. A concurrent relay waits for the lock instead of
+   * publishing the same messages, which also keeps the messages of a key in order.
+   *
+   * @param pageable the number of messages to return
+   * @return the oldest messages in id order
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT m FROM OutboxMessage m ORDER BY m.id")
+  List<OutboxMessage> findOldestForUpdate(Pageable pageable);
+
+  /**
+   * Get the creation times of the messages in id order.
+   *
+   * @param pageable the number of creation times to return
+   * @return the creation times of the oldest messages
+   */
+  @Query("SELECT m.createdAt FROM OutboxMessage m ORDER BY m.id")
+  List<LocalDateTime> findCreatedAtInIdOrder(Pageable pageable);
+
+  /**
+   * Get the creation time of the oldest unpublished message, which is the one with the lowest id.
+   * Uses the primary key index instead of scanning the creation times.
+   *
+   * @return the creation time, or empty if the outbox is empty
+   */
+  default Optional<LocalDateTime> findOldestCreatedAt() {
+    return findCreatedAtInIdOrder(PageRequest.of(0, 1)).stream().findFirst();
+  }
+}
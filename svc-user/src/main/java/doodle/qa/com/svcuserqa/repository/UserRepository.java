@@ -1,9 +1,21 @@
 package doodle.qa.com.svcuserqa.repository;
 
 import doodle.qa.com.svcuserqa.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +23,65 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByEmail(String email);
 
   boolean existsByEmail(String email);
+
+  @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+  List<String> findEmailsByEmailIn(@Param("emails") Collection<String> emails);
+
+  @Query("SELECT u.version FROM User u WHERE u.id = :id")
+  Optional<Long> findVersionById(@Param("id") UUID id);
+
+  /**
+   * Limits how long the following statements of the current transaction wait for a lock, like
+   * {@code SET LOCAL lock_timeout}. PostgreSQL ignores the lock timeout hint of {@code SELECT ...
+   * FOR UPDATE}, so the timeout is set on the transaction instead.
+   *
+   * @param timeoutMillis the timeout in milliseconds
+   * @return the new setting
+   */
+  @Query(value = "SELECT set_config('lock_timeout', :timeout, true)", nativeQuery = true)
+  String setLockTimeout(@Param("timeout") String timeoutMillis);
+
+  /** Loads a user for a write and locks its row until the transaction ends. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM User u WHERE u.id = :id")
+  Optional<User> findByIdForUpdate(@Param("id") UUID id);
+
+  /*
+   * Read paths. Users loaded through these queries are read-only: Hibernate keeps no snapshot for
+   * them and skips dirty checking, so they must not be modified and saved.
+   */
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT u FROM User u WHERE u.id = :id")
+  Optional<User> findReadOnlyById(@Param("id") UUID id);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(value = "SELECT u FROM User u", countQuery = "SELECT COUNT(u) FROM User u")
+  Page<User> findAllReadOnly(Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT u FROM User u")
+  List<User> findAllReadOnly();
+
+  /** Loads many users with their calendar IDs in one statement, in no particular order. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.calendarIds WHERE u.id IN :ids")
+  List<User> findReadOnlyByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /*
+   * Count-free and keyset listings. The slice skips the count query of a page; the keyset pages
+   * seek to the last ID seen on the primary key index instead of scanning past an offset.
+   */
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT u FROM User u")
+  Slice<User> findSliceReadOnly(Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT u FROM User u ORDER BY u.id")
+  List<User> findPageReadOnly(Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id")
+  List<User> findPageReadOnlyAfter(@Param("afterId") UUID afterId, Pageable pageable);
 }
@@ -0,0 +1,191 @@
+package doodle.qa.com.svcuserqa.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import doodle.qa.com.svcuserqa.dto.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded in-process cache of users by ID, backed by Caffeine. Users are evicted by size when the
+ * cache is full, and entries expire a TTL after they were cached, which bounds staleness if an
+ * invalidation from another node is missed. Lookups do not lock, so concurrent reads of the hot
+ * users do not queue behind each other.
+ *
+ * <p>Users are invalidated once the transaction that changed them has completed. A load that runs
+ * while its user is invalidated is not cached, so a read that started before a change cannot bring
+ * back the old version after the change committed. Users are loaded outside of the cache, so a slow
+ * load never holds a lock of the cache.
+ *
+ * <p>Hits, misses, puts, evictions and the size are exposed by {@link CaffeineCacheMetrics} as the
+ * standard {@code cache.*} meters with the tag {@code cache=users}.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+  private static final String CACHE_NAME = "users";
+
+  /** Number of invalidation counters; users whose IDs share a counter delay each other's puts. */
+  private static final int STRIPES = 64;
+
+  private final boolean enabled;
+  private final Cache<UUID, UserDto> cache;
+  private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+  public UserCache(
+      MeterRegistry meterRegistry,
+      @Value("${user.cache.enabled:true}") boolean enabled,
+      @Value("${user.cache.max-size:10000}") int maxSize,
+      @Value("${user.cache.ttl:PT10M}") Duration ttl) {
+    this.enabled = enabled;
+    this.cache =
+        CaffeineCacheMetrics.monitor(
+            meterRegistry,
+            Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<UUID, UserDto>build(),
+            CACHE_NAME);
+  }
+
+  /**
+   * Get a user, loading it on a miss. Exceptions of the loader are propagated and nothing is
+   * cached.
+   *
+   * @param id the user ID
+   * @param loader loads the user from the database
+   * @return a copy of the user
+   */
+  public UserDto get(UUID id, Supplier<UserDto> loader) {
+    if (!enabled) {
+      return loader.get();
+    }
+
+    UserDto cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return copy(cached);
+    }
+
+    long invalidation = invalidations.get(stripe(id));
+    UserDto user = loader.get();
+    UserDto current = cache.policy().getIfPresentQuietly(id);
+    if (invalidations.get(stripe(id)) == invalidation
+        && (current == null || isOlder(current, user))) {
+      // Check again under the entry's lock; invalidate() counts before it removes the entry, and
+      // an entry cached during the invalidation is dropped with it
+      cache
+          .asMap()
+          .compute(
+              id,
+              (key, existing) -> {
+                if (invalidations.get(stripe(id)) != invalidation) {
+                  return null;
+                }
+                return existing == null || isOlder(existing, user) ? copy(user) : existing;
+              });
+    }
+    return user;
+  }
+
+  /**
+   * Get the version of a cached user without loading it or counting a lookup.
+   *
+   * @param id the user ID
+   * @return the cached version, or empty if the user is not cached
+   */
+  public OptionalLong getVersion(UUID id) {
+    if (!enabled) {
+      return OptionalLong.empty();
+    }
+    UserDto cached = cache.policy().getIfPresentQuietly(id);
+    return cached != null && cached.getVersion() != null
+        ? OptionalLong.of(cached.getVersion())
+        : OptionalLong.empty();
+  }
+
+  /**
+   * Drop a user from the cache once the current transaction has completed, or right away if there
+   * is no transaction. Invalidating before the commit would let a concurrent read cache the old
+   * version again.
+   *
+   * @param id the user ID
+   */
+  public void invalidateAfterCompletion(UUID id) {
+    if (!enabled) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidate(id);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            invalidate(id);
+          }
+        });
+  }
+
+  /**
+   * Drop a user from the cache, e.g. when another node reports a change.
+   *
+   * @param id the user ID
+   */
+  public void invalidate(UUID id) {
+    if (!enabled) {
+      return;
+    }
+    invalidations.incrementAndGet(stripe(id));
+    if (cache.asMap().remove(id) != null) {
+      log.debug("Invalidated cached user {}", id);
+    }
+  }
+
+  /**
+   * Get the number of cached users, after evicting the expired ones.
+   *
+   * @return the number of cached users
+   */
+  public int size() {
+    cache.cleanUp();
+    return (int) cache.estimatedSize();
+  }
+
+  private static boolean isOlder(UserDto cached, UserDto loaded) {
+    return cached.getVersion() == null
+        || loaded.getVersion() == null
+        || cached.getVersion() < loaded.getVersion();
+  }
+
+  private static int stripe(UUID id) {
+    return id.hashCode() & (STRIPES - 1);
+  }
+
+  /** Copies a user, so callers cannot modify the cached instance. */
+  private static UserDto copy(UserDto user) {
+    return UserDto.builder()
+        .id(user.getId())
+        .name(user.getName())
+        .email(user.getEmail())
+        .version(user.getVersion())
+        .calendarIds(
+            user.getCalendarIds() != null
+                ? new ArrayList<>(user.getCalendarIds())
+                : new ArrayList<>())
+        .build();
+  }
+}
@@ -1,7 +1,11 @@
 package doodle.qa.com.svcuserqa.service;
 
 import com.example.svcuser.avro.EventType;
+import doodle.qa.com.svcuserqa.dto.UserBatchGetResultDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkResultDto;
+import doodle.qa.com.svcuserqa.dto.UserCalendarChangesDto;
 import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.dto.UserPageDto;
 import doodle.qa.com.svcuserqa.entity.User;
 import doodle.qa.com.svcuserqa.exception.CalendarAlreadyExistsException;
 import doodle.qa.com.svcuserqa.exception.CalendarLimitExceededException;
@@ -13,16 +17,26 @@ import doodle.qa.com.svcuserqa.repository.UserRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -38,8 +52,19 @@ import org.springframework.validation.annotation.Validated;
 @Transactional(readOnly = true)
 public class UserService {
 
+  /** Maximum number of users per keyset page. */
+  private static final int MAX_USERS_PAGE_SIZE = 1000;
+
+  /** Number of emails looked up per query when creating users in bulk. */
+  private static final int EMAIL_LOOKUP_BATCH_SIZE = 500;
+
+  /** Maximum number of calendars per user. */
+  private static final int MAX_CALENDARS_PER_USER = UserCalendarChangesDto.MAX_CALENDARS;
+
   private final UserRepository userRepository;
   private final UserStateProducer userStateProducer;
+  private final UserCache userCache;
+  private final UserWriteLock userWriteLock;
 
   /**
    * Retrieves all users with pagination support.
@@ -49,7 +74,47 @@ public class UserService {
    */
   public Page<UserDto> getAllUsers(Pageable pageable) {
     log.debug("Retrieving all users with pagination: {}", pageable);
-    return userRepository.findAll(pageable).map(this::mapToDto);
+    return userRepository.findAllReadOnly(pageable).map(this::mapToDto);
+  }
+
+  /**
+   * Retrieves a slice of users without counting all users. Cheaper than {@link
+   * #getAllUsers(Pageable)} when the total number of pages is not needed.
+   *
+   * @param pageable Pagination information
+   * @return Slice of UserDto objects
+   */
+  public Slice<UserDto> getUserSlice(Pageable pageable) {
+    log.debug("Retrieving a slice of users: {}", pageable);
+    return userRepository.findSliceReadOnly(pageable).map(this::mapToDto);
+  }
+
+  /**
+   * Retrieves a keyset page of users ordered by ID. Each page seeks to the ID after the last one
+   * seen, so deep pages cost the same as the first one and no count query is run.
+   *
+   * @param afterId The ID of the last user already seen, or null for the first page
+   * @param limit Maximum number of users to return, capped at {@value #MAX_USERS_PAGE_SIZE}
+   * @return The page of users and the cursor for the next page
+   */
+  public UserPageDto getUserPage(UUID afterId, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_USERS_PAGE_SIZE));
+    // Fetch one extra user to tell whether another page follows
+    PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+    List<User> users =
+        afterId == null
+            ? userRepository.findPageReadOnly(pageRequest)
+            : userRepository.findPageReadOnlyAfter(afterId, pageRequest);
+    boolean hasMore = users.size() > pageSize;
+    if (hasMore) {
+      users = users.subList(0, pageSize);
+    }
+    log.debug("Returning {} users after {}", users.size(), afterId);
+    return UserPageDto.builder()
+        .users(users.stream().map(this::mapToDto).collect(Collectors.toList()))
+        .nextId(users.isEmpty() ? null : users.get(users.size() - 1).getId())
+        .hasMore(hasMore)
+        .build();
   }
 
   /**
@@ -59,21 +124,81 @@ public class UserService {
    */
   public List<UserDto> getAllUsers() {
     log.debug("Retrieving all users");
-    return userRepository.findAll().stream().map(this::mapToDto).collect(Collectors.toList());
+    return userRepository.findAllReadOnly().stream()
+        .map(this::mapToDto)
+        .collect(Collectors.toList());
   }
 
   /**
-   * Retrieves a user by ID.
+   * Retrieves a user by ID. Users are served from the {@link UserCache} when possible.
+   *
+   * <p>Not read-only, so a cache miss is loaded from the primary even when read-only transactions
+   * are routed to a replica: a row read from a lagging replica would be cached for the whole TTL.
+   * Cache hits run no statement and never fetch a connection.
    *
    * @param id The user ID
    * @return UserDto for the specified ID
    * @throws UserNotFoundException if user not found
    */
+  @Transactional(readOnly = false)
   public UserDto getUserById(@NotNull UUID id) {
     log.debug("Retrieving user with id: {}", id);
+    return userCache.get(
+        id,
+        () ->
+            userRepository
+                .findReadOnlyById(id)
+                .map(this::mapToDto)
+                .orElseThrow(
+                    () -> {
+                      log.warn("User not found with id: {}", id);
+                      return new UserNotFoundException(id);
+                    }));
+  }
+
+  /**
+   * Retrieves many users by ID with one query that also fetches their calendar IDs.
+   *
+   * @param ids The user IDs
+   * @return The users found, in request order, and the IDs without a user
+   */
+  public UserBatchGetResultDto getUsersByIds(@NotNull List<UUID> ids) {
+    log.debug("Retrieving {} users by ID", ids.size());
+    Set<UUID> requestedIds = new LinkedHashSet<>(ids);
+    Map<UUID, UserDto> usersById =
+        userRepository.findReadOnlyByIdIn(requestedIds).stream()
+            .map(this::mapToDto)
+            .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+
+    List<UserDto> users = new ArrayList<>(usersById.size());
+    List<UUID> missingIds = new ArrayList<>();
+    for (UUID id : requestedIds) {
+      UserDto user = usersById.get(id);
+      if (user != null) {
+        users.add(user);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    log.debug("Found {} of {} users", users.size(), requestedIds.size());
+    return UserBatchGetResultDto.builder().users(users).missingIds(missingIds).build();
+  }
+
+  /**
+   * Retrieves the version of a user without loading the user. The version changes with every update
+   * of the user or its calendars.
+   *
+   * @param id The user ID
+   * @return The user's version
+   * @throws UserNotFoundException if user not found
+   */
+  public long getUserVersion(@NotNull UUID id) {
+    OptionalLong cachedVersion = userCache.getVersion(id);
+    if (cachedVersion.isPresent()) {
+      return cachedVersion.getAsLong();
+    }
     return userRepository
-        .findById(id)
-        .map(this::mapToDto)
+        .findVersionById(id)
         .orElseThrow(
             () -> {
               log.warn("User not found with id: {}", id);
@@ -105,10 +230,10 @@ public class UserService {
 
     try {
       // Defensive copy of calendar IDs
-      List<UUID> calendarIdsCopy =
+      Set<UUID> calendarIdsCopy =
           userDto.getCalendarIds() != null
-              ? new ArrayList<>(userDto.getCalendarIds())
-              : new ArrayList<>();
+              ? new LinkedHashSet<>(userDto.getCalendarIds())
+              : new LinkedHashSet<>();
 
       User user =
           User.builder()
@@ -144,6 +269,84 @@ public class UserService {
     }
   }
 
+  /**
+   * Creates users in bulk. Emails are checked against the unique email index in batches; users
+   * whose email already exists, or repeats within the request, are skipped. The remaining users and
+   * their calendar IDs are inserted with JDBC batches, and their CREATED events are published
+   * together, all in one transaction.
+   *
+   * @param userDtos The user data
+   * @return The result of every requested user, in request order
+   * @throws ConcurrentModificationException if an email was taken concurrently during the import
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  public UserBulkResultDto createUsers(@NotNull List<@NotNull @Valid UserDto> userDtos) {
+    log.info("Creating {} users in bulk", userDtos.size());
+
+    Set<String> existingEmails = new HashSet<>();
+    List<String> emails = userDtos.stream().map(UserDto::getEmail).distinct().toList();
+    for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_BATCH_SIZE) {
+      List<String> batch =
+          emails.subList(from, Math.min(from + EMAIL_LOOKUP_BATCH_SIZE, emails.size()));
+      existingEmails.addAll(userRepository.findEmailsByEmailIn(batch));
+    }
+
+    Set<String> seenEmails = new HashSet<>();
+    List<User> users = new ArrayList<>();
+    List<UserBulkResultDto.Row> results = new ArrayList<>(userDtos.size());
+    for (int i = 0; i < userDtos.size(); i++) {
+      UserDto userDto = userDtos.get(i);
+      UserBulkResultDto.Status status;
+      if (existingEmails.contains(userDto.getEmail())) {
+        status = UserBulkResultDto.Status.EMAIL_EXISTS;
+      } else if (!seenEmails.add(userDto.getEmail())) {
+        status = UserBulkResultDto.Status.DUPLICATE_IN_REQUEST;
+      } else {
+        status = UserBulkResultDto.Status.CREATED;
+        users.add(
+            User.builder()
+                .name(userDto.getName())
+                .email(userDto.getEmail())
+                .calendarIds(
+                    userDto.getCalendarIds() != null
+                        ? new LinkedHashSet<>(userDto.getCalendarIds())
+                        : new LinkedHashSet<>())
+                .build());
+      }
+      results.add(
+          UserBulkResultDto.Row.builder()
+              .index(i)
+              .email(userDto.getEmail())
+              .status(status)
+              .build());
+    }
+
+    try {
+      List<User> savedUsers = userRepository.saveAllAndFlush(users);
+      userStateProducer.sendUserStates(savedUsers, EventType.CREATED);
+
+      Iterator<User> created = savedUsers.iterator();
+      for (UserBulkResultDto.Row row : results) {
+        if (row.getStatus() == UserBulkResultDto.Status.CREATED) {
+          row.setId(created.next().getId());
+        }
+      }
+      log.info(
+          "Created {} users in bulk, skipped {}",
+          savedUsers.size(),
+          userDtos.size() - savedUsers.size());
+      return UserBulkResultDto.builder()
+          .created(savedUsers.size())
+          .skipped(userDtos.size() - savedUsers.size())
+          .results(results)
+          .build();
+    } catch (DataIntegrityViolationException e) {
+      log.warn("Data integrity violation detected while creating users in bulk", e);
+      throw new ConcurrentModificationException(
+          "A user with one of these emails was created concurrently. Please try again.", e);
+    }
+  }
+
   /**
    * Updates an existing user.
    *
@@ -162,20 +365,13 @@ public class UserService {
     log.debug("Updating user with id: {}", id);
 
     try {
-      User user =
-          userRepository
-              .findById(id)
-              .orElseThrow(
-                  () -> {
-                    log.warn("User not found with id: {}", id);
-                    return new UserNotFoundException(id);
-                  });
+      User user = findUserForWrite(id);
 
       // Defensive copy of calendar IDs
-      List<UUID> calendarIdsCopy =
+      Set<UUID> calendarIdsCopy =
           userDto.getCalendarIds() != null
-              ? new ArrayList<>(userDto.getCalendarIds())
-              : new ArrayList<>();
+              ? new LinkedHashSet<>(userDto.getCalendarIds())
+              : new LinkedHashSet<>();
 
       // Check if version matches to ensure optimistic locking
       if (userDto.getVersion() != null
@@ -189,16 +385,27 @@ public class UserService {
             "The user was modified by another operation. Please refresh and try again.");
       }
 
+      Set<UUID> addedCalendarIds = new LinkedHashSet<>(calendarIdsCopy);
+      addedCalendarIds.removeAll(user.getCalendarIds());
+      Set<UUID> removedCalendarIds = new LinkedHashSet<>(user.getCalendarIds());
+      removedCalendarIds.removeAll(calendarIdsCopy);
+
       user.setName(userDto.getName());
       user.setEmail(userDto.getEmail());
-      user.setCalendarIds(calendarIdsCopy);
+      // Apply the difference to the managed set, so only added and removed rows are written
+      user.getCalendarIds().retainAll(calendarIdsCopy);
+      user.getCalendarIds().addAll(calendarIdsCopy);
 
       User updatedUser = userRepository.save(user);
+      // Flush so the event carries the version this change produced
+      userRepository.flush();
 
       log.info("User updated: {}", updatedUser.getId());
 
       // Only send Kafka message if user update was successful
-      userStateProducer.sendUserState(updatedUser, EventType.UPDATED);
+      userStateProducer.sendUserState(
+          updatedUser, EventType.UPDATED, addedCalendarIds, removedCalendarIds);
+      userCache.invalidateAfterCompletion(id);
 
       return mapToDto(updatedUser);
     } catch (OptimisticLockingFailureException e) {
@@ -227,14 +434,7 @@ public class UserService {
     log.debug("Deleting user with id: {}", id);
 
     try {
-      User user =
-          userRepository
-              .findById(id)
-              .orElseThrow(
-                  () -> {
-                    log.warn("User not found with id: {}", id);
-                    return new UserNotFoundException(id);
-                  });
+      User user = findUserForWrite(id);
 
       userRepository.delete(user);
 
@@ -242,6 +442,7 @@ public class UserService {
 
       // Only send Kafka message if user deletion was successful
       userStateProducer.sendUserState(user, EventType.DELETED);
+      userCache.invalidateAfterCompletion(id);
     } catch (OptimisticLockingFailureException e) {
       log.warn("Concurrent modification detected while deleting user with id: {}", id, e);
       throw new ConcurrentModificationException(
@@ -273,14 +474,7 @@ public class UserService {
     log.debug("Adding calendar {} to user {}", calendarId, userId);
 
     try {
-      User user =
-          userRepository
-              .findById(userId)
-              .orElseThrow(
-                  () -> {
-                    log.warn("User not found with id: {}", userId);
-                    return new UserNotFoundException(userId);
-                  });
+      User user = findUserForWrite(userId);
 
       // Check if calendar already exists and throw exception if it does
       if (user.getCalendarIds().contains(calendarId)) {
@@ -289,7 +483,7 @@ public class UserService {
       }
 
       // Check if user has reached the maximum limit of 10 calendars
-      if (user.getCalendarIds().size() >= 10) {
+      if (user.getCalendarIds().size() >= MAX_CALENDARS_PER_USER) {
         log.warn("User {} has reached the maximum limit of 10 calendars", userId);
         throw new CalendarLimitExceededException(
             "Maximum limit of 10 calendars per user has been reached.");
@@ -297,11 +491,15 @@ public class UserService {
 
       user.getCalendarIds().add(calendarId);
       User savedUser = userRepository.save(user);
+      // Flush so the event carries the version this change produced
+      userRepository.flush();
 
       log.info("Calendar {} added to user {}", calendarId, userId);
 
       // Only send Kafka message if calendar addition was successful
-      userStateProducer.sendUserState(savedUser, EventType.CALENDAR_ADDED);
+      userStateProducer.sendUserState(
+          savedUser, EventType.CALENDAR_ADDED, List.of(calendarId), List.of());
+      userCache.invalidateAfterCompletion(userId);
 
       return mapToDto(savedUser);
     } catch (OptimisticLockingFailureException e) {
@@ -337,14 +535,7 @@ public class UserService {
     log.debug("Removing calendar {} from user {}", calendarId, userId);
 
     try {
-      User user =
-          userRepository
-              .findById(userId)
-              .orElseThrow(
-                  () -> {
-                    log.warn("User not found with id: {}", userId);
-                    return new UserNotFoundException(userId);
-                  });
+      User user = findUserForWrite(userId);
 
       // Check if calendar exists and throw exception if it doesn't
       if (!user.getCalendarIds().contains(calendarId)) {
@@ -355,11 +546,15 @@ public class UserService {
       // Remove the calendar and save the user
       user.getCalendarIds().remove(calendarId);
       User savedUser = userRepository.save(user);
+      // Flush so the event carries the version this change produced
+      userRepository.flush();
 
       log.info("Calendar {} removed from user {}", calendarId, userId);
 
       // Only send Kafka message if calendar removal was successful
-      userStateProducer.sendUserState(savedUser, EventType.CALENDAR_REMOVED);
+      userStateProducer.sendUserState(
+          savedUser, EventType.CALENDAR_REMOVED, List.of(), List.of(calendarId));
+      userCache.invalidateAfterCompletion(userId);
 
       return mapToDto(savedUser);
     } catch (OptimisticLockingFailureException e) {
@@ -376,6 +571,118 @@ public class UserService {
     }
   }
 
+  /**
+   * Adds and removes calendars of a user at once. The change is applied only if every calendar to
+   * add is new and every calendar to remove is present, with one write of the user and a single
+   * user state event carrying the added and removed calendar IDs.
+   *
+   * @param userId The user ID
+   * @param addCalendarIds The calendar IDs to add
+   * @param removeCalendarIds The calendar IDs to remove
+   * @return UserDto for the updated user
+   * @throws UserNotFoundException if user not found
+   * @throws CalendarAlreadyExistsException if a calendar to add is already added to the user
+   * @throws CalendarNotFoundException if a calendar to remove is not found for the user
+   * @throws CalendarLimitExceededException if the user would have more than 10 calendars
+   * @throws ConcurrentModificationException if the user was modified concurrently
+   */
+  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
+  @Retryable(
+      value = OptimisticLockingFailureException.class,
+      maxAttempts = 3,
+      backoff = @Backoff(delay = 500, multiplier = 2))
+  public UserDto changeUserCalendars(
+      @NotNull UUID userId,
+      @NotNull Set<@NotNull UUID> addCalendarIds,
+      @NotNull Set<@NotNull UUID> removeCalendarIds) {
+    log.debug(
+        "Adding calendars {} to and removing calendars {} from user {}",
+        addCalendarIds,
+        removeCalendarIds,
+        userId);
+
+    try {
+      User user = findUserForWrite(userId);
+
+      for (UUID calendarId : addCalendarIds) {
+        if (user.getCalendarIds().contains(calendarId)) {
+          log.warn("Calendar {} is already associated with user {}", calendarId, userId);
+          throw new CalendarAlreadyExistsException(
+              "Calendar " + calendarId + " is already associated.");
+        }
+      }
+      for (UUID calendarId : removeCalendarIds) {
+        if (!user.getCalendarIds().contains(calendarId)) {
+          log.warn("Calendar {} not found for user {}", calendarId, userId);
+          throw new CalendarNotFoundException("Calendar " + calendarId + " not found.");
+        }
+      }
+
+      int calendarCount =
+          user.getCalendarIds().size() + addCalendarIds.size() - removeCalendarIds.size();
+      if (calendarCount > MAX_CALENDARS_PER_USER) {
+        log.warn(
+            "User {} would exceed the maximum limit of 10 calendars with {}",
+            userId,
+            calendarCount);
+        throw new CalendarLimitExceededException(
+            "Maximum limit of 10 calendars per user would be exceeded.");
+      }
+
+      user.getCalendarIds().removeAll(removeCalendarIds);
+      user.getCalendarIds().addAll(addCalendarIds);
+      User savedUser = userRepository.save(user);
+      // Flush so the event carries the version this change produced
+      userRepository.flush();
+
+      log.info(
+          "Added {} and removed {} calendars of user {}",
+          addCalendarIds.size(),
+          removeCalendarIds.size(),
+          userId);
+
+      EventType eventType =
+          removeCalendarIds.isEmpty()
+              ? EventType.CALENDAR_ADDED
+              : addCalendarIds.isEmpty() ? EventType.CALENDAR_REMOVED : EventType.UPDATED;
+      userStateProducer.sendUserState(savedUser, eventType, addCalendarIds, removeCalendarIds);
+      userCache.invalidateAfterCompletion(userId);
+
+      return mapToDto(savedUser);
+    } catch (OptimisticLockingFailureException e) {
+      log.warn("Concurrent modification detected while changing calendars of user {}", userId, e);
+      throw new ConcurrentModificationException(
+          "The user was modified by another operation. Please refresh and try again.", e);
+    } catch (Exception e) {
+      log.error("Error occurred while changing calendars of user {}", userId, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Loads a user for a write. In {@link UserWriteLock.Mode#ROW} the row stays locked until the
+   * transaction completes, and the transaction waits for locks for at most the write lock timeout;
+   * the striped lock is taken by the caller before the transaction starts.
+   *
+   * @param id The user ID
+   * @return the managed user
+   * @throws UserNotFoundException if user not found
+   */
+  private User findUserForWrite(UUID id) {
+    Optional<User> user;
+    if (userWriteLock.isRowLock()) {
+      userRepository.setLockTimeout(Long.toString(userWriteLock.getTimeout().toMillis()));
+      user = userRepository.findByIdForUpdate(id);
+    } else {
+      user = userRepository.findById(id);
+    }
+    return user.orElseThrow(
+        () -> {
+          log.warn("User not found with id: {}", id);
+          return new UserNotFoundException(id);
+        });
+  }
+
   /**
    * Maps a User entity to a UserDto. Creates a defensive copy of mutable collections to prevent
    * modification of the entity.
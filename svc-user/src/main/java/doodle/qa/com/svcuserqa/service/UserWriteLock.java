@@ -0,0 +1,156 @@
+package doodle.qa.com.svcuserqa.service;
+
+import doodle.qa.com.svcuserqa.exception.ConcurrentModificationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serializes writes to the same user, so concurrent changes wait for each other instead of failing
+ * the version check and backing off in {@code @Retryable}.
+ *
+ * <ul>
+ *   <li>{@link Mode#NONE}: writes rely on the version check and retries only.
+ *   <li>{@link Mode#STRIPED}: a per-user lock of this node, taken before the write's transaction
+ *       starts and held until it completed. Waiting writers hold no connection, only their request
+ *       thread, for at most the timeout. Writes from other nodes still meet the version check.
+ *   <li>{@link Mode#ROW}: the user row is read with {@code SELECT ... FOR UPDATE}, which queues
+ *       writes in the database across all nodes while each of them holds a pooled connection, so
+ *       more waiting writers than the pool size stall other requests of the node. The transaction
+ *       waits for the row for at most the timeout.
+ * </ul>
+ *
+ * <p>A write that is not let through within the timeout fails with a {@link
+ * ConcurrentModificationException} in both locking modes.
+ *
+ * <p>Time spent waiting for the striped lock is recorded as {@code user.write.lock.wait}.
+ */
+@Component
+@Slf4j
+public class UserWriteLock {
+
+  /** How writes to the same user are serialized. */
+  public enum Mode {
+    NONE,
+    STRIPED,
+    ROW
+  }
+
+  /** Number of locks; users whose IDs share a lock wait for each other. */
+  private static final int STRIPES = 256;
+
+  private final Mode mode;
+  private final Duration timeout;
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+  private final Timer waitTimer;
+
+  public UserWriteLock(
+      MeterRegistry meterRegistry,
+      @Value("${user.write-lock.mode:none}") Mode mode,
+      @Value("${user.write-lock.timeout:PT5S}") Duration timeout) {
+    this.mode = mode;
+    this.timeout = timeout;
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock(true);
+    }
+    waitTimer =
+        Timer.builder("user.write.lock.wait")
+            .description("Time spent waiting for the striped write lock of a user")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Whether the user row should be locked when it is read for a write.
+   *
+   * @return true in {@link Mode#ROW}
+   */
+  public boolean isRowLock() {
+    return mode == Mode.ROW;
+  }
+
+  /**
+   * How long a write waits for the lock of a user.
+   *
+   * @return the timeout
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Run a write to a user while holding the user's lock. The write should start its own
+   * transaction, so the lock is held until that transaction has completed. Runs the write directly
+   * unless the mode is {@link Mode#STRIPED}; in {@link Mode#ROW} the write locks the row itself.
+   *
+   * @param id the user ID
+   * @param write the write, usually a transactional service method
+   * @return the result of the write
+   * @throws ConcurrentModificationException if the lock or the row is not acquired within the
+   *     timeout
+   * @throws IllegalStateException if called inside a transaction, whose connection would be held
+   *     while waiting
+   */
+  public <T> T execute(UUID id, Supplier<T> write) {
+    if (mode == Mode.ROW) {
+      return executeRowLocked(id, write);
+    }
+    if (mode != Mode.STRIPED) {
+      return write.get();
+    }
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException(
+          "A user write lock must be taken before the transaction starts");
+    }
+
+    ReentrantLock lock = locks[stripe(id)];
+    acquire(lock, id);
+    try {
+      return write.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static <T> T executeRowLocked(UUID id, Supplier<T> write) {
+    try {
+      return write.get();
+    } catch (PessimisticLockingFailureException e) {
+      // Lock timeouts and deadlocks of the row lock fail the write like a striped lock timeout
+      log.warn("Could not lock the row of user {} for a write", id, e);
+      throw new ConcurrentModificationException(
+          "The user is being modified by another operation. Please try again.", e);
+    }
+  }
+
+  private void acquire(ReentrantLock lock, UUID id) {
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = lock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConcurrentModificationException(
+          "Interrupted while waiting for another operation on the user.", e);
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      log.warn("Timed out after {} waiting for the write lock of user {}", timeout, id);
+      throw new ConcurrentModificationException(
+          "The user is being modified by another operation. Please try again.");
+    }
+  }
+
+  private static int stripe(UUID id) {
+    return id.hashCode() & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,9 @@
+-- Kafka messages written in the same transaction as the user change they describe, published and
+-- deleted by the outbox relay in id order. Payloads are Avro single-object encoded.
+CREATE TABLE outbox_messages (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Lease of a pending idempotency key. A key whose request did not complete within the lease can be
+-- reclaimed by a retry; completed keys have no lease and expire at expires_at.
+ALTER TABLE idempotency_keys ADD COLUMN pending_expires_at TIMESTAMP;
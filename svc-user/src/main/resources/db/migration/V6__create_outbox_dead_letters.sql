@@ -0,0 +1,11 @@
+-- Outbox messages the relay could not publish and will not retry, e.g. an undecodable payload or a
+-- record Kafka rejects as too large. They keep their outbox id and can be inspected and replayed.
+CREATE TABLE outbox_dead_letters (
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    payload BYTEA NOT NULL,
+    error VARCHAR(1024) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    dead_lettered_at TIMESTAMP NOT NULL
+);
@@ -2,6 +2,7 @@ package doodle.qa.com.svcuserqa.unit.controller;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -9,12 +10,24 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import doodle.qa.com.svcuserqa.controller.UserController;
+import doodle.qa.com.svcuserqa.dto.UserBatchGetRequestDto;
+import doodle.qa.com.svcuserqa.dto.UserBatchGetResultDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkRequestDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkResultDto;
+import doodle.qa.com.svcuserqa.dto.UserCalendarChangesDto;
 import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.dto.UserPageDto;
+import doodle.qa.com.svcuserqa.exception.IdempotencyKeyConflictException;
 import doodle.qa.com.svcuserqa.exception.UserNotFoundException;
+import doodle.qa.com.svcuserqa.service.IdempotencyService;
 import doodle.qa.com.svcuserqa.service.UserService;
+import doodle.qa.com.svcuserqa.service.UserWriteLock;
 import doodle.qa.com.svcuserqa.util.TestDataFactory;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +37,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
 /** Unit tests for the UserController. These tests verify the REST API endpoints using MockMvc. */
@@ -37,6 +54,17 @@ class UserControllerTest {
 
   @MockBean private UserService userService;
 
+  @MockBean private IdempotencyService idempotencyService;
+
+  @MockBean private UserWriteLock userWriteLock;
+
+  @BeforeEach
+  void setUp() {
+    // Run writes directly, as the lock does unless it is striped
+    when(userWriteLock.execute(any(UUID.class), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+  }
+
   @Test
   @DisplayName("Should return all users when getting all users without explicit pagination")
   void getAllUsers_WithDefaultPagination_ShouldReturnPagedUsers() throws Exception {
@@ -126,6 +154,48 @@ class UserControllerTest {
     verify(userService).getAllUsers(any(Pageable.class));
   }
 
+  @Test
+  @DisplayName("Should return users without total pages when the total is not requested")
+  void getAllUsers_WithoutTotal_ShouldReturnSliceWithoutCount() throws Exception {
+    // Given
+    List<UserDto> users = TestDataFactory.createUserDtoList(2);
+    Slice<UserDto> userSlice = new SliceImpl<>(users, PageRequest.of(0, 2), true);
+    when(userService.getUserSlice(any(Pageable.class))).thenReturn(userSlice);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/users").param("size", "2").param("includeTotal", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.users", hasSize(2)))
+        .andExpect(jsonPath("$.currentPage", is(0)))
+        .andExpect(jsonPath("$.hasNext", is(true)))
+        .andExpect(jsonPath("$.totalPages").doesNotExist());
+
+    verify(userService).getUserSlice(any(Pageable.class));
+    verify(userService, never()).getAllUsers(any(Pageable.class));
+  }
+
+  @Test
+  @DisplayName("Should return a keyset page of users when getting users by cursor")
+  void getUserPage_WithCursor_ShouldReturnUsersAndNextCursor() throws Exception {
+    // Given
+    UUID afterId = UUID.randomUUID();
+    List<UserDto> users = TestDataFactory.createUserDtoList(2);
+    UserPageDto userPage =
+        UserPageDto.builder().users(users).nextId(users.get(1).getId()).hasMore(true).build();
+    when(userService.getUserPage(afterId, 2)).thenReturn(userPage);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/users/page").param("afterId", afterId.toString()).param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.users", hasSize(2)))
+        .andExpect(jsonPath("$.nextId", is(users.get(1).getId().toString())))
+        .andExpect(jsonPath("$.hasMore", is(true)));
+
+    verify(userService).getUserPage(afterId, 2);
+  }
+
   @Test
   @DisplayName("Should return user when getting user by ID that exists")
   void getUserById_WhenUserExists_ShouldReturnUser() throws Exception {
@@ -159,6 +229,38 @@ class UserControllerTest {
     verify(userService).getUserById(userId);
   }
 
+  @Test
+  @DisplayName("Should return ETag derived from the user's version")
+  void getUserById_WhenUserExists_ShouldReturnETag() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UserDto user = TestDataFactory.createUserDto(userId, "Test User", "test@example.com", null);
+    when(userService.getUserVersion(userId)).thenReturn(3L);
+    when(userService.getUserById(userId)).thenReturn(user);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/users/{id}", userId))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"3\""));
+  }
+
+  @Test
+  @DisplayName("Should return 304 without loading the user when the ETag matches")
+  void getUserById_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    when(userService.getUserVersion(userId)).thenReturn(3L);
+
+    // When/Then
+    mockMvc
+        .perform(get("/api/users/{id}", userId).header("If-None-Match", "\"3\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    verify(userService, never()).getUserById(userId);
+  }
+
   @Test
   @DisplayName("Should create user when creating user with valid data")
   void createUser_WithValidData_ShouldCreateUser() throws Exception {
@@ -183,6 +285,58 @@ class UserControllerTest {
     verify(userService).createUser(any(UserDto.class));
   }
 
+  @Test
+  @DisplayName("Should return the stored response when creating user with a replayed key")
+  void createUser_WithReplayedIdempotencyKey_ShouldReturnStoredResponse() throws Exception {
+    // Given
+    UserDto userToCreate = TestDataFactory.createUserDto("New User", "new@example.com");
+    UserDto createdUser =
+        TestDataFactory.createUserDto(UUID.randomUUID(), "New User", "new@example.com", null);
+    when(idempotencyService.execute(
+            eq("POST /api/users"),
+            eq("key-1"),
+            any(),
+            eq(HttpStatus.CREATED),
+            eq(UserDto.class),
+            any()))
+        .thenReturn(
+            ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, "true")
+                .body(createdUser));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userToCreate)))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+        .andExpect(jsonPath("$.id", is(createdUser.getId().toString())));
+
+    verify(userService, never()).createUser(any(UserDto.class));
+  }
+
+  @Test
+  @DisplayName("Should return 409 when creating user with an idempotency key in use")
+  void createUser_WithIdempotencyKeyInUse_ShouldReturn409() throws Exception {
+    // Given
+    UserDto userToCreate = TestDataFactory.createUserDto("New User", "new@example.com");
+    when(idempotencyService.execute(any(), eq("key-1"), any(), any(), eq(UserDto.class), any()))
+        .thenThrow(new IdempotencyKeyConflictException("in progress"));
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(userToCreate)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message", is("in progress")));
+  }
+
   @Test
   @DisplayName("Should return 400 when creating user with invalid data")
   void createUser_WithInvalidData_ShouldReturn400() throws Exception {
@@ -201,6 +355,154 @@ class UserControllerTest {
     verify(userService, never()).createUser(any(UserDto.class));
   }
 
+  @Test
+  @DisplayName("Should return users and missing IDs when getting users by IDs")
+  void getUsersByIds_WithIds_ShouldReturnUsersAndMissingIds() throws Exception {
+    // Given
+    List<UserDto> users = TestDataFactory.createUserDtoList(2);
+    UUID missingId = UUID.randomUUID();
+    List<UUID> ids = List.of(users.get(0).getId(), missingId, users.get(1).getId());
+    when(userService.getUsersByIds(ids))
+        .thenReturn(
+            UserBatchGetResultDto.builder().users(users).missingIds(List.of(missingId)).build());
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        UserBatchGetRequestDto.builder().ids(ids).build())))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.users", hasSize(2)))
+        .andExpect(jsonPath("$.users[0].id", is(users.get(0).getId().toString())))
+        .andExpect(jsonPath("$.missingIds[0]", is(missingId.toString())));
+  }
+
+  @Test
+  @DisplayName("Should return 400 when getting users by an empty list of IDs")
+  void getUsersByIds_WithoutIds_ShouldReturn400() throws Exception {
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        UserBatchGetRequestDto.builder().ids(List.of()).build())))
+        .andExpect(status().isBadRequest());
+
+    verify(userService, never()).getUsersByIds(anyList());
+  }
+
+  @Test
+  @DisplayName("Should return the updated user when changing calendars of a user")
+  void changeUserCalendars_WithChanges_ShouldReturnUpdatedUser() throws Exception {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID addedCalendarId = UUID.randomUUID();
+    UUID removedCalendarId = UUID.randomUUID();
+    UserDto user =
+        TestDataFactory.createUserDto(
+            userId, "User", "user@example.com", List.of(addedCalendarId), 2L);
+    when(userService.changeUserCalendars(
+            userId, Set.of(addedCalendarId), Set.of(removedCalendarId)))
+        .thenReturn(user);
+
+    // When/Then
+    mockMvc
+        .perform(
+            patch("/api/users/{userId}/calendars", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        UserCalendarChangesDto.builder()
+                            .addCalendarIds(Set.of(addedCalendarId))
+                            .removeCalendarIds(Set.of(removedCalendarId))
+                            .build())))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.calendarIds", hasSize(1)))
+        .andExpect(jsonPath("$.calendarIds[0]", is(addedCalendarId.toString())));
+  }
+
+  @Test
+  @DisplayName("Should return 400 when a calendar is both added and removed")
+  void changeUserCalendars_WhenCalendarAddedAndRemoved_ShouldReturn400() throws Exception {
+    // Given
+    UUID calendarId = UUID.randomUUID();
+
+    // When/Then
+    mockMvc
+        .perform(
+            patch("/api/users/{userId}/calendars", UUID.randomUUID())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        UserCalendarChangesDto.builder()
+                            .addCalendarIds(Set.of(calendarId))
+                            .removeCalendarIds(Set.of(calendarId))
+                            .build())))
+        .andExpect(status().isBadRequest());
+
+    verify(userService, never()).changeUserCalendars(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Should return 201 with per-user results when creating users in bulk")
+  void createUsers_WithValidData_ShouldReturnResults() throws Exception {
+    // Given
+    List<UserDto> users = List.of(TestDataFactory.createUserDto("New User", "new@example.com"));
+    UUID createdId = UUID.randomUUID();
+    UserBulkResultDto result =
+        UserBulkResultDto.builder()
+            .created(1)
+            .skipped(0)
+            .results(
+                List.of(
+                    UserBulkResultDto.Row.builder()
+                        .index(0)
+                        .email("new@example.com")
+                        .status(UserBulkResultDto.Status.CREATED)
+                        .id(createdId)
+                        .build()))
+            .build();
+    when(userService.createUsers(anyList())).thenReturn(result);
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        UserBulkRequestDto.builder().users(users).build())))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.created", is(1)))
+        .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+        .andExpect(jsonPath("$.results[0].id", is(createdId.toString())));
+  }
+
+  @Test
+  @DisplayName("Should return 400 when creating users in bulk with an invalid user")
+  void createUsers_WithInvalidUser_ShouldReturn400() throws Exception {
+    // Given
+    UserBulkRequestDto request =
+        UserBulkRequestDto.builder()
+            .users(List.of(UserDto.builder().email("invalid-email").build()))
+            .build();
+
+    // When/Then
+    mockMvc
+        .perform(
+            post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isBadRequest());
+
+    verify(userService, never()).createUsers(anyList());
+  }
+
   @Test
   @DisplayName("Should update user when updating user that exists with valid data")
   void updateUser_WhenUserExistsWithValidData_ShouldUpdateUser() throws Exception {
@@ -0,0 +1,242 @@
+package doodle.qa.com.svcuserqa.unit.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.example.svcuser.avro.EventType;
+import com.example.svcuser.avro.UserState;
+import doodle.qa.com.svcuserqa.entity.OutboxDeadLetter;
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
+import doodle.qa.com.svcuserqa.kafka.OutboxRelay;
+import doodle.qa.com.svcuserqa.repository.OutboxDeadLetterRepository;
+import doodle.qa.com.svcuserqa.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the OutboxRelay. These tests verify that outbox messages are published in order,
+ * only deleted once Kafka acknowledged them, and that messages which can never be published are
+ * moved to the dead letters.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+  private static final String TOPIC = "user-state-test";
+
+  @Mock private OutboxMessageRepository outboxMessageRepository;
+
+  @Mock private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+  @Mock private KafkaTemplate<String, Object> kafkaTemplate;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Mock private SendResult<String, Object> sendResult;
+
+  private MeterRegistry meterRegistry;
+
+  private OutboxRelay outboxRelay;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    outboxRelay =
+        new OutboxRelay(
+            outboxMessageRepository,
+            outboxDeadLetterRepository,
+            kafkaTemplate,
+            transactionManager,
+            meterRegistry,
+            2,
+            Duration.ofSeconds(1),
+            Duration.ofMinutes(1));
+  }
+
+  @Test
+  @DisplayName("Should publish messages in order and delete them in batches")
+  void relay_WhenAllSendsSucceed_ShouldPublishAndDeleteAllMessages() throws Exception {
+    // Given
+    OutboxMessage first = message(1L, "user-1", EventType.CREATED);
+    OutboxMessage second = message(2L, "user-1", EventType.UPDATED);
+    OutboxMessage third = message(3L, "user-2", EventType.CREATED);
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class)))
+        .thenReturn(List.of(first, second))
+        .thenReturn(List.of(third));
+    when(kafkaTemplate.send(eq(TOPIC), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+    // When
+    outboxRelay.relay();
+
+    // Then
+    ArgumentCaptor<Object> valueCaptor = ArgumentCaptor.forClass(Object.class);
+    verify(kafkaTemplate, times(3)).send(eq(TOPIC), anyString(), valueCaptor.capture());
+    assertThat(valueCaptor.getAllValues())
+        .extracting(value -> ((UserState) value).getEventType())
+        .containsExactly(EventType.CREATED, EventType.UPDATED, EventType.CREATED);
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(3L));
+    assertThat(meterRegistry.counter("outbox.relayed").count()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Should only delete the acknowledged prefix when a send fails")
+  void relay_WhenSendFails_ShouldKeepUnacknowledgedMessages() throws Exception {
+    // Given
+    OutboxMessage first = message(1L, "user-1", EventType.CREATED);
+    OutboxMessage second = message(2L, "user-1", EventType.UPDATED);
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class)))
+        .thenReturn(List.of(first, second));
+    when(kafkaTemplate.send(eq(TOPIC), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(sendResult))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker unavailable")));
+
+    // When
+    outboxRelay.relay();
+
+    // Then
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L));
+    verify(outboxMessageRepository, times(1)).findOldestForUpdate(any(Pageable.class));
+    assertThat(meterRegistry.counter("outbox.relay.failures").count()).isEqualTo(1);
+    verifyNoInteractions(outboxDeadLetterRepository);
+  }
+
+  @Test
+  @DisplayName("Should move an undecodable message to the dead letters and publish the rest")
+  void relay_WhenPayloadCannotBeDecoded_ShouldDeadLetterMessage() throws Exception {
+    // Given
+    OutboxMessage poison = message(1L, "user-1", EventType.CREATED);
+    poison.setPayload(new byte[] {1, 2, 3});
+    OutboxMessage second = message(2L, "user-1", EventType.UPDATED);
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class)))
+        .thenReturn(List.of(poison, second))
+        .thenReturn(List.of());
+    when(kafkaTemplate.send(eq(TOPIC), anyString(), any()))
+        .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+    // When
+    outboxRelay.relay();
+
+    // Then
+    verify(kafkaTemplate, times(1)).send(eq(TOPIC), anyString(), any());
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    assertThat(deadLetters()).extracting(OutboxDeadLetter::getId).containsExactly(1L);
+    assertThat(meterRegistry.counter("outbox.dead.lettered").count()).isEqualTo(1);
+    assertThat(meterRegistry.counter("outbox.relayed").count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should move a message Kafka rejects as too large to the dead letters")
+  void relay_WhenRecordTooLarge_ShouldDeadLetterMessage() throws Exception {
+    // Given
+    OutboxMessage first = message(1L, "user-1", EventType.CREATED);
+    OutboxMessage second = message(2L, "user-2", EventType.CREATED);
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class)))
+        .thenReturn(List.of(first, second))
+        .thenReturn(List.of());
+    when(kafkaTemplate.send(eq(TOPIC), anyString(), any()))
+        .thenReturn(
+            CompletableFuture.failedFuture(
+                new KafkaProducerException(
+                    null, "Failed to send", new RecordTooLargeException("too large"))))
+        .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+    // When
+    outboxRelay.relay();
+
+    // Then
+    verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    List<OutboxDeadLetter> deadLetters = deadLetters();
+    assertThat(deadLetters).extracting(OutboxDeadLetter::getId).containsExactly(1L);
+    assertThat(deadLetters.get(0).getError()).contains("RecordTooLargeException");
+    assertThat(deadLetters.get(0).getPayload()).isEqualTo(first.getPayload());
+    assertThat(meterRegistry.counter("outbox.relay.failures").count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should report the pending messages and the age of the oldest one")
+  void relay_ShouldUpdateLagMetrics() {
+    // Given
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class))).thenReturn(List.of());
+    when(outboxMessageRepository.count()).thenReturn(5L);
+    when(outboxMessageRepository.findOldestCreatedAt())
+        .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(30)));
+
+    // When
+    outboxRelay.relay();
+
+    // Then
+    verifyNoInteractions(kafkaTemplate);
+    assertThat(meterRegistry.get("outbox.pending").gauge().value()).isEqualTo(5);
+    assertThat(meterRegistry.get("outbox.lag").gauge().value()).isGreaterThanOrEqualTo(30);
+  }
+
+  @Test
+  @DisplayName("Should count the pending messages at most once per interval")
+  void relay_WhenRunRepeatedly_ShouldCountPendingMessagesOncePerInterval() {
+    // Given
+    when(outboxMessageRepository.findOldestForUpdate(any(Pageable.class))).thenReturn(List.of());
+    when(outboxMessageRepository.count()).thenReturn(5L);
+    when(outboxMessageRepository.findOldestCreatedAt()).thenReturn(Optional.empty());
+
+    // When
+    outboxRelay.relay();
+    outboxRelay.relay();
+
+    // Then
+    verify(outboxMessageRepository, times(1)).count();
+    verify(outboxMessageRepository, times(2)).findOldestCreatedAt();
+    assertThat(meterRegistry.get("outbox.pending").gauge().value()).isEqualTo(5);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<OutboxDeadLetter> deadLetters() {
+    ArgumentCaptor<List<OutboxDeadLetter>> captor = ArgumentCaptor.forClass(List.class);
+    verify(outboxDeadLetterRepository).saveAll(captor.capture());
+    return captor.getValue();
+  }
+
+  private static OutboxMessage message(Long id, String key, EventType eventType) throws Exception {
+    UserState userState =
+        UserState.newBuilder()
+            .setId(UUID.randomUUID().toString())
+            .setName("Test User")
+            .setEmail("test@example.com")
+            .setEventType(eventType)
+            .setTimestamp(0L)
+            .build();
+    ByteBuffer buffer = userState.toByteBuffer();
+    byte[] payload = new byte[buffer.remaining()];
+    buffer.get(payload);
+    return OutboxMessage.builder()
+        .id(id)
+        .topic(TOPIC)
+        .messageKey(key)
+        .payload(payload)
+        .createdAt(LocalDateTime.now())
+        .build();
+  }
+}
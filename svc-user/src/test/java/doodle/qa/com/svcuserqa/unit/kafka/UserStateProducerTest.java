@@ -8,9 +8,13 @@ import static org.mockito.Mockito.*;
 
 import com.example.svcuser.avro.EventType;
 import com.example.svcuser.avro.UserState;
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
 import doodle.qa.com.svcuserqa.entity.User;
 import doodle.qa.com.svcuserqa.kafka.UserStateProducer;
+import doodle.qa.com.svcuserqa.repository.OutboxMessageRepository;
 import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -21,6 +25,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -36,13 +42,18 @@ class UserStateProducerTest {
 
   @Mock private SendResult<String, Object> sendResult;
 
+  @Mock private OutboxMessageRepository outboxMessageRepository;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
   private UserStateProducer userStateProducer;
 
   private final String userStateTopic = "user-state-test";
 
   @BeforeEach
   void setUp() {
-    userStateProducer = new UserStateProducer(kafkaTemplate);
+    userStateProducer =
+        new UserStateProducer(kafkaTemplate, outboxMessageRepository, jdbcTemplate, false);
     ReflectionTestUtils.setField(userStateProducer, "userStateTopic", userStateTopic);
   }
 
@@ -146,4 +157,146 @@ class UserStateProducerTest {
       reset(kafkaTemplate);
     }
   }
+
+  @Test
+  @DisplayName("Should write user state to the outbox instead of Kafka when the outbox is enabled")
+  void sendUserState_WhenOutboxEnabled_ShouldWriteOutboxMessage() throws Exception {
+    // Given
+    UserStateProducer outboxProducer =
+        new UserStateProducer(kafkaTemplate, outboxMessageRepository, jdbcTemplate, true);
+    ReflectionTestUtils.setField(outboxProducer, "userStateTopic", userStateTopic);
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    User user =
+        TestDataFactory.createUser(userId, "Test User", "test@example.com", List.of(calendarId));
+
+    // When
+    outboxProducer.sendUserState(user, EventType.UPDATED);
+
+    // Then
+    ArgumentCaptor<OutboxMessage> messageCaptor = ArgumentCaptor.forClass(OutboxMessage.class);
+    verify(outboxMessageRepository).save(messageCaptor.capture());
+    verifyNoInteractions(kafkaTemplate);
+
+    OutboxMessage message = messageCaptor.getValue();
+    assertThat(message.getTopic()).isEqualTo(userStateTopic);
+    assertThat(message.getMessageKey()).isEqualTo(userId.toString());
+    assertThat(message.getCreatedAt()).isNotNull();
+
+    UserState userState = UserState.fromByteBuffer(ByteBuffer.wrap(message.getPayload()));
+    assertThat(userState.getId()).isEqualTo(userId.toString());
+    assertThat(userState.getEventType()).isEqualTo(EventType.UPDATED);
+    assertThat(userState.getCalendarIds()).containsExactly(calendarId.toString());
+  }
+
+  @Test
+  @DisplayName("Should encode the calendar delta and the version of a calendar change")
+  void sendUserState_WithCalendarDelta_ShouldEncodeDeltaAndVersion() throws Exception {
+    // Given
+    UserStateProducer outboxProducer =
+        new UserStateProducer(kafkaTemplate, outboxMessageRepository, jdbcTemplate, true);
+    ReflectionTestUtils.setField(outboxProducer, "userStateTopic", userStateTopic);
+    UUID keptCalendarId = UUID.randomUUID();
+    UUID addedCalendarId = UUID.randomUUID();
+    User user =
+        TestDataFactory.createUser(
+            UUID.randomUUID(),
+            "Test User",
+            "test@example.com",
+            List.of(keptCalendarId, addedCalendarId),
+            3L);
+
+    // When
+    outboxProducer.sendUserState(
+        user, EventType.CALENDAR_ADDED, List.of(addedCalendarId), List.of());
+
+    // Then
+    ArgumentCaptor<OutboxMessage> messageCaptor = ArgumentCaptor.forClass(OutboxMessage.class);
+    verify(outboxMessageRepository).save(messageCaptor.capture());
+    UserState userState =
+        UserState.fromByteBuffer(ByteBuffer.wrap(messageCaptor.getValue().getPayload()));
+    assertThat(userState.getVersion()).isEqualTo(3L);
+    assertThat(userState.getAddedCalendarIds()).hasSize(1);
+    ByteBuffer added = ByteBuffer.wrap(userState.getAddedCalendarIds().get(0).bytes());
+    assertThat(new UUID(added.getLong(), added.getLong())).isEqualTo(addedCalendarId);
+    assertThat(userState.getRemovedCalendarIds()).isEmpty();
+    assertThat(userState.getCalendarIds())
+        .containsExactly(keptCalendarId.toString(), addedCalendarId.toString());
+  }
+
+  @Test
+  @DisplayName("Should omit the full calendar list of calendar changes in delta-only mode")
+  void sendUserState_WhenDeltaOnly_ShouldOmitCalendarIdsOfCalendarChanges() {
+    // Given
+    ReflectionTestUtils.setField(userStateProducer, "deltaOnly", true);
+    UUID calendarId = UUID.randomUUID();
+    User user =
+        TestDataFactory.createUser(
+            UUID.randomUUID(), "Test User", "test@example.com", List.of(calendarId), 1L);
+    when(kafkaTemplate.send(anyString(), anyString(), any(UserState.class)))
+        .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+    // When
+    userStateProducer.sendUserState(
+        user, EventType.CALENDAR_REMOVED, List.of(), List.of(calendarId));
+    userStateProducer.sendUserState(user, EventType.UPDATED, List.of(), List.of());
+
+    // Then
+    ArgumentCaptor<UserState> valueCaptor = ArgumentCaptor.forClass(UserState.class);
+    verify(kafkaTemplate, times(2)).send(anyString(), anyString(), valueCaptor.capture());
+    UserState calendarRemoved = valueCaptor.getAllValues().get(0);
+    assertThat(calendarRemoved.getCalendarIds()).isEmpty();
+    assertThat(calendarRemoved.getRemovedCalendarIds()).hasSize(1);
+    assertThat(valueCaptor.getAllValues().get(1).getCalendarIds())
+        .containsExactly(calendarId.toString());
+  }
+
+  @Test
+  @DisplayName("Should send the user states of many users to Kafka when the outbox is disabled")
+  void sendUserStates_WhenOutboxDisabled_ShouldSendEveryUserState() {
+    // Given
+    List<User> users = TestDataFactory.createUserList(2);
+    when(kafkaTemplate.send(eq(userStateTopic), anyString(), any(UserState.class)))
+        .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+    // When
+    userStateProducer.sendUserStates(users, EventType.CREATED);
+
+    // Then
+    for (User user : users) {
+      verify(kafkaTemplate).send(eq(userStateTopic), eq(user.getId().toString()), any());
+    }
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("Should write the user states of many users to the outbox with one JDBC batch")
+  @SuppressWarnings("unchecked")
+  void sendUserStates_WhenOutboxEnabled_ShouldWriteOneBatch() throws Exception {
+    // Given
+    UserStateProducer outboxProducer =
+        new UserStateProducer(kafkaTemplate, outboxMessageRepository, jdbcTemplate, true);
+    ReflectionTestUtils.setField(outboxProducer, "userStateTopic", userStateTopic);
+    List<User> users = TestDataFactory.createUserList(3);
+
+    // When
+    outboxProducer.sendUserStates(users, EventType.CREATED);
+
+    // Then
+    ArgumentCaptor<ParameterizedPreparedStatementSetter<User>> setterCaptor =
+        ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+    verify(jdbcTemplate)
+        .batchUpdate(anyString(), eq(users), eq(users.size()), setterCaptor.capture());
+    verifyNoInteractions(kafkaTemplate, outboxMessageRepository);
+
+    PreparedStatement ps = mock(PreparedStatement.class);
+    setterCaptor.getValue().setValues(ps, users.get(0));
+    ArgumentCaptor<byte[]> payloadCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(ps).setString(1, userStateTopic);
+    verify(ps).setString(2, users.get(0).getId().toString());
+    verify(ps).setBytes(eq(3), payloadCaptor.capture());
+    UserState userState = UserState.fromByteBuffer(ByteBuffer.wrap(payloadCaptor.getValue()));
+    assertThat(userState.getId()).isEqualTo(users.get(0).getId().toString());
+    assertThat(userState.getEventType()).isEqualTo(EventType.CREATED);
+  }
 }
@@ -0,0 +1,70 @@
+package doodle.qa.com.svcuserqa.unit.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import doodle.qa.com.svcuserqa.entity.OutboxMessage;
+import doodle.qa.com.svcuserqa.repository.OutboxMessageRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+/** Unit tests for the OutboxMessageRepository. These tests verify the relay's queries. */
+@DataJpaTest
+@ActiveProfiles("test")
+class OutboxMessageRepositoryTest {
+
+  @Autowired private OutboxMessageRepository outboxMessageRepository;
+
+  @Test
+  @DisplayName("Should return the oldest messages in id order")
+  void findOldestForUpdate_ShouldReturnOldestMessagesInOrder() {
+    // Given
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    OutboxMessage first = outboxMessageRepository.save(message("user-1", now));
+    OutboxMessage second = outboxMessageRepository.save(message("user-2", now.plusSeconds(1)));
+    outboxMessageRepository.save(message("user-1", now.plusSeconds(2)));
+
+    // When
+    List<OutboxMessage> messages =
+        outboxMessageRepository.findOldestForUpdate(PageRequest.of(0, 2));
+
+    // Then
+    assertThat(messages)
+        .extracting(OutboxMessage::getId)
+        .containsExactly(first.getId(), second.getId());
+  }
+
+  @Test
+  @DisplayName("Should return the creation time of the message with the lowest id")
+  void findOldestCreatedAt_ShouldReturnCreationTimeOfLowestId() {
+    // Given
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    outboxMessageRepository.save(message("user-1", now));
+    outboxMessageRepository.save(message("user-2", now.plusSeconds(5)));
+
+    // When/Then
+    assertThat(outboxMessageRepository.findOldestCreatedAt()).contains(now);
+  }
+
+  @Test
+  @DisplayName("Should return empty when the outbox is empty")
+  void findOldestCreatedAt_WhenOutboxIsEmpty_ShouldReturnEmpty() {
+    // When/Then
+    assertThat(outboxMessageRepository.findOldestCreatedAt()).isEmpty();
+  }
+
+  private static OutboxMessage message(String key, LocalDateTime createdAt) {
+    return OutboxMessage.builder()
+        .topic("user-state-test")
+        .messageKey(key)
+        .payload(new byte[] {1, 2, 3})
+        .createdAt(createdAt)
+        .build();
+  }
+}
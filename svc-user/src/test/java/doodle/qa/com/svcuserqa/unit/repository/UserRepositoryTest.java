@@ -5,12 +5,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import doodle.qa.com.svcuserqa.entity.User;
 import doodle.qa.com.svcuserqa.repository.UserRepository;
 import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import jakarta.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 /**
@@ -22,6 +28,7 @@ import org.springframework.test.context.ActiveProfiles;
 class UserRepositoryTest {
 
   @Autowired private UserRepository userRepository;
+  @Autowired private TestEntityManager entityManager;
 
   @Test
   @DisplayName("Should find user by email when user exists")
@@ -53,6 +60,75 @@ class UserRepositoryTest {
     assertThat(foundUser).isEmpty();
   }
 
+  @Test
+  @DisplayName("Should load user with a pessimistic write lock when finding user for update")
+  void findByIdForUpdate_WhenUserExists_ShouldLockUser() {
+    // Given
+    User user = userRepository.save(TestDataFactory.createUser("Lock User", "lock@example.com"));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    Optional<User> foundUser = userRepository.findByIdForUpdate(user.getId());
+
+    // Then
+    assertThat(foundUser).isPresent();
+    assertThat(entityManager.getEntityManager().getLockMode(foundUser.get()))
+        .isEqualTo(LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  @Test
+  @DisplayName("Should load user as read-only when finding user for a read path")
+  void findReadOnlyById_WhenUserExists_ShouldReturnReadOnlyUser() {
+    // Given
+    User user = userRepository.save(TestDataFactory.createUser("Read User", "read@example.com"));
+    entityManager.flush();
+    entityManager.clear();
+
+    // When
+    Optional<User> foundUser = userRepository.findReadOnlyById(user.getId());
+
+    // Then
+    assertThat(foundUser).isPresent();
+    assertThat(foundUser.get().getEmail()).isEqualTo("read@example.com");
+    assertThat(entityManager.getEntityManager().unwrap(Session.class).isReadOnly(foundUser.get()))
+        .isTrue();
+  }
+
+  @Test
+  @DisplayName("Should return the users after the given ID in ID order when seeking a page")
+  void findPageReadOnlyAfter_ShouldReturnUsersAfterCursorInIdOrder() {
+    // Given
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      ids.add(
+          userRepository
+              .save(TestDataFactory.createUser("User " + i, "user" + i + "@example.com"))
+              .getId());
+    }
+    entityManager.flush();
+    entityManager.clear();
+    List<User> firstPage = userRepository.findPageReadOnly(PageRequest.of(0, 2));
+
+    // When
+    List<User> nextPage =
+        userRepository.findPageReadOnlyAfter(firstPage.get(1).getId(), PageRequest.of(0, 10));
+
+    // Then
+    // UUID.compareTo compares signed longs, so the order is checked against the database instead
+    assertThat(firstPage).hasSize(2);
+    assertThat(nextPage).hasSize(3);
+    List<UUID> walked = new ArrayList<>();
+    firstPage.forEach(user -> walked.add(user.getId()));
+    nextPage.forEach(user -> walked.add(user.getId()));
+    assertThat(walked).containsExactlyInAnyOrderElementsOf(ids);
+    assertThat(walked)
+        .containsExactlyElementsOf(
+            userRepository.findPageReadOnly(PageRequest.of(0, 10)).stream()
+                .map(User::getId)
+                .toList());
+  }
+
   @Test
   @DisplayName("Should return true when checking if user exists by email and user exists")
   void existsByEmail_WhenUserExists_ShouldReturnTrue() {
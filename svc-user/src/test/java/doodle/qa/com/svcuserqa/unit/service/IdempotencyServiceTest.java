@@ -0,0 +1,301 @@
+package doodle.qa.com.svcuserqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.entity.IdempotencyRecord;
+import doodle.qa.com.svcuserqa.exception.IdempotencyKeyConflictException;
+import doodle.qa.com.svcuserqa.repository.IdempotencyRecordRepository;
+import doodle.qa.com.svcuserqa.service.IdempotencyService;
+import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the IdempotencyService. These tests verify that a request runs once per key, that
+ * retries get the stored response, and that conflicting reuses of a key are rejected.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+  private static final String SCOPE = "POST /api/users";
+  private static final String KEY = "key-1";
+
+  @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  private IdempotencyService idempotencyService;
+
+  @BeforeEach
+  void setUp() {
+    idempotencyService =
+        new IdempotencyService(
+            idempotencyRecordRepository,
+            objectMapper,
+            transactionManager,
+            Duration.ofHours(24),
+            Duration.ofMinutes(1));
+  }
+
+  @Test
+  @DisplayName("Should run the operation and store its response for a new key")
+  void execute_WhenKeyIsNew_ShouldRunOperationAndStoreResponse() {
+    // Given
+    UserDto user = createUser();
+    when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When
+    ResponseEntity<UserDto> response =
+        idempotencyService.execute(SCOPE, KEY, user, HttpStatus.CREATED, UserDto.class, () -> user);
+
+    // Then
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(response.getBody()).isEqualTo(user);
+    assertThat(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+
+    ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(idempotencyRecordRepository).save(captor.capture());
+    assertThat(captor.getValue().getResponseStatus()).isEqualTo(201);
+    assertThat(captor.getValue().getId()).hasSize(64);
+    assertThat(captor.getValue().getExpiresAt()).isAfter(LocalDateTime.now().plusHours(23));
+    assertThat(captor.getValue().getPendingExpiresAt()).isNull();
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  @DisplayName("Should replay the stored response without running the operation again")
+  void execute_WhenKeyCompleted_ShouldReplayStoredResponse() throws Exception {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+    AtomicInteger calls = new AtomicInteger();
+
+    // When
+    ResponseEntity<UserDto> response =
+        idempotencyService.execute(
+            SCOPE,
+            KEY,
+            user,
+            HttpStatus.CREATED,
+            UserDto.class,
+            () -> {
+              calls.incrementAndGet();
+              return user;
+            });
+
+    // Then
+    assertThat(calls).hasValue(0);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER))
+        .isEqualTo("true");
+    assertThat(response.getBody()).isEqualTo(user);
+  }
+
+  @Test
+  @DisplayName("Should reject a key reused for a different request")
+  void execute_WhenRequestDiffers_ShouldThrowConflict() {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+    UserDto otherUser = createUser();
+
+    // When/Then
+    assertThrows(
+        IdempotencyKeyConflictException.class,
+        () ->
+            idempotencyService.execute(
+                SCOPE, KEY, otherUser, HttpStatus.CREATED, UserDto.class, () -> user));
+  }
+
+  @Test
+  @DisplayName("Should reject a key whose original request is still in progress")
+  void execute_WhenKeyInProgress_ShouldThrowConflict() {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    stored.setResponseStatus(null);
+    stored.setResponseBody(null);
+    stored.setPendingExpiresAt(LocalDateTime.now().plusSeconds(30));
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+    // When/Then
+    assertThrows(
+        IdempotencyKeyConflictException.class,
+        () ->
+            idempotencyService.execute(
+                SCOPE, KEY, user, HttpStatus.CREATED, UserDto.class, () -> user));
+  }
+
+  @Test
+  @DisplayName("Should reclaim a key whose original request did not complete within the lease")
+  void execute_WhenPendingLeaseExpired_ShouldReclaimKeyAndRunOperation() {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    stored.setResponseStatus(null);
+    stored.setResponseBody(null);
+    stored.setPendingExpiresAt(LocalDateTime.now().minusSeconds(1));
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+    when(idempotencyRecordRepository.saveAndFlush(stored)).thenReturn(stored);
+    AtomicInteger calls = new AtomicInteger();
+
+    // When
+    ResponseEntity<UserDto> response =
+        idempotencyService.execute(
+            SCOPE,
+            KEY,
+            user,
+            HttpStatus.CREATED,
+            UserDto.class,
+            () -> {
+              calls.incrementAndGet();
+              return user;
+            });
+
+    // Then
+    assertThat(calls).hasValue(1);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    verify(idempotencyRecordRepository).save(stored);
+    assertThat(stored.isCompleted()).isTrue();
+    assertThat(stored.getPendingExpiresAt()).isNull();
+  }
+
+  @Test
+  @DisplayName("Should reject a key reclaimed concurrently by another request")
+  void execute_WhenReclaimedConcurrently_ShouldThrowConflict() {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    stored.setResponseStatus(null);
+    stored.setResponseBody(null);
+    stored.setPendingExpiresAt(LocalDateTime.now().minusSeconds(1));
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+    when(idempotencyRecordRepository.saveAndFlush(stored))
+        .thenThrow(new OptimisticLockingFailureException("version changed"));
+
+    // When/Then
+    assertThrows(
+        IdempotencyKeyConflictException.class,
+        () ->
+            idempotencyService.execute(
+                SCOPE, KEY, user, HttpStatus.CREATED, UserDto.class, () -> user));
+    verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  @DisplayName("Should reject a key claimed concurrently by another request")
+  void execute_WhenClaimedConcurrently_ShouldThrowConflict() {
+    // Given
+    UserDto user = createUser();
+    when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    // When/Then
+    assertThrows(
+        IdempotencyKeyConflictException.class,
+        () ->
+            idempotencyService.execute(
+                SCOPE, KEY, user, HttpStatus.CREATED, UserDto.class, () -> user));
+  }
+
+  @Test
+  @DisplayName("Should release the key when the operation fails")
+  void execute_WhenOperationFails_ShouldReleaseKey() {
+    // Given
+    UserDto user = createUser();
+    when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When/Then
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            idempotencyService.execute(
+                SCOPE,
+                KEY,
+                user,
+                HttpStatus.CREATED,
+                UserDto.class,
+                () -> {
+                  throw new IllegalStateException("failed");
+                }));
+    verify(idempotencyRecordRepository).delete(any(IdempotencyRecord.class));
+    verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    verify(transactionManager).rollback(any());
+  }
+
+  @Test
+  @DisplayName("Should run the operation again once the stored response expired")
+  void execute_WhenKeyExpired_ShouldRunOperationAgain() {
+    // Given
+    UserDto user = createUser();
+    IdempotencyRecord stored = runOnce(user);
+    stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+    when(idempotencyRecordRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+    AtomicInteger calls = new AtomicInteger();
+
+    // When
+    ResponseEntity<UserDto> response =
+        idempotencyService.execute(
+            SCOPE,
+            KEY,
+            user,
+            HttpStatus.CREATED,
+            UserDto.class,
+            () -> {
+              calls.incrementAndGet();
+              return user;
+            });
+
+    // Then
+    assertThat(calls).hasValue(1);
+    assertThat(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    verify(idempotencyRecordRepository).saveAndFlush(stored);
+  }
+
+  /** Runs the operation once for a new key and returns the record that was stored. */
+  private IdempotencyRecord runOnce(UserDto user) {
+    when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    idempotencyService.execute(SCOPE, KEY, user, HttpStatus.CREATED, UserDto.class, () -> user);
+
+    ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+    verify(idempotencyRecordRepository).save(captor.capture());
+    clearInvocations(idempotencyRecordRepository);
+    return captor.getValue();
+  }
+
+  private UserDto createUser() {
+    UUID id = UUID.randomUUID();
+    return TestDataFactory.createUserDto(id, "User " + id, id + "@example.com", null);
+  }
+}
@@ -0,0 +1,207 @@
+package doodle.qa.com.svcuserqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.exception.UserNotFoundException;
+import doodle.qa.com.svcuserqa.service.UserCache;
+import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Unit tests for the UserCache. */
+class UserCacheTest {
+
+  private static final int MAX_SIZE = 2;
+
+  private SimpleMeterRegistry meterRegistry;
+  private UserCache userCache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    userCache = new UserCache(meterRegistry, true, MAX_SIZE, Duration.ofMinutes(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Should load a user once and count the hit and the miss")
+  void get_WhenCalledTwice_ShouldLoadOnce() {
+    // Given
+    UserDto user = user(1L);
+
+    // When
+    userCache.get(user.getId(), () -> load(user));
+    UserDto cached = userCache.get(user.getId(), () -> load(user));
+
+    // Then
+    assertThat(cached).isEqualTo(user).isNotSameAs(user);
+    assertThat(loads).hasValue(1);
+    assertThat(count("cache.gets", "hit")).isEqualTo(1.0);
+    assertThat(count("cache.gets", "miss")).isEqualTo(1.0);
+    assertThat(userCache.getVersion(user.getId())).hasValue(1L);
+  }
+
+  @Test
+  @DisplayName("Should not let callers modify the cached user")
+  void get_WhenResultIsModified_ShouldKeepCachedUser() {
+    // Given
+    UserDto user = user(1L);
+    userCache.get(user.getId(), () -> load(user));
+
+    // When
+    userCache.get(user.getId(), () -> load(user)).getCalendarIds().clear();
+
+    // Then
+    assertThat(userCache.get(user.getId(), () -> load(user)).getCalendarIds()).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("Should propagate loader exceptions without caching anything")
+  void get_WhenLoaderFails_ShouldNotCache() {
+    // Given
+    UUID userId = UUID.randomUUID();
+
+    // When/Then
+    assertThrows(
+        UserNotFoundException.class,
+        () ->
+            userCache.get(
+                userId,
+                () -> {
+                  throw new UserNotFoundException(userId);
+                }));
+    assertThat(userCache.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should evict a user when the cache is full")
+  void get_WhenCacheIsFull_ShouldEvictUser() {
+    // Given
+    UserDto first = user(1L);
+    UserDto second = user(1L);
+    UserDto third = user(1L);
+    userCache.get(first.getId(), () -> load(first));
+    userCache.get(second.getId(), () -> load(second));
+    userCache.get(first.getId(), () -> load(first));
+
+    // When
+    userCache.get(third.getId(), () -> load(third));
+
+    // Then
+    assertThat(userCache.size()).isEqualTo(MAX_SIZE);
+    assertThat(userCache.getVersion(third.getId())).isPresent();
+    assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("Should load a user again once its entry expired")
+  void get_WhenEntryExpired_ShouldReload() {
+    // Given
+    meterRegistry = new SimpleMeterRegistry();
+    userCache = new UserCache(meterRegistry, true, 10, Duration.ZERO);
+    UserDto user = user(1L);
+    userCache.get(user.getId(), () -> load(user));
+
+    // When
+    userCache.get(user.getId(), () -> load(user));
+
+    // Then
+    assertThat(loads).hasValue(2);
+    assertThat(userCache.size()).isZero();
+    assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(2.0);
+  }
+
+  @Test
+  @DisplayName("Should not cache a user that was invalidated while it was loaded")
+  void get_WhenInvalidatedDuringLoad_ShouldNotCacheLoadedUser() {
+    // Given
+    UserDto stale = user(1L);
+
+    // When
+    UserDto result =
+        userCache.get(
+            stale.getId(),
+            () -> {
+              userCache.invalidate(stale.getId());
+              return load(stale);
+            });
+
+    // Then
+    assertThat(result).isEqualTo(stale);
+    assertThat(userCache.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should invalidate a user only once the transaction has completed")
+  void invalidateAfterCompletion_WithTransaction_ShouldInvalidateAfterCompletion() {
+    // Given
+    UserDto user = user(1L);
+    userCache.get(user.getId(), () -> load(user));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // When
+    userCache.invalidateAfterCompletion(user.getId());
+
+    // Then
+    assertThat(userCache.getVersion(user.getId())).isPresent();
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(
+        synchronization ->
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    assertThat(userCache.getVersion(user.getId())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Should pass every lookup to the loader when the cache is disabled")
+  void get_WhenDisabled_ShouldAlwaysLoad() {
+    // Given
+    userCache = new UserCache(new SimpleMeterRegistry(), false, 10, Duration.ofMinutes(1));
+    UserDto user = user(1L);
+
+    // When
+    userCache.get(user.getId(), () -> load(user));
+    userCache.get(user.getId(), () -> load(user));
+
+    // Then
+    assertThat(loads).hasValue(2);
+    assertThat(userCache.getVersion(user.getId())).isEmpty();
+  }
+
+  private UserDto load(UserDto user) {
+    loads.incrementAndGet();
+    return user;
+  }
+
+  private double count(String name, String result) {
+    return meterRegistry.get(name).tag("result", result).functionCounter().count();
+  }
+
+  private static UserDto user(long version) {
+    UUID id = UUID.randomUUID();
+    return TestDataFactory.createUserDto(
+        id,
+        "User " + id,
+        id + "@example.com",
+        List.of(UUID.randomUUID(), UUID.randomUUID()),
+        version);
+  }
+}
@@ -0,0 +1,293 @@
+package doodle.qa.com.svcuserqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import doodle.qa.com.svcuserqa.dto.UserBatchGetResultDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkResultDto;
+import doodle.qa.com.svcuserqa.dto.UserDto;
+import doodle.qa.com.svcuserqa.dto.UserPageDto;
+import doodle.qa.com.svcuserqa.entity.User;
+import doodle.qa.com.svcuserqa.kafka.UserStateProducer;
+import doodle.qa.com.svcuserqa.repository.UserRepository;
+import doodle.qa.com.svcuserqa.service.UserCache;
+import doodle.qa.com.svcuserqa.service.UserService;
+import doodle.qa.com.svcuserqa.service.UserWriteLock;
+import doodle.qa.com.svcuserqa.util.QueryCounter;
+import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Query count tests for the UserService. The statements of the read paths must not grow with the
+ * number of users returned, and calendar mutations must write only the affected row; these tests
+ * fail the build if they regress.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserServiceQueryCountTest {
+
+  /** Page query, count query and one batch load of the page's calendar IDs. */
+  private static final int MAX_STATEMENTS_PER_PAGE = 3;
+
+  /** User query and one batch load of the calendar IDs. */
+  private static final int MAX_STATEMENTS_PER_LIST = 2;
+
+  /** Page query without a count and one batch load of the page's calendar IDs. */
+  private static final int MAX_STATEMENTS_PER_COUNT_FREE_PAGE = 2;
+
+  /**
+   * Select of the user, select of its calendar IDs, the single INSERT or DELETE of the calendar row
+   * and the version increment of the user.
+   */
+  private static final int STATEMENTS_PER_CALENDAR_MUTATION = 4;
+
+  /**
+   * Select of the user, select of its calendar IDs, one DELETE and one INSERT statement batching
+   * all changed calendar rows and the version increment of the user.
+   */
+  private static final int STATEMENTS_PER_CALENDAR_CHANGES = 5;
+
+  /** Users and their calendar IDs in one query. */
+  private static final int STATEMENTS_PER_BATCH_GET = 1;
+
+  /** Email lookup and one insert batch each for the users and their calendar IDs. */
+  private static final int MAX_STATEMENTS_PER_BULK_CREATE = 3;
+
+  private static final int USERS = 50;
+  private static final int PAGE_SIZE = 20;
+
+  @Autowired private UserRepository userRepository;
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private UserService userService;
+  private QueryCounter queryCounter;
+  private final List<User> users = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    userService =
+        new UserService(
+            userRepository,
+            mock(UserStateProducer.class),
+            new UserCache(new SimpleMeterRegistry(), true, USERS, Duration.ofMinutes(1)),
+            new UserWriteLock(
+                new SimpleMeterRegistry(), UserWriteLock.Mode.NONE, Duration.ofSeconds(1)));
+    queryCounter = new QueryCounter(entityManagerFactory);
+
+    for (int i = 0; i < USERS; i++) {
+      users.add(
+          userRepository.save(
+              TestDataFactory.createUser(
+                  "User " + i,
+                  "user" + i + "@example.com",
+                  List.of(UUID.randomUUID(), UUID.randomUUID()))));
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  @DisplayName(
+      "Should load a page of users with their calendar IDs in a constant number of queries")
+  void getAllUsers_WithPageable_ShouldNotIssueQueryPerUser() {
+    // When
+    Page<UserDto> page =
+        queryCounter.assertAtMost(
+            MAX_STATEMENTS_PER_PAGE, () -> userService.getAllUsers(PageRequest.of(0, PAGE_SIZE)));
+
+    // Then
+    assertThat(page.getContent()).hasSize(PAGE_SIZE);
+    assertThat(page.getContent()).allMatch(user -> user.getCalendarIds().size() == 2);
+  }
+
+  @Test
+  @DisplayName("Should load all users with their calendar IDs in a constant number of queries")
+  void getAllUsers_ShouldNotIssueQueryPerUser() {
+    // When
+    List<UserDto> users =
+        queryCounter.assertAtMost(MAX_STATEMENTS_PER_LIST, () -> userService.getAllUsers());
+
+    // Then
+    assertThat(users).hasSize(USERS);
+    assertThat(users).allMatch(user -> user.getCalendarIds().size() == 2);
+  }
+
+  @Test
+  @DisplayName("Should load a slice of users without counting all users")
+  void getUserSlice_WithPageable_ShouldNotCountUsers() {
+    // When
+    Slice<UserDto> slice =
+        queryCounter.assertAtMost(
+            MAX_STATEMENTS_PER_COUNT_FREE_PAGE,
+            () -> userService.getUserSlice(PageRequest.of(0, PAGE_SIZE)));
+
+    // Then
+    assertThat(slice.getContent()).hasSize(PAGE_SIZE);
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should walk all users in ID order with keyset pages of constant cost")
+  void getUserPage_WhenFollowingCursor_ShouldReturnEveryUserOnce() {
+    // Given
+    List<UUID> seen = new ArrayList<>();
+    UUID afterId = null;
+    UserPageDto page;
+
+    // When
+    do {
+      UUID cursor = afterId;
+      page =
+          queryCounter.assertAtMost(
+              MAX_STATEMENTS_PER_COUNT_FREE_PAGE, () -> userService.getUserPage(cursor, PAGE_SIZE));
+      page.getUsers().forEach(user -> seen.add(user.getId()));
+      afterId = page.getNextId();
+    } while (page.isHasMore());
+
+    // Then
+    assertThat(seen)
+        .hasSize(USERS)
+        .doesNotHaveDuplicates()
+        .containsExactlyInAnyOrderElementsOf(users.stream().map(User::getId).toList());
+    assertThat(page.getUsers()).hasSize(USERS % PAGE_SIZE);
+  }
+
+  @Test
+  @DisplayName("Should get many users with their calendar IDs in one query")
+  void getUsersByIds_ShouldIssueSingleQuery() {
+    // Given
+    List<UUID> ids = new ArrayList<>(users.stream().map(User::getId).toList());
+    UUID missingId = UUID.randomUUID();
+    ids.add(missingId);
+
+    // When
+    UserBatchGetResultDto result =
+        queryCounter.assertExactly(STATEMENTS_PER_BATCH_GET, () -> userService.getUsersByIds(ids));
+
+    // Then
+    assertThat(result.getUsers()).hasSize(USERS);
+    assertThat(result.getUsers()).allMatch(user -> user.getCalendarIds().size() == 2);
+    assertThat(result.getMissingIds()).containsExactly(missingId);
+  }
+
+  @Test
+  @DisplayName("Should create users in bulk with batched inserts")
+  void createUsers_ShouldInsertInBatches() {
+    // Given
+    List<UserDto> userDtos = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      userDtos.add(
+          TestDataFactory.createUserDto(
+              "Bulk User " + i,
+              "bulk" + i + "@example.com",
+              List.of(UUID.randomUUID(), UUID.randomUUID())));
+    }
+
+    // When
+    UserBulkResultDto result =
+        queryCounter.assertAtMost(
+            MAX_STATEMENTS_PER_BULK_CREATE, () -> userService.createUsers(userDtos));
+
+    // Then
+    assertThat(result.getCreated()).isEqualTo(USERS);
+    entityManager.clear();
+    assertThat(userRepository.count()).isEqualTo(2L * USERS);
+  }
+
+  @Test
+  @DisplayName("Should insert only the added calendar row when adding a calendar to a user")
+  void addCalendarToUser_ShouldInsertSingleRow() {
+    // Given
+    UUID userId = users.get(0).getId();
+    UUID calendarId = UUID.randomUUID();
+
+    // When
+    UserDto user =
+        queryCounter.assertExactly(
+            STATEMENTS_PER_CALENDAR_MUTATION,
+            () -> {
+              UserDto result = userService.addCalendarToUser(userId, calendarId);
+              entityManager.flush();
+              return result;
+            });
+
+    // Then
+    assertThat(user.getCalendarIds()).hasSize(3).contains(calendarId);
+    entityManager.clear();
+    assertThat(userRepository.findById(userId).orElseThrow().getCalendarIds()).contains(calendarId);
+  }
+
+  @Test
+  @DisplayName("Should delete only the removed calendar row when removing a calendar from a user")
+  void removeCalendarFromUser_ShouldDeleteSingleRow() {
+    // Given
+    User existing = users.get(0);
+    UUID calendarId = existing.getCalendarIds().iterator().next();
+
+    // When
+    UserDto user =
+        queryCounter.assertExactly(
+            STATEMENTS_PER_CALENDAR_MUTATION,
+            () -> {
+              UserDto result = userService.removeCalendarFromUser(existing.getId(), calendarId);
+              entityManager.flush();
+              return result;
+            });
+
+    // Then
+    assertThat(user.getCalendarIds()).hasSize(1).doesNotContain(calendarId);
+    entityManager.clear();
+    assertThat(userRepository.findById(existing.getId()).orElseThrow().getCalendarIds())
+        .hasSize(1)
+        .doesNotContain(calendarId);
+  }
+
+  @Test
+  @DisplayName("Should change many calendars of a user in a constant number of statements")
+  void changeUserCalendars_ShouldWriteUserOnce() {
+    // Given
+    User existing = users.get(0);
+    UUID removedCalendarId = existing.getCalendarIds().iterator().next();
+    Set<UUID> addedCalendarIds = new LinkedHashSet<>();
+    for (int i = 0; i < 5; i++) {
+      addedCalendarIds.add(UUID.randomUUID());
+    }
+
+    // When
+    UserDto user =
+        queryCounter.assertExactly(
+            STATEMENTS_PER_CALENDAR_CHANGES,
+            () -> {
+              UserDto result =
+                  userService.changeUserCalendars(
+                      existing.getId(), addedCalendarIds, Set.of(removedCalendarId));
+              entityManager.flush();
+              return result;
+            });
+
+    // Then
+    assertThat(user.getCalendarIds()).hasSize(6).doesNotContain(removedCalendarId);
+    entityManager.clear();
+    assertThat(userRepository.findById(existing.getId()).orElseThrow().getCalendarIds())
+        .hasSize(6)
+        .containsAll(addedCalendarIds);
+  }
+}
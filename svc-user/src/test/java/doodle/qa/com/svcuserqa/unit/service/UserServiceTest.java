@@ -3,22 +3,32 @@ package doodle.qa.com.svcuserqa.unit.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 import com.example.svcuser.avro.EventType;
+import doodle.qa.com.svcuserqa.dto.UserBatchGetResultDto;
+import doodle.qa.com.svcuserqa.dto.UserBulkResultDto;
 import doodle.qa.com.svcuserqa.dto.UserDto;
 import doodle.qa.com.svcuserqa.entity.User;
 import doodle.qa.com.svcuserqa.exception.CalendarAlreadyExistsException;
 import doodle.qa.com.svcuserqa.exception.CalendarLimitExceededException;
 import doodle.qa.com.svcuserqa.exception.CalendarNotFoundException;
+import doodle.qa.com.svcuserqa.exception.ConcurrentModificationException;
 import doodle.qa.com.svcuserqa.exception.UserNotFoundException;
 import doodle.qa.com.svcuserqa.kafka.UserStateProducer;
 import doodle.qa.com.svcuserqa.repository.UserRepository;
+import doodle.qa.com.svcuserqa.service.UserCache;
 import doodle.qa.com.svcuserqa.service.UserService;
+import doodle.qa.com.svcuserqa.service.UserWriteLock;
 import doodle.qa.com.svcuserqa.util.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,6 +37,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 /**
  * Unit tests for the UserService. These tests verify the business logic in the service layer using
@@ -43,7 +54,15 @@ class UserServiceTest {
 
   @BeforeEach
   void setUp() {
-    userService = new UserService(userRepository, userStateProducer);
+    UserCache userCache =
+        new UserCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1));
+    userService =
+        new UserService(
+            userRepository,
+            userStateProducer,
+            userCache,
+            new UserWriteLock(
+                new SimpleMeterRegistry(), UserWriteLock.Mode.NONE, Duration.ofSeconds(1)));
   }
 
   @Test
@@ -51,14 +70,14 @@ class UserServiceTest {
   void getAllUsers_ShouldReturnAllUsers() {
     // Given
     List<User> users = TestDataFactory.createUserList(3);
-    when(userRepository.findAll()).thenReturn(users);
+    when(userRepository.findAllReadOnly()).thenReturn(users);
 
     // When
     List<UserDto> result = userService.getAllUsers();
 
     // Then
     assertThat(result).hasSize(3);
-    verify(userRepository).findAll();
+    verify(userRepository).findAllReadOnly();
   }
 
   @Test
@@ -67,7 +86,7 @@ class UserServiceTest {
     // Given
     UUID userId = UUID.randomUUID();
     User user = TestDataFactory.createUser(userId, "Test User", "test@example.com", null);
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    when(userRepository.findReadOnlyById(userId)).thenReturn(Optional.of(user));
 
     // When
     UserDto result = userService.getUserById(userId);
@@ -76,7 +95,7 @@ class UserServiceTest {
     assertThat(result.getId()).isEqualTo(userId);
     assertThat(result.getName()).isEqualTo("Test User");
     assertThat(result.getEmail()).isEqualTo("test@example.com");
-    verify(userRepository).findById(userId);
+    verify(userRepository).findReadOnlyById(userId);
   }
 
   @Test
@@ -84,11 +103,103 @@ class UserServiceTest {
   void getUserById_WhenUserDoesNotExist_ShouldThrowUserNotFoundException() {
     // Given
     UUID userId = UUID.randomUUID();
-    when(userRepository.findById(userId)).thenReturn(Optional.empty());
+    when(userRepository.findReadOnlyById(userId)).thenReturn(Optional.empty());
 
     // When/Then
     assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
-    verify(userRepository).findById(userId);
+    verify(userRepository).findReadOnlyById(userId);
+  }
+
+  @Test
+  @DisplayName("Should serve a user from the cache when getting it again")
+  void getUserById_WhenUserIsCached_ShouldNotQueryRepository() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    User user = TestDataFactory.createUser(userId, "Test User", "test@example.com", null);
+    user.setVersion(3L);
+    when(userRepository.findReadOnlyById(userId)).thenReturn(Optional.of(user));
+    userService.getUserById(userId);
+
+    // When
+    UserDto result = userService.getUserById(userId);
+    long version = userService.getUserVersion(userId);
+
+    // Then
+    assertThat(result.getName()).isEqualTo("Test User");
+    assertThat(version).isEqualTo(3L);
+    verify(userRepository, times(1)).findReadOnlyById(userId);
+    verify(userRepository, never()).findVersionById(userId);
+  }
+
+  @Test
+  @DisplayName("Should load a user again after it was updated")
+  void getUserById_AfterUpdate_ShouldReloadUser() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    User user = TestDataFactory.createUser(userId, "Original User", "original@example.com", null);
+    User updatedUser =
+        TestDataFactory.createUser(userId, "Updated User", "updated@example.com", null);
+    when(userRepository.findReadOnlyById(userId))
+        .thenReturn(Optional.of(user), Optional.of(updatedUser));
+    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+    userService.getUserById(userId);
+
+    // When
+    userService.updateUser(
+        userId, TestDataFactory.createUserDto(userId, "Updated User", "updated@example.com", null));
+    UserDto result = userService.getUserById(userId);
+
+    // Then
+    assertThat(result.getName()).isEqualTo("Updated User");
+    verify(userRepository, times(2)).findReadOnlyById(userId);
+  }
+
+  @Test
+  @DisplayName("Should return users in request order and report missing IDs")
+  void getUsersByIds_WithMissingAndRepeatedIds_ShouldKeepRequestOrder() {
+    // Given
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+    UUID missingId = UUID.randomUUID();
+    User first = TestDataFactory.createUser(firstId, "First User", "first@example.com", null);
+    User second = TestDataFactory.createUser(secondId, "Second User", "second@example.com", null);
+    when(userRepository.findReadOnlyByIdIn(anyCollection())).thenReturn(List.of(first, second));
+
+    // When
+    UserBatchGetResultDto result =
+        userService.getUsersByIds(List.of(secondId, missingId, firstId, secondId));
+
+    // Then
+    assertThat(result.getUsers()).extracting(UserDto::getId).containsExactly(secondId, firstId);
+    assertThat(result.getMissingIds()).containsExactly(missingId);
+    verify(userRepository).findReadOnlyByIdIn(Set.of(firstId, secondId, missingId));
+  }
+
+  @Test
+  @DisplayName("Should return user version without loading the user")
+  void getUserVersion_WhenUserExists_ShouldReturnVersion() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    when(userRepository.findVersionById(userId)).thenReturn(Optional.of(2L));
+
+    // When
+    long result = userService.getUserVersion(userId);
+
+    // Then
+    assertThat(result).isEqualTo(2L);
+    verify(userRepository, never()).findById(userId);
+  }
+
+  @Test
+  @DisplayName("Should throw UserNotFoundException when getting version of user that doesn't exist")
+  void getUserVersion_WhenUserDoesNotExist_ShouldThrowUserNotFoundException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    when(userRepository.findVersionById(userId)).thenReturn(Optional.empty());
+
+    // When/Then
+    assertThrows(UserNotFoundException.class, () -> userService.getUserVersion(userId));
   }
 
   @Test
@@ -117,6 +228,65 @@ class UserServiceTest {
     verify(userStateProducer).sendUserState(savedUser, EventType.CREATED);
   }
 
+  @Test
+  @DisplayName("Should create new users in bulk and skip existing or repeated emails")
+  void createUsers_WithExistingAndRepeatedEmails_ShouldSkipThem() {
+    // Given
+    List<UserDto> userDtos =
+        List.of(
+            TestDataFactory.createUserDto("New User", "new@example.com"),
+            TestDataFactory.createUserDto("Existing User", "existing@example.com"),
+            TestDataFactory.createUserDto("Repeated User", "new@example.com"),
+            TestDataFactory.createUserDto("Other User", "other@example.com"));
+    when(userRepository.findEmailsByEmailIn(anyCollection()))
+        .thenReturn(List.of("existing@example.com"));
+    when(userRepository.saveAllAndFlush(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<User> users = invocation.getArgument(0);
+              users.forEach(user -> user.setId(UUID.randomUUID()));
+              return users;
+            });
+
+    // When
+    UserBulkResultDto result = userService.createUsers(userDtos);
+
+    // Then
+    assertThat(result.getCreated()).isEqualTo(2);
+    assertThat(result.getSkipped()).isEqualTo(2);
+    assertThat(result.getResults())
+        .extracting(UserBulkResultDto.Row::getStatus)
+        .containsExactly(
+            UserBulkResultDto.Status.CREATED,
+            UserBulkResultDto.Status.EMAIL_EXISTS,
+            UserBulkResultDto.Status.DUPLICATE_IN_REQUEST,
+            UserBulkResultDto.Status.CREATED);
+    assertThat(result.getResults().get(0).getId()).isNotNull();
+    assertThat(result.getResults().get(1).getId()).isNull();
+
+    ArgumentCaptor<List<User>> usersCaptor = ArgumentCaptor.forClass(List.class);
+    verify(userRepository).saveAllAndFlush(usersCaptor.capture());
+    assertThat(usersCaptor.getValue())
+        .extracting(User::getEmail)
+        .containsExactly("new@example.com", "other@example.com");
+    verify(userStateProducer).sendUserStates(usersCaptor.getValue(), EventType.CREATED);
+    verify(userRepository, never()).existsByEmail(any());
+  }
+
+  @Test
+  @DisplayName("Should throw ConcurrentModificationException when an email is taken during import")
+  void createUsers_WhenEmailTakenConcurrently_ShouldThrowConcurrentModificationException() {
+    // Given
+    List<UserDto> userDtos = List.of(TestDataFactory.createUserDto("New User", "new@example.com"));
+    when(userRepository.findEmailsByEmailIn(anyCollection())).thenReturn(List.of());
+    when(userRepository.saveAllAndFlush(anyList()))
+        .thenThrow(new DataIntegrityViolationException("duplicate email"));
+
+    // When/Then
+    assertThrows(ConcurrentModificationException.class, () -> userService.createUsers(userDtos));
+    verify(userStateProducer, never()).sendUserStates(anyList(), any(EventType.class));
+  }
+
   @Test
   @DisplayName("Should update user and send Kafka message when updating user that exists")
   void updateUser_WhenUserExists_ShouldUpdateUserAndSendKafkaMessage() {
@@ -142,7 +312,65 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository).save(existingUser);
-    verify(userStateProducer).sendUserState(updatedUser, EventType.UPDATED);
+    verify(userStateProducer).sendUserState(updatedUser, EventType.UPDATED, Set.of(), Set.of());
+  }
+
+  @Test
+  @DisplayName("Should send the added and removed calendar IDs when updating a user's calendars")
+  void updateUser_WhenCalendarsChange_ShouldSendCalendarDelta() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID keptCalendarId = UUID.randomUUID();
+    UUID removedCalendarId = UUID.randomUUID();
+    UUID addedCalendarId = UUID.randomUUID();
+    User existingUser =
+        TestDataFactory.createUser(
+            userId, "User", "user@example.com", List.of(keptCalendarId, removedCalendarId));
+    UserDto userDto =
+        TestDataFactory.createUserDto(
+            userId, "User", "user@example.com", List.of(keptCalendarId, addedCalendarId));
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+    when(userRepository.save(any(User.class))).thenReturn(existingUser);
+
+    // When
+    userService.updateUser(userId, userDto);
+
+    // Then
+    assertThat(existingUser.getCalendarIds()).containsOnly(keptCalendarId, addedCalendarId);
+    verify(userRepository).flush();
+    verify(userStateProducer)
+        .sendUserState(
+            existingUser, EventType.UPDATED, Set.of(addedCalendarId), Set.of(removedCalendarId));
+  }
+
+  @Test
+  @DisplayName(
+      "Should lock the user row with the write lock timeout when adding a calendar in row lock mode")
+  void addCalendarToUser_WhenRowLockMode_ShouldLoadUserForUpdate() {
+    // Given
+    userService =
+        new UserService(
+            userRepository,
+            userStateProducer,
+            new UserCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1)),
+            new UserWriteLock(
+                new SimpleMeterRegistry(), UserWriteLock.Mode.ROW, Duration.ofSeconds(1)));
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    User existingUser = TestDataFactory.createUser(userId, "User", "user@example.com", null);
+
+    when(userRepository.findByIdForUpdate(userId)).thenReturn(Optional.of(existingUser));
+    when(userRepository.save(any(User.class))).thenReturn(existingUser);
+
+    // When
+    UserDto result = userService.addCalendarToUser(userId, calendarId);
+
+    // Then
+    assertThat(result.getCalendarIds()).containsExactly(calendarId);
+    verify(userRepository).setLockTimeout("1000");
+    verify(userRepository).findByIdForUpdate(userId);
+    verify(userRepository, never()).findById(any());
   }
 
   @Test
@@ -158,7 +386,8 @@ class UserServiceTest {
     assertThrows(UserNotFoundException.class, () -> userService.updateUser(userId, userDto));
     verify(userRepository).findById(userId);
     verify(userRepository, never()).save(any(User.class));
-    verify(userStateProducer, never()).sendUserState(any(User.class), any(EventType.class));
+    verify(userStateProducer, never())
+        .sendUserState(any(User.class), any(EventType.class), anyCollection(), anyCollection());
   }
 
   @Test
@@ -216,7 +445,8 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository).save(existingUser);
-    verify(userStateProducer).sendUserState(updatedUser, EventType.CALENDAR_ADDED);
+    verify(userStateProducer)
+        .sendUserState(updatedUser, EventType.CALENDAR_ADDED, List.of(calendarId), List.of());
   }
 
   @Test
@@ -266,7 +496,8 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository, never()).save(any(User.class));
-    verify(userStateProducer, never()).sendUserState(any(User.class), any(EventType.class));
+    verify(userStateProducer, never())
+        .sendUserState(any(User.class), any(EventType.class), anyCollection(), anyCollection());
   }
 
   @Test
@@ -295,7 +526,87 @@ class UserServiceTest {
 
     verify(userRepository).findById(userId);
     verify(userRepository).save(existingUser);
-    verify(userStateProducer).sendUserState(updatedUser, EventType.CALENDAR_REMOVED);
+    verify(userStateProducer)
+        .sendUserState(updatedUser, EventType.CALENDAR_REMOVED, List.of(), List.of(calendarId));
+  }
+
+  @Test
+  @DisplayName("Should add and remove calendars with one write and one Kafka message")
+  void changeUserCalendars_WithAdditionsAndRemovals_ShouldSaveOnceAndSendOneMessage() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID keptCalendarId = UUID.randomUUID();
+    UUID removedCalendarId = UUID.randomUUID();
+    Set<UUID> addedCalendarIds = Set.of(UUID.randomUUID(), UUID.randomUUID());
+    User existingUser =
+        TestDataFactory.createUser(
+            userId, "User", "user@example.com", List.of(keptCalendarId, removedCalendarId));
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+    when(userRepository.save(any(User.class))).thenReturn(existingUser);
+
+    // When
+    UserDto result =
+        userService.changeUserCalendars(userId, addedCalendarIds, Set.of(removedCalendarId));
+
+    // Then
+    assertThat(result.getCalendarIds())
+        .hasSize(3)
+        .contains(keptCalendarId)
+        .containsAll(addedCalendarIds)
+        .doesNotContain(removedCalendarId);
+    verify(userRepository).save(existingUser);
+    verify(userStateProducer)
+        .sendUserState(
+            existingUser, EventType.UPDATED, addedCalendarIds, Set.of(removedCalendarId));
+  }
+
+  @Test
+  @DisplayName("Should reject calendar changes that exceed the limit without writing anything")
+  void changeUserCalendars_WhenLimitExceeded_ShouldThrowCalendarLimitExceededException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    List<UUID> existingCalendarIds = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      existingCalendarIds.add(UUID.randomUUID());
+    }
+    User existingUser =
+        TestDataFactory.createUser(userId, "User", "user@example.com", existingCalendarIds);
+    Set<UUID> addedCalendarIds = Set.of(UUID.randomUUID(), UUID.randomUUID());
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+    // When/Then
+    assertThrows(
+        CalendarLimitExceededException.class,
+        () -> userService.changeUserCalendars(userId, addedCalendarIds, Set.of()));
+
+    assertThat(existingUser.getCalendarIds()).hasSize(9);
+    verify(userRepository, never()).save(any(User.class));
+    verify(userStateProducer, never())
+        .sendUserState(any(User.class), any(EventType.class), anyCollection(), anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should reject calendar changes removing a calendar the user does not have")
+  void changeUserCalendars_WhenCalendarToRemoveNotPresent_ShouldThrowCalendarNotFoundException() {
+    // Given
+    UUID userId = UUID.randomUUID();
+    UUID calendarId = UUID.randomUUID();
+    User existingUser =
+        TestDataFactory.createUser(userId, "User", "user@example.com", List.of(calendarId));
+
+    when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+    // When/Then
+    assertThrows(
+        CalendarNotFoundException.class,
+        () ->
+            userService.changeUserCalendars(
+                userId, Set.of(UUID.randomUUID()), Set.of(UUID.randomUUID())));
+
+    assertThat(existingUser.getCalendarIds()).containsExactly(calendarId);
+    verify(userRepository, never()).save(any(User.class));
   }
 
   @Test
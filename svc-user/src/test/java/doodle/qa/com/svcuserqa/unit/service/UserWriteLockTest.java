@@ -0,0 +1,154 @@
+package doodle.qa.com.svcuserqa.unit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import doodle.qa.com.svcuserqa.exception.ConcurrentModificationException;
+import doodle.qa.com.svcuserqa.service.UserWriteLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Unit tests for the UserWriteLock. */
+class UserWriteLockTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  @Test
+  @DisplayName("Should make a second writer wait until the first write has returned")
+  void execute_WhenUserIsLocked_ShouldWaitForFirstWrite() throws Exception {
+    // Given
+    UserWriteLock userWriteLock =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.STRIPED, Duration.ofSeconds(5));
+    UUID userId = UUID.randomUUID();
+    CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+    CompletableFuture<Void> firstWriter =
+        CompletableFuture.runAsync(
+            () ->
+                userWriteLock.execute(
+                    userId, () -> awaitRelease(firstWriteStarted, releaseFirstWrite)));
+    assertThat(firstWriteStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    CompletableFuture<String> secondWriter =
+        CompletableFuture.supplyAsync(() -> userWriteLock.execute(userId, () -> "second"));
+
+    // Then
+    Thread.sleep(100);
+    assertThat(secondWriter).isNotDone();
+    releaseFirstWrite.countDown();
+    firstWriter.get(5, TimeUnit.SECONDS);
+    assertThat(secondWriter.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    assertThat(meterRegistry.get("user.write.lock.wait").timer().count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should throw ConcurrentModificationException when the lock is not acquired in time")
+  void execute_WhenTimeoutElapses_ShouldThrowConcurrentModificationException() throws Exception {
+    // Given
+    UserWriteLock userWriteLock =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.STRIPED, Duration.ofMillis(50));
+    UUID userId = UUID.randomUUID();
+    CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+    CompletableFuture<Void> firstWriter =
+        CompletableFuture.runAsync(
+            () ->
+                userWriteLock.execute(
+                    userId, () -> awaitRelease(firstWriteStarted, releaseFirstWrite)));
+    assertThat(firstWriteStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When/Then
+    try {
+      assertThrows(
+          ConcurrentModificationException.class,
+          () -> userWriteLock.execute(userId, () -> "second"));
+    } finally {
+      releaseFirstWrite.countDown();
+      firstWriter.get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  @DisplayName("Should run the write directly when the mode is none or row")
+  void execute_WhenNotStriped_ShouldRunWriteDirectly() {
+    // Given
+    UserWriteLock none =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.NONE, Duration.ofSeconds(1));
+    UserWriteLock row =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.ROW, Duration.ofSeconds(1));
+
+    // When
+    String noneResult = none.execute(UUID.randomUUID(), () -> "none");
+    String rowResult = row.execute(UUID.randomUUID(), () -> "row");
+
+    // Then
+    assertThat(noneResult).isEqualTo("none");
+    assertThat(rowResult).isEqualTo("row");
+    assertThat(none.isRowLock()).isFalse();
+    assertThat(row.isRowLock()).isTrue();
+    assertThat(meterRegistry.get("user.write.lock.wait").timer().count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Should throw ConcurrentModificationException when the row is not locked in time")
+  void execute_WhenRowLockTimesOut_ShouldThrowConcurrentModificationException() {
+    // Given
+    UserWriteLock userWriteLock =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.ROW, Duration.ofMillis(50));
+    CannotAcquireLockException lockTimeout =
+        new CannotAcquireLockException("canceling statement due to lock timeout");
+
+    // When
+    ConcurrentModificationException exception =
+        assertThrows(
+            ConcurrentModificationException.class,
+            () ->
+                userWriteLock.execute(
+                    UUID.randomUUID(),
+                    () -> {
+                      throw lockTimeout;
+                    }));
+
+    // Then
+    assertThat(exception).hasCause(lockTimeout);
+    assertThat(userWriteLock.getTimeout()).isEqualTo(Duration.ofMillis(50));
+  }
+
+  @Test
+  @DisplayName("Should refuse a striped lock inside a transaction")
+  void execute_InsideTransaction_ShouldThrowIllegalStateException() {
+    // Given
+    UserWriteLock userWriteLock =
+        new UserWriteLock(meterRegistry, UserWriteLock.Mode.STRIPED, Duration.ofSeconds(1));
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    // When/Then
+    assertThrows(
+        IllegalStateException.class, () -> userWriteLock.execute(UUID.randomUUID(), () -> "write"));
+  }
+
+  private static Void awaitRelease(CountDownLatch started, CountDownLatch release) {
+    started.countDown();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,60 @@
+package doodle.qa.com.svcuserqa.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while running a piece of code, so tests can pin the
+ * number of queries of a read path and fail when it regresses, e.g. to N+1 loading. Requires
+ * hibernate.generate_statistics to be enabled for the test context.
+ */
+public final class QueryCounter {
+
+  private final Statistics statistics;
+
+  public QueryCounter(EntityManagerFactory entityManagerFactory) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    assertThat(statistics.isStatisticsEnabled())
+        .as("hibernate.generate_statistics must be enabled to count queries")
+        .isTrue();
+  }
+
+  /**
+   * Run an action and assert that it prepared at most the given number of statements.
+   *
+   * @param maxStatements the maximum number of statements
+   * @param action the action to run
+   * @param <T> the result type of the action
+   * @return the result of the action
+   */
+  public <T> T assertAtMost(long maxStatements, Supplier<T> action) {
+    statistics.clear();
+    T result = action.get();
+    long statements = statistics.getPrepareStatementCount();
+    assertThat(statements)
+        .as("Statements prepared (queries: %s)", String.join(", ", statistics.getQueries()))
+        .isLessThanOrEqualTo(maxStatements);
+    return result;
+  }
+
+  /**
+   * Run an action and assert that it prepared exactly the given number of statements.
+   *
+   * @param statements the expected number of statements
+   * @param action the action to run
+   * @param <T> the result type of the action
+   * @return the result of the action
+   */
+  public <T> T assertExactly(long statements, Supplier<T> action) {
+    statistics.clear();
+    T result = action.get();
+    assertThat(statistics.getPrepareStatementCount())
+        .as("Statements prepared (queries: %s)", String.join(", ", statistics.getQueries()))
+        .isEqualTo(statements);
+    return result;
+  }
+}
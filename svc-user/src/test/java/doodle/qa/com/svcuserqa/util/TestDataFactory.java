@@ -4,6 +4,7 @@ import doodle.qa.com.svcuserqa.dto.UserDto;
 import doodle.qa.com.svcuserqa.entity.User;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,7 +30,7 @@ public class TestDataFactory {
         .id(id)
         .name(name)
         .email(email)
-        .calendarIds(calendarIds != null ? calendarIds : new ArrayList<>())
+        .calendarIds(calendarIds != null ? new LinkedHashSet<>(calendarIds) : new LinkedHashSet<>())
         .version(version)
         .build();
   }
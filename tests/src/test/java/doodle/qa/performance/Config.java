@@ -13,10 +13,14 @@ public class Config {
 
     private final String userBaseUrl;
     private final String userBasePath;
+    private final String calendarBaseUrl;
+    private final String providerBaseUrl;
 
     public Config() {
         this.userBaseUrl = System.getProperty("api.userBaseURL", "http://localhost:8080");
         this.userBasePath = System.getProperty("api.userBasePath", "/api/users");
+        this.calendarBaseUrl = System.getProperty("api.calendarBaseURL", "http://localhost:8082");
+        this.providerBaseUrl = System.getProperty("api.providerBaseURL", "http://localhost:8083");
     }
 
     public HttpProtocolBuilder httpProtocol() {
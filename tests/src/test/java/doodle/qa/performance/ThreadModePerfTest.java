@@ -0,0 +1,92 @@
+package doodle.qa.performance;
+
+import com.google.gson.Gson;
+import doodle.qa.api.regression.config.Requests.CalendarRequestBody;
+import doodle.qa.api.regression.config.Requests.UserRequestBody;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Compares the platform-thread and virtual-thread execution modes of the services.
+ * Every request to /meeting/slots blocks on JDBC in svc-calendar and on the provider call,
+ * so throughput is bounded by the request thread pool in platform-thread mode.
+ *
+ * Run it once per mode against the same data set, e.g.
+ * {@code THREADS_VIRTUAL_ENABLED=false docker compose up -d} and
+ * {@code JAVA_RUNTIME_VERSION=21 THREADS_VIRTUAL_ENABLED=true docker compose up -d},
+ * passing {@code -Dperf.threadMode=platform|virtual} so the reports can be told apart.
+ */
+public class ThreadModePerfTest extends Simulation {
+
+    private static final Gson GSON = new Gson();
+    Config config = new Config();
+
+    private final String threadMode = System.getProperty("perf.threadMode", "platform");
+    private final int usersPerSec = Integer.getInteger("perf.usersPerSec", 200);
+    private final int durationSec = Integer.getInteger("perf.durationSec", 60);
+    private final int requestsPerUser = Integer.getInteger("perf.requestsPerUser", 20);
+
+    HttpProtocolBuilder httpProtocol = config.httpProtocol();
+
+    private final LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    private final LocalDateTime to = from.plusDays(1);
+
+    // =============================
+    // Slots lookup under load
+    // =============================
+    ScenarioBuilder slotsLookup = scenario("Available Slots - " + threadMode + " threads")
+            .exec(
+                    http("Create Provider Calendar")
+                            .post(config.getProviderBaseUrl() + "/api/calendars")
+                            .body(StringBody(session -> GSON.toJson(CalendarRequestBody.builder()
+                                    .name("Perf Calendar " + UUID.randomUUID())
+                                    .build())))
+                            .check(status().is(201))
+                            .check(jsonPath("$.id").saveAs("calendarId"))
+            )
+            .exec(
+                    http("Create User With Calendar")
+                            .post(config.getUserBasePath())
+                            .body(StringBody(session -> GSON.toJson(UserRequestBody.withDefaults()
+                                    .calendarIds(List.of(session.getString("calendarId")))
+                                    .build())))
+                            .check(status().is(201))
+                            .check(jsonPath("$.id").saveAs("userId"))
+            )
+            // Wait for svc-calendar to consume the user-state event
+            .pause(3)
+            .repeat(requestsPerUser).on(
+                    exec(
+                            http("Get Available Slots")
+                                    .get(config.getCalendarBaseUrl() + "/meeting/slots")
+                                    .queryParam("userId", session -> session.getString("userId"))
+                                    .queryParam("calendarId", session -> session.getString("calendarId"))
+                                    .queryParam("from", from.toString())
+                                    .queryParam("to", to.toString())
+                                    .queryParam("slotDuration", 30)
+                                    .check(status().is(200))
+                    )
+            );
+
+    {
+        setUp(
+                slotsLookup.injectOpen(
+                        rampUsersPerSec(1).to(usersPerSec).during(durationSec / 2),
+                        constantUsersPerSec(usersPerSec).during(durationSec / 2)
+                )
+        )
+                .protocols(httpProtocol)
+                .assertions(
+                        global().successfulRequests().percent().gt(99.0)
+                );
+    }
+}
@@ -0,0 +1,128 @@
+package doodle.qa.performance;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import doodle.qa.api.regression.config.Requests.UserRequestBody;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Compares the write serialization modes of svc-user under contention. Many virtual users add
+ * and remove calendars on a few shared users, so with {@code none} most writes collide on the
+ * version check and back off in retries, while {@code striped} and {@code row} queue them.
+ * Requests answered with 409 are counted as failed, so the report shows conflicts next to the
+ * response time percentiles.
+ *
+ * Each shared user has a fixed set of calendar slots, at most its calendar limit. A virtual user
+ * borrows a slot, adds and removes the slot's calendar and returns the slot, and the injection is
+ * closed at one virtual user per slot. Users therefore never exceed the calendar limit, so no 400
+ * is mixed into the conflicts. A remove that failed leaves the calendar behind, and the next add
+ * on that slot is then answered with 409 too.
+ *
+ * Run it once per mode against the same data set, e.g.
+ * {@code USER_WRITE_LOCK_MODE=none docker compose up -d}, passing
+ * {@code -Dperf.writeLock=none|striped|row} so the reports can be told apart.
+ */
+public class WriteLockPerfTest extends Simulation {
+
+    private static final Gson GSON = new Gson();
+    Config config = new Config();
+
+    private final String writeLock = System.getProperty("perf.writeLock", "none");
+    // Calendar limit of a user in svc-user
+    private static final int MAX_CALENDARS_PER_USER = 10;
+
+    private final int sharedUsers = Integer.getInteger("perf.sharedUsers", 10);
+    private final int writersPerUser =
+            Math.min(Integer.getInteger("perf.writersPerUser", 9), MAX_CALENDARS_PER_USER);
+    private final int durationSec = Integer.getInteger("perf.durationSec", 60);
+    private final int requestsPerUser = Integer.getInteger("perf.requestsPerUser", 5);
+
+    HttpProtocolBuilder httpProtocol = config.httpProtocol();
+
+    // Free (userId, calendarId) slots, filled in before()
+    private final Queue<Map<String, Object>> slots = new ConcurrentLinkedQueue<>();
+
+    // =============================
+    // Calendar changes on shared users
+    // =============================
+    ScenarioBuilder calendarChanges = scenario("Calendar Changes on Shared Users - " + writeLock + " lock")
+            .exec(session -> {
+                Map<String, Object> slot = slots.poll();
+                return slot != null ? session.setAll(slot) : session.markAsFailed();
+            })
+            .exitHereIfFailed()
+            .repeat(requestsPerUser).on(
+                    exec(
+                                    http("Add Calendar")
+                                            .post(session -> config.getUserBasePath() + "/" + session.getString("userId")
+                                                    + "/calendars/" + session.getString("calendarId"))
+                                            .check(status().is(200))
+                            )
+                            .exec(
+                                    http("Remove Calendar")
+                                            .delete(session -> config.getUserBasePath() + "/" + session.getString("userId")
+                                                    + "/calendars/" + session.getString("calendarId"))
+                                            .check(status().is(200))
+                            )
+            )
+            .exec(session -> {
+                slots.add(Map.of(
+                        "userId", session.getString("userId"),
+                        "calendarId", session.getString("calendarId")));
+                return session;
+            });
+
+    @Override
+    public void before() {
+        HttpClient client = HttpClient.newHttpClient();
+        for (int i = 0; i < sharedUsers; i++) {
+            String body = GSON.toJson(UserRequestBody.withDefaults().calendarIds(List.of()).build());
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(config.getUserBaseUrl() + config.getUserBasePath()))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("Could not create shared user: " + response.body());
+                }
+                String userId = JsonParser.parseString(response.body()).getAsJsonObject().get("id").getAsString();
+                for (int slot = 0; slot < writersPerUser; slot++) {
+                    slots.add(Map.of("userId", userId, "calendarId", UUID.randomUUID().toString()));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not create shared user", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while creating shared users", e);
+            }
+        }
+    }
+
+    {
+        setUp(
+                calendarChanges.injectClosed(
+                        rampConcurrentUsers(1).to(sharedUsers * writersPerUser).during(durationSec / 2),
+                        constantConcurrentUsers(sharedUsers * writersPerUser).during(durationSec / 2)
+                )
+        )
+                .protocols(httpProtocol);
+    }
+}